@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.auth;
+
+import com.microsoft.azure.AzureEnvironment;
+import com.microsoft.azure.auth.configuration.AuthConfiguration;
+import com.microsoft.azure.auth.configuration.AuthType;
+import com.microsoft.azure.auth.exception.AzureLoginFailureException;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds the credential of the auto auth type. The sources are probed at the same time and the first one in the order
+ * giving a credential wins. The winning source is remembered for the workspace, next time only it and the sources
+ * before it are probed. Logging in with the browser or device code is never probed, it is tried at last.
+ * A source not answering in time is taken as unavailable, the probes still running are interrupted once the source is
+ * found.
+ */
+class AuthSourceResolver {
+    private static final String THREAD_NAME = "azure-auth-probe-%d";
+    private static final String WORKSPACE = "maven.multiModuleProjectDirectory";
+    private static final List<AuthType> INTERACTIVE = Arrays.asList(AuthType.AZURE_AUTH_MAVEN_PLUGIN);
+    private static final long PROBE_TIMEOUT_IN_SECONDS = 30;
+    private static final AtomicInteger COUNT = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, String.format(THREAD_NAME, COUNT.incrementAndGet()));
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private AuthSourceResolver() {
+
+    }
+
+    static AzureTokenWrapper resolve(final AuthType[] order, final AuthConfiguration configuration, final AzureEnvironment environment) {
+        return resolve(order, authType -> probe(authType, configuration, environment));
+    }
+
+    static AzureTokenWrapper resolve(final AuthType[] order, final Probe probe) {
+        final String workspace = DigestUtils.sha256Hex(System.getProperty(WORKSPACE, System.getProperty("user.dir")));
+        final int remembered = Arrays.asList(order).indexOf(getRememberedSource(workspace));
+        final Map<AuthType, Future<AzureTokenWrapper>> probes = new EnumMap<>(AuthType.class);
+        for (int i = 0; i < order.length && (remembered < 0 || i <= remembered); i++) {
+            final AuthType authType = order[i];
+            if (!INTERACTIVE.contains(authType)) {
+                probes.put(authType, EXECUTOR.submit(() -> probe.getAzureToken(authType)));
+            }
+        }
+        try {
+            for (final AuthType authType : order) {
+                final AzureTokenWrapper result = probes.containsKey(authType) ?
+                        getResult(probes.get(authType)) : probe.getAzureToken(authType);
+                if (result != null) {
+                    rememberSource(workspace, authType);
+                    return result;
+                }
+            }
+            return null;
+        } finally {
+            // Interrupt the probes of the sources not needed any more
+            probes.values().forEach(future -> future.cancel(true));
+        }
+    }
+
+    private static AzureTokenWrapper getResult(final Future<AzureTokenWrapper> probe) {
+        try {
+            return probe.get(PROBE_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (TimeoutException e) {
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static AzureTokenWrapper probe(final AuthType authType, final AuthConfiguration configuration, final AzureEnvironment environment) {
+        if (Thread.currentThread().isInterrupted()) {
+            // the build is cancelled, or the source is not needed any more
+            return null;
+        }
+        try {
+            return authType.getAzureToken(configuration, environment);
+        } catch (AzureLoginFailureException e) {
+            return null;
+        }
+    }
+
+    private static AuthType getRememberedSource(final String workspace) {
+        final Properties properties = loadSources();
+        try {
+            return properties.containsKey(workspace) ? AuthType.valueOf(properties.getProperty(workspace)) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static synchronized void rememberSource(final String workspace, final AuthType authType) {
+        final Properties properties = loadSources();
+        if (authType.name().equals(properties.getProperty(workspace))) {
+            return;
+        }
+        properties.setProperty(workspace, authType.name());
+        final File file = getSourceFile();
+        try {
+            file.getParentFile().mkdirs();
+            // Replace the file at once, other builds may be reading it
+            final Path temp = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp");
+            try (final OutputStream output = Files.newOutputStream(temp)) {
+                properties.store(output, null);
+            }
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // ignore, the sources are all probed next time
+        }
+    }
+
+    private static Properties loadSources() {
+        final Properties properties = new Properties();
+        final File file = getSourceFile();
+        if (file.isFile()) {
+            try (final InputStream input = Files.newInputStream(file.toPath())) {
+                properties.load(input);
+            } catch (IOException e) {
+                // ignore, the sources are all probed
+            }
+        }
+        return properties;
+    }
+
+    private static File getSourceFile() {
+        return new File(AzureAuthHelper.getAzureConfigFolder(), Constants.AUTH_SOURCE_FILE).getAbsoluteFile();
+    }
+
+    /**
+     * Get the credential of the source, null if it is not available.
+     */
+    @FunctionalInterface
+    interface Probe {
+        AzureTokenWrapper getAzureToken(AuthType authType);
+    }
+}
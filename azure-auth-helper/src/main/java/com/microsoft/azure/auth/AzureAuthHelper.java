@@ -6,7 +6,6 @@
 
 package com.microsoft.azure.auth;
 
-import com.microsoft.aad.adal4j.AuthenticationException;
 import com.microsoft.azure.AzureEnvironment;
 import com.microsoft.azure.auth.configuration.AuthConfiguration;
 import com.microsoft.azure.auth.configuration.AuthMethod;
@@ -18,23 +17,21 @@ import com.microsoft.azure.common.utils.JsonUtils;
 import com.microsoft.azure.credentials.AzureCliCredentials;
 import com.microsoft.azure.credentials.AzureTokenCredentials;
 import com.microsoft.azure.credentials.MSICredentials;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.Jwt;
-import io.jsonwebtoken.Jwts;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.time.DateUtils;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Date;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 
 public class AzureAuthHelper {
@@ -42,6 +39,7 @@ public class AzureAuthHelper {
     private static final String UNKNOWN = "UNKNOWN";
     private static final AuthType[] AUTH_ORDER = {AuthType.SERVICE_PRINCIPAL, AuthType.AZURE_SECRET_FILE, AuthType.AZURE_CLI, AuthType.AZURE_AUTH_MAVEN_PLUGIN};
     private static final Map<AzureEnvironment, String> AZURE_ENVIRONMENT_DISPLAY_NAME_MAP = new HashMap<>();
+    private static final Map<String, CliCredential> CLI_CREDENTIALS = new ConcurrentHashMap<>();
 
     static {
         AZURE_ENVIRONMENT_DISPLAY_NAME_MAP.put(AzureEnvironment.AZURE, "AZURE");
@@ -196,7 +194,16 @@ public class AzureAuthHelper {
         if (file == null) {
             throw new IllegalArgumentException("Parameter 'file' cannot be null.");
         }
-        FileUtils.writeStringToFile(file, JsonUtils.toJson(cred), "utf8");
+        // Replace the file at once, so that other builds never read a partially written credential
+        final File folder = file.getAbsoluteFile().getParentFile();
+        folder.mkdirs();
+        final Path temp = Files.createTempFile(folder.toPath(), file.getName(), ".tmp");
+        try {
+            FileUtils.writeStringToFile(temp.toFile(), JsonUtils.toJson(cred), "utf8");
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
     }
 
     /***
@@ -244,36 +251,11 @@ public class AzureAuthHelper {
      * @return the azure token credential can be used in Azure SDK.
      */
     public static AzureTokenCredentials getMavenAzureLoginCredentials(AzureCredential credentials, AzureEnvironment env) {
+        final AzureTokenCache tokenCache = new AzureTokenCache(credentials, env, getAzureSecretFile());
         final AzureTokenCredentials azureTokenCredentials = new AzureTokenCredentials(env, null) {
             @Override
             public String getToken(String resource) throws IOException {
-                final String accessToken = credentials.getAccessToken();
-                final String accessTokenWithoutSignature = accessToken.substring(0, accessToken.lastIndexOf('.') + 1);
-                try {
-                    final Jwt<?, Claims> jwtToken = Jwts.parser().parseClaimsJwt(accessTokenWithoutSignature);
-                    // add 1 minute to avoid the edge case of expired token right after checking
-                    if (jwtToken.getBody().getExpiration().after(DateUtils.addMinutes(new Date(), 1))) {
-                        return accessToken;
-                    }
-                } catch (ExpiredJwtException ex) {
-                    // ignore
-                }
-                try {
-                    final AzureCredential newCredentials = refreshToken(env, credentials.getRefreshToken());
-                    credentials.setAccessToken(newCredentials.getAccessToken());
-                    writeAzureCredentials(credentials, getAzureSecretFile());
-                } catch (InterruptedException | ExecutionException e) {
-                    if (e.getCause() instanceof AuthenticationException) {
-                        throw (AuthenticationException) e.getCause();
-                    }
-                    if (e.getCause() instanceof IOException) {
-                        throw (IOException) e.getCause();
-                    }
-                    // because get token method declares throwing IOException
-                    throw new IOException(String.format("Error happened during refreshing access token, due to error: %s.", e.getMessage()));
-                }
-
-                return credentials.getAccessToken();
+                return tokenCache.getToken(resource);
             }
         };
         if (StringUtils.isNotBlank(credentials.getDefaultSubscription())) {
@@ -297,21 +279,33 @@ public class AzureAuthHelper {
             // AzureCliCredentials.create will block using  System.in.read() if user has logout using `az logout`
             // here we must check these two json files for empty
             if (azureProfile.exists() && accessTokens.exists()) {
-                final List tokens = JsonUtils.fromJson(FileUtils.readFileToString(accessTokens, "utf8"), List.class);
-                if (tokens.isEmpty()) {
-                    return null;
+                // the files are parsed again only when az changes them
+                final String modified = String.format("%d/%d", azureProfile.lastModified(), accessTokens.lastModified());
+                final CliCredential cached = CLI_CREDENTIALS.get(credentialParent.getAbsolutePath());
+                if (cached != null && cached.modified.equals(modified)) {
+                    return cached.credential;
                 }
-                final Wrapper wrapper = JsonUtils.fromJson(FileUtils.readFileToString(azureProfile, "utf8"), Wrapper.class);
-                if (wrapper.subscriptions == null || wrapper.subscriptions.isEmpty()) {
-                    return null;
-                }
-                return new AzureTokenWrapper(AuthMethod.AZURE_CLI,
-                        AzureCliCredentials.create(azureProfile, accessTokens), azureProfile, accessTokens);
+                final AzureTokenWrapper credential = readAzureCLICredential(azureProfile, accessTokens);
+                CLI_CREDENTIALS.put(credentialParent.getAbsolutePath(), new CliCredential(modified, credential));
+                return credential;
             }
         }
         return null;
     }
 
+    private static AzureTokenWrapper readAzureCLICredential(File azureProfile, File accessTokens) throws IOException {
+        final List tokens = JsonUtils.fromJson(FileUtils.readFileToString(accessTokens, "utf8"), List.class);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        final Wrapper wrapper = JsonUtils.fromJson(FileUtils.readFileToString(azureProfile, "utf8"), Wrapper.class);
+        if (wrapper.subscriptions == null || wrapper.subscriptions.isEmpty()) {
+            return null;
+        }
+        return new AzureTokenWrapper(AuthMethod.AZURE_CLI,
+                AzureCliCredentials.create(azureProfile, accessTokens), azureProfile, accessTokens);
+    }
+
     public static AzureTokenWrapper getServicePrincipalCredential(AuthConfiguration configuration) throws InvalidConfigurationException, IOException {
         return configuration == null ? null : new AzureTokenWrapper(AuthMethod.SERVICE_PRINCIPAL,
                 AzureServicePrincipleAuthHelper.getAzureServicePrincipleCredentials(configuration));
@@ -372,18 +366,7 @@ public class AzureAuthHelper {
     }
 
     public static AzureTokenWrapper getAzureCredentialByOrder(AuthConfiguration authConfiguration, AzureEnvironment azureEnvironment) {
-        AzureTokenWrapper result = null;
-        for (final AuthType authType : AUTH_ORDER) {
-            try {
-                result = authType.getAzureToken(authConfiguration, azureEnvironment);
-                if (result != null) {
-                    break;
-                }
-            } catch (AzureLoginFailureException e) {
-                continue;
-            }
-        }
-        return result;
+        return AuthSourceResolver.resolve(AUTH_ORDER, authConfiguration, azureEnvironment);
     }
 
     static boolean isInCloudShell() {
@@ -394,6 +377,16 @@ public class AzureAuthHelper {
         List<Map> subscriptions;
     }
 
+    private static class CliCredential {
+        private final String modified;
+        private final AzureTokenWrapper credential;
+
+        private CliCredential(String modified, AzureTokenWrapper credential) {
+            this.modified = modified;
+            this.credential = credential;
+        }
+    }
+
     private AzureAuthHelper() {
 
     }
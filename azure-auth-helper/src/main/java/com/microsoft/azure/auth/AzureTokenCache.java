@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.auth;
+
+import com.microsoft.aad.adal4j.AuthenticationException;
+import com.microsoft.azure.AzureEnvironment;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access tokens of a credential saved by `mvn azure:login`, kept by resource along with their expiry so that the token
+ * is parsed once instead of on every request. The token is refreshed some minutes before it expires, and only once
+ * when many threads of the SDK find it expiring at the same time, the others wait for it and share the new token.
+ */
+class AzureTokenCache {
+    private static final long REFRESH_AHEAD = TimeUnit.MINUTES.toMillis(5);
+    private static final String REFRESH_ERROR = "Error happened during refreshing access token, due to error: %s.";
+
+    private final AzureCredential credentials;
+    private final AzureEnvironment env;
+    private final File secretFile;
+    private final Map<String, Token> tokens = new ConcurrentHashMap<>();
+    private final Object refreshLock = new Object();
+
+    AzureTokenCache(final AzureCredential credentials, final AzureEnvironment env, final File secretFile) {
+        this.credentials = credentials;
+        this.env = env;
+        this.secretFile = secretFile;
+    }
+
+    String getToken(final String resource) throws IOException {
+        final Token token = tokens.computeIfAbsent(resource, key -> Token.parse(credentials.getAccessToken()));
+        if (!token.isExpiring()) {
+            return token.value;
+        }
+        synchronized (refreshLock) {
+            // Refreshed by another thread while waiting for the lock
+            final Token latest = Token.parse(credentials.getAccessToken());
+            if (!latest.isExpiring()) {
+                tokens.put(resource, latest);
+                return latest.value;
+            }
+            final Token refreshed = Token.parse(refresh());
+            tokens.put(resource, refreshed);
+            return refreshed.value;
+        }
+    }
+
+    private String refresh() throws IOException {
+        try {
+            final AzureCredential newCredentials = AzureAuthHelper.refreshToken(env, credentials.getRefreshToken());
+            credentials.setAccessToken(newCredentials.getAccessToken());
+            AzureAuthHelper.writeAzureCredentials(credentials, secretFile);
+            return newCredentials.getAccessToken();
+        } catch (InterruptedException | ExecutionException e) {
+            if (e.getCause() instanceof AuthenticationException) {
+                throw (AuthenticationException) e.getCause();
+            }
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            // because get token method declares throwing IOException
+            throw new IOException(String.format(REFRESH_ERROR, e.getMessage()));
+        }
+    }
+
+    private static class Token {
+        private final String value;
+        private final Date expiration;
+
+        private Token(final String value, final Date expiration) {
+            this.value = value;
+            this.expiration = expiration;
+        }
+
+        private static Token parse(final String accessToken) {
+            final String accessTokenWithoutSignature = accessToken.substring(0, accessToken.lastIndexOf('.') + 1);
+            Claims claims;
+            try {
+                claims = Jwts.parser().parseClaimsJwt(accessTokenWithoutSignature).getBody();
+            } catch (ExpiredJwtException ex) {
+                claims = ex.getClaims();
+            } catch (JwtException | IllegalArgumentException ex) {
+                // not a JWT, the expiry is unknown and the token is used as is
+                return new Token(accessToken, null);
+            }
+            return new Token(accessToken, claims.getExpiration());
+        }
+
+        private boolean isExpiring() {
+            return expiration != null && expiration.getTime() - System.currentTimeMillis() < REFRESH_AHEAD;
+        }
+    }
+}
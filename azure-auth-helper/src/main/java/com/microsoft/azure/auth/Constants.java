@@ -19,6 +19,7 @@ public class Constants {
     public static final String AZURE_SECRET_FILE = "azure-secret.json";
     public static final String AZURE_PROFILE_NAME = "azureProfile.json";
     public static final String AZURE_TOKEN_NAME = "accessTokens.json";
+    public static final String AUTH_SOURCE_FILE = "mavenplugins-auth.properties";
 
     public static final String CLOUD_SHELL_ENV_KEY = "ACC_CLOUD";
 
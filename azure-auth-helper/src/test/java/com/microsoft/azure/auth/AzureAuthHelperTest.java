@@ -8,6 +8,8 @@ package com.microsoft.azure.auth;
 
 import com.microsoft.azure.AzureEnvironment;
 import com.microsoft.azure.auth.configuration.AuthConfiguration;
+import com.microsoft.azure.auth.configuration.AuthMethod;
+import com.microsoft.azure.auth.configuration.AuthType;
 import com.microsoft.azure.credentials.ApplicationTokenCredentials;
 import com.microsoft.azure.credentials.AzureCliCredentials;
 import com.microsoft.azure.credentials.AzureTokenCredentials;
@@ -24,21 +26,43 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
 import static org.powermock.api.mockito.PowerMockito.when;
 
 @RunWith(PowerMockRunner.class)
 @PrepareForTest({AzureLoginHelper.class})
 public class AzureAuthHelperTest {
+    //  sample token from https://medium.com/@siddharthac6/json-web-token-jwt-the-right-way-of-implementing-with-node-js-65b8915d550e
+    private static final String EXPIRED_TOKEN = "eyJhbGciOiJSUzI1NiIsInR5cCI6IkpXVCJ9." +
+            "eyJkYXRhMSI6IkRhdGEgMSIsImRhdGEyIjoiRGF0YSAyIiwiZGF0YTMiOiJEYXRhIDMiLCJkYXRhNCI6Ik" +
+            "RhdGEgNCIsImlhdCI6MTUyNTE5MzM3NywiZXhwIjoxNTI1MjM2NTc3LCJhdWQiOiJodHRwOi8vbXlzb2Z0Y29ycC5pbiIsImlzcyI6Ik15c29mdCBjb3JwIiwic3ViIjoic29tZUB1c2" +
+            "VyLmNvbSJ9.ID2fn6t0tcoXeTgkG2AivnG1skctbCAyY8M1ZF38kFvUJozRWSbdVc7FLwot-bwV8k1imV8o0fqdv5sVY0Yzmg";
+    // token created by site: http://jwtbuilder.jamiekurtz.com/, expires in 2099
+    private static final String VALID_TOKEN = "eyJ0eXAiOiJKV1QiLCJhbGciOiJIUzI1NiJ9." +
+            "eyJpc3MiOiJPbmxpbmUgSldUIEJ1aWxkZXIiLCJpYXQiOjE1NjYyMDEzMjEsImV4cCI6NDA5MDcyMjkyMSw" +
+            "iYXVkIjoid3d3LmV4YW1wbGUuY29tIiwic3ViIjoianJvY2tldEBleGFtcGxlLmNvbSIsIkdpdmVuTmFtZSI6IkpvaG5ueSIsIlN1cm5hbWUiOiJSb2NrZXQiLCJFbWFpbCI6Impyb2" +
+            "NrZXRAZXhhbXBsZS5jb20iLCJSb2xlIjpbIk1hbmFnZXIiLCJQcm9qZWN0IEFkbWluaXN0cmF0b3IiXX0.m0yY1rRd9-zo9pUKWdkuuCSIj48K-X8IPr1-3gj-dGQ";
+
     private File tempDirectory;
 
     @Before
@@ -345,4 +369,94 @@ public class AzureAuthHelperTest {
         assertEquals(validToken, AzureAuthHelper.getMavenAzureLoginCredentials(cred, env).getToken(env.resourceManagerEndpoint()));
 
     }
+
+    @Test
+    public void testRefreshTokenOnceForConcurrentCallers() throws Exception {
+        final AzureEnvironment env = AzureEnvironment.AZURE;
+        final AzureCredential credExpected = AzureCredential.fromAuthenticationResult(TestHelper.createAuthenticationResult());
+        credExpected.setAccessToken(VALID_TOKEN);
+        final AtomicInteger refreshes = new AtomicInteger();
+        mockStatic(AzureLoginHelper.class);
+        when(AzureLoginHelper.refreshToken(eq(env), eq("refresh token"))).thenAnswer(invocation -> {
+            refreshes.incrementAndGet();
+            // Round trip to the token endpoint
+            Thread.sleep(200);
+            return credExpected;
+        });
+        final AzureCredential cred = AzureCredential.fromAuthenticationResult(TestHelper.createAuthenticationResult());
+        cred.setRefreshToken("refresh token");
+        cred.setAccessToken(EXPIRED_TOKEN);
+        final AzureTokenCredentials credentials = AzureAuthHelper.getMavenAzureLoginCredentials(cred, env);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            final List<Future<String>> tokens = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                tokens.add(executor.submit(() -> credentials.getToken(env.resourceManagerEndpoint())));
+            }
+            for (final Future<String> token : tokens) {
+                assertEquals(VALID_TOKEN, token.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(VALID_TOKEN, credentials.getToken(env.resourceManagerEndpoint()));
+        assertEquals(1, refreshes.get());
+        assertEquals(VALID_TOKEN, AzureAuthHelper.readAzureCredentials().getAccessToken());
+    }
+
+    @Test
+    public void testGetAzureCredentialByOrder() throws Exception {
+        FileUtils.copyDirectory(new File(this.getClass().getResource("/azure-login").getFile()), tempDirectory);
+        assertEquals(AuthMethod.AZURE_SECRET_FILE, AzureAuthHelper.getAzureCredentialByOrder(null, AzureEnvironment.AZURE).getAuthMethod());
+        assertTrue(FileUtils.readFileToString(new File(tempDirectory, Constants.AUTH_SOURCE_FILE), "utf8").contains("AZURE_SECRET_FILE"));
+
+        // the remembered source doesn't win over the ones before it
+        final AuthConfiguration auth = new AuthConfiguration();
+        auth.setClient("client_id");
+        auth.setTenant("tenant_id");
+        auth.setKey("key");
+        assertEquals(AuthMethod.SERVICE_PRINCIPAL, AzureAuthHelper.getAzureCredentialByOrder(auth, AzureEnvironment.AZURE).getAuthMethod());
+    }
+
+    @Test
+    public void testInterruptLosingProbes() throws Exception {
+        final AzureTokenWrapper credential = new AzureTokenWrapper(AuthMethod.SERVICE_PRINCIPAL, mock(ApplicationTokenCredentials.class));
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final AuthType[] order = {AuthType.SERVICE_PRINCIPAL, AuthType.AZURE_CLI};
+
+        assertSame(credential, AuthSourceResolver.resolve(order, authType -> {
+            if (authType == AuthType.SERVICE_PRINCIPAL) {
+                try {
+                    started.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return credential;
+            }
+            started.countDown();
+            try {
+                // e.g. a command line tool not answering
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        }));
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testGetAzureCLICredentialFromCache() throws Exception {
+        FileUtils.copyDirectory(new File(this.getClass().getResource("/azure-cli/default").getFile()), tempDirectory);
+        final AzureTokenWrapper credential = AzureAuthHelper.getAzureCLICredential(AzureEnvironment.AZURE);
+        assertNotNull(credential);
+        assertSame(credential, AzureAuthHelper.getAzureCLICredential(AzureEnvironment.AZURE));
+
+        // az login again
+        final File accessTokens = new File(tempDirectory, Constants.AZURE_TOKEN_NAME);
+        accessTokens.setLastModified(accessTokens.lastModified() + 2000);
+        assertNotSame(credential, AzureAuthHelper.getAzureCLICredential(AzureEnvironment.AZURE));
+    }
 }
@@ -169,7 +169,7 @@ public abstract class AbstractFunctionMojo extends AbstractAppServiceMojo {
 
     @Nullable
     public FunctionApp getFunctionApp() throws AzureAuthFailureException {
-        return getAzureClient().appServices().functionApps().getByResourceGroup(getResourceGroup(), getAppName());
+        return getResourceContext().getFunctionApp(getResourceGroup(), getAppName());
     }
 
     public RuntimeConfiguration getRuntime() {
@@ -8,6 +8,7 @@ package com.microsoft.azure.maven.function;
 
 import com.microsoft.azure.common.Utils;
 import com.microsoft.azure.common.applicationinsights.ApplicationInsightsManager;
+import com.microsoft.azure.common.appservice.DeployTargetSetting;
 import com.microsoft.azure.common.appservice.DeployTargetType;
 import com.microsoft.azure.common.appservice.DeploymentSlotSetting;
 import com.microsoft.azure.common.appservice.DeploymentType;
@@ -16,6 +17,7 @@ import com.microsoft.azure.common.deploytarget.DeployTarget;
 import com.microsoft.azure.common.exceptions.AzureExecutionException;
 import com.microsoft.azure.common.function.configurations.RuntimeConfiguration;
 import com.microsoft.azure.common.function.handlers.artifact.DockerArtifactHandler;
+import com.microsoft.azure.common.function.handlers.artifact.FunctionArtifactHelper;
 import com.microsoft.azure.common.function.handlers.artifact.MSDeployArtifactHandlerImpl;
 import com.microsoft.azure.common.function.handlers.artifact.RunFromBlobArtifactHandlerImpl;
 import com.microsoft.azure.common.function.handlers.artifact.RunFromZipArtifactHandlerImpl;
@@ -31,10 +33,15 @@ import com.microsoft.azure.common.handlers.artifact.FTPArtifactHandlerImpl;
 import com.microsoft.azure.common.handlers.artifact.ZIPArtifactHandlerImpl;
 import com.microsoft.azure.common.logging.Log;
 import com.microsoft.azure.common.utils.AppServiceUtils;
+import com.microsoft.azure.common.utils.Poller;
+import com.microsoft.azure.common.utils.Rollout;
+import com.microsoft.azure.common.utils.TaskGraph;
 import com.microsoft.azure.credentials.AzureTokenCredentials;
 import com.microsoft.azure.functions.annotation.AuthorizationLevel;
+import com.microsoft.azure.management.Azure;
 import com.microsoft.azure.management.applicationinsights.v2015_05_01.ApplicationInsightsComponent;
 import com.microsoft.azure.management.appservice.AppServicePlan;
+import com.microsoft.azure.management.appservice.AppSetting;
 import com.microsoft.azure.management.appservice.FunctionApp;
 import com.microsoft.azure.management.appservice.FunctionApp.DefinitionStages.WithCreate;
 import com.microsoft.azure.management.appservice.FunctionApp.Update;
@@ -52,12 +59,21 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.artifact.versioning.ComparableVersion;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
 
 import java.io.File;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.microsoft.azure.common.appservice.DeploymentType.DOCKER;
@@ -71,8 +87,9 @@ import static com.microsoft.azure.common.appservice.DeploymentType.RUN_FROM_ZIP;
 @Mojo(name = "deploy", defaultPhase = LifecyclePhase.DEPLOY)
 public class DeployMojo extends AbstractFunctionMojo {
 
-    private static final int LIST_TRIGGERS_MAX_RETRY = 3;
-    private static final int LIST_TRIGGERS_RETRY_PERIOD_IN_SECONDS = 10;
+    private static final int LIST_TRIGGERS_INITIAL_DELAY_IN_SECONDS = 5;
+    private static final int LIST_TRIGGERS_MAX_INTERVAL_IN_SECONDS = 20;
+    private static final int LIST_TRIGGERS_TIMEOUT_IN_SECONDS = 40;
     private static final String DEPLOY_START = "Starting deployment...";
     private static final String DEPLOY_FINISH =
         "Deployment done, you may access your resource through %s";
@@ -83,9 +100,10 @@ public class DeployMojo extends AbstractFunctionMojo {
             "Creating a new slot...";
     private static final String FUNCTION_SLOT_CREATED = "Successfully created the function slot: %s.";
     private static final String FUNCTION_APP_UPDATE = "Updating the specified function app...";
-    private static final String FUNCTION_APP_UPDATE_DONE = "Successfully updated the function app: %s.";
+    private static final String FUNCTION_APP_UPDATE_PENDING = "The changes of the function app %s will be applied along with the deployment.";
+    private static final String FUNCTION_APP_NO_CHANGE = "No change is detected. Skip updating the function app: %s.";
     private static final String FUNCTION_SLOT_UPDATE = "Updating the specified function slot...";
-    private static final String FUNCTION_SLOT_UPDATE_DONE = "Successfully updated the function slot: %s.";
+    private static final String FUNCTION_SLOT_UPDATE_PENDING = "The changes of the function slot %s will be applied along with the deployment.";
     private static final String DEPLOYMENT_TYPE_KEY = "deploymentType";
     private static final String UNKNOWN_DEPLOYMENT_TYPE = "The value of <deploymentType> is unknown, supported values are: " +
             "ftp, zip, msdeploy, run_from_blob and run_from_zip.";
@@ -117,12 +135,67 @@ public class DeployMojo extends AbstractFunctionMojo {
     private static final String HTTP_TRIGGER = "httpTrigger";
     private static final String NO_TRIGGERS_FOUNDED = "No triggers found in deployed function app, " +
             "please try recompile the project by `mvn clean package` and deploy again.";
-    private static final String SYNCING_TRIGGERS_AND_FETCH_FUNCTION_INFORMATION = "Syncing triggers and fetching function information (Attempt %d/%d)...";
+    private static final String SYNCING_TRIGGERS_AND_FETCH_FUNCTION_INFORMATION = "Syncing triggers and fetching function information (Attempt %d)...";
     private static final String ARTIFACT_INCOMPATIBLE = "Your function app artifact compile version is higher than the java version in function host, " +
             "please downgrade the project compile version and try again.";
     private static final String FUNCTION_APP_NOT_EXISTS = "Cannot find the Function App '%s' when creating deployment slot.";
+    private static final String CHECK_ARTIFACT_TASK = "check-artifact";
+    private static final String PACKAGE_TASK = "package";
+    private static final String APP_INSIGHTS_TASK = "resolve-app-insights";
+    private static final String PROVISION_TASK = "provision";
+    private static final String AUTHENTICATE_TASK = "authenticate";
+    private static final String ACTIVATE_TASK = "deploy-artifact";
+    private static final String DEPLOY_TO_TARGET = "Deploying to %s...";
+    private static final String FUNCTION_APP_RUNNING = "Running";
+    private static final String CANNOT_AUTH_TO_AZURE = "Cannot auth to azure";
+    private static final String FAILED_TO_DEPLOY_TO_TARGETS = "Failed to deploy to %d of %d targets.";
+
+    /**
+     * Function apps to deploy the same package to, instead of the one configured by {@code <appName>}. Every target
+     * may override the app name, resource group, region, app service plan and deployment slot, the other settings
+     * are shared. The package is built once and staged under {@code <appName>}.
+     * <pre>
+     * {@code
+     * <targets>
+     *     <target>
+     *         <appName>app-westeurope</appName>
+     *         <region>westeurope</region>
+     *     </target>
+     *     <target>
+     *         <appName>app-eastus</appName>
+     *         <region>eastus</region>
+     *     </target>
+     * </targets>
+     * }
+     * </pre>
+     */
+    @Parameter
+    protected List<DeployTargetSetting> targets;
+
+    /**
+     * How to roll out to the {@code <targets>}: all_at_once, or waves of {@code <waveSize>} targets which stop after
+     * a wave with any failure.
+     */
+    @Parameter(property = "functions.rolloutPolicy", defaultValue = "all_at_once")
+    protected String rolloutPolicy;
+
+    /**
+     * The most {@code <targets>} deployed at the same time.
+     */
+    @Parameter(property = "functions.maxParallelism", defaultValue = "4")
+    protected int maxParallelism;
+
+    /**
+     * The number of {@code <targets>} in a wave, defaults to {@code <maxParallelism>}.
+     */
+    @Parameter(property = "functions.waveSize", defaultValue = "0")
+    protected int waveSize;
 
     private JavaVersion parsedJavaVersion;
+    private File artifactPackage;
+    private final TargetState defaultState = new TargetState(null);
+    // Targets are deployed concurrently, every thread keeps the state of the target it deploys to
+    private final ThreadLocal<TargetState> state = ThreadLocal.withInitial(() -> defaultState);
 
     @Override
     public DeploymentType getDeploymentType() throws AzureExecutionException {
@@ -131,31 +204,191 @@ public class DeployMojo extends AbstractFunctionMojo {
     }
 
     @Override
-    protected void doExecute() throws AzureExecutionException {
-        try {
-            parseConfiguration();
+    public String getAppName() {
+        return getTargetValue(DeployTargetSetting::getAppName, super.getAppName());
+    }
 
-            checkArtifactCompileVersion();
+    @Override
+    public String getResourceGroup() {
+        return getTargetValue(DeployTargetSetting::getResourceGroup, super.getResourceGroup());
+    }
 
-            final WebAppBase target = createOrUpdateResource();
+    @Override
+    public String getRegion() {
+        return getTargetValue(DeployTargetSetting::getRegion, super.getRegion());
+    }
 
-            if (target == null) {
-                throw new AzureExecutionException(
-                    String.format("Failed to get the deploy target with name: %s", getAppName()));
-            }
+    @Override
+    public String getAppServicePlanResourceGroup() {
+        return getTargetValue(DeployTargetSetting::getAppServicePlanResourceGroup, super.getAppServicePlanResourceGroup());
+    }
+
+    @Override
+    public String getAppServicePlanName() {
+        return getTargetValue(DeployTargetSetting::getAppServicePlanName, super.getAppServicePlanName());
+    }
+
+    @Override
+    public DeploymentSlotSetting getDeploymentSlotSetting() {
+        final DeployTargetSetting target = state.get().setting;
+        return target == null || target.getDeploymentSlot() == null ? super.getDeploymentSlotSetting() : target.getDeploymentSlot();
+    }
 
-            final DeployTarget deployTarget = new DeployTarget(target, DeployTargetType.FUNCTION);
+    /**
+     * The package is shared by all the targets, so it is always staged under the configured app name
+     */
+    @Override
+    public String getDeploymentStagingDirectoryPath() {
+        return getDeploymentStagingDirectoryPath(super.getAppName());
+    }
+
+    @Override
+    protected void doExecute() throws AzureExecutionException {
+        parseConfiguration();
+        if (CollectionUtils.isNotEmpty(targets)) {
+            deployToTargets();
+            return;
+        }
+        // Packaging and resolving application insights don't depend on the app, so they run along with provisioning,
+        // which waits for application insights only when it writes the app settings. Both of them use the client, which
+        // is created before
+        final AtomicReference<WebAppBase> target = new AtomicReference<>();
+        final CompletableFuture<Void> applicationInsights = new CompletableFuture<>();
+        state.get().applicationInsights = applicationInsights;
+        final TaskGraph pipeline = new TaskGraph()
+            .add(CHECK_ARTIFACT_TASK, this::checkArtifactCompileVersion)
+            .add(PACKAGE_TASK, this::prepareArtifactPackage)
+            .add(AUTHENTICATE_TASK, this::authenticate)
+            .add(APP_INSIGHTS_TASK, () -> resolveApplicationInsights(applicationInsights), AUTHENTICATE_TASK)
+            .add(PROVISION_TASK, () -> target.set(createOrUpdateResource()), CHECK_ARTIFACT_TASK, AUTHENTICATE_TASK)
+            .add(ACTIVATE_TASK, () -> deployArtifact(target.get()), PACKAGE_TASK, PROVISION_TASK);
+        awaitPipeline(pipeline);
+
+        if (!isDeployToSlot()) {
+            listHTTPTriggerUrls();
+        }
+    }
 
-            Log.info(DEPLOY_START);
-            getArtifactHandler().publish(deployTarget);
-            Log.info(String.format(DEPLOY_FINISH, getResourcePortalUrl(target)));
+    /**
+     * The client and the resource context are created lazily and not thread safe, so create them before the tasks
+     * share them
+     */
+    private void authenticate() throws AzureAuthFailureException {
+        getAzureClient();
+        getResourceContext();
+    }
+
+    /**
+     * Build the package once, then provision and deploy every target on its own thread as the rollout policy allows
+     */
+    protected void deployToTargets() throws AzureExecutionException {
+        final Rollout<DeployTargetSetting> rollout;
+        try {
+            rollout = new Rollout<>(Rollout.Policy.fromString(rolloutPolicy), maxParallelism, waveSize);
+        } catch (IllegalArgumentException e) {
+            throw new AzureExecutionException(e.getMessage(), e);
+        }
+        final TaskGraph pipeline = new TaskGraph()
+            .add(CHECK_ARTIFACT_TASK, this::checkArtifactCompileVersion)
+            .add(PACKAGE_TASK, this::prepareArtifactPackage)
+            .add(AUTHENTICATE_TASK, this::authenticate);
+        awaitPipeline(pipeline);
+
+        final List<Rollout.Result<DeployTargetSetting>> results;
+        try {
+            results = rollout.run(targets, this::deployToTarget);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AzureExecutionException(e.getMessage(), e);
+        }
+        Log.info(Rollout.getReport(results));
+        final long failures = results.stream().filter(result -> result.getStatus() != Rollout.Status.SUCCEEDED).count();
+        if (failures > 0) {
+            throw new AzureExecutionException(String.format(FAILED_TO_DEPLOY_TO_TARGETS, failures, results.size()));
+        }
+    }
+
+    private static void awaitPipeline(final TaskGraph pipeline) throws AzureExecutionException {
+        try {
+            pipeline.await();
+        } catch (AzureExecutionException e) {
+            if (e.getCause() instanceof AzureAuthFailureException) {
+                throw new AzureExecutionException(CANNOT_AUTH_TO_AZURE, e.getCause());
+            }
+            throw e;
+        } finally {
+            Log.info(pipeline.getTimingReport());
+        }
+    }
 
+    protected void deployToTarget(final DeployTargetSetting target) throws AzureExecutionException, AzureAuthFailureException {
+        state.set(new TargetState(target));
+        try {
+            Log.info(String.format(DEPLOY_TO_TARGET, target));
+            resolveApplicationInsights();
+            deployArtifact(createOrUpdateResource());
             if (!isDeployToSlot()) {
                 listHTTPTriggerUrls();
             }
-        } catch (AzureAuthFailureException e) {
-            throw new AzureExecutionException("Cannot auth to azure", e);
+        } finally {
+            state.remove();
+        }
+    }
+
+    protected void deployArtifact(final WebAppBase target) throws AzureExecutionException, AzureAuthFailureException {
+        if (target == null) {
+            throw new AzureExecutionException(
+                String.format("Failed to get the deploy target with name: %s", getAppName()));
+        }
+
+        final TargetState current = state.get();
+        final DeployTarget deployTarget = new DeployTarget(target, DeployTargetType.FUNCTION)
+            .withPendingUpdate(current.pendingUpdate, current.pendingAppSettings);
+
+        Log.info(DEPLOY_START);
+        final ArtifactHandler artifactHandler = getArtifactHandler();
+        if (!(artifactHandler instanceof RunFromZipArtifactHandlerImpl || artifactHandler instanceof RunFromBlobArtifactHandlerImpl)) {
+            // Only run from package deployments apply the pending update together with WEBSITE_RUN_FROM_PACKAGE
+            deployTarget.applyPendingUpdate();
+        }
+        artifactHandler.publish(deployTarget);
+        // The app is replaced by the one returned by the pending update, if applied
+        final WebAppBase result = getResourceContext().refresh(deployTarget.getApp());
+        Log.info(String.format(DEPLOY_FINISH, getResourcePortalUrl(result)));
+    }
+
+    /**
+     * Build the zip package ahead, if the artifact handlers will need one. Missing staging directory is left to be
+     * reported by the artifact handler.
+     */
+    protected void prepareArtifactPackage() throws AzureExecutionException {
+        final String stagingDirectoryPath = getDeploymentStagingDirectoryPath();
+        if (StringUtils.isEmpty(stagingDirectoryPath) || !new File(stagingDirectoryPath).isDirectory() ||
+                getOsEnum() == OperatingSystemEnum.Docker || super.getDeploymentType() == DeploymentType.FTP) {
+            return;
+        }
+        artifactPackage = FunctionArtifactHelper.createFunctionArtifact(stagingDirectoryPath);
+    }
+
+    private void resolveApplicationInsights(final CompletableFuture<Void> resolved) throws AzureExecutionException, AzureAuthFailureException {
+        try {
+            resolveApplicationInsights();
+            resolved.complete(null);
+        } catch (AzureExecutionException | AzureAuthFailureException | RuntimeException e) {
+            resolved.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Resolve or create the application insights ahead, as it doesn't depend on the function app
+     */
+    protected void resolveApplicationInsights() throws AzureExecutionException, AzureAuthFailureException {
+        validateApplicationInsightsConfiguration();
+        if (!isDisableAppInsights() && !getAppSettingsWithDefaultValue().containsKey(APPINSIGHTS_INSTRUMENTATION_KEY)) {
+            state.get().instrumentationKey = getInstrumentationKey(!isDeployToSlot() && getFunctionApp() == null);
         }
+        state.get().isApplicationInsightsResolved = true;
     }
 
     protected WebAppBase createOrUpdateResource() throws AzureExecutionException, AzureAuthFailureException {
@@ -165,7 +398,7 @@ public class DeployMojo extends AbstractFunctionMojo {
             if (app == null) {
                 throw new AzureExecutionException(String.format(FUNCTION_APP_NOT_EXISTS, getAppName()));
             }
-            final FunctionDeploymentSlot deploymentSlot = FunctionUtils.getFunctionDeploymentSlotByName(app, getDeploymentSlotSetting().getName());
+            final FunctionDeploymentSlot deploymentSlot = getResourceContext().getFunctionDeploymentSlot(app, getDeploymentSlotSetting().getName());
             return deploymentSlot == null ? createDeploymentSlot(app, runtimeHandler) : updateDeploymentSlot(deploymentSlot, runtimeHandler);
         } else {
             return app == null ? createFunctionApp(runtimeHandler) : updateFunctionApp(app, runtimeHandler);
@@ -179,7 +412,7 @@ public class DeployMojo extends AbstractFunctionMojo {
         // get/create ai instances only if user didn't specify ai connection string in app settings
         bindApplicationInsights(appSettings, true);
         final WithCreate withCreate = runtimeHandler.defineAppWithRuntime();
-        final FunctionApp result = (FunctionApp) withCreate.withAppSettings(appSettings).create();
+        final FunctionApp result = getResourceContext().refresh((FunctionApp) withCreate.withAppSettings(appSettings).create());
         Log.info(String.format(FUNCTION_APP_CREATED, getAppName()));
         return result;
     }
@@ -188,11 +421,19 @@ public class DeployMojo extends AbstractFunctionMojo {
             throws AzureAuthFailureException, AzureExecutionException {
         Log.info(FUNCTION_APP_UPDATE);
         runtimeHandler.updateAppServicePlan(app);
-        final Update update = runtimeHandler.updateAppRuntime(app);
-        updateFunctionAppSettings(update);
-        final FunctionApp result = update.apply();
-        Log.info(String.format(FUNCTION_APP_UPDATE_DONE, getAppName()));
-        return result;
+        // The plan or the app may be changed
+        getResourceContext().invalidate();
+        // Only the runtime and app settings which differ from the deployed ones are sent
+        final boolean isRuntimeUpToDate = runtimeHandler.isRuntimeUpToDate(app);
+        final Update update = isRuntimeUpToDate ? app.update() : runtimeHandler.updateAppRuntime(app);
+        if (!updateFunctionAppSettings(app, update) && isRuntimeUpToDate) {
+            Log.info(String.format(FUNCTION_APP_NO_CHANGE, getAppName()));
+            return getResourceContext().refresh(app);
+        }
+        // Defer the update, so that it is applied together with the app settings changed by the artifact handler
+        state.get().pendingUpdate = update;
+        Log.info(String.format(FUNCTION_APP_UPDATE_PENDING, getAppName()));
+        return app;
     }
 
     protected FunctionDeploymentSlot createDeploymentSlot(final FunctionApp functionApp, final FunctionRuntimeHandler runtimeHandler)
@@ -201,19 +442,19 @@ public class DeployMojo extends AbstractFunctionMojo {
         final DeploymentSlotSetting slotSetting = getDeploymentSlotSetting();
         final FunctionDeploymentSlot.DefinitionStages.WithCreate withCreate = runtimeHandler.createDeploymentSlot(functionApp, slotSetting);
         // Call update after creation for app settings as we can't modify the app settings from creation source during deployment creation
-        final FunctionDeploymentSlot result = withCreate.create();
+        final FunctionDeploymentSlot result = getResourceContext().refresh(withCreate.create());
         Log.info(String.format(FUNCTION_SLOT_CREATED, result.name()));
-        return updateDeploymentSlot(withCreate.create(), runtimeHandler);
+        return updateDeploymentSlot(result, runtimeHandler);
     }
 
     protected FunctionDeploymentSlot updateDeploymentSlot(final FunctionDeploymentSlot deploymentSlot, final FunctionRuntimeHandler runtimeHandler)
             throws AzureAuthFailureException, AzureExecutionException {
         Log.info(FUNCTION_SLOT_UPDATE);
         final WebAppBase.Update<FunctionDeploymentSlot> update = runtimeHandler.updateDeploymentSlot(deploymentSlot);
-        updateFunctionAppSettings(update);
-        final FunctionDeploymentSlot result = update.apply();
-        Log.info(String.format(FUNCTION_SLOT_UPDATE_DONE, result.name()));
-        return result;
+        updateFunctionAppSettings(deploymentSlot, update);
+        state.get().pendingUpdate = update;
+        Log.info(String.format(FUNCTION_SLOT_UPDATE_PENDING, deploymentSlot.name()));
+        return deploymentSlot;
     }
 
     /**
@@ -270,7 +511,7 @@ public class DeployMojo extends AbstractFunctionMojo {
         return builder.appName(getAppName())
                 .resourceGroup(getResourceGroup())
                 .runtime(getRuntime())
-                .region(Region.fromName(region))
+                .region(Region.fromName(getRegion()))
                 .pricingTier(getPricingTier())
                 .servicePlanName(getAppServicePlanName())
                 .servicePlanResourceGroup(getAppServicePlanResourceGroup())
@@ -316,6 +557,7 @@ public class DeployMojo extends AbstractFunctionMojo {
         return builder.project(ProjectUtils.convertCommonProject(this.getProject()))
                 .stagingDirectoryPath(this.getDeploymentStagingDirectoryPath())
                 .buildDirectoryAbsolutePath(this.getBuildDirectoryAbsolutePath())
+                .artifactPackage(artifactPackage)
                 .build();
     }
 
@@ -334,7 +576,7 @@ public class DeployMojo extends AbstractFunctionMojo {
     protected boolean isDedicatedPricingTier() throws AzureExecutionException {
         try {
             final FunctionApp functionApp = getFunctionApp();
-            final AppServicePlan appServicePlan = AppServiceUtils.getAppServicePlanByAppService(functionApp);
+            final AppServicePlan appServicePlan = getResourceContext().getAppServicePlan(functionApp);
             final PricingTier functionPricingTier = appServicePlan.pricingTier();
             return PricingTier.getAll().stream().anyMatch(pricingTier -> pricingTier.equals(functionPricingTier));
         } catch (AzureAuthFailureException e) {
@@ -363,18 +605,30 @@ public class DeployMojo extends AbstractFunctionMojo {
         }
     }
 
-    private WebAppBase.Update updateFunctionAppSettings(WebAppBase.Update update) throws AzureExecutionException, AzureAuthFailureException {
+    /**
+     * Apply the app settings which differ from the ones deployed to the app
+     *
+     * @return whether any app setting is changed
+     */
+    private boolean updateFunctionAppSettings(WebAppBase app, WebAppBase.Update update) throws AzureExecutionException, AzureAuthFailureException {
         validateApplicationInsightsConfiguration();
         final Map appSettings = getAppSettingsWithDefaultValue();
+        final Map<String, AppSetting> currentSettings = app.getAppSettings();
+        boolean isAppInsightsRemoved = false;
         if (isDisableAppInsights()) {
             // Remove App Insights connection when `disableAppInsights` set to true
             // Need to call `withoutAppSetting` as withAppSettings will only not remove parameters
-            update.withoutAppSetting(APPINSIGHTS_INSTRUMENTATION_KEY);
+            if (currentSettings != null && currentSettings.containsKey(APPINSIGHTS_INSTRUMENTATION_KEY)) {
+                update.withoutAppSetting(APPINSIGHTS_INSTRUMENTATION_KEY);
+                isAppInsightsRemoved = true;
+            }
         } else {
             bindApplicationInsights(appSettings, false);
         }
-        configureAppSettings(update::withAppSettings, appSettings);
-        return update;
+        final Map<String, String> changedSettings = AppServiceUtils.getChangedAppSettings(currentSettings, appSettings);
+        configureAppSettings(update::withAppSettings, changedSettings);
+        state.get().pendingAppSettings = changedSettings;
+        return isAppInsightsRemoved || !changedSettings.isEmpty();
     }
 
     private File getArtifactToDeploy() throws AzureExecutionException {
@@ -391,33 +645,42 @@ public class DeployMojo extends AbstractFunctionMojo {
 
     /**
      * Sync triggers and return function list of deployed function app
-     * Will retry when get empty result, the max retry times is LIST_TRIGGERS_MAX_RETRY
+     * Will retry with an increasing interval when get empty result, until LIST_TRIGGERS_TIMEOUT_IN_SECONDS passed
      * @return List of functions in deployed function app
-     * @throws AzureExecutionException Throw if get empty result after LIST_TRIGGERS_MAX_RETRY times retry
+     * @throws AzureExecutionException Throw if get empty result before timeout
      * @throws AzureAuthFailureException Throw if meet Authentication exception while getting Azure client or Function app
-     * @throws InterruptedException Throw when thread was interrupted while sleeping between retry
+     * @throws InterruptedException Throw when thread was interrupted while waiting between retry
      */
     private List<FunctionResource> listFunctions() throws AzureExecutionException, AzureAuthFailureException, InterruptedException {
         final FunctionApp functionApp = getFunctionApp();
-        for (int i = 0; i < LIST_TRIGGERS_MAX_RETRY; i++) {
-            Thread.sleep(LIST_TRIGGERS_RETRY_PERIOD_IN_SECONDS * 1000);
-            Log.info(String.format(SYNCING_TRIGGERS_AND_FETCH_FUNCTION_INFORMATION, i + 1, LIST_TRIGGERS_MAX_RETRY));
-            try {
+        final Azure azure = getAzureClient();
+        final AtomicInteger attempt = new AtomicInteger();
+        try {
+            return Poller.poll(() -> {
+                Log.info(String.format(SYNCING_TRIGGERS_AND_FETCH_FUNCTION_INFORMATION, attempt.incrementAndGet()));
                 functionApp.syncTriggers();
-                final List<FunctionResource> triggers = getAzureClient().appServices().functionApps()
+                return azure.appServices().functionApps()
                         .listFunctions(getResourceGroup(), getAppName()).stream()
                         .map(envelope -> FunctionResource.parseFunction(envelope))
                         .filter(function -> function != null)
                         .collect(Collectors.toList());
-                if (CollectionUtils.isNotEmpty(triggers)) {
-                    return triggers;
-                }
-            } catch (RuntimeException e) {
-                // swallow service exception while list triggers
-                continue;
-            }
+            }).until(CollectionUtils::isNotEmpty)
+                    .withInitialDelay(LIST_TRIGGERS_INITIAL_DELAY_IN_SECONDS, TimeUnit.SECONDS)
+                    .withInterval(LIST_TRIGGERS_INITIAL_DELAY_IN_SECONDS, LIST_TRIGGERS_MAX_INTERVAL_IN_SECONDS, TimeUnit.SECONDS)
+                    // The host lists no function while the app is not running, e.g. restarting after the deployment
+                    .withIntervalHint(functions -> isRunning(functionApp) ? null : TimeUnit.SECONDS.toMillis(LIST_TRIGGERS_MAX_INTERVAL_IN_SECONDS))
+                    .withTimeout(LIST_TRIGGERS_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)
+                    // swallow service exception while list triggers
+                    .ignoringErrors(RuntimeException.class)
+                    .await();
+        } catch (ExecutionException | TimeoutException e) {
+            throw new AzureExecutionException(NO_TRIGGERS_FOUNDED);
         }
-        throw new AzureExecutionException(NO_TRIGGERS_FOUNDED);
+    }
+
+    private static boolean isRunning(final FunctionApp functionApp) {
+        functionApp.refresh();
+        return StringUtils.equalsIgnoreCase(functionApp.state(), FUNCTION_APP_RUNNING);
     }
 
     /**
@@ -432,19 +695,30 @@ public class DeployMojo extends AbstractFunctionMojo {
         if (appSettings.containsKey(APPINSIGHTS_INSTRUMENTATION_KEY)) {
             return;
         }
-        String instrumentationKey = null;
+        final TargetState current = state.get();
+        if (current.applicationInsights != null) {
+            try {
+                current.applicationInsights.join();
+            } catch (CompletionException e) {
+                // Reported by the task resolving application insights
+                throw new AzureExecutionException(e.getCause().getMessage(), e.getCause());
+            }
+        }
+        final String key = current.isApplicationInsightsResolved ? current.instrumentationKey : getInstrumentationKey(isCreation);
+        if (StringUtils.isNotEmpty(key)) {
+            appSettings.put(APPINSIGHTS_INSTRUMENTATION_KEY, key);
+        }
+    }
+
+    private String getInstrumentationKey(boolean isCreation) throws AzureExecutionException, AzureAuthFailureException {
         if (StringUtils.isNotEmpty(getAppInsightsKey())) {
-            instrumentationKey = getAppInsightsKey();
-            if (!Utils.isGUID(instrumentationKey)) {
+            if (!Utils.isGUID(getAppInsightsKey())) {
                 throw new AzureExecutionException(INSTRUMENTATION_KEY_IS_NOT_VALID);
             }
-        } else {
-            final ApplicationInsightsComponent applicationInsightsComponent = getOrCreateApplicationInsights(isCreation);
-            instrumentationKey = applicationInsightsComponent == null ? null : applicationInsightsComponent.instrumentationKey();
-        }
-        if (StringUtils.isNotEmpty(instrumentationKey)) {
-            appSettings.put(APPINSIGHTS_INSTRUMENTATION_KEY, instrumentationKey);
+            return getAppInsightsKey();
         }
+        final ApplicationInsightsComponent applicationInsightsComponent = getOrCreateApplicationInsights(isCreation);
+        return applicationInsightsComponent == null ? null : applicationInsightsComponent.instrumentationKey();
     }
 
     private void validateApplicationInsightsConfiguration() throws AzureExecutionException {
@@ -497,4 +771,26 @@ public class DeployMojo extends AbstractFunctionMojo {
             return null;
         }
     }
+
+    private String getTargetValue(final Function<DeployTargetSetting, String> getter, final String defaultValue) {
+        final DeployTargetSetting target = state.get().setting;
+        return target == null || StringUtils.isEmpty(getter.apply(target)) ? defaultValue : getter.apply(target);
+    }
+
+    /**
+     * What is resolved for the target being deployed to, before provisioning and deploying
+     */
+    private static class TargetState {
+        private final DeployTargetSetting setting;
+        private WebAppBase.Update pendingUpdate;
+        private Map<String, String> pendingAppSettings;
+        private String instrumentationKey;
+        private boolean isApplicationInsightsResolved;
+        // Completed once application insights is resolved, if it is resolved along with provisioning
+        private CompletableFuture<Void> applicationInsights;
+
+        TargetState(final DeployTargetSetting setting) {
+            this.setting = setting;
+        }
+    }
 }
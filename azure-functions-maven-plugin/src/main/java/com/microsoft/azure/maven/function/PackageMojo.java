@@ -26,19 +26,16 @@ import com.microsoft.azure.common.function.handlers.CommandHandlerImpl;
 import com.microsoft.azure.common.function.handlers.FunctionCoreToolsHandler;
 import com.microsoft.azure.common.function.handlers.FunctionCoreToolsHandlerImpl;
 import com.microsoft.azure.common.logging.Log;
+import com.microsoft.azure.common.utils.StagingSynchronizer;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.input.BOMInputStream;
 import org.apache.maven.artifact.DependencyResolutionRequiredException;
-import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.Resource;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.ResolutionScope;
-import org.apache.maven.project.MavenProject;
-import org.apache.maven.shared.filtering.MavenFilteringException;
-import org.apache.maven.shared.filtering.MavenResourcesExecution;
-import org.apache.maven.shared.filtering.MavenResourcesFiltering;
+import org.apache.maven.shared.utils.io.DirectoryScanner;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -49,7 +46,6 @@ import java.net.URL;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -298,12 +294,30 @@ public class PackageMojo extends AbstractFunctionMojo {
         final String stagingDirectory = getDeploymentStagingDirectoryPath();
         Log.info("");
         Log.info(COPY_JARS + stagingDirectory);
-        copyResources(
-                getProject(),
-                getSession(),
-                getMavenResourcesFiltering(),
-                getResources(),
-                stagingDirectory);
+        // Only the jars at the root of staging directory are owned by this step, leave host.json,
+        // function.json files and extension bundles alone
+        final StagingSynchronizer synchronizer = new StagingSynchronizer(new File(stagingDirectory))
+                .staleFilter(path -> path.getNameCount() == 1 && path.toString().endsWith(".jar"));
+        for (final Resource resource : getResources()) {
+            final String targetPath = StringUtils.removeStart(StringUtils.defaultString(resource.getTargetPath()), "/");
+            final File directory = new File(resource.getDirectory());
+            if (!directory.isDirectory()) {
+                continue;
+            }
+            final DirectoryScanner scanner = new DirectoryScanner();
+            scanner.setBasedir(directory);
+            scanner.setIncludes(resource.getIncludes() == null || resource.getIncludes().isEmpty() ?
+                    new String[]{"**"} : resource.getIncludes().toArray(new String[0]));
+            if (resource.getExcludes() != null) {
+                scanner.setExcludes(resource.getExcludes().toArray(new String[0]));
+            }
+            scanner.addDefaultExcludes();
+            scanner.scan();
+            for (final String file : scanner.getIncludedFiles()) {
+                synchronizer.addFile(Paths.get(targetPath, file).toString(), new File(directory, file));
+            }
+        }
+        synchronizer.sync();
         Log.info(COPY_SUCCESS);
     }
 
@@ -377,51 +391,4 @@ public class PackageMojo extends AbstractFunctionMojo {
         Log.info(String.format("Java home : %s", System.getenv("JAVA_HOME")));
         Log.info(String.format("Artifact compile version : %s", Utils.getArtifactCompileVersion(project.getArtifact().getFile())));
     }
-
-    /**
-     * Copy resources to target directory using Maven resource filtering so that we don't have to handle
-     * recursive directory listing and pattern matching.
-     * In order to disable filtering, the "filtering" property is force set to False.
-     *
-     * @param project
-     * @param session
-     * @param filtering
-     * @param resources
-     * @param targetDirectory
-     * @throws IOException
-     */
-    private static void copyResources(final MavenProject project, final MavenSession session,
-                                     final MavenResourcesFiltering filtering, final List<Resource> resources,
-                                     final String targetDirectory) throws IOException {
-        for (final Resource resource : resources) {
-            final String targetPath = resource.getTargetPath() == null ? "" : resource.getTargetPath();
-            resource.setTargetPath(Paths.get(targetDirectory, targetPath).toString());
-            resource.setFiltering(false);
-        }
-
-        final MavenResourcesExecution mavenResourcesExecution = new MavenResourcesExecution(
-            resources,
-            new File(targetDirectory),
-            project,
-            "UTF-8",
-            null,
-            Collections.EMPTY_LIST,
-            session
-        );
-
-        // Configure executor
-        mavenResourcesExecution.setEscapeWindowsPaths(true);
-        mavenResourcesExecution.setInjectProjectBuildFilters(false);
-        mavenResourcesExecution.setOverwrite(true);
-        mavenResourcesExecution.setIncludeEmptyDirs(false);
-        mavenResourcesExecution.setSupportMultiLineFiltering(false);
-
-        // Filter resources
-        try {
-            filtering.filterResources(mavenResourcesExecution);
-        } catch (MavenFilteringException ex) {
-            throw new IOException("Failed to copy resources", ex);
-        }
-    }
-
 }
@@ -10,6 +10,7 @@ import com.microsoft.azure.common.exceptions.AzureExecutionException;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
 import org.apache.maven.settings.Settings;
 import org.codehaus.plexus.util.ReflectionUtils;
 import org.junit.Test;
@@ -20,12 +21,16 @@ import java.util.HashSet;
 import java.util.Scanner;
 import java.util.Set;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 public class AddMojoTest extends MojoTestBase {
     @Test
@@ -39,6 +44,26 @@ public class AddMojoTest extends MojoTestBase {
         assertNull(mojo.getFunctionTemplate());
     }
 
+    @Test
+    public void startWithoutAzure() throws Exception {
+        final AddMojo mojoSpy = spy(getMojoFromPom());
+        final PluginDescriptor plugin = mock(PluginDescriptor.class);
+        ReflectionUtils.setVariableValueInObject(mojoSpy, "plugin", plugin);
+        ReflectionUtils.setVariableValueInObject(mojoSpy, "allowTelemetry", false);
+        doReturn("azure-functions-maven-plugin").when(plugin).getArtifactId();
+        doReturn("0.1.0").when(plugin).getVersion();
+        doNothing().when(mojoSpy).doExecute();
+
+        mojoSpy.execute();
+
+        // Nothing is authenticated before the goal starts its work, which doesn't need Azure
+        verify(mojoSpy).doExecute();
+        verify(mojoSpy, never()).getAzureClient();
+        assertNull(ReflectionUtils.getValueIncludingSuperclasses("azure", mojoSpy));
+        assertNull(ReflectionUtils.getValueIncludingSuperclasses("azureTokenWrapper", mojoSpy));
+        assertFalse((Boolean) ReflectionUtils.getValueIncludingSuperclasses("authInitialized", mojoSpy));
+    }
+
     @Test
     public void doExecute() throws Exception {
         final AddMojo mojo = getMojoFromPom();
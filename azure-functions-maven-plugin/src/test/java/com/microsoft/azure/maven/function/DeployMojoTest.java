@@ -6,32 +6,44 @@
 
 package com.microsoft.azure.maven.function;
 
+import com.microsoft.azure.common.appservice.DeployTargetSetting;
 import com.microsoft.azure.common.appservice.DeployTargetType;
 import com.microsoft.azure.common.appservice.DeploymentSlotSetting;
 import com.microsoft.azure.common.appservice.DeploymentType;
 import com.microsoft.azure.common.deploytarget.DeployTarget;
 import com.microsoft.azure.common.exceptions.AzureExecutionException;
 import com.microsoft.azure.common.function.handlers.artifact.MSDeployArtifactHandlerImpl;
+import com.microsoft.azure.common.function.handlers.artifact.RunFromBlobArtifactHandlerImpl;
 import com.microsoft.azure.common.function.handlers.runtime.FunctionRuntimeHandler;
 import com.microsoft.azure.common.function.handlers.runtime.WindowsFunctionRuntimeHandler;
 import com.microsoft.azure.common.function.utils.FunctionUtils;
 import com.microsoft.azure.common.handlers.ArtifactHandler;
 import com.microsoft.azure.common.handlers.artifact.FTPArtifactHandlerImpl;
 import com.microsoft.azure.common.handlers.artifact.ZIPArtifactHandlerImpl;
+import com.microsoft.azure.management.appservice.AppSetting;
 import com.microsoft.azure.management.appservice.FunctionApp;
 import com.microsoft.azure.management.appservice.FunctionApp.DefinitionStages.WithCreate;
 import com.microsoft.azure.management.appservice.FunctionApp.Update;
 import com.microsoft.azure.management.appservice.FunctionDeploymentSlot;
+import com.microsoft.azure.maven.AppServiceResourceContext;
 import com.microsoft.azure.maven.auth.AzureAuthFailureException;
 import com.microsoft.azure.maven.telemetry.TelemetryProxy;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import static com.microsoft.azure.common.appservice.DeploymentType.DOCKER;
@@ -42,14 +54,20 @@ import static com.microsoft.azure.common.appservice.OperatingSystemEnum.Linux;
 import static com.microsoft.azure.common.appservice.OperatingSystemEnum.Windows;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.refEq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -65,6 +83,7 @@ public class DeployMojoTest extends MojoTestBase {
     public void setUp() throws Exception {
         mojo = getMojoFromPom();
         mojoSpy = spy(mojo);
+        doReturn(null).when(mojoSpy).getAzureClient();
     }
 
     @Test
@@ -89,6 +108,8 @@ public class DeployMojoTest extends MojoTestBase {
         final DeployTarget deployTarget = new DeployTarget(app, DeployTargetType.FUNCTION);
         doNothing().when(mojoSpy).listHTTPTriggerUrls();
         doNothing().when(mojoSpy).checkArtifactCompileVersion();
+        doNothing().when(mojoSpy).prepareArtifactPackage();
+        doNothing().when(mojoSpy).resolveApplicationInsights();
         doNothing().when(mojoSpy).parseConfiguration();
         doReturn(null).when(mojoSpy).getResourcePortalUrl(any());
         mojoSpy.doExecute();
@@ -119,7 +140,92 @@ public class DeployMojoTest extends MojoTestBase {
         doReturn(update).when(functionRuntimeHandler).updateAppRuntime(app);
         mojoSpy.updateFunctionApp(app, functionRuntimeHandler);
 
-        verify(update, times(1)).apply();
+        // The update is applied along with the deployment
+        verify(update, never()).apply();
+    }
+
+    @Test
+    public void applyPendingUpdateBeforePublish() throws Exception {
+        final ArtifactHandler handler = mock(ArtifactHandler.class);
+        final FunctionApp app = mock(FunctionApp.class);
+        final Update update = mock(Update.class);
+        doReturn(update).when(app).update();
+        doReturn(app).when(update).apply();
+        final FunctionRuntimeHandler runtimeHandler = mock(WindowsFunctionRuntimeHandler.class);
+        doReturn(true).when(runtimeHandler).isRuntimeUpToDate(app);
+        doNothing().when(mojoSpy).configureAppSettings(any(Consumer.class), anyMap());
+        doReturn(app).when(mojoSpy).getFunctionApp();
+        doReturn(handler).when(mojoSpy).getArtifactHandler();
+        doReturn(runtimeHandler).when(mojoSpy).getFunctionRuntimeHandler();
+        doNothing().when(mojoSpy).listHTTPTriggerUrls();
+        doNothing().when(mojoSpy).checkArtifactCompileVersion();
+        doNothing().when(mojoSpy).prepareArtifactPackage();
+        doNothing().when(mojoSpy).resolveApplicationInsights();
+        doNothing().when(mojoSpy).parseConfiguration();
+        doReturn(null).when(mojoSpy).getResourcePortalUrl(any());
+
+        mojoSpy.doExecute();
+
+        final InOrder inOrder = inOrder(update, handler);
+        inOrder.verify(update, times(1)).apply();
+        inOrder.verify(handler, times(1)).publish(any());
+    }
+
+    @Test
+    public void refreshFunctionAppAfterPendingUpdate() throws Exception {
+        final FunctionApp app = mock(FunctionApp.class);
+        final FunctionApp updatedApp = mock(FunctionApp.class);
+        final Update update = mock(Update.class);
+        doReturn(update).when(app).update();
+        doReturn(updatedApp).when(update).apply();
+        final FunctionRuntimeHandler runtimeHandler = mock(WindowsFunctionRuntimeHandler.class);
+        doReturn(true).when(runtimeHandler).isRuntimeUpToDate(app);
+        final AppServiceResourceContext context = mock(AppServiceResourceContext.class);
+        doReturn(context).when(mojoSpy).getResourceContext();
+        doReturn(app).when(mojoSpy).getFunctionApp();
+        doReturn(new HashMap<>(Collections.singletonMap("AzureWebJobsStorage", "connection"))).when(mojoSpy).getAppSettingsWithDefaultValue();
+        doReturn(true).when(mojoSpy).isDisableAppInsights();
+        final ArtifactHandler handler = mock(RunFromBlobArtifactHandlerImpl.class);
+        doAnswer(invocation -> {
+            // Read by the run from blob deployment before the pending update is applied
+            final DeployTarget target = invocation.getArgument(0);
+            assertEquals("connection", ((AppSetting) target.getAppSettings().get("AzureWebJobsStorage")).value());
+            target.applyPendingUpdate();
+            return null;
+        }).when(handler).publish(any());
+        doReturn(handler).when(mojoSpy).getArtifactHandler();
+        doReturn(runtimeHandler).when(mojoSpy).getFunctionRuntimeHandler();
+        doNothing().when(mojoSpy).listHTTPTriggerUrls();
+        doNothing().when(mojoSpy).checkArtifactCompileVersion();
+        doNothing().when(mojoSpy).prepareArtifactPackage();
+        doNothing().when(mojoSpy).resolveApplicationInsights();
+        doNothing().when(mojoSpy).parseConfiguration();
+        doReturn(null).when(mojoSpy).getResourcePortalUrl(any());
+
+        mojoSpy.doExecute();
+
+        verify(handler, times(1)).publish(any());
+        verify(context, times(1)).refresh(updatedApp);
+    }
+
+    @Test
+    public void skipUpdatingFunctionAppWithoutChange() throws Exception {
+        final FunctionApp app = mock(FunctionApp.class);
+        final Update update = mock(Update.class);
+        final AppSetting setting = mock(AppSetting.class);
+        doReturn("java").when(setting).value();
+        doReturn(Collections.singletonMap("FUNCTIONS_WORKER_RUNTIME", setting)).when(app).getAppSettings();
+        doReturn(new HashMap<>(Collections.singletonMap("FUNCTIONS_WORKER_RUNTIME", "java"))).when(mojoSpy).getAppSettingsWithDefaultValue();
+        doReturn(true).when(mojoSpy).isDisableAppInsights();
+        doReturn(update).when(app).update();
+        final FunctionRuntimeHandler functionRuntimeHandler = mock(WindowsFunctionRuntimeHandler.class);
+        doReturn(true).when(functionRuntimeHandler).isRuntimeUpToDate(app);
+
+        assertSame(app, mojoSpy.updateFunctionApp(app, functionRuntimeHandler));
+
+        verify(functionRuntimeHandler, never()).updateAppRuntime(app);
+        verify(update, never()).withoutAppSetting(any());
+        verify(update, never()).apply();
     }
 
     @Test
@@ -219,6 +325,8 @@ public class DeployMojoTest extends MojoTestBase {
         doReturn(null).when(mojoSpy).getFunctionRuntimeHandler();
         doNothing().when(mojoSpy).parseConfiguration();
         doNothing().when(mojoSpy).checkArtifactCompileVersion();
+        doNothing().when(mojoSpy).prepareArtifactPackage();
+        doNothing().when(mojoSpy).resolveApplicationInsights();
         mojoSpy.doExecute();
     }
 
@@ -243,6 +351,8 @@ public class DeployMojoTest extends MojoTestBase {
         doReturn(app).when(mojoSpy).getFunctionApp();
         doNothing().when(mojoSpy).parseConfiguration();
         doNothing().when(mojoSpy).checkArtifactCompileVersion();
+        doNothing().when(mojoSpy).prepareArtifactPackage();
+        doNothing().when(mojoSpy).resolveApplicationInsights();
         doReturn(slot).when(mojoSpy).updateDeploymentSlot(any(), any());
         doCallRealMethod().when(mojoSpy).createDeploymentSlot(any(), any());
         doReturn(null).when(mojoSpy).getResourcePortalUrl(any());
@@ -260,6 +370,107 @@ public class DeployMojoTest extends MojoTestBase {
         verifyNoMoreInteractions(artifactHandler);
     }
 
+    @Test
+    public void provisionAlongWithApplicationInsights() throws Exception {
+        final CountDownLatch provisioned = new CountDownLatch(1);
+        doNothing().when(mojoSpy).parseConfiguration();
+        doNothing().when(mojoSpy).checkArtifactCompileVersion();
+        doNothing().when(mojoSpy).prepareArtifactPackage();
+        doNothing().when(mojoSpy).listHTTPTriggerUrls();
+        doNothing().when(mojoSpy).deployArtifact(any());
+        doAnswer(invocation -> {
+            assertTrue(provisioned.await(10, TimeUnit.SECONDS));
+            return null;
+        }).when(mojoSpy).resolveApplicationInsights();
+        doAnswer(invocation -> {
+            provisioned.countDown();
+            return null;
+        }).when(mojoSpy).createOrUpdateResource();
+
+        mojoSpy.doExecute();
+
+        verify(mojoSpy, times(1)).deployArtifact(any());
+    }
+
+    @Test
+    public void authenticateBeforeSharedTasks() throws Exception {
+        doNothing().when(mojoSpy).parseConfiguration();
+        doNothing().when(mojoSpy).checkArtifactCompileVersion();
+        doNothing().when(mojoSpy).prepareArtifactPackage();
+        doNothing().when(mojoSpy).listHTTPTriggerUrls();
+        doNothing().when(mojoSpy).deployArtifact(any());
+        doNothing().when(mojoSpy).resolveApplicationInsights();
+        doReturn(null).when(mojoSpy).createOrUpdateResource();
+
+        mojoSpy.doExecute();
+
+        // Created once before the tasks running at the same time use them
+        final InOrder appInsights = inOrder(mojoSpy);
+        appInsights.verify(mojoSpy).getAzureClient();
+        appInsights.verify(mojoSpy).getResourceContext();
+        appInsights.verify(mojoSpy).resolveApplicationInsights();
+        final InOrder provision = inOrder(mojoSpy);
+        provision.verify(mojoSpy).getResourceContext();
+        provision.verify(mojoSpy).createOrUpdateResource();
+    }
+
+    @Test
+    public void reportAuthFailure() throws Exception {
+        doNothing().when(mojoSpy).parseConfiguration();
+        doNothing().when(mojoSpy).checkArtifactCompileVersion();
+        doNothing().when(mojoSpy).prepareArtifactPackage();
+        doNothing().when(mojoSpy).resolveApplicationInsights();
+        doThrow(new AzureAuthFailureException("expired")).when(mojoSpy).createOrUpdateResource();
+
+        try {
+            mojoSpy.doExecute();
+            fail("Should report the auth failure.");
+        } catch (AzureExecutionException e) {
+            assertEquals("Cannot auth to azure", e.getMessage());
+            assertTrue(e.getCause() instanceof AzureAuthFailureException);
+        }
+    }
+
+    @Test
+    public void deployToTargets() throws Exception {
+        mojoSpy.targets = Arrays.asList(createTarget("app1", "eastus"), createTarget("app2", null));
+        final List<String> deployed = new CopyOnWriteArrayList<>();
+        doNothing().when(mojoSpy).parseConfiguration();
+        doNothing().when(mojoSpy).checkArtifactCompileVersion();
+        doNothing().when(mojoSpy).prepareArtifactPackage();
+        doNothing().when(mojoSpy).resolveApplicationInsights();
+        doNothing().when(mojoSpy).listHTTPTriggerUrls();
+        doNothing().when(mojoSpy).deployArtifact(any());
+        doAnswer(invocation -> {
+            deployed.add(String.format("%s/%s/%s", mojoSpy.getAppName(), mojoSpy.getRegion(), mojoSpy.getResourceGroup()));
+            if ("app2".equals(mojoSpy.getAppName())) {
+                throw new AzureExecutionException("failed");
+            }
+            return null;
+        }).when(mojoSpy).createOrUpdateResource();
+
+        try {
+            mojoSpy.doExecute();
+            fail("Should report the failed target.");
+        } catch (AzureExecutionException e) {
+            assertEquals("Failed to deploy to 1 of 2 targets.", e.getMessage());
+        }
+        assertEquals(2, deployed.size());
+        assertTrue(deployed.contains("app1/eastus/resourceGroupName"));
+        assertTrue(deployed.contains("app2/westeurope/resourceGroupName"));
+        verify(mojoSpy, times(1)).prepareArtifactPackage();
+        verify(mojoSpy, times(1)).deployArtifact(any());
+        // The targets don't leak into the configuration of the current thread
+        assertEquals("appName", mojoSpy.getAppName());
+    }
+
+    private static DeployTargetSetting createTarget(final String appName, final String region) {
+        final DeployTargetSetting target = new DeployTargetSetting();
+        target.setAppName(appName);
+        target.setRegion(region);
+        return target;
+    }
+
     private DeployMojo getMojoFromPom() throws Exception {
         final DeployMojo mojoFromPom = (DeployMojo) getMojoFromPom("/pom.xml", "deploy");
         assertNotNull(mojoFromPom);
@@ -9,21 +9,27 @@ package com.microsoft.azure.maven.function;
 import com.microsoft.azure.common.function.handlers.AnnotationHandler;
 import com.microsoft.azure.common.function.handlers.AnnotationHandlerImpl;
 
-import org.apache.maven.execution.MavenSession;
-import org.apache.maven.project.MavenProject;
-import org.apache.maven.shared.filtering.MavenResourcesFiltering;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.model.Resource;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
 import org.codehaus.plexus.util.ReflectionUtils;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.io.File;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.isNotNull;
@@ -31,10 +37,15 @@ import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 @RunWith(MockitoJUnitRunner.class)
 public class PackageMojoTest extends MojoTestBase {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void doExecute() throws Exception {
         final PackageMojo mojo = getMojoFromPom();
@@ -45,15 +56,32 @@ public class PackageMojoTest extends MojoTestBase {
         doReturn(methods).when(mojoSpy).findAnnotatedMethods(any());
         doReturn("target/azure-functions").when(mojoSpy).getDeploymentStagingDirectoryPath();
         doReturn("target").when(mojoSpy).getBuildDirectoryAbsolutePath();
-        doReturn(mock(MavenProject.class)).when(mojoSpy).getProject();
-        doReturn(mock(MavenSession.class)).when(mojoSpy).getSession();
         doReturn(false).when(mojoSpy).isInstallingExtensionNeeded(any());
-        doReturn(mock(MavenResourcesFiltering.class)).when(mojoSpy).getMavenResourcesFiltering();
         doNothing().when(mojoSpy).copyHostJsonFile(any());
         doNothing().when(mojoSpy).promptCompileInfo();
         mojoSpy.doExecute();
     }
 
+    @Test
+    public void startWithoutAzure() throws Exception {
+        final PackageMojo mojoSpy = spy(getMojoFromPom());
+        final PluginDescriptor plugin = mock(PluginDescriptor.class);
+        ReflectionUtils.setVariableValueInObject(mojoSpy, "plugin", plugin);
+        ReflectionUtils.setVariableValueInObject(mojoSpy, "allowTelemetry", false);
+        doReturn("azure-functions-maven-plugin").when(plugin).getArtifactId();
+        doReturn("0.1.0").when(plugin).getVersion();
+        doNothing().when(mojoSpy).doExecute();
+
+        mojoSpy.execute();
+
+        // Nothing is authenticated before the goal starts its work, which doesn't need Azure
+        verify(mojoSpy).doExecute();
+        verify(mojoSpy, never()).getAzureClient();
+        assertNull(ReflectionUtils.getValueIncludingSuperclasses("azure", mojoSpy));
+        assertNull(ReflectionUtils.getValueIncludingSuperclasses("azureTokenWrapper", mojoSpy));
+        assertFalse((Boolean) ReflectionUtils.getValueIncludingSuperclasses("authInitialized", mojoSpy));
+    }
+
     @Test
     public void getAnnotationHandler() throws Exception {
         final PackageMojo mojo = getMojoFromPom();
@@ -84,6 +112,26 @@ public class PackageMojoTest extends MojoTestBase {
         mojoSpy.writeFunctionJsonFile(null, "httpTrigger", null);
     }
 
+    @Test
+    public void copyJarsWithoutExcludedFiles() throws Exception {
+        final File build = folder.newFolder("build");
+        final File staging = new File(folder.getRoot(), "staging");
+        FileUtils.write(new File(build, "app.jar"), "app", StandardCharsets.UTF_8);
+        FileUtils.write(new File(build, "app-sources.jar"), "sources", StandardCharsets.UTF_8);
+        final Resource resource = new Resource();
+        resource.setDirectory(build.getAbsolutePath());
+        resource.setIncludes(Arrays.asList("*.jar"));
+        resource.setExcludes(Arrays.asList("*-sources.jar"));
+        final PackageMojo mojoSpy = spy(getMojoFromPom());
+        doReturn(staging.getAbsolutePath()).when(mojoSpy).getDeploymentStagingDirectoryPath();
+        doReturn(Arrays.asList(resource)).when(mojoSpy).getResources();
+
+        mojoSpy.copyJarsToStageDirectory();
+
+        assertTrue(new File(staging, "app.jar").isFile());
+        assertFalse(new File(staging, "app-sources.jar").exists());
+    }
+
     private PackageMojo getMojoFromPom() throws Exception {
         final PackageMojo mojo = (PackageMojo) getMojoFromPom("/pom.xml", "package");
         assertNotNull(mojo);
@@ -8,7 +8,7 @@ package com.microsoft.azure.maven.common.telemetry;
 
 import com.microsoft.applicationinsights.TelemetryClient;
 import com.microsoft.applicationinsights.internal.channel.common.ApacheSenderFactory;
-import com.microsoft.azure.common.utils.GetHashMac;
+import com.microsoft.azure.common.utils.InstallationIdUtils;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -29,7 +29,7 @@ public enum AppInsightHelper implements TelemetryProxy {
     AppInsightHelper() {
         sessionId = UUID.randomUUID().toString();
         defaultProperties.put(TELEMETRY_KEY_SESSION_ID, sessionId);
-        defaultProperties.put(TELEMETRY_KEY_INSTALLATIONID, GetHashMac.getHashMac());
+        defaultProperties.put(TELEMETRY_KEY_INSTALLATIONID, InstallationIdUtils.getInstallationId());
         initTelemetryHttpClient();
     }
 
@@ -76,7 +76,7 @@ public enum AppInsightHelper implements TelemetryProxy {
     }
 
     public String getInstallationId() {
-        return GetHashMac.getHashMac();
+        return InstallationIdUtils.getInstallationId();
     }
 
     public void addDefaultProperty(String key, String value) {
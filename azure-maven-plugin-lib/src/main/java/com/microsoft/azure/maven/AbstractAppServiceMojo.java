@@ -104,6 +104,8 @@ public abstract class AbstractAppServiceMojo extends AbstractAzureMojo {
     @Parameter
     protected Properties appSettings;
 
+    private AppServiceResourceContext resourceContext;
+
     public String getResourceGroup() {
         return resourceGroup;
     }
@@ -140,10 +142,14 @@ public abstract class AbstractAppServiceMojo extends AbstractAzureMojo {
     }
 
     public String getDeploymentStagingDirectoryPath() {
+        return getDeploymentStagingDirectoryPath(this.getAppName());
+    }
+
+    protected String getDeploymentStagingDirectoryPath(final String name) {
         final String outputFolder = this.getPluginName().replaceAll(MAVEN_PLUGIN_POSTFIX, "");
         return Paths.get(
             this.getBuildDirectoryAbsolutePath(),
-            outputFolder, this.getAppName()
+            outputFolder, name
         ).toString();
     }
 
@@ -151,6 +157,16 @@ public abstract class AbstractAppServiceMojo extends AbstractAzureMojo {
         this.deploymentSlotSetting = slotSetting;
     }
 
+    /**
+     * @return the resources looked up during current execution, which are read from Azure only once
+     */
+    public AppServiceResourceContext getResourceContext() {
+        if (resourceContext == null) {
+            resourceContext = new AppServiceResourceContext(this::getAzureClient);
+        }
+        return resourceContext;
+    }
+
     public String getResourcePortalUrl(WebAppBase resource) throws AzureAuthFailureException {
         final AzureTokenWrapper azureTokenWrapper = getAzureTokenWrapper();
         final AzureEnvironment environment = azureTokenWrapper == null ?
@@ -6,10 +6,11 @@
 
 package com.microsoft.azure.maven;
 
-import com.microsoft.applicationinsights.internal.channel.common.ApacheSenderFactory;
 import com.microsoft.azure.AzureEnvironment;
 import com.microsoft.azure.auth.AzureAuthHelper;
+import com.microsoft.azure.auth.AzureCredential;
 import com.microsoft.azure.auth.AzureTokenWrapper;
+import com.microsoft.azure.auth.Constants;
 import com.microsoft.azure.auth.MavenSettingHelper;
 import com.microsoft.azure.auth.configuration.AuthType;
 import com.microsoft.azure.auth.exception.AzureLoginFailureException;
@@ -18,7 +19,10 @@ import com.microsoft.azure.common.ConfigurationProblem;
 import com.microsoft.azure.common.ConfigurationProblem.Severity;
 import com.microsoft.azure.common.exceptions.AzureExecutionException;
 import com.microsoft.azure.common.logging.Log;
-import com.microsoft.azure.common.utils.GetHashMac;
+import com.microsoft.azure.common.utils.InstallationIdUtils;
+import com.microsoft.azure.common.utils.SharedExecutor;
+import com.microsoft.azure.common.utils.SubscriptionCache;
+import com.microsoft.azure.common.utils.SubscriptionCache.CachedSubscription;
 import com.microsoft.azure.management.Azure;
 import com.microsoft.azure.management.resources.Subscription;
 import com.microsoft.azure.maven.auth.AuthConfiguration;
@@ -26,10 +30,12 @@ import com.microsoft.azure.maven.auth.AuthenticationSetting;
 import com.microsoft.azure.maven.auth.AzureAuthFailureException;
 import com.microsoft.azure.maven.auth.AzureAuthHelperLegacy;
 import com.microsoft.azure.maven.auth.AzureClientFactory;
+import com.microsoft.azure.maven.auth.AzureClientRegistry;
 import com.microsoft.azure.maven.common.utils.MavenUtils;
 import com.microsoft.azure.maven.telemetry.AppInsightsProxy;
 import com.microsoft.azure.maven.telemetry.TelemetryConfiguration;
 import com.microsoft.azure.maven.telemetry.TelemetryProxy;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
@@ -49,13 +55,14 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -73,8 +80,7 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
     public static final String INIT_FAILURE = "InitFailure";
     public static final String AZURE_INIT_FAIL = "Failed to authenticate with Azure. Please check your configuration.";
     public static final String FAILURE_REASON = "failureReason";
-    private static final String CONFIGURATION_PATH = Paths.get(System.getProperty("user.home"),
-            ".azure", "mavenplugins.properties").toString();
+    private static final String CONFIGURATION_PATH = InstallationIdUtils.CONFIGURATION_PATH;
     private static final String FIRST_RUN_KEY = "first.run";
     private static final String PRIVACY_STATEMENT = "\nData/Telemetry\n" +
             "---------\n" +
@@ -87,6 +93,8 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
     private static final String UNSUPPORTED_AZURE_ENVIRONMENT = "Unsupported Azure environment %s, using Azure by default.";
     private static final String USING_AZURE_ENVIRONMENT = "Using Azure environment : %s.";
     private static final String SUBSCRIPTION_TEMPLATE = "Subscription : %s(%s)";
+    private static final String ARM_CACHE_FOLDER = "arm-cache";
+    private static final String STARTUP_TIME = "%s started in %d ms.";
 
     //region Properties
 
@@ -178,6 +186,15 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
     @Parameter(property = "auth")
     protected com.microsoft.azure.auth.configuration.AuthConfiguration auth;
 
+    /**
+     * Boolean flag to cache the resources read from Azure Resource Manager on disk across Maven runs.
+     * Cached resources are revalidated with their ETags on every read.
+     *
+     * @since 1.5.0
+     */
+    @Parameter(property = "enableArmCache", defaultValue = "false")
+    protected boolean enableArmCache;
+
     @Component
     protected SettingsDecrypter settingsDecrypter;
 
@@ -189,7 +206,9 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
 
     private String sessionId = UUID.randomUUID().toString();
 
-    private String installationId = GetHashMac.getHashMac();
+    private String installationId;
+
+    private long startupTime;
 
     private boolean authInitialized = false;
 
@@ -241,7 +260,17 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
     }
 
     public String getInstallationId() {
-        return installationId == null ? "" : installationId;
+        if (installationId == null) {
+            installationId = StringUtils.defaultString(InstallationIdUtils.getInstallationId());
+        }
+        return installationId;
+    }
+
+    /**
+     * Time from the start of the goal to the start of its real work in milliseconds, 0 until then.
+     */
+    public long getStartupTime() {
+        return startupTime;
     }
 
     public String getPluginName() {
@@ -271,28 +300,72 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
 
     public Azure getAzureClient() throws AzureAuthFailureException {
         if (azure == null) {
-            if (this.authentication != null && (this.authentication.getFile() != null || StringUtils.isNotBlank(authentication.getServerId()))) {
-                // TODO: remove the old way of authentication
-                Log.warn("You are using an old way of authentication which will be deprecated in future versions, please change your configurations.");
-                azure = new AzureAuthHelperLegacy(this).getAzureClient();
-            } else {
-                initAuth();
-                azure = getAzureClientByAuthType();
-            }
-            if (azure == null) {
-                getTelemetryProxy().trackEvent(INIT_FAILURE);
-                throw new AzureAuthFailureException(AZURE_INIT_FAIL);
-            }
-            printCurrentSubscription(azure);
+            // The modules of a reactor build share the client created for the same configuration
+            final AzureClientRegistry.Entry entry = session == null ? createAzureClient() :
+                    AzureClientRegistry.getOrCreate(session, getAzureClientKey(), this::createAzureClient);
+            azure = entry.getAzure();
+            azureTokenWrapper = entry.getAzureTokenWrapper();
             getTelemetryProxy().addDefaultProperty(AUTH_TYPE, authType);
             getTelemetryProxy().addDefaultProperty(AUTH_METHOD, getAuthMethod());
             // Repopulate subscriptionId in case it is not configured.
             getTelemetryProxy().addDefaultProperty(SUBSCRIPTION_ID_KEY, azure.subscriptionId());
-
         }
         return azure;
     }
 
+    protected AzureClientRegistry.Entry createAzureClient() throws AzureAuthFailureException {
+        final Azure azureClient;
+        if (this.authentication != null && (this.authentication.getFile() != null || StringUtils.isNotBlank(authentication.getServerId()))) {
+            // TODO: remove the old way of authentication
+            Log.warn("You are using an old way of authentication which will be deprecated in future versions, please change your configurations.");
+            azureClient = new AzureAuthHelperLegacy(this).getAzureClient();
+        } else {
+            initAuth();
+            azureClient = getAzureClientByAuthType();
+        }
+        if (azureClient == null) {
+            getTelemetryProxy().trackEvent(INIT_FAILURE);
+            throw new AzureAuthFailureException(AZURE_INIT_FAIL);
+        }
+        printCurrentSubscription(azureClient);
+        return new AzureClientRegistry.Entry(azureClient, azureTokenWrapper);
+    }
+
+    /**
+     * Everything the client depends on, the secrets are hashed so that they are not kept in memory as a key
+     */
+    protected String getAzureClientKey() {
+        final List<Object> values = new ArrayList<>(Arrays.asList(getPluginName(), getPluginVersion(), authType, subscriptionId,
+                httpProxyHost, httpProxyPort, enableArmCache, isTelemetryAllowed()));
+        if (authentication != null) {
+            values.addAll(Arrays.asList(authentication.getServerId(), authentication.getFile()));
+        }
+        if (auth != null) {
+            values.addAll(Arrays.asList(auth.getServerId(), auth.getClient(), auth.getTenant(), auth.getKey(), auth.getCertificate(),
+                    auth.getCertificatePassword(), auth.getEnvironment(), auth.getHttpProxyHost(), auth.getHttpProxyPort()));
+        }
+        values.addAll(getLoginState());
+        return DigestUtils.sha256Hex(values.stream().map(String::valueOf).collect(Collectors.joining("|")));
+    }
+
+    /**
+     * What azure:login, az login and selecting another subscription change, so that a client kept for the later builds
+     * is not used after them
+     */
+    private static List<Object> getLoginState() {
+        String defaultSubscription = null;
+        if (AzureAuthHelper.existsAzureSecretFile()) {
+            try {
+                final AzureCredential credential = AzureAuthHelper.readAzureCredentials();
+                defaultSubscription = credential == null ? null : credential.getDefaultSubscription();
+            } catch (IOException | RuntimeException e) {
+                Log.debug(String.format("Cannot read the default subscription of azure-secret.json: %s", e.getMessage()));
+            }
+        }
+        return Arrays.asList(AzureAuthHelper.getAzureSecretFile().lastModified(), defaultSubscription,
+                new File(AzureAuthHelper.getAzureConfigFolder(), Constants.AZURE_PROFILE_NAME).lastModified());
+    }
+
     protected Azure getAzureClientByAuthType() throws AzureAuthFailureException {
         try {
             final AzureEnvironment environment;
@@ -308,7 +381,7 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
             }
             azureTokenWrapper = getAuthTypeEnum().getAzureToken(isAuthConfigurationExist() ? this.auth : null, environment);
             final Azure azureClient = azureTokenWrapper == null ? null : AzureClientFactory.getAzureClient(azureTokenWrapper,
-                    this.subscriptionId, getUserAgent());
+                    this.subscriptionId, getUserAgent(), enableArmCache ? new File(AzureAuthHelper.getAzureConfigFolder(), ARM_CACHE_FOLDER) : null);
 
             return azureClient;
         } catch (IOException | AzureLoginFailureException e) {
@@ -389,12 +462,28 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
         if (azure == null) {
             return;
         }
+        // The subscription is usually listed when the client is created, no need to get it from ARM again
+        final CachedSubscription cached = SubscriptionCache.getLoaded(azure.subscriptionId());
+        if (cached != null) {
+            Log.info(String.format(SUBSCRIPTION_TEMPLATE, cached.displayName(), cached.subscriptionId()));
+            return;
+        }
         final Subscription subscription = azure.getCurrentSubscription();
         if (subscription != null) {
             Log.info(String.format(SUBSCRIPTION_TEMPLATE, subscription.displayName(), subscription.subscriptionId()));
         }
     }
 
+    /**
+     * @return the subscriptions of current account, from the cache shared by the plugins if the listing is recent
+     */
+    protected List<CachedSubscription> listSubscriptions(Azure azureClient) {
+        if (azureTokenWrapper == null) {
+            return azureClient.subscriptions().list().stream().map(CachedSubscription::new).collect(Collectors.toList());
+        }
+        return AzureClientFactory.getSubscriptionCache(azureTokenWrapper).get(() -> azureClient.subscriptions().list());
+    }
+
     protected boolean isAuthConfigurationExist() {
         final String pluginKey = plugin.getPluginLookupKey();
         final Xpp3Dom pluginDom = MavenUtils.getPluginConfiguration(project, pluginKey);
@@ -441,6 +530,7 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
 
     @Override
     public void execute() throws MojoExecutionException {
+        final long start = System.nanoTime();
         try {
             // Work around for Application Insights Java SDK:
             // Sometimes, NoClassDefFoundError will be thrown even after Maven build is completed successfully.
@@ -460,25 +550,20 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
             } else {
                 trackMojoStart();
 
-                doExecute();
+                // Nothing is set up before this point except telemetry, the Azure client is created when it is used first
+                startupTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                Log.debug(String.format(STARTUP_TIME, getClass().getSimpleName(), startupTime));
+                // Concurrent work of the goal runs in this scope, the tasks left running when the goal ends or fails are cancelled
+                try (final SharedExecutor.Scope scope = SharedExecutor.open()) {
+                    doExecute();
+                }
 
                 trackMojoSuccess();
             }
         } catch (Exception e) {
             handleException(e);
-        } finally {
-            // When maven goal executes too quick, The HTTPClient of AI SDK may not fully initialized and will step
-            // into endless loop when close, we need to call it in main thread.
-            // Refer here for detail codes: https://github.com/Microsoft/ApplicationInsights-Java/blob/master/core/src
-            // /main/java/com/microsoft/applicationinsights/internal/channel/common/ApacheSender43.java#L103
-            try {
-                // Sleep to wait ai sdk flush telemetries
-                Thread.sleep(2 * 1000);
-            } catch (InterruptedException e) {
-                // swallow this exception
-            }
-            ApacheSenderFactory.INSTANCE.create().close();
         }
+        // Telemetry is sent in the background and flushed by TelemetryShutdownHook when Maven exits
     }
 
     /**
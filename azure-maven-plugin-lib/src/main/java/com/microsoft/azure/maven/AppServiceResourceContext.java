@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.maven;
+
+import com.microsoft.azure.CloudException;
+import com.microsoft.azure.common.function.utils.FunctionUtils;
+import com.microsoft.azure.common.logging.Log;
+import com.microsoft.azure.management.Azure;
+import com.microsoft.azure.management.appservice.AppServicePlan;
+import com.microsoft.azure.management.appservice.DeploymentSlot;
+import com.microsoft.azure.management.appservice.FunctionApp;
+import com.microsoft.azure.management.appservice.FunctionDeploymentSlot;
+import com.microsoft.azure.management.appservice.WebApp;
+import com.microsoft.azure.management.appservice.WebAppBase;
+import com.microsoft.azure.management.resources.ResourceGroup;
+import com.microsoft.azure.maven.auth.AzureAuthFailureException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.net.HttpURLConnection;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-execution memoization of the App Service resources looked up from ARM, so that the site, plan, slot and
+ * resource group are read once per goal no matter how many handlers ask for them. Absent resources are memoized
+ * as well. Callers must {@link #refresh(WebAppBase)} or {@link #invalidate()} after any mutating call.
+ */
+public class AppServiceResourceContext {
+    private static final String WEB_APP = "site";
+    private static final String FUNCTION_APP = "function";
+    private static final String APP_SERVICE_PLAN = "plan";
+    private static final String DEPLOYMENT_SLOT = "slot";
+    private static final String RESOURCE_GROUP = "resourceGroup";
+
+    private final AzureClientProvider azureClientProvider;
+    private final Map<String, Optional<?>> resources = new ConcurrentHashMap<>();
+
+    public AppServiceResourceContext(final AzureClientProvider azureClientProvider) {
+        this.azureClientProvider = azureClientProvider;
+    }
+
+    public WebApp getWebApp(final String resourceGroup, final String appName) throws AzureAuthFailureException {
+        final Azure azure = azureClientProvider.getAzureClient();
+        return get(key(WEB_APP, resourceGroup, appName), () -> azure.webApps().getByResourceGroup(resourceGroup, appName));
+    }
+
+    public FunctionApp getFunctionApp(final String resourceGroup, final String appName) throws AzureAuthFailureException {
+        final Azure azure = azureClientProvider.getAzureClient();
+        return get(key(FUNCTION_APP, resourceGroup, appName),
+            () -> azure.appServices().functionApps().getByResourceGroup(resourceGroup, appName));
+    }
+
+    public AppServicePlan getAppServicePlan(final String appServicePlanId) throws AzureAuthFailureException {
+        final Azure azure = azureClientProvider.getAzureClient();
+        return get(key(APP_SERVICE_PLAN, appServicePlanId), () -> azure.appServices().appServicePlans().getById(appServicePlanId));
+    }
+
+    public AppServicePlan getAppServicePlan(final WebAppBase app) throws AzureAuthFailureException {
+        return getAppServicePlan(app.appServicePlanId());
+    }
+
+    public DeploymentSlot getDeploymentSlot(final WebApp app, final String slotName) {
+        return get(key(DEPLOYMENT_SLOT, app.id(), slotName), () -> {
+            try {
+                return app.deploymentSlots().getByName(slotName);
+            } catch (NoSuchElementException e) {
+                return null;
+            }
+        });
+    }
+
+    public FunctionDeploymentSlot getFunctionDeploymentSlot(final FunctionApp app, final String slotName) {
+        return get(key(DEPLOYMENT_SLOT, app.id(), slotName), () -> FunctionUtils.getFunctionDeploymentSlotByName(app, slotName));
+    }
+
+    public ResourceGroup getResourceGroup(final String resourceGroup) throws AzureAuthFailureException {
+        final Azure azure = azureClientProvider.getAzureClient();
+        return get(key(RESOURCE_GROUP, resourceGroup), () -> {
+            try {
+                return azure.resourceGroups().getByName(resourceGroup);
+            } catch (CloudException e) {
+                if (e.response() != null && e.response().code() == HttpURLConnection.HTTP_NOT_FOUND) {
+                    return null;
+                }
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Memoize the resource returned by a create or update call in place of the one read before the call.
+     */
+    public <T extends WebAppBase> T refresh(final T resource) {
+        final String key = keyOf(resource);
+        if (key != null) {
+            resources.put(key, Optional.of(resource));
+        }
+        return resource;
+    }
+
+    /**
+     * Forget all the memoized resources, for mutations which may affect more than the resource being changed,
+     * e.g. moving an app to another plan, swapping slots or restarting the app.
+     */
+    public void invalidate() {
+        resources.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(final String key, final Supplier<T> loader) {
+        final Optional<?> cached = resources.get(key);
+        if (cached != null) {
+            Log.debug(String.format("Using memoized resource %s.", key));
+            return (T) cached.orElse(null);
+        }
+        final T resource = loader.get();
+        resources.put(key, Optional.ofNullable(resource));
+        return resource;
+    }
+
+    private static String keyOf(final WebAppBase resource) {
+        if (resource instanceof DeploymentSlot) {
+            final WebApp parent = ((DeploymentSlot) resource).parent();
+            return parent == null ? null : key(DEPLOYMENT_SLOT, parent.id(), resource.name());
+        }
+        if (resource instanceof FunctionDeploymentSlot) {
+            final FunctionApp parent = ((FunctionDeploymentSlot) resource).parent();
+            return parent == null ? null : key(DEPLOYMENT_SLOT, parent.id(), resource.name());
+        }
+        if (resource instanceof FunctionApp) {
+            return key(FUNCTION_APP, resource.resourceGroupName(), resource.name());
+        }
+        if (resource instanceof WebApp) {
+            return key(WEB_APP, resource.resourceGroupName(), resource.name());
+        }
+        return null;
+    }
+
+    private static String key(final String type, final String... names) {
+        return StringUtils.lowerCase(type + "/" + StringUtils.join(names, "/"));
+    }
+
+    @FunctionalInterface
+    public interface AzureClientProvider {
+        Azure getAzureClient() throws AzureAuthFailureException;
+    }
+}
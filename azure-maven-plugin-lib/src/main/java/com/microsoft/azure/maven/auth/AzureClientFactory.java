@@ -7,18 +7,26 @@
 package com.microsoft.azure.maven.auth;
 
 import com.google.common.base.Preconditions;
-import com.microsoft.azure.PagedList;
 import com.microsoft.azure.auth.AzureTokenWrapper;
 import com.microsoft.azure.auth.exception.AzureLoginFailureException;
 import com.microsoft.azure.common.logging.Log;
+import com.microsoft.azure.common.utils.IdentityUtils;
+import com.microsoft.azure.common.utils.SharedHttpClient;
+import com.microsoft.azure.common.utils.SubscriptionCache;
+import com.microsoft.azure.common.utils.SubscriptionCache.CachedSubscription;
 import com.microsoft.azure.management.Azure;
 import com.microsoft.azure.management.Azure.Authenticated;
-import com.microsoft.azure.management.resources.Subscription;
+import com.microsoft.azure.maven.http.ConditionalGetCacheInterceptor;
+import com.microsoft.azure.maven.http.ThrottlingInterceptor;
+import com.microsoft.rest.RestClient;
+import okhttp3.Interceptor;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
 
 public class AzureClientFactory {
     public static final String SUBSCRIPTION_NOT_FOUND = "Subscription %s was not found in current account.";
@@ -28,9 +36,28 @@ public class AzureClientFactory {
 
     public static Azure getAzureClient(AzureTokenWrapper azureTokenCredentials, String subscriptionId,
                                        String userAgent) throws IOException, AzureLoginFailureException {
+        return getAzureClient(azureTokenCredentials, subscriptionId, userAgent, null);
+    }
+
+    /**
+     * @param cacheFolder folder to cache ARM responses in, see {@link ConditionalGetCacheInterceptor}, null to disable the cache
+     */
+    public static Azure getAzureClient(AzureTokenWrapper azureTokenCredentials, String subscriptionId,
+                                       String userAgent, File cacheFolder) throws IOException, AzureLoginFailureException {
         Preconditions.checkNotNull(azureTokenCredentials, "The parameter 'azureTokenCredentials' cannot be null.");
         Log.info(azureTokenCredentials.getCredentialDescription());
-        final Authenticated authenticated = Azure.configure().withUserAgent(userAgent).authenticate(azureTokenCredentials);
+        final String identity = getIdentity(azureTokenCredentials);
+        final List<Interceptor> interceptors = new ArrayList<>();
+        // Responses are not cached when it is unknown who they are sent to
+        if (cacheFolder != null && identity != null) {
+            interceptors.add(new ConditionalGetCacheInterceptor(cacheFolder, identity, ConditionalGetCacheInterceptor.DEFAULT_MAX_SIZE));
+        }
+        // Added after the cache so that revalidations are paced as well. It retries the throttled requests, so it
+        // replaces the throttling interceptor of the SDK rather than retrying every retry of it
+        interceptors.add(ThrottlingInterceptor.getInstance());
+        final RestClient.Builder restClientBuilder = SharedHttpClient.newRestClientBuilder(azureTokenCredentials, userAgent,
+                interceptors.toArray(new Interceptor[0]));
+        final Authenticated authenticated = Azure.authenticate(restClientBuilder.build(), azureTokenCredentials.domain());
         // For cloud shell, use subscription in profile as the default subscription.
         if (StringUtils.isEmpty(subscriptionId) && AzureAuthHelperLegacy.isInCloudShell()) {
             subscriptionId = AzureAuthHelperLegacy.getSubscriptionOfCloudShell();
@@ -38,13 +65,30 @@ public class AzureClientFactory {
         subscriptionId = StringUtils.isEmpty(subscriptionId) ? azureTokenCredentials.defaultSubscriptionId() : subscriptionId;
         final Azure azureClient = StringUtils.isEmpty(subscriptionId) ? authenticated.withDefaultSubscription() :
                 authenticated.withSubscription(subscriptionId);
-        checkSubscription(azureClient, subscriptionId);
+        checkSubscription(azureClient, subscriptionId, SubscriptionCache.forIdentity(identity));
         return azureClient;
     }
 
-    private static void checkSubscription(Azure azure, String targetSubscription) throws AzureLoginFailureException {
-        final PagedList<Subscription> subscriptions = azure.subscriptions().list();
-        subscriptions.loadAll();
+    /**
+     * @return the subscriptions listed for the identity of the credentials, shared by the goals of all the plugins
+     */
+    public static SubscriptionCache getSubscriptionCache(AzureTokenWrapper azureTokenCredentials) {
+        return SubscriptionCache.forIdentity(getIdentity(azureTokenCredentials));
+    }
+
+    /**
+     * @return the identity the caches of the plugins are kept for, the same as the login goals use, null if it is unknown
+     */
+    public static String getIdentity(AzureTokenWrapper azureTokenCredentials) {
+        return IdentityUtils.getIdentity(azureTokenCredentials.getAzureTokenCredentials());
+    }
+
+    private static void checkSubscription(Azure azure, String targetSubscription, SubscriptionCache cache) throws AzureLoginFailureException {
+        List<CachedSubscription> subscriptions = cache.get(() -> azure.subscriptions().list());
+        // List again in case the subscription is added after the listing was cached
+        if (subscriptions.isEmpty() || (StringUtils.isNotEmpty(targetSubscription) && !contains(subscriptions, targetSubscription))) {
+            subscriptions = cache.refresh(() -> azure.subscriptions().list());
+        }
         if (subscriptions.size() == 0) {
             throw new AzureLoginFailureException(NO_AVAILABLE_SUBSCRIPTION);
         }
@@ -52,11 +96,12 @@ public class AzureClientFactory {
             Log.warn(SUBSCRIPTION_NOT_SPECIFIED);
             return;
         }
-        final Optional<Subscription> optionalSubscription = subscriptions.stream()
-                .filter(subscription -> StringUtils.equals(subscription.subscriptionId(), targetSubscription))
-                .findAny();
-        if (!optionalSubscription.isPresent()) {
+        if (!contains(subscriptions, targetSubscription)) {
             throw new AzureLoginFailureException(String.format(SUBSCRIPTION_NOT_FOUND, targetSubscription));
         }
     }
+
+    private static boolean contains(List<CachedSubscription> subscriptions, String subscriptionId) {
+        return subscriptions.stream().anyMatch(subscription -> StringUtils.equals(subscription.subscriptionId(), subscriptionId));
+    }
 }
@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.maven.auth;
+
+import com.microsoft.azure.auth.AzureTokenWrapper;
+import com.microsoft.azure.common.logging.Log;
+import com.microsoft.azure.management.Azure;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Azure clients shared by all the mojos of a Maven session, so that the modules of a reactor build, including the ones
+ * built in parallel with {@code -T}, authenticate and look up the subscription only once for the same configuration.
+ * The plugin classes are loaded once per build, the clients are kept as long as the session is alive.
+ * A failed authentication is not remembered, the next module tries again.
+ * When Maven keeps running between builds, as the Maven daemon (mvnd) does, the system property
+ * azure.clients.keepAliveMinutes opts in to keep the clients for the later builds, until they are not used for the given
+ * minutes. Those builds then skip authentication and reuse the warm connections of the clients.
+ */
+public class AzureClientRegistry {
+    public static final String KEEP_ALIVE_PROPERTY = "azure.clients.keepAliveMinutes";
+
+    private static final String INTERRUPTED = "Interrupted while waiting for the authentication of another module.";
+    private static final Map<Object, Map<String, CompletableFuture<Entry>>> SESSIONS = Collections.synchronizedMap(new WeakHashMap<>());
+    // Owner of the clients kept across sessions, when each of them was used last and how many threads are creating or
+    // waiting for it
+    private static final Object KEPT_ALIVE = new Object();
+    private static final Map<String, Long> LAST_USED = new ConcurrentHashMap<>();
+    private static final Map<String, Integer> IN_USE = new ConcurrentHashMap<>();
+
+    private AzureClientRegistry() {
+
+    }
+
+    /**
+     * Return the client created for the key in this session, or in an earlier one if they are kept alive, or create it.
+     * Threads asking for a key being created wait for it instead of authenticating again.
+     */
+    public static Entry getOrCreate(final Object session, final String key, final Factory factory) throws AzureAuthFailureException {
+        final long keepAlive = TimeUnit.MINUTES.toMillis(Long.getLong(KEEP_ALIVE_PROPERTY, 0));
+        if (keepAlive <= 0) {
+            return getOrCreate(SESSIONS.computeIfAbsent(session, s -> new ConcurrentHashMap<>()), key, factory);
+        }
+        evictIdle(keepAlive);
+        IN_USE.merge(key, 1, Integer::sum);
+        try {
+            final Entry entry = getOrCreate(SESSIONS.computeIfAbsent(KEPT_ALIVE, s -> new ConcurrentHashMap<>()), key, factory);
+            LAST_USED.put(key, System.currentTimeMillis());
+            return entry;
+        } finally {
+            IN_USE.computeIfPresent(key, (k, users) -> users > 1 ? users - 1 : null);
+        }
+    }
+
+    private static Entry getOrCreate(final Map<String, CompletableFuture<Entry>> clients, final String key, final Factory factory)
+            throws AzureAuthFailureException {
+        final CompletableFuture<Entry> created = new CompletableFuture<>();
+        final CompletableFuture<Entry> existing = clients.putIfAbsent(key, created);
+        if (existing == null) {
+            try {
+                final Entry entry = factory.create();
+                created.complete(entry);
+                return entry;
+            } catch (Throwable e) {
+                // e.g. a NoClassDefFoundError, the threads waiting for the entry must not hang
+                clients.remove(key, created);
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return existing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AzureAuthFailureException(INTERRUPTED);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new AzureAuthFailureException(e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Drop the clients kept alive which are created and not used for longer than the given milliseconds, the ones being
+     * created or waited for are kept.
+     */
+    static void evictIdle(final long keepAlive) {
+        final Map<String, CompletableFuture<Entry>> clients = SESSIONS.get(KEPT_ALIVE);
+        if (clients == null) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        for (final String key : clients.keySet()) {
+            clients.computeIfPresent(key, (k, future) -> {
+                if (!future.isDone() || future.isCompletedExceptionally() || IN_USE.containsKey(k) ||
+                        now - LAST_USED.getOrDefault(k, now) <= keepAlive) {
+                    return future;
+                }
+                Log.debug("Drop the Azure client not used by the recent builds.");
+                LAST_USED.remove(k);
+                return null;
+            });
+        }
+    }
+
+    static void clear() {
+        SESSIONS.clear();
+        LAST_USED.clear();
+        IN_USE.clear();
+    }
+
+    @FunctionalInterface
+    public interface Factory {
+        Entry create() throws AzureAuthFailureException;
+    }
+
+    public static class Entry {
+        private final Azure azure;
+        private final AzureTokenWrapper azureTokenWrapper;
+
+        public Entry(final Azure azure, final AzureTokenWrapper azureTokenWrapper) {
+            this.azure = azure;
+            this.azureTokenWrapper = azureTokenWrapper;
+        }
+
+        public Azure getAzure() {
+            return azure;
+        }
+
+        /**
+         * The token the client is created with, null with the authentication file or a server of settings.xml
+         */
+        public AzureTokenWrapper getAzureTokenWrapper() {
+            return azureTokenWrapper;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.maven.http;
+
+import com.microsoft.azure.common.logging.Log;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache of ARM GET responses which carry an ETag. Cached responses are always revalidated with
+ * If-None-Match, and the cached body is only served when ARM answers 304 to the current request, so the cache never
+ * returns a stale resource or one the current identity is not allowed to read.
+ * Entries are partitioned by identity and subscription, written atomically so that concurrent Maven processes can
+ * share the cache, and the least recently used entries are evicted once the cache grows beyond its size limit.
+ */
+public class ConditionalGetCacheInterceptor implements Interceptor {
+    public static final long DEFAULT_MAX_SIZE = 64L * 1024 * 1024;
+
+    private static final long MAX_ENTRY_SIZE = 4L * 1024 * 1024;
+    private static final long STALE_TEMP_FILE_AGE = TimeUnit.HOURS.toMillis(1);
+    private static final String ETAG = "ETag";
+    private static final String IF_NONE_MATCH = "If-None-Match";
+    private static final String CONTENT_LENGTH = "Content-Length";
+    private static final String ENTRY_SUFFIX = ".entry";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String NO_SUBSCRIPTION = "tenant";
+    private static final Pattern SUBSCRIPTION_PATTERN = Pattern.compile("^/subscriptions/([^/]+)", Pattern.CASE_INSENSITIVE);
+
+    private final File root;
+    private final File directory;
+    private final long maxSize;
+    // Running total of the entry sizes, the cache folder is walked to evict entries only when it exceeds the limit
+    private long size = -1;
+
+    /**
+     * @param root     the cache folder, which may be shared by all the identities
+     * @param identity the identity requests are sent as, e.g. auth method, tenant and client id
+     * @param maxSize  size limit in bytes of all the entries under the cache folder
+     */
+    public ConditionalGetCacheInterceptor(final File root, final String identity, final long maxSize) {
+        this.root = root;
+        this.directory = new File(root, DigestUtils.sha256Hex(StringUtils.defaultString(identity)));
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public Response intercept(final Chain chain) throws IOException {
+        final Request request = chain.request();
+        if (!StringUtils.equals(request.method(), "GET") || request.header(IF_NONE_MATCH) != null) {
+            return chain.proceed(request);
+        }
+        final File file = getEntryFile(request.url());
+        // Read the entry before sending the request, as other processes may evict it meanwhile
+        final Entry cached = read(file);
+        final Response response = chain.proceed(cached == null ? request : request.newBuilder().header(IF_NONE_MATCH, cached.etag).build());
+        if (cached != null && response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            Log.debug(String.format("Resource %s is not modified, using cached response.", request.url().encodedPath()));
+            file.setLastModified(System.currentTimeMillis());
+            if (response.body() != null) {
+                response.body().close();
+            }
+            return response.newBuilder()
+                .code(HttpURLConnection.HTTP_OK)
+                .message("OK")
+                .removeHeader(CONTENT_LENGTH)
+                .body(ResponseBody.create(cached.contentType == null ? null : MediaType.parse(cached.contentType), cached.body))
+                .build();
+        }
+        final String etag = response.header(ETAG);
+        if (response.code() == HttpURLConnection.HTTP_OK && StringUtils.isNotEmpty(etag) && response.body() != null) {
+            final byte[] body = response.peekBody(MAX_ENTRY_SIZE + 1).bytes();
+            if (body.length <= MAX_ENTRY_SIZE) {
+                final MediaType contentType = response.body().contentType();
+                write(file, new Entry(etag, contentType == null ? null : contentType.toString(), body));
+            }
+        }
+        return response;
+    }
+
+    File getEntryFile(final HttpUrl url) {
+        final Matcher matcher = SUBSCRIPTION_PATTERN.matcher(url.encodedPath());
+        final String subscription = matcher.find() ? StringUtils.lowerCase(matcher.group(1)) : NO_SUBSCRIPTION;
+        return new File(new File(directory, subscription), DigestUtils.sha256Hex(url.toString()) + ENTRY_SUFFIX);
+    }
+
+    private static Entry read(final File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (final DataInputStream input = new DataInputStream(Files.newInputStream(file.toPath()))) {
+            final String etag = input.readUTF();
+            final String contentType = input.readUTF();
+            final byte[] body = new byte[input.readInt()];
+            input.readFully(body);
+            return new Entry(etag, StringUtils.defaultIfEmpty(contentType, null), body);
+        } catch (IOException | RuntimeException e) {
+            Log.debug(String.format("Ignore invalid cache entry %s: %s", file, e.getMessage()));
+            return null;
+        }
+    }
+
+    private void write(final File file, final Entry entry) {
+        Path temp = null;
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            temp = Files.createTempFile(file.getParentFile().toPath(), file.getName(), TEMP_SUFFIX);
+            try (final DataOutputStream output = new DataOutputStream(Files.newOutputStream(temp))) {
+                output.writeUTF(entry.etag);
+                output.writeUTF(StringUtils.defaultString(entry.contentType));
+                output.writeInt(entry.body.length);
+                output.write(entry.body);
+            }
+            final long length = Files.size(temp);
+            final long replaced = file.length();
+            try {
+                Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            grow(length - replaced);
+        } catch (IOException e) {
+            Log.debug(String.format("Failed to write cache entry %s: %s", file, e.getMessage()));
+            if (temp != null) {
+                temp.toFile().delete();
+            }
+        }
+    }
+
+    private synchronized void grow(final long delta) throws IOException {
+        // Entries written by other processes are only counted on the next walk, which they trigger themselves
+        if (size < 0) {
+            size = evict();
+        } else {
+            size += delta;
+            if (size > maxSize) {
+                size = evict();
+            }
+        }
+    }
+
+    /**
+     * @return the size of the entries left
+     */
+    private long evict() throws IOException {
+        final List<File> files;
+        try (final Stream<Path> paths = Files.walk(root.toPath())) {
+            files = paths.map(Path::toFile).filter(File::isFile).collect(Collectors.toList());
+        }
+        final long now = System.currentTimeMillis();
+        files.stream()
+            .filter(file -> file.getName().endsWith(TEMP_SUFFIX) && now - file.lastModified() > STALE_TEMP_FILE_AGE)
+            .forEach(File::delete);
+        final List<File> entries = files.stream()
+            .filter(file -> file.getName().endsWith(ENTRY_SUFFIX))
+            .sorted(Comparator.comparingLong(File::lastModified))
+            .collect(Collectors.toList());
+        long total = entries.stream().mapToLong(File::length).sum();
+        for (final File entry : entries) {
+            if (total <= maxSize) {
+                return total;
+            }
+            final long length = entry.length();
+            try {
+                Files.delete(entry.toPath());
+                total -= length;
+            } catch (NoSuchFileException e) {
+                // Evicted by another process
+                total -= length;
+            }
+        }
+        return total;
+    }
+
+    private static class Entry {
+        private final String etag;
+        private final String contentType;
+        private final byte[] body;
+
+        Entry(final String etag, final String contentType, final byte[] body) {
+            this.etag = etag;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.maven.http;
+
+import com.microsoft.azure.common.logging.Log;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Client side rate limiter of ARM requests. The remaining quota ARM reports in the x-ms-ratelimit-remaining-* headers
+ * is tracked per subscription and per tenant, and requests are spaced out once the quota runs low instead of firing
+ * until ARM rejects them. Throttled requests (429) are retried after the Retry-After delay plus a random jitter, and
+ * the other requests against the same subscription wait for that delay as well.
+ * The budgets are shared by all the threads of the plugin, use {@link #getInstance()} rather than new instances.
+ */
+public class ThrottlingInterceptor implements Interceptor {
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int DEFAULT_LOW_WATERMARK = 100;
+    private static final long DEFAULT_MAX_INTERVAL = TimeUnit.SECONDS.toMillis(2);
+    private static final int DEFAULT_MAX_RETRIES = 3;
+    private static final long DEFAULT_RETRY_AFTER = TimeUnit.SECONDS.toMillis(10);
+    private static final long MAX_RETRY_AFTER = TimeUnit.MINUTES.toMillis(5);
+    private static final double RETRY_AFTER_JITTER = 0.2;
+    private static final String RETRY_AFTER = "Retry-After";
+    private static final String REMAINING_PREFIX = "x-ms-ratelimit-remaining-";
+    private static final String SUBSCRIPTION_SCOPE = "subscription-";
+    private static final String TENANT_SCOPE = "tenant-";
+    private static final String THROTTLED = "Request %s %s is throttled by Azure, retrying in %.1fs.";
+    private static final String PACING = "Remaining request quota is low, delaying request %s %s by %.1fs.";
+    private static final Pattern SUBSCRIPTION_PATTERN = Pattern.compile("^/subscriptions/([^/]+)", Pattern.CASE_INSENSITIVE);
+
+    private static final ThrottlingInterceptor INSTANCE = new ThrottlingInterceptor(DEFAULT_LOW_WATERMARK, DEFAULT_MAX_INTERVAL,
+            DEFAULT_MAX_RETRIES);
+
+    private final Map<String, Budget> budgets = new ConcurrentHashMap<>();
+    private final int lowWatermark;
+    private final long maxInterval;
+    private final int maxRetries;
+
+    /**
+     * @param lowWatermark remaining quota below which requests are spaced out
+     * @param maxInterval  interval in milliseconds between requests once the quota is exhausted
+     * @param maxRetries   times a throttled request is retried
+     */
+    ThrottlingInterceptor(final int lowWatermark, final long maxInterval, final int maxRetries) {
+        this.lowWatermark = lowWatermark;
+        this.maxInterval = maxInterval;
+        this.maxRetries = maxRetries;
+    }
+
+    public static ThrottlingInterceptor getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public Response intercept(final Chain chain) throws IOException {
+        final Request request = chain.request();
+        final String subscription = getSubscription(request);
+        final List<Budget> requestBudgets = getBudgets(request, subscription);
+        for (int retry = 0; ; retry++) {
+            acquire(request, requestBudgets);
+            final Response response = chain.proceed(request);
+            update(response, subscription);
+            if (response.code() != HTTP_TOO_MANY_REQUESTS || retry >= maxRetries) {
+                return response;
+            }
+            final long delay = getRetryAfter(response);
+            Log.info(String.format(THROTTLED, request.method(), request.url().encodedPath(), delay / 1000.0));
+            // Subscription budget if any, so that a throttled subscription does not hold back the others
+            requestBudgets.get(0).block(System.currentTimeMillis() + delay);
+            response.close();
+        }
+    }
+
+    private void acquire(final Request request, final List<Budget> requestBudgets) throws IOException {
+        final long now = System.currentTimeMillis();
+        long wait = 0;
+        for (final Budget budget : requestBudgets) {
+            wait = Math.max(wait, budget.reserve(now, lowWatermark, maxInterval));
+        }
+        if (wait <= 0) {
+            return;
+        }
+        Log.debug(String.format(PACING, request.method(), request.url().encodedPath(), wait / 1000.0));
+        try {
+            Thread.sleep(wait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        }
+    }
+
+    private void update(final Response response, final String subscription) {
+        for (final String name : response.headers().names()) {
+            final String header = name.toLowerCase(Locale.ENGLISH);
+            final long remaining = NumberUtils.toLong(response.header(name), -1);
+            if (!header.startsWith(REMAINING_PREFIX) || remaining < 0) {
+                continue;
+            }
+            final String quota = header.substring(REMAINING_PREFIX.length());
+            if (quota.startsWith(TENANT_SCOPE) || (quota.startsWith(SUBSCRIPTION_SCOPE) && subscription != null)) {
+                getBudget(quota, subscription).update(remaining);
+            }
+        }
+    }
+
+    /**
+     * Budgets the request counts against: the subscription and the tenant quota of its kind, e.g. subscription-reads
+     * and tenant-reads for a GET request.
+     */
+    private List<Budget> getBudgets(final Request request, final String subscription) {
+        final String kind = getKind(request.method());
+        final List<Budget> result = new ArrayList<>();
+        if (subscription != null) {
+            result.add(getBudget(SUBSCRIPTION_SCOPE + kind, subscription));
+        }
+        result.add(getBudget(TENANT_SCOPE + kind, subscription));
+        return result;
+    }
+
+    private Budget getBudget(final String quota, final String subscription) {
+        final String key = quota.startsWith(SUBSCRIPTION_SCOPE) ? quota + "|" + subscription : quota;
+        return budgets.computeIfAbsent(key, k -> new Budget());
+    }
+
+    private static String getKind(final String method) {
+        if (StringUtils.equalsAny(method, "GET", "HEAD")) {
+            return "reads";
+        }
+        return StringUtils.equals(method, "DELETE") ? "deletes" : "writes";
+    }
+
+    private static String getSubscription(final Request request) {
+        final Matcher matcher = SUBSCRIPTION_PATTERN.matcher(request.url().encodedPath());
+        return matcher.find() ? StringUtils.lowerCase(matcher.group(1)) : null;
+    }
+
+    /**
+     * Retry-After in milliseconds, either in seconds or as an HTTP date, plus up to 20% jitter so that the waiting
+     * requests do not hit ARM again at the same time.
+     */
+    static long getRetryAfter(final Response response) {
+        final String value = StringUtils.trim(response.header(RETRY_AFTER));
+        long delay = DEFAULT_RETRY_AFTER;
+        if (NumberUtils.isDigits(value)) {
+            delay = TimeUnit.SECONDS.toMillis(NumberUtils.toLong(value, 0));
+        } else if (StringUtils.isNotEmpty(value)) {
+            try {
+                delay = Duration.between(ZonedDateTime.now(), ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME)).toMillis();
+            } catch (DateTimeParseException e) {
+                Log.debug(String.format("Ignore invalid Retry-After header '%s'.", value));
+            }
+        }
+        delay = Math.min(Math.max(delay, 0), MAX_RETRY_AFTER);
+        return delay + (long) (delay * RETRY_AFTER_JITTER * ThreadLocalRandom.current().nextDouble());
+    }
+
+    private static class Budget {
+        // Unknown until ARM reports it
+        private long remaining = -1;
+        private long nextRequestTime;
+        private long blockedUntil;
+
+        /**
+         * Reserve the next slot for a request, and return how long the request has to wait for it.
+         */
+        synchronized long reserve(final long now, final int lowWatermark, final long maxInterval) {
+            final long start = Math.max(now, Math.max(nextRequestTime, blockedUntil));
+            final long interval = remaining < 0 || remaining >= lowWatermark ? 0 : maxInterval * (lowWatermark - remaining) / lowWatermark;
+            nextRequestTime = start + interval;
+            if (remaining > 0) {
+                // Estimate until the response reports the actual quota
+                remaining--;
+            }
+            return start - now;
+        }
+
+        synchronized void update(final long value) {
+            this.remaining = value;
+        }
+
+        synchronized void block(final long until) {
+            this.blockedUntil = Math.max(this.blockedUntil, until);
+        }
+    }
+}
@@ -28,8 +28,21 @@ public class AppInsightsProxy implements TelemetryProxy {
     public static final String CONFIGURATION_FILE = "ApplicationInsights.xml";
     public static final Pattern INSTRUMENTATION_KEY_PATTERN = Pattern.compile("<InstrumentationKey>(.*)" +
         "</InstrumentationKey>");
+    // One channel per endpoint is shared by all the mojos of the build and stopped when the JVM exits
+    private static final Map<String, TelemetryChannel> CHANNELS = new HashMap<>();
+    // Reading the configuration of the SDK takes a while, it is done once for the build when the first event is tracked
+    private static final Map<String, com.microsoft.applicationinsights.TelemetryConfiguration> CONFIGURATIONS = new HashMap<>();
+    // Events are sent in batches every few seconds, the batches failed to send are kept on disk up to this size
+    // and sent again by a later build
+    private static final String FLUSH_INTERVAL_IN_SECONDS = "5";
+    private static final String MAX_TRANSMISSION_STORAGE_IN_MB = "1";
+
     protected TelemetryClient client;
 
+    private final String instrumentationKey;
+
+    private final String endpointAddress;
+
     protected TelemetryConfiguration configuration;
 
     protected Map<String, String> defaultProperties;
@@ -38,43 +51,75 @@ public class AppInsightsProxy implements TelemetryProxy {
     protected boolean isEnabled = true;
 
     public AppInsightsProxy(final TelemetryConfiguration config) {
-        client = new TelemetryClient(readConfigurationFromFile());
+        this(config, readInstrumentationKeyFromConfiguration(), null);
+    }
 
+    /**
+     * @param endpointAddress where the telemetry is sent to, the default endpoint of the SDK if null
+     */
+    AppInsightsProxy(final TelemetryConfiguration config, final String instrumentationKey, final String endpointAddress) {
         if (config == null) {
             throw new NullPointerException();
         }
         configuration = config;
         defaultProperties = configuration.getTelemetryProperties();
+        this.instrumentationKey = instrumentationKey;
+        this.endpointAddress = endpointAddress;
+        if (StringUtils.isEmpty(instrumentationKey)) {
+            // No instrumentation key found.
+            disable();
+        }
+    }
+
+    protected synchronized TelemetryClient getClient() {
+        if (client == null) {
+            client = new TelemetryClient(getConfiguration(instrumentationKey, endpointAddress));
+        }
+        return client;
+    }
+
+    private static synchronized com.microsoft.applicationinsights.TelemetryConfiguration getConfiguration(final String key,
+                                                                                                         final String endpointAddress) {
+        return CONFIGURATIONS.computeIfAbsent(key + "@" + StringUtils.defaultString(endpointAddress),
+            ignore -> readConfigurationFromFile(key, endpointAddress));
     }
 
     //      This is a workaround for telemetry issue. ApplicationInsight read configuration file by JAXB, and JAXB parse
     //      configuration by JAXBContext, but the context model differs in Java 8 and Java 11 during maven execution,
     //      here is the link https://github.com/Microsoft/ApplicationInsights-Java/issues/674, will remove the code and
     //      use ai sdk to read configuration file once the issue is fixed
-    private com.microsoft.applicationinsights.TelemetryConfiguration readConfigurationFromFile() {
+    private static com.microsoft.applicationinsights.TelemetryConfiguration readConfigurationFromFile(final String key,
+                                                                                                     final String endpointAddress) {
         final com.microsoft.applicationinsights.TelemetryConfiguration telemetryConfiguration =
             new com.microsoft.applicationinsights.TelemetryConfiguration();
-        final Map<String, String> channelProperties = new HashMap<>();
-        channelProperties.put(TelemetryChannelBase.FLUSH_BUFFER_TIMEOUT_IN_SECONDS_NAME, "1");
-        final TelemetryChannel channel = new InProcessTelemetryChannel(channelProperties);
-
-        telemetryConfiguration.setChannel(channel);
-
-        final String key = readInstrumentationKeyFromConfiguration();
         if (StringUtils.isNotEmpty(key)) {
             telemetryConfiguration.setInstrumentationKey(key);
-        } else {
-            // No instrumentation key found.
-            disable();
         }
-
         TelemetryConfigurationFactory.INSTANCE.initialize(telemetryConfiguration);
+        // The factory sets up a channel with the default settings, which is replaced. It is not stopped, as stopping
+        // a channel closes the HTTP sender all the channels share
+        telemetryConfiguration.setChannel(getChannel(endpointAddress));
         return telemetryConfiguration;
     }
 
+    private static synchronized TelemetryChannel getChannel(final String endpointAddress) {
+        return CHANNELS.computeIfAbsent(StringUtils.defaultString(endpointAddress), address -> {
+            final Map<String, String> channelProperties = new HashMap<>();
+            channelProperties.put(TelemetryChannelBase.FLUSH_BUFFER_TIMEOUT_IN_SECONDS_NAME, FLUSH_INTERVAL_IN_SECONDS);
+            channelProperties.put(TelemetryChannelBase.MAX_TRANSMISSION_STORAGE_CAPACITY_NAME, MAX_TRANSMISSION_STORAGE_IN_MB);
+            if (StringUtils.isNotEmpty(address)) {
+                channelProperties.put(TelemetryChannelBase.ENDPOINT_ADDRESS_NAME, address);
+            }
+            final TelemetryChannel channel = new InProcessTelemetryChannel(channelProperties);
+            // Events are sent in the background, what is buffered is sent when the JVM exits
+            TelemetryShutdownHook.register(channel);
+            return channel;
+        });
+    }
+
     // Get instrumentation key from ApplicationInsights.xml
-    private String readInstrumentationKeyFromConfiguration() {
-        try (final InputStream inputStream = this.getClass().getClassLoader().getResourceAsStream(
+    private static String readInstrumentationKeyFromConfiguration() {
+        try (final InputStream inputStream = AppInsightsProxy.class.getClassLoader().getResourceAsStream(
             CONFIGURATION_FILE)) {
             if (inputStream == null) {
                 return StringUtils.EMPTY;
@@ -129,8 +174,8 @@ public class AppInsightsProxy implements TelemetryProxy {
         final Map<String, String> properties = mergeProperties(getDefaultProperties(), customProperties,
             overrideDefaultProperties);
 
-        client.trackEvent(eventName, properties, null);
-        client.flush();
+        // Only queued, the channel sends the events in batches off the build thread
+        getClient().trackEvent(eventName, properties, null);
     }
 
     protected Map<String, String> mergeProperties(Map<String, String> defaultProperties,
@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.maven.telemetry;
+
+import com.microsoft.applicationinsights.channel.TelemetryChannel;
+import com.microsoft.applicationinsights.internal.channel.common.ApacheSenderFactory;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the telemetry left in the channels when the JVM exits, so that the mojos return as soon as they are done
+ * instead of waiting for the events to be sent. Sending is given a short deadline, which can be changed with the system
+ * property below. The batches failed to send are kept on disk by the channels, the ones still pending are dropped.
+ */
+public class TelemetryShutdownHook {
+    public static final String SHUTDOWN_TIMEOUT = "azure.telemetry.shutdownTimeoutMillis";
+
+    private static final long DEFAULT_SHUTDOWN_TIMEOUT = 2000;
+    private static final String THREAD_NAME = "azure-telemetry-shutdown";
+    private static final Set<TelemetryChannel> CHANNELS = ConcurrentHashMap.newKeySet();
+    private static boolean isHookAdded;
+
+    private TelemetryShutdownHook() {
+
+    }
+
+    /**
+     * Flush the channel at shutdown, the hook is added along with the first channel.
+     */
+    public static void register(final TelemetryChannel channel) {
+        CHANNELS.add(channel);
+        synchronized (TelemetryShutdownHook.class) {
+            if (!isHookAdded) {
+                Runtime.getRuntime().addShutdownHook(new Thread(TelemetryShutdownHook::shutdown, THREAD_NAME));
+                isHookAdded = true;
+            }
+        }
+    }
+
+    static void shutdown() {
+        final long timeoutMillis = Math.max(0, NumberUtils.toLong(System.getProperty(SHUTDOWN_TIMEOUT), DEFAULT_SHUTDOWN_TIMEOUT));
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        stopAll(timeoutMillis);
+        // The sender is shared by all the channels, close it once they are stopped.
+        // When the HTTPClient of AI SDK is not fully initialized, it may step into endless loop when close, so it is
+        // closed on another thread and given up at the deadline.
+        // Refer here for detail codes: https://github.com/Microsoft/ApplicationInsights-Java/blob/master/core/src
+        // /main/java/com/microsoft/applicationinsights/internal/channel/common/ApacheSender43.java#L103
+        runWithin(() -> ApacheSenderFactory.INSTANCE.create().close(), deadline - System.nanoTime());
+    }
+
+    /**
+     * Run the task on a daemon thread and return once it is done or the timeout passes, it is skipped without time left.
+     */
+    static void runWithin(final Runnable task, final long timeoutNanos) {
+        if (timeoutNanos <= 0) {
+            return;
+        }
+        final Thread thread = new Thread(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // swallow this exception, telemetry shouldn't break the build
+            }
+        }, THREAD_NAME + "-close");
+        thread.setDaemon(true);
+        thread.start();
+        try {
+            TimeUnit.NANOSECONDS.timedJoin(thread, timeoutNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Send what the channels have buffered and stop them, return once they are stopped or the timeout passes.
+     */
+    static void stopAll(final long timeoutMillis) {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeoutMillis));
+        final List<TelemetryChannel> channels = new ArrayList<>(CHANNELS);
+        CHANNELS.removeAll(channels);
+        for (final TelemetryChannel channel : channels) {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            try {
+                channel.flush();
+                channel.stop(remaining, TimeUnit.NANOSECONDS);
+            } catch (RuntimeException e) {
+                // swallow this exception, telemetry shouldn't break the build
+            }
+        }
+    }
+}
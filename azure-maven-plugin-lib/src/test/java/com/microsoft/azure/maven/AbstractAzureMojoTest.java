@@ -6,20 +6,27 @@
 
 package com.microsoft.azure.maven;
 
+import com.microsoft.azure.auth.AzureAuthHelper;
 import com.microsoft.azure.common.exceptions.AzureExecutionException;
+import com.microsoft.azure.common.utils.SharedExecutor;
 import com.microsoft.azure.management.Azure;
 import com.microsoft.azure.maven.auth.AuthenticationSetting;
 import com.microsoft.azure.maven.telemetry.TelemetryProxy;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.descriptor.PluginDescriptor;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.settings.Settings;
 import org.apache.maven.shared.filtering.MavenResourcesFiltering;
 import org.codehaus.plexus.util.ReflectionUtils;
+import org.junit.Assume;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -27,7 +34,11 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.microsoft.azure.maven.AbstractAzureMojo.INSTALLATION_ID_KEY;
 import static com.microsoft.azure.maven.AbstractAzureMojo.PLUGIN_NAME_KEY;
@@ -36,14 +47,22 @@ import static com.microsoft.azure.maven.AbstractAzureMojo.SESSION_ID_KEY;
 import static com.microsoft.azure.maven.AbstractAzureMojo.SUBSCRIPTION_ID_KEY;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 @RunWith(MockitoJUnitRunner.class)
 public class AbstractAzureMojoTest {
     public static final String PLUGIN_NAME = "azure-maven-plugin-lib";
     public static final String PLUGIN_VERSION = "0.1.0-SNAPSHOT";
     public static final String SUBSCRIPTION_ID = "fake-subscription-id";
+    // Time a goal may take before starting its work in milliseconds, raise it with -Dazure.startupBudget on slow machines
+    private static final long STARTUP_BUDGET = Long.getLong("azure.startupBudget", 5000);
 
     @Mock
     MavenProject project;
@@ -72,6 +91,9 @@ public class AbstractAzureMojoTest {
     @Mock
     TelemetryProxy telemetryProxy;
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @InjectMocks
     private AbstractAzureMojo mojo = new AbstractAzureMojo() {
         @Override
@@ -161,7 +183,24 @@ public class AbstractAzureMojoTest {
 
     @Test
     public void execute() throws Exception {
+        final long start = System.nanoTime();
         mojo.execute();
+        // Telemetry is flushed when the JVM exits rather than before the mojo returns
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+    }
+
+    @Test
+    public void startWithoutAzure() throws Exception {
+        final AbstractAzureMojo mojoSpy = spy(mojo);
+
+        mojoSpy.execute();
+
+        // Only telemetry is set up before the goal starts its work, Azure is reached when the goal needs it
+        verify(mojoSpy).doExecute();
+        verify(mojoSpy, never()).getAzureClient();
+        verify(mojoSpy, never()).createAzureClient();
+        verify(mojoSpy, never()).initAuth();
+        assertTrue(String.valueOf(mojoSpy.getStartupTime()), mojoSpy.getStartupTime() < STARTUP_BUDGET);
     }
 
     @Test
@@ -187,4 +226,111 @@ public class AbstractAzureMojoTest {
         assertTrue(map.containsKey(SUBSCRIPTION_ID_KEY));
         assertTrue(map.containsKey(SESSION_ID_KEY));
     }
+
+    @Test
+    public void shareAzureClientAcrossModules() throws Exception {
+        final AtomicInteger authentications = new AtomicInteger();
+        final AbstractAzureMojo module = createModule(authentications);
+        final AbstractAzureMojo otherModule = createModule(authentications);
+
+        assertSame(module.getAzureClient(), otherModule.getAzureClient());
+        assertEquals(1, authentications.get());
+    }
+
+    @Test
+    public void newAzureClientKeyAfterLogin() throws Exception {
+        Assume.assumeTrue(StringUtils.isBlank(System.getenv("AZURE_CONFIG_DIR")));
+        final String userHome = System.getProperty("user.home");
+        System.setProperty("user.home", folder.getRoot().getAbsolutePath());
+        try {
+            final String loggedOut = mojo.getAzureClientKey();
+            FileUtils.write(AzureAuthHelper.getAzureSecretFile(), "{\"defaultSubscription\": \"subscription\"}", StandardCharsets.UTF_8);
+            final String loggedIn = mojo.getAzureClientKey();
+            // the same time stamp, only the selected subscription tells them apart
+            final long modified = AzureAuthHelper.getAzureSecretFile().lastModified();
+            FileUtils.write(AzureAuthHelper.getAzureSecretFile(), "{\"defaultSubscription\": \"other\"}", StandardCharsets.UTF_8);
+            assertTrue(AzureAuthHelper.getAzureSecretFile().setLastModified(modified));
+
+            assertNotEquals(loggedOut, loggedIn);
+            assertNotEquals(loggedIn, mojo.getAzureClientKey());
+        } finally {
+            System.setProperty("user.home", userHome);
+        }
+    }
+
+    @Test
+    public void cancelTasksWhenGoalFails() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final AbstractAzureMojo failing = new AbstractAzureMojo() {
+            @Override
+            protected void doExecute() throws AzureExecutionException {
+                // the scope is left open, as if the goal failed before waiting for its tasks
+                SharedExecutor.open().execute(() -> {
+                    started.countDown();
+                    try {
+                        Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                });
+                try {
+                    started.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new AzureExecutionException("failed");
+            }
+
+            @Override
+            public TelemetryProxy getTelemetryProxy() {
+                return telemetryProxy;
+            }
+        };
+        ReflectionUtils.setVariableValueInObject(failing, "session", session);
+        ReflectionUtils.setVariableValueInObject(failing, "plugin", plugin);
+        ReflectionUtils.setVariableValueInObject(failing, "failsOnError", true);
+
+        try {
+            failing.execute();
+            fail("The goal should fail.");
+        } catch (MojoExecutionException e) {
+            assertEquals("failed", e.getMessage());
+        }
+
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("azure-worker-")) {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+                assertFalse(thread.getName(), thread.isAlive());
+            }
+        }
+    }
+
+    private AbstractAzureMojo createModule(final AtomicInteger authentications) throws Exception {
+        final AbstractAzureMojo module = new AbstractAzureMojo() {
+            @Override
+            protected void doExecute() throws AzureExecutionException {
+            }
+
+            @Override
+            protected void initAuth() {
+            }
+
+            @Override
+            protected Azure getAzureClientByAuthType() {
+                authentications.incrementAndGet();
+                return azure;
+            }
+
+            @Override
+            public TelemetryProxy getTelemetryProxy() {
+                return telemetryProxy;
+            }
+        };
+        ReflectionUtils.setVariableValueInObject(module, "session", session);
+        ReflectionUtils.setVariableValueInObject(module, "plugin", plugin);
+        ReflectionUtils.setVariableValueInObject(module, "subscriptionId", SUBSCRIPTION_ID);
+        return module;
+    }
 }
@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.maven;
+
+import com.microsoft.azure.AzureEnvironment;
+import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.credentials.AzureTokenCredentials;
+import com.microsoft.azure.management.Azure;
+import com.microsoft.azure.management.appservice.DeploymentSlot;
+import com.microsoft.azure.management.appservice.WebApp;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import com.microsoft.rest.RestClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+public class AppServiceResourceContextTest {
+    private static final String RESOURCE_GROUP_ID = "/subscriptions/sub/resourceGroups/rg";
+    private static final String SITE_ID = RESOURCE_GROUP_ID + "/providers/Microsoft.Web/sites/app";
+    private static final String PLAN_ID = RESOURCE_GROUP_ID + "/providers/Microsoft.Web/serverfarms/plan";
+
+    private final Map<String, String> responses = new HashMap<>();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private AppServiceResourceContext context;
+
+    @Before
+    public void setUp() throws IOException {
+        responses.put(RESOURCE_GROUP_ID, "{'id':'" + RESOURCE_GROUP_ID + "','name':'rg','location':'westus','properties':{}}");
+        responses.put(SITE_ID, site(SITE_ID, "app"));
+        responses.put(SITE_ID + "/config/web", "{'properties':{}}");
+        responses.put(SITE_ID + "/config/logs", "{'properties':{}}");
+        responses.put(SITE_ID + "/slots/staging", site(SITE_ID + "/slots/staging", "app/staging"));
+        responses.put(SITE_ID + "/slots/staging/config/web", "{'properties':{}}");
+        responses.put(SITE_ID + "/slots/staging/config/logs", "{'properties':{}}");
+        responses.put(PLAN_ID, "{'id':'" + PLAN_ID + "','name':'plan','location':'westus','kind':'app'," +
+            "'sku':{'name':'B1','tier':'Basic'},'properties':{}}");
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+
+        final String endpoint = String.format("http://localhost:%d/", server.getAddress().getPort());
+        final Map<String, String> endpoints = new HashMap<>();
+        for (final AzureEnvironment.Endpoint type : AzureEnvironment.Endpoint.values()) {
+            endpoints.put(type.identifier(), endpoint);
+        }
+        final AzureTokenCredentials credentials = new AzureTokenCredentials(new AzureEnvironment(endpoints), "tenant") {
+            @Override
+            public String getToken(String resource) {
+                return "token";
+            }
+        };
+        final RestClient restClient = new RestClient.Builder()
+            .withBaseUrl(endpoint)
+            .withCredentials(credentials)
+            .withSerializerAdapter(new AzureJacksonAdapter())
+            .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+            .build();
+        final Azure azure = Azure.authenticate(restClient, "tenant").withSubscription("sub");
+        context = new AppServiceResourceContext(() -> azure);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void getWebApp() throws Exception {
+        final WebApp app = context.getWebApp("rg", "app");
+        final int roundTrips = requests.size();
+
+        assertNotNull(app);
+        assertSame(app, context.getWebApp("RG", "app"));
+        assertEquals(roundTrips, requests.size());
+    }
+
+    @Test
+    public void getWebAppNotExist() throws Exception {
+        assertNull(context.getWebApp("rg", "missing"));
+        final int roundTrips = requests.size();
+
+        assertNull(context.getWebApp("rg", "missing"));
+        assertEquals(roundTrips, requests.size());
+    }
+
+    @Test
+    public void getAppServicePlanAndResourceGroup() throws Exception {
+        final WebApp app = context.getWebApp("rg", "app");
+        final int roundTrips = requests.size();
+
+        assertEquals("plan", context.getAppServicePlan(app).name());
+        assertEquals("rg", context.getResourceGroup("rg").name());
+        assertNull(context.getResourceGroup("missing"));
+        assertEquals(roundTrips + 3, requests.size());
+
+        assertSame(context.getAppServicePlan(app), context.getAppServicePlan(PLAN_ID));
+        assertNotNull(context.getResourceGroup("rg"));
+        assertNull(context.getResourceGroup("missing"));
+        assertEquals(roundTrips + 3, requests.size());
+    }
+
+    @Test
+    public void getDeploymentSlot() throws Exception {
+        final WebApp app = context.getWebApp("rg", "app");
+        final DeploymentSlot slot = context.getDeploymentSlot(app, "staging");
+        final int roundTrips = requests.size();
+
+        assertNotNull(slot);
+        assertSame(slot, context.getDeploymentSlot(app, "staging"));
+        assertEquals(roundTrips, requests.size());
+    }
+
+    @Test
+    public void invalidate() throws Exception {
+        context.getWebApp("rg", "app");
+        final int roundTrips = requests.size();
+
+        context.invalidate();
+        context.getWebApp("rg", "app");
+
+        assertEquals(roundTrips * 2, requests.size());
+    }
+
+    @Test
+    public void refresh() throws Exception {
+        final WebApp updated = mock(WebApp.class);
+        doReturn("rg").when(updated).resourceGroupName();
+        doReturn("app").when(updated).name();
+
+        assertSame(updated, context.refresh(updated));
+        assertSame(updated, context.getWebApp("rg", "app"));
+        assertEquals(0, requests.size());
+    }
+
+    private static String site(final String id, final String name) {
+        return "{'id':'" + id + "','name':'" + name + "','type':'Microsoft.Web/sites','location':'westus','kind':'app'," +
+            "'properties':{'resourceGroup':'rg','serverFarmId':'" + PLAN_ID + "','defaultHostName':'app.azurewebsites.net'}}";
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+        requests.add(exchange.getRequestMethod() + " " + path);
+        final String body = responses.entrySet().stream()
+            .filter(entry -> entry.getKey().equalsIgnoreCase(path))
+            .map(Map.Entry::getValue)
+            .findFirst().orElse(null);
+        final byte[] content = (body == null ? "{'error':{'code':'ResourceNotFound','message':'Not found.'}}" : body)
+            .replace('\'', '"').getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(body == null ? 404 : 200, content.length);
+        try (final OutputStream stream = exchange.getResponseBody()) {
+            stream.write(content);
+        }
+    }
+}
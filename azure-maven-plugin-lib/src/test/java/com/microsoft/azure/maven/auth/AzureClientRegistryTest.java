@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.maven.auth;
+
+import com.microsoft.azure.management.Azure;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class AzureClientRegistryTest {
+    private final AtomicInteger authentications = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        AzureClientRegistry.clear();
+    }
+
+    @Test
+    public void authenticateOnceForParallelModules() throws Exception {
+        final Object session = new Object();
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<CompletableFuture<AzureClientRegistry.Entry>> modules = new ArrayList<>();
+        // 8 modules built with -T
+        for (int i = 0; i < 8; i++) {
+            modules.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                    return AzureClientRegistry.getOrCreate(session, "key", this::authenticate);
+                } catch (InterruptedException | AzureAuthFailureException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        start.countDown();
+
+        final AzureClientRegistry.Entry first = modules.get(0).get(5, TimeUnit.SECONDS);
+        for (final CompletableFuture<AzureClientRegistry.Entry> module : modules) {
+            assertSame(first, module.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, authentications.get());
+    }
+
+    @Test
+    public void authenticateForEveryConfigurationAndSession() throws Exception {
+        final Object session = new Object();
+        final AzureClientRegistry.Entry entry = AzureClientRegistry.getOrCreate(session, "key", this::authenticate);
+
+        assertSame(entry, AzureClientRegistry.getOrCreate(session, "key", this::authenticate));
+        assertNotSame(entry, AzureClientRegistry.getOrCreate(session, "other-subscription", this::authenticate));
+        assertNotSame(entry, AzureClientRegistry.getOrCreate(new Object(), "key", this::authenticate));
+        assertEquals(3, authentications.get());
+    }
+
+    @Test
+    public void keepClientsForLaterBuilds() throws Exception {
+        System.setProperty(AzureClientRegistry.KEEP_ALIVE_PROPERTY, "30");
+        try {
+            final AzureClientRegistry.Entry entry = AzureClientRegistry.getOrCreate(new Object(), "key", this::authenticate);
+
+            // the next build of the same JVM, e.g. run by the Maven daemon
+            assertSame(entry, AzureClientRegistry.getOrCreate(new Object(), "key", this::authenticate));
+            assertEquals(1, authentications.get());
+        } finally {
+            System.clearProperty(AzureClientRegistry.KEEP_ALIVE_PROPERTY);
+        }
+    }
+
+    @Test
+    public void evictOnlyIdleClients() throws Exception {
+        System.setProperty(AzureClientRegistry.KEEP_ALIVE_PROPERTY, "30");
+        try {
+            final AzureClientRegistry.Entry idle = AzureClientRegistry.getOrCreate(new Object(), "idle", this::authenticate);
+            final CountDownLatch creating = new CountDownLatch(1);
+            final CountDownLatch created = new CountDownLatch(1);
+            final CompletableFuture<AzureClientRegistry.Entry> busy = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return AzureClientRegistry.getOrCreate(new Object(), "busy", () -> {
+                        creating.countDown();
+                        try {
+                            created.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return authenticate();
+                    });
+                } catch (AzureAuthFailureException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            assertTrue(creating.await(5, TimeUnit.SECONDS));
+            Thread.sleep(10);
+
+            AzureClientRegistry.evictIdle(0);
+            created.countDown();
+
+            assertSame(busy.get(5, TimeUnit.SECONDS), AzureClientRegistry.getOrCreate(new Object(), "busy", this::authenticate));
+            assertNotSame(idle, AzureClientRegistry.getOrCreate(new Object(), "idle", this::authenticate));
+            assertEquals(3, authentications.get());
+        } finally {
+            System.clearProperty(AzureClientRegistry.KEEP_ALIVE_PROPERTY);
+        }
+    }
+
+    @Test
+    public void doNotRememberFailure() throws Exception {
+        final Object session = new Object();
+        try {
+            AzureClientRegistry.getOrCreate(session, "key", () -> {
+                throw new AzureAuthFailureException("failed");
+            });
+            fail("Should throw the authentication failure.");
+        } catch (AzureAuthFailureException e) {
+            assertEquals("failed", e.getMessage());
+        }
+
+        AzureClientRegistry.getOrCreate(session, "key", this::authenticate);
+        assertEquals(1, authentications.get());
+    }
+
+    @Test
+    public void doNotRememberError() throws Exception {
+        final Object session = new Object();
+        try {
+            AzureClientRegistry.getOrCreate(session, "key", () -> {
+                throw new NoClassDefFoundError("com/microsoft/azure/management/Azure");
+            });
+            fail("Should throw the error.");
+        } catch (NoClassDefFoundError e) {
+            assertEquals("com/microsoft/azure/management/Azure", e.getMessage());
+        }
+
+        AzureClientRegistry.getOrCreate(session, "key", this::authenticate);
+        assertEquals(1, authentications.get());
+    }
+
+    private AzureClientRegistry.Entry authenticate() {
+        authentications.incrementAndGet();
+        try {
+            // Reading the credentials and looking up the subscription
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new AzureClientRegistry.Entry(mock(Azure.class), null);
+    }
+}
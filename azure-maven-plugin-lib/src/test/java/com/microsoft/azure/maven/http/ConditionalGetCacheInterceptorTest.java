@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.maven.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ConditionalGetCacheInterceptorTest {
+    private static final String SITE = "/subscriptions/sub/resourceGroups/rg/providers/Microsoft.Web/sites/app";
+    private static final String PLAN = "/subscriptions/sub/resourceGroups/rg/providers/Microsoft.Web/serverfarms/plan";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Map<String, String> resources = new ConcurrentHashMap<>();
+    // If-None-Match header of the requests received, null if absent
+    private final List<String> conditions = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private String endpoint;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        endpoint = String.format("http://localhost:%d", server.getAddress().getPort());
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void revalidateCachedResponse() throws IOException {
+        resources.put(SITE, "{\"name\":\"app\"}");
+
+        assertEquals("{\"name\":\"app\"}", get(createClient(folder.getRoot(), "identity"), SITE));
+        // A new client, as used by the next Maven run
+        assertEquals("{\"name\":\"app\"}", get(createClient(folder.getRoot(), "identity"), SITE));
+
+        assertNull(conditions.get(0));
+        assertEquals(etag("{\"name\":\"app\"}"), conditions.get(1));
+    }
+
+    @Test
+    public void replaceModifiedResponse() throws IOException {
+        final OkHttpClient client = createClient(folder.getRoot(), "identity");
+        resources.put(SITE, "{\"name\":\"app\"}");
+        get(client, SITE);
+        resources.put(SITE, "{\"name\":\"app\",\"state\":\"Stopped\"}");
+
+        assertEquals("{\"name\":\"app\",\"state\":\"Stopped\"}", get(client, SITE));
+        assertEquals("{\"name\":\"app\",\"state\":\"Stopped\"}", get(client, SITE));
+        assertEquals(etag("{\"name\":\"app\",\"state\":\"Stopped\"}"), conditions.get(2));
+    }
+
+    @Test
+    public void partitionByIdentityAndSubscription() throws IOException {
+        final ConditionalGetCacheInterceptor interceptor = new ConditionalGetCacheInterceptor(folder.getRoot(), "identity", 1024);
+        final File entry = interceptor.getEntryFile(HttpUrl.get(endpoint + SITE));
+        assertEquals("sub", entry.getParentFile().getName());
+        assertEquals("tenant", interceptor.getEntryFile(HttpUrl.get(endpoint + "/subscriptions")).getParentFile().getName());
+
+        resources.put(SITE, "{\"name\":\"app\"}");
+        get(createClient(folder.getRoot(), "identity"), SITE);
+        get(createClient(folder.getRoot(), "other identity"), SITE);
+
+        assertTrue(entry.isFile());
+        assertNull(conditions.get(1));
+    }
+
+    @Test
+    public void evictLeastRecentlyUsedEntries() throws IOException {
+        final ConditionalGetCacheInterceptor interceptor = new ConditionalGetCacheInterceptor(folder.getRoot(), "identity", 250);
+        final OkHttpClient client = new OkHttpClient.Builder().addInterceptor(interceptor).build();
+        resources.put(SITE, String.format("{\"name\":\"%0100d\"}", 0));
+        resources.put(PLAN, String.format("{\"name\":\"%0100d\"}", 1));
+
+        get(client, SITE);
+        final File siteEntry = interceptor.getEntryFile(HttpUrl.get(endpoint + SITE));
+        siteEntry.setLastModified(siteEntry.lastModified() - 60000);
+        get(client, PLAN);
+
+        assertFalse(siteEntry.exists());
+        assertTrue(interceptor.getEntryFile(HttpUrl.get(endpoint + PLAN)).exists());
+    }
+
+    @Test
+    public void walkCacheOnlyOverLimit() throws IOException {
+        final ConditionalGetCacheInterceptor interceptor = new ConditionalGetCacheInterceptor(folder.getRoot(), "identity", 250);
+        final OkHttpClient client = new OkHttpClient.Builder().addInterceptor(interceptor).build();
+        resources.put(SITE, "{\"name\":\"app\"}");
+        resources.put(SITE + "/slots/staging", "{\"name\":\"staging\"}");
+        resources.put(PLAN, String.format("{\"name\":\"%0200d\"}", 1));
+        get(client, SITE);
+        // Left by a process which was killed while writing, removed by the walks of the cache folder
+        final File staleTemp = folder.newFile("stale.entry.tmp");
+        staleTemp.setLastModified(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1));
+
+        get(client, SITE + "/slots/staging");
+        assertTrue(staleTemp.exists());
+        get(client, PLAN);
+        assertFalse(staleTemp.exists());
+    }
+
+    @Test
+    public void ignoreResponsesWithoutEtag() throws IOException {
+        final OkHttpClient client = createClient(folder.getRoot(), "identity");
+        resources.put(SITE + "/config/web", "{}");
+
+        get(client, SITE + "/config/web");
+        get(client, SITE + "/config/web");
+
+        assertNull(conditions.get(1));
+    }
+
+    private static OkHttpClient createClient(final File root, final String identity) {
+        return new OkHttpClient.Builder()
+            .addInterceptor(new ConditionalGetCacheInterceptor(root, identity, ConditionalGetCacheInterceptor.DEFAULT_MAX_SIZE))
+            .build();
+    }
+
+    private String get(final OkHttpClient client, final String path) throws IOException {
+        try (final Response response = client.newCall(new Request.Builder().url(endpoint + path).build()).execute()) {
+            assertEquals(200, response.code());
+            return response.body().string();
+        }
+    }
+
+    private static String etag(final String body) {
+        return "\"" + Integer.toHexString(body.hashCode()) + "\"";
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final String condition = exchange.getRequestHeaders().getFirst("If-None-Match");
+        conditions.add(condition);
+        final String path = exchange.getRequestURI().getPath();
+        final String body = resources.get(path);
+        final boolean withEtag = !path.endsWith("/config/web");
+        if (body != null && withEtag && etag(body).equals(condition)) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        final byte[] content = (body == null ? "{}" : body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        if (body != null && withEtag) {
+            exchange.getResponseHeaders().add("ETag", etag(body));
+        }
+        exchange.sendResponseHeaders(body == null ? 404 : 200, content.length);
+        try (final OutputStream stream = exchange.getResponseBody()) {
+            stream.write(content);
+        }
+    }
+}
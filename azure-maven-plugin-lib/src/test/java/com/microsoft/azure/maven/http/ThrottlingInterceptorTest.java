@@ -0,0 +1,223 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.maven.http;
+
+import com.microsoft.azure.AzureEnvironment;
+import com.microsoft.azure.CloudException;
+import com.microsoft.azure.auth.AzureTokenWrapper;
+import com.microsoft.azure.auth.configuration.AuthMethod;
+import com.microsoft.azure.credentials.AzureTokenCredentials;
+import com.microsoft.azure.maven.auth.AzureClientFactory;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ThrottlingInterceptorTest {
+    private static final String SITE = "/subscriptions/sub/resourceGroups/rg/providers/Microsoft.Web/sites/app";
+    private static final String OTHER_SITE = "/subscriptions/other/resourceGroups/rg/providers/Microsoft.Web/sites/app";
+
+    // Faults to inject into the next responses, each one is the status code followed by the response headers
+    private final Queue<String[]> faults = new ConcurrentLinkedQueue<>();
+    // Time in milliseconds every request was received at
+    private final List<Long> received = new CopyOnWriteArrayList<>();
+    private volatile String remainingReads;
+    private HttpServer server;
+    private String endpoint;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        endpoint = String.format("http://localhost:%d", server.getAddress().getPort());
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void retryAfterThrottled() throws IOException {
+        final OkHttpClient client = createClient(new ThrottlingInterceptor(100, 1000, 3));
+        faults.add(new String[]{"429", "Retry-After", "1"});
+
+        final long start = System.currentTimeMillis();
+        assertEquals(200, get(client, SITE));
+
+        assertEquals(2, received.size());
+        final long elapsed = received.get(1) - start;
+        assertTrue(String.valueOf(elapsed), elapsed >= 1000 && elapsed < 1200 + 500);
+    }
+
+    @Test
+    public void giveUpAfterMaxRetries() throws IOException {
+        final OkHttpClient client = createClient(new ThrottlingInterceptor(100, 1000, 1));
+        faults.add(new String[]{"429", "Retry-After", "0"});
+        faults.add(new String[]{"429", "Retry-After", "0"});
+
+        assertEquals(429, get(client, SITE));
+        assertEquals(2, received.size());
+    }
+
+    @Test
+    public void shareThrottlingAcrossThreads() throws Exception {
+        final ThrottlingInterceptor interceptor = new ThrottlingInterceptor(100, 1000, 3);
+        faults.add(new String[]{"429", "Retry-After", "1"});
+
+        final long start = System.currentTimeMillis();
+        final CompletableFuture<Integer> throttled = CompletableFuture.supplyAsync(() -> getUnchecked(createClient(interceptor), SITE));
+        while (received.isEmpty()) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        // Requests of other threads, with their own clients, after the first one is throttled
+        final CompletableFuture<Integer> sameSubscription = CompletableFuture.supplyAsync(() -> getUnchecked(createClient(interceptor), SITE));
+        final long otherStart = System.currentTimeMillis();
+        assertEquals(200, getUnchecked(createClient(interceptor), OTHER_SITE));
+        final long otherElapsed = System.currentTimeMillis() - otherStart;
+
+        assertEquals(200, (int) throttled.get());
+        assertEquals(200, (int) sameSubscription.get());
+        assertEquals(4, received.size());
+        assertTrue(otherElapsed < 500);
+        assertTrue(received.get(2) - start >= 1000);
+        assertTrue(received.get(3) - start >= 1000);
+    }
+
+    @Test
+    public void paceRequestsWhenQuotaIsLow() throws IOException {
+        final OkHttpClient client = createClient(new ThrottlingInterceptor(100, 400, 3));
+        remainingReads = "50";
+
+        // The first response reports the quota, the following requests are spaced out by 200ms
+        get(client, SITE);
+        get(client, SITE);
+        get(client, SITE);
+
+        assertTrue(received.get(2) - received.get(1) >= 200 - 10);
+        assertTrue(received.get(1) - received.get(0) < 200);
+    }
+
+    @Test
+    public void doNotPaceOtherKindOfRequests() throws IOException {
+        final OkHttpClient client = createClient(new ThrottlingInterceptor(100, 2000, 3));
+        remainingReads = "0";
+        get(client, SITE);
+        get(client, SITE);
+
+        final long start = System.currentTimeMillis();
+        try (final Response response = client.newCall(new Request.Builder().url(endpoint + SITE)
+                .put(RequestBody.create(null, "{}")).build()).execute()) {
+            assertEquals(200, response.code());
+        }
+        assertTrue(System.currentTimeMillis() - start < 1000);
+    }
+
+    @Test
+    public void oneRetryLayerThroughAzureClient() throws Exception {
+        // More faults than the retries, the attempts of the whole client pipeline are counted
+        for (int i = 0; i < 10; i++) {
+            faults.add(new String[]{"429", "Retry-After", "0"});
+        }
+        final Map<String, String> endpoints = new HashMap<>();
+        endpoints.put("resourceManagerEndpointUrl", endpoint + "/");
+        endpoints.put("activeDirectoryGraphResourceId", endpoint + "/");
+        final AzureEnvironment environment = new AzureEnvironment(endpoints);
+        final AzureTokenCredentials credentials = new AzureTokenCredentials(environment, "tenant") {
+            @Override
+            public String getToken(final String resource) {
+                return "token";
+            }
+        };
+
+        try {
+            AzureClientFactory.getAzureClient(new AzureTokenWrapper(AuthMethod.SERVICE_PRINCIPAL, credentials), "sub", "test");
+            fail("Should report the throttled listing of the subscriptions.");
+        } catch (CloudException e) {
+            assertEquals(429, e.response().code());
+            // the request and the retries of the throttling interceptor of the plugin only
+            assertEquals(4, received.size());
+        }
+    }
+
+    @Test
+    public void getRetryAfterWithJitter() {
+        final Response response = new Response.Builder()
+            .request(new Request.Builder().url(endpoint).build())
+            .protocol(Protocol.HTTP_1_1)
+            .code(429)
+            .message("Too Many Requests")
+            .header("Retry-After", "10")
+            .build();
+        for (int i = 0; i < 10; i++) {
+            final long delay = ThrottlingInterceptor.getRetryAfter(response);
+            assertTrue(delay >= 10000 && delay <= 12000);
+        }
+    }
+
+    private static OkHttpClient createClient(final ThrottlingInterceptor interceptor) {
+        return new OkHttpClient.Builder().addInterceptor(interceptor).build();
+    }
+
+    private int get(final OkHttpClient client, final String path) throws IOException {
+        try (final Response response = client.newCall(new Request.Builder().url(endpoint + path).build()).execute()) {
+            return response.code();
+        }
+    }
+
+    private int getUnchecked(final OkHttpClient client, final String path) {
+        try {
+            return get(client, path);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        received.add(System.currentTimeMillis());
+        final String[] fault = faults.poll();
+        if (remainingReads != null && "GET".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().add("x-ms-ratelimit-remaining-subscription-reads", remainingReads);
+        }
+        if (fault != null) {
+            for (int i = 1; i + 1 < fault.length; i += 2) {
+                exchange.getResponseHeaders().add(fault[i], fault[i + 1]);
+            }
+        }
+        final byte[] content = "{}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(fault == null ? 200 : Integer.parseInt(fault[0]), content.length);
+        try (final OutputStream stream = exchange.getResponseBody()) {
+            stream.write(content);
+        }
+    }
+}
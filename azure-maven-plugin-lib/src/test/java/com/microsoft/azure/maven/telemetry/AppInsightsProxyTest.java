@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.maven.telemetry;
+
+import com.microsoft.applicationinsights.TelemetryClient;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+public class AppInsightsProxyTest {
+    private static final String INSTRUMENTATION_KEY = "00000000-0000-0000-0000-000000000000";
+
+    private TelemetryConfiguration configuration;
+
+    @Before
+    public void setUp() {
+        configuration = mock(TelemetryConfiguration.class);
+        doReturn(new HashMap<>()).when(configuration).getTelemetryProperties();
+    }
+
+    @Test
+    public void createClientOnFirstEvent() {
+        final AppInsightsProxy proxy = spy(new AppInsightsProxy(configuration, INSTRUMENTATION_KEY, null));
+        final TelemetryClient client = mock(TelemetryClient.class);
+        doReturn(client).when(proxy).getClient();
+        assertNull(proxy.client);
+        verify(proxy, never()).getClient();
+
+        proxy.trackEvent("DeployMojo.start");
+        verify(proxy).getClient();
+        verify(client).trackEvent(eq("DeployMojo.start"), anyMap(), isNull());
+    }
+
+    @Test
+    public void noClientWhenDisabled() {
+        final AppInsightsProxy proxy = new AppInsightsProxy(configuration, INSTRUMENTATION_KEY, null);
+        assertNull(proxy.client);
+
+        proxy.disable();
+        proxy.trackEvent("DeployMojo.start");
+        assertNull(proxy.client);
+    }
+
+    @Test
+    public void disableWithoutInstrumentationKey() {
+        final AppInsightsProxy proxy = new AppInsightsProxy(configuration, "", null);
+        assertFalse(proxy.isEnabled);
+
+        proxy.trackEvent("DeployMojo.start");
+        assertNull(proxy.client);
+    }
+}
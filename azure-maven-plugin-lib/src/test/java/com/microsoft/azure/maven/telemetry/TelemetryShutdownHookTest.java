@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.maven.telemetry;
+
+import com.microsoft.applicationinsights.channel.TelemetryChannel;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+public class TelemetryShutdownHookTest {
+    private static final String INSTRUMENTATION_KEY = "00000000-0000-0000-0000-000000000000";
+
+    private final AtomicInteger events = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private HttpServer server;
+    private String endpoint;
+
+    @Before
+    public void setUp() throws IOException {
+        // Stand-in for the ingestion endpoint of Application Insights
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        endpoint = String.format("http://localhost:%d/v2/track", server.getAddress().getPort());
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void sendEventsAtShutdown() {
+        // Stopping a channel closes the HTTP sender of the JVM, so this is the only test sending events
+        final AppInsightsProxy proxy = createProxy();
+
+        proxy.trackEvent("DeployMojo.start");
+        proxy.trackEvent("DeployMojo.success");
+        // Tracking only queues the events
+        assertEquals(0, requests.get());
+
+        TelemetryShutdownHook.stopAll(5000);
+
+        assertEquals(2, events.get());
+        // Sent in one batch
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void giveUpAfterTimeout() {
+        final TelemetryChannel slowChannel = mock(TelemetryChannel.class);
+        final TelemetryChannel otherChannel = mock(TelemetryChannel.class);
+        doAnswer(invocation -> {
+            // Sending takes the whole time it is given
+            ((TimeUnit) invocation.getArgument(1)).sleep(invocation.getArgument(0));
+            return null;
+        }).when(slowChannel).stop(anyLong(), any());
+        TelemetryShutdownHook.register(slowChannel);
+        TelemetryShutdownHook.register(otherChannel);
+
+        final long start = System.nanoTime();
+        TelemetryShutdownHook.stopAll(300);
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+    }
+
+    @Test
+    public void giveUpClosingAfterTimeout() {
+        final Runnable endlessClose = () -> {
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        final long start = System.nanoTime();
+        TelemetryShutdownHook.runWithin(endlessClose, TimeUnit.MILLISECONDS.toNanos(300));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+
+        // No time left after stopping the channels
+        final AtomicInteger runs = new AtomicInteger();
+        TelemetryShutdownHook.runWithin(runs::incrementAndGet, 0);
+        assertEquals(0, runs.get());
+    }
+
+    private AppInsightsProxy createProxy() {
+        final TelemetryConfiguration configuration = mock(TelemetryConfiguration.class);
+        final Map<String, String> properties = new HashMap<>();
+        doReturn(properties).when(configuration).getTelemetryProperties();
+        return new AppInsightsProxy(configuration, INSTRUMENTATION_KEY, endpoint);
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        final boolean isGzip = "gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+        try (final InputStream body = isGzip ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody()) {
+            // Events are sent as JSON lines
+            for (final String line : IOUtils.toString(body, StandardCharsets.UTF_8).split("\n")) {
+                if (line.contains("EventData")) {
+                    events.incrementAndGet();
+                }
+            }
+        }
+        final byte[] content = "{\"itemsReceived\":1,\"itemsAccepted\":1,\"errors\":[]}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, content.length);
+        try (final OutputStream stream = exchange.getResponseBody()) {
+            stream.write(content);
+        }
+    }
+}
@@ -11,10 +11,12 @@ import com.microsoft.azure.auth.AzureAuthHelper;
 import com.microsoft.azure.auth.AzureCredential;
 import com.microsoft.azure.auth.exception.AzureLoginFailureException;
 import com.microsoft.azure.auth.exception.DesktopNotSupportedException;
+import com.microsoft.azure.common.utils.SubscriptionCache;
+import com.microsoft.azure.common.utils.SubscriptionCache.CachedSubscription;
 import com.microsoft.azure.common.utils.TextUtils;
+import com.microsoft.azure.credentials.AzureTokenCredentials;
 import com.microsoft.azure.management.Azure;
 import com.microsoft.azure.management.Azure.Authenticated;
-import com.microsoft.azure.management.resources.Subscription;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
@@ -70,8 +72,10 @@ public class LoginMojo extends AbstractAzureMojo {
 
             if (StringUtils.isNotBlank(previousSubscriptionId)) {
                 // save the older subscription id if it is valid
-                final Authenticated azure = Azure.configure().authenticate(AzureAuthHelper.getMavenAzureLoginCredentials(newAzureCredential, env));
-                for (final Subscription subscription : azure.subscriptions().list()) {
+                final AzureTokenCredentials credentials = AzureAuthHelper.getMavenAzureLoginCredentials(newAzureCredential, env);
+                final Authenticated azure = Azure.configure().authenticate(credentials);
+                // Listed for the new login, the config and deploy goals run after it prompt from the cache
+                for (final CachedSubscription subscription : SubscriptionCache.forCredentials(credentials).refresh(() -> azure.subscriptions().list())) {
                     if (StringUtils.equalsIgnoreCase(previousSubscriptionId, subscription.subscriptionId())) {
                         newAzureCredential.setDefaultSubscription(previousSubscriptionId);
                         break;
@@ -6,14 +6,14 @@
 
 package com.microsoft.azure.plugin.login;
 
-import com.microsoft.azure.PagedList;
 import com.microsoft.azure.auth.AzureAuthHelper;
 import com.microsoft.azure.auth.AzureCredential;
+import com.microsoft.azure.common.utils.SubscriptionCache;
+import com.microsoft.azure.common.utils.SubscriptionCache.CachedSubscription;
 import com.microsoft.azure.common.utils.TextUtils;
 import com.microsoft.azure.credentials.AzureTokenCredentials;
 import com.microsoft.azure.management.Azure;
 import com.microsoft.azure.management.Azure.Authenticated;
-import com.microsoft.azure.management.resources.Subscription;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -22,6 +22,7 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -52,12 +53,16 @@ public class SelectSubscriptionMojo extends AbstractAzureMojo {
         }
 
         final Authenticated azure = Azure.configure().authenticate(tokenCredentials);
-        Subscription selectSubscription = null;
+        CachedSubscription selectSubscription = null;
 
-        final PagedList<Subscription> subscriptions = azure.subscriptions().list();
-        for (final Subscription newSubscription : subscriptions) {
-            if (StringUtils.equalsIgnoreCase(subscription, newSubscription.subscriptionId()) ||
-                    StringUtils.equalsIgnoreCase(subscription, newSubscription.displayName())) {
+        final SubscriptionCache cache = SubscriptionCache.forCredentials(tokenCredentials);
+        List<CachedSubscription> subscriptions = cache.get(() -> azure.subscriptions().list());
+        if (StringUtils.isNotBlank(subscription) && subscriptions.stream().noneMatch(t -> matches(t, subscription))) {
+            // List again in case the subscription is added after the listing was cached
+            subscriptions = cache.refresh(() -> azure.subscriptions().list());
+        }
+        for (final CachedSubscription newSubscription : subscriptions) {
+            if (matches(newSubscription, subscription)) {
                 selectSubscription = newSubscription;
                 break;
             }
@@ -78,7 +83,7 @@ public class SelectSubscriptionMojo extends AbstractAzureMojo {
                 // TODO: wrap it in an utility method
                 System.out.println("Please choose from the following subscriptions:");
                 int index = 1;
-                for (final Subscription subs : subscriptions) {
+                for (final CachedSubscription subs : subscriptions) {
                     final boolean current = StringUtils.equalsIgnoreCase(oldSelectedSubscription, subs.subscriptionId());
                     final String subscriptionLine = String.format("%2d. %s (%s)%s", index++, subs.displayName(), subs.subscriptionId(),
                             current ? " [CURRENT]" : "");
@@ -127,6 +132,11 @@ public class SelectSubscriptionMojo extends AbstractAzureMojo {
 
     }
 
+    private static boolean matches(CachedSubscription candidate, String subscription) {
+        return StringUtils.equalsIgnoreCase(subscription, candidate.subscriptionId()) ||
+                StringUtils.equalsIgnoreCase(subscription, candidate.displayName());
+    }
+
     protected Scanner getScanner() {
         return new Scanner(System.in, "UTF-8");
     }
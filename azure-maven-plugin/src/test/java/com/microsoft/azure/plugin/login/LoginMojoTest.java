@@ -10,6 +10,7 @@ import com.microsoft.applicationinsights.TelemetryClient;
 import com.microsoft.azure.AzureEnvironment;
 import com.microsoft.azure.auth.AzureAuthHelper;
 import com.microsoft.azure.auth.AzureCredential;
+import com.microsoft.azure.auth.Constants;
 import com.microsoft.azure.auth.exception.DesktopNotSupportedException;
 import com.microsoft.azure.credentials.AzureTokenCredentials;
 import com.microsoft.azure.management.Azure;
@@ -54,6 +55,8 @@ public class LoginMojoTest {
     public void setUp() throws Exception {
 
         TestHelper.mockAppInsightHelper();
+        // subscriptions listed on login are cached in the config folder
+        TestHelper.injectEnvironmentVariable(Constants.AZURE_CONFIG_DIR, Files.createTempDirectory("azure-config").toFile().getAbsolutePath());
 
         final File pom = new File(this.getClass().getResource("/maven/projects/simple/pom.xml").getFile());
         assertNotNull(pom);
@@ -58,6 +58,8 @@ public class SelectSubscriptionMojoTest {
     @Before
     public void setUp() throws Exception {
         TestHelper.mockAppInsightHelper();
+        // subscriptions listed by the other tests are cached in the config folder
+        TestHelper.injectEnvironmentVariable(Constants.AZURE_CONFIG_DIR, Files.createTempDirectory("azure-config").toFile().getAbsolutePath());
 
         final File pom = new File(this.getClass().getResource("/maven/projects/simple/pom.xml").getFile());
         assertNotNull(pom);
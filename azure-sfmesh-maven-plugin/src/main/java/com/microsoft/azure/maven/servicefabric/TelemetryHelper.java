@@ -7,24 +7,44 @@
 package com.microsoft.azure.maven.servicefabric;
 
 import com.microsoft.applicationinsights.TelemetryClient;
+import com.microsoft.applicationinsights.TelemetryConfiguration;
 
 import org.apache.maven.plugin.logging.Log;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class TelemetryHelper {
+    // Same property and default as TelemetryShutdownHook.SHUTDOWN_TIMEOUT of azure-maven-plugin-lib, which this plugin
+    // doesn't depend on, so that one setting bounds the telemetry of all the plugins
+    private static final String SHUTDOWN_TIMEOUT = "azure.telemetry.shutdownTimeoutMillis";
+    private static final long DEFAULT_SHUTDOWN_TIMEOUT = 2000;
     private static final TelemetryClient client = new TelemetryClient();
 
+    static {
+        // Events are sent in batches, send the last one when the JVM exits instead of waiting after every event
+        Runtime.getRuntime().addShutdownHook(new Thread(TelemetryHelper::flush, "azure-telemetry-shutdown"));
+    }
+
     public static boolean sendEvent(TelemetryEventType type, String value, Log logger){
         final Map<String, String> properties = new HashMap<String, String>();
         properties.put("Description", value);
         try {
             client.trackEvent(type.getValue(), properties, null);
-            client.flush();
-            Thread.sleep(1500);
-        } catch (InterruptedException e) {
+        } catch (RuntimeException e) {
             logger.error(String.format("Failed sending telemetry event of type %s", type.getValue()));
         }
         return true;
     }
+
+    private static void flush() {
+        try {
+            client.flush();
+            // Return once the channel has sent what is left, or when the timeout passes
+            TelemetryConfiguration.getActive().getChannel()
+                .stop(Math.max(0, Long.getLong(SHUTDOWN_TIMEOUT, DEFAULT_SHUTDOWN_TIMEOUT)), TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // swallow this exception, telemetry shouldn't break the build
+        }
+    }
 }
@@ -23,8 +23,13 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 
 public class Utils {
+    private static final String TIMEOUT_PROPERTY = "azure.process.timeoutSeconds";
 
     enum ResourceType {
         application, volume, network;
@@ -69,19 +74,27 @@ public class Utils {
         return Paths.get(directoryPath, fileOrDirName).toString();
     }
 
+    /**
+     * Run the command with sh, or cmd.exe on Windows. Its output is read while it runs, and it is killed after the
+     * timeout set by the system property azure.process.timeoutSeconds, if any.
+     */
     public static String executeCommand(Log logger, String command) throws MojoFailureException{
         try {
             logger.info(String.format("Executing command %s", command));
-            final Process p;
-            if (Utils.isWindows()){
-                p = Runtime.getRuntime().exec("cmd.exe /C" + command);
-            } else {
-                p = Runtime.getRuntime().exec(command);
+            final Process p = new ProcessBuilder(Utils.isWindows() ? new String[]{"cmd.exe", "/c", command} :
+                new String[]{"sh", "-c", command}).start();
+            // Both streams are read while the command runs, a command filling up either pipe would hang otherwise
+            final Future<String> stdoutReader = readOutput(p.getInputStream());
+            final Future<String> stderrReader = readOutput(p.getErrorStream());
+            final long timeout = Long.getLong(TIMEOUT_PROPERTY, 0);
+            if (timeout > 0 && !p.waitFor(timeout, TimeUnit.SECONDS)) {
+                p.destroyForcibly();
+                throw new MojoFailureException(String.format("Timed out after %d seconds while " +
+                    "running the %s command", timeout, command));
             }
-            p.waitFor();
-            final int exitCode = p.exitValue();
-            final String stderr = IOUtil.toString(p.getErrorStream(), "UTF-8");
-            final String stdout = IOUtil.toString(p.getInputStream(), "UTF-8");
+            final int exitCode = p.waitFor();
+            final String stdout = getOutput(stdoutReader);
+            final String stderr = getOutput(stderrReader);
             logger.debug(String.format("STDOUT: %s", stdout));
             if (stderr != null && stderr.length() > 0){
                 if (exitCode != 0){
@@ -105,6 +118,23 @@ public class Utils {
         }
     }
 
+    private static Future<String> readOutput(InputStream stream) {
+        // The command line tools write their output in the platform charset
+        final FutureTask<String> reader = new FutureTask<>(() -> IOUtil.toString(stream, Charset.defaultCharset().name()));
+        final Thread thread = new Thread(reader, "azure-sfmesh-output");
+        thread.setDaemon(true);
+        thread.start();
+        return reader;
+    }
+
+    private static String getOutput(Future<String> reader) throws IOException, InterruptedException {
+        try {
+            return reader.get();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
     public static void checkSfctlInstallation(Log logger) throws MojoFailureException{
         if (Utils.isWindows()){
             Utils.executeCommand(logger, "sfctl --help  > NUL 2>&1");
@@ -138,27 +138,41 @@ public abstract class AbstractSpringMojo extends AbstractMojo {
         }
     }
 
-    protected void initExecution() throws MojoFailureException, InvalidConfigurationException, IOException, DesktopNotSupportedException,
-            ExecutionException, AzureLoginFailureException, InterruptedException {
+    protected void initExecution() throws MojoFailureException {
         // Init telemetries
         initTelemetry();
         trackMojoExecution(MojoStatus.Start);
 
         initializeAuthConfiguration();
-        final AuthConfiguration authConfiguration = isAuthConfigurationExist() ? auth : null;
-        this.azureTokenCredentials = AzureAuthHelper.getAzureTokenCredentials(authConfiguration);
-        // Use oauth if no existing credentials
-        if (azureTokenCredentials == null) {
-            final AzureEnvironment environment = AzureEnvironment.AZURE;
-            AzureCredential azureCredential;
-            try {
-                azureCredential = AzureAuthHelper.oAuthLogin(environment);
-            } catch (DesktopNotSupportedException e) {
-                azureCredential = AzureAuthHelper.deviceLogin(environment);
+    }
+
+    /**
+     * Get the credential, which is resolved when it is used first, so that goals exiting early never log in.
+     */
+    protected AzureTokenCredentials getAzureTokenCredentials() throws MojoFailureException {
+        if (azureTokenCredentials != null) {
+            return azureTokenCredentials;
+        }
+        try {
+            final AuthConfiguration authConfiguration = isAuthConfigurationExist() ? auth : null;
+            this.azureTokenCredentials = AzureAuthHelper.getAzureTokenCredentials(authConfiguration);
+            // Use oauth if no existing credentials
+            if (azureTokenCredentials == null) {
+                final AzureEnvironment environment = AzureEnvironment.AZURE;
+                AzureCredential azureCredential;
+                try {
+                    azureCredential = AzureAuthHelper.oAuthLogin(environment);
+                } catch (DesktopNotSupportedException e) {
+                    azureCredential = AzureAuthHelper.deviceLogin(environment);
+                }
+                AzureAuthHelper.writeAzureCredentials(azureCredential, AzureAuthHelper.getAzureSecretFile());
+                this.azureTokenCredentials = AzureAuthHelper.getMavenAzureLoginCredentials(azureCredential, environment);
             }
-            AzureAuthHelper.writeAzureCredentials(azureCredential, AzureAuthHelper.getAzureSecretFile());
-            this.azureTokenCredentials = AzureAuthHelper.getMavenAzureLoginCredentials(azureCredential, environment);
+        } catch (InvalidConfigurationException | IOException | ExecutionException | AzureLoginFailureException |
+                InterruptedException e) {
+            throw new MojoFailureException(e.getMessage(), e);
         }
+        return azureTokenCredentials;
     }
 
     protected void initializeAuthConfiguration() throws MojoFailureException {
@@ -211,9 +225,11 @@ public abstract class AbstractSpringMojo extends AbstractMojo {
     }
 
     protected void handleException(Exception exception) {
-        final boolean isUserError = exception instanceof IllegalArgumentException ||
-                exception instanceof SpringConfigurationException ||
-                exception instanceof InvalidConfigurationException;
+        // the errors of the credential are wrapped, as it is resolved in the middle of the goal
+        final Throwable error = exception instanceof MojoFailureException && exception.getCause() != null ? exception.getCause() : exception;
+        final boolean isUserError = error instanceof IllegalArgumentException ||
+                error instanceof SpringConfigurationException ||
+                error instanceof InvalidConfigurationException;
         telemetries.put(TELEMETRY_KEY_ERROR_CODE, TELEMETRY_VALUE_ERROR_CODE_FAILURE);
         telemetries.put(TELEMETRY_KEY_ERROR_TYPE, isUserError ? TELEMETRY_VALUE_USER_ERROR : TELEMETRY_VALUE_SYSTEM_ERROR);
         telemetries.put(TELEMETRY_KEY_ERROR_MESSAGE, exception.getMessage());
@@ -303,10 +319,10 @@ public abstract class AbstractSpringMojo extends AbstractMojo {
         return telemetries;
     }
 
-    public SpringServiceClient getSpringServiceClient() {
+    public SpringServiceClient getSpringServiceClient() throws MojoFailureException {
         if (springServiceClient == null) {
             final LogLevel logLevel = getLog().isDebugEnabled() ? LogLevel.BODY_AND_HEADERS : LogLevel.NONE;
-            springServiceClient = new SpringServiceClient(azureTokenCredentials, subscriptionId, getUserAgent(), logLevel);
+            springServiceClient = new SpringServiceClient(getAzureTokenCredentials(), subscriptionId, getUserAgent(), logLevel);
         }
         return springServiceClient;
     }
@@ -6,14 +6,15 @@
 
 package com.microsoft.azure.maven.spring;
 
-import com.microsoft.azure.PagedList;
 import com.microsoft.azure.auth.exception.InvalidConfigurationException;
 import com.microsoft.azure.common.utils.SneakyThrowUtils;
+import com.microsoft.azure.common.utils.SubscriptionCache;
+import com.microsoft.azure.common.utils.SubscriptionCache.CachedSubscription;
 import com.microsoft.azure.common.utils.TextUtils;
+import com.microsoft.azure.credentials.AzureTokenCredentials;
 import com.microsoft.azure.management.Azure;
 import com.microsoft.azure.management.Azure.Authenticated;
 import com.microsoft.azure.management.appplatform.v2020_07_01.implementation.ServiceResourceInner;
-import com.microsoft.azure.management.resources.Subscription;
 import com.microsoft.azure.maven.common.utils.MavenUtils;
 import com.microsoft.azure.maven.spring.configuration.AppSettings;
 import com.microsoft.azure.maven.spring.configuration.DeploymentSettings;
@@ -312,7 +313,7 @@ public class ConfigMojo extends AbstractSpringMojo {
 
     }
 
-    private void selectAppCluster() throws IOException, SpringConfigurationException {
+    private void selectAppCluster() throws IOException, SpringConfigurationException, MojoFailureException {
         final List<ServiceResourceInner> clusters = getSpringServiceClient().getAvailableClusters();
 
         this.wrapper.putCommonVariable("clusters", clusters);
@@ -334,19 +335,22 @@ public class ConfigMojo extends AbstractSpringMojo {
         }
     }
 
-    private void selectSubscription() throws IOException, SpringConfigurationException {
+    private void selectSubscription() throws IOException, SpringConfigurationException, MojoFailureException {
         // TODO: getAzureTokenCredentials will check auth for null, but maven will always map a default AuthConfiguration
+        final AzureTokenCredentials azureTokenCredentials = getAzureTokenCredentials();
         azure = Azure.configure().authenticate(azureTokenCredentials);
         if (StringUtils.isBlank(subscriptionId)) {
-            subscriptionId = StringUtils.isBlank(azureTokenCredentials.defaultSubscriptionId()) ? promptSubscription() :
+            subscriptionId = StringUtils.isBlank(azureTokenCredentials.defaultSubscriptionId()) ? promptSubscription(azureTokenCredentials) :
                     azureTokenCredentials.defaultSubscriptionId();
         }
     }
 
-    private String promptSubscription() throws IOException, SpringConfigurationException {
-        final PagedList<Subscription> subscriptions = azure.subscriptions().list();
+    private String promptSubscription(AzureTokenCredentials azureTokenCredentials) throws IOException, SpringConfigurationException {
+        // Shared with the other plugins, so that the subscriptions are prompted without listing them every time
+        final List<CachedSubscription> subscriptions = SubscriptionCache.forCredentials(azureTokenCredentials)
+                .get(() -> azure.subscriptions().list());
         this.wrapper.putCommonVariable("subscriptions", subscriptions);
-        final Subscription select = this.wrapper.handleSelectOne("select-subscriptions", subscriptions, null,
+        final CachedSubscription select = this.wrapper.handleSelectOne("select-subscriptions", subscriptions, null,
             t -> String.format("%s (%s)", t.displayName(), t.subscriptionId()));
         return select.subscriptionId();
     }
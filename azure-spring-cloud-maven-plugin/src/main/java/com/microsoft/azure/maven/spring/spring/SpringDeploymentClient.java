@@ -8,6 +8,7 @@ package com.microsoft.azure.maven.spring.spring;
 
 import com.microsoft.azure.common.exceptions.AzureExecutionException;
 import com.microsoft.azure.common.logging.Log;
+import com.microsoft.azure.common.utils.Poller;
 import com.microsoft.azure.management.appplatform.v2020_07_01.DeploymentResourceProperties;
 import com.microsoft.azure.management.appplatform.v2020_07_01.DeploymentResourceProvisioningState;
 import com.microsoft.azure.management.appplatform.v2020_07_01.DeploymentSettings;
@@ -23,9 +24,6 @@ import org.apache.commons.lang3.StringUtils;
 
 import java.util.Objects;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
@@ -35,6 +33,8 @@ public class SpringDeploymentClient extends AbstractSpringClient {
     private static final String RUNTIME_VERSION_PATTERN = "(J|j)ava((\\s)?|_)(8|11)$";
     private static final RuntimeVersion DEFAULT_RUNTIME_VERSION = RuntimeVersion.JAVA_8;
     private static final int SCALING_TIME_OUT = 60; // Use same timeout as service
+    private static final int SCALING_MIN_INTERVAL = 1;
+    private static final int SCALING_MAX_INTERVAL = 10;
 
     private final String appName;
     private final String deploymentName;
@@ -154,17 +154,12 @@ public class SpringDeploymentClient extends AbstractSpringClient {
 
         springManager.deployments().inner().update(resourceGroup, clusterName, appName, deploymentName, tempDeploymentResource);
         // Wait until deployment scaling done
-        final ExecutorService executor = Executors.newSingleThreadExecutor();
-        final Future<DeploymentResourceInner> future = executor.submit(() -> {
-            DeploymentResourceInner result = springManager.deployments().inner().get(resourceGroup, clusterName, appName, deploymentName);
-            while (!isStableDeploymentResourceProvisioningState(result.properties().provisioningState())) {
-                Thread.sleep(1000);
-                result = springManager.deployments().inner().get(resourceGroup, clusterName, appName, deploymentName);
-            }
-            return result;
-        });
         try {
-            return future.get(SCALING_TIME_OUT, TimeUnit.MINUTES);
+            return Poller.poll(() -> springManager.deployments().inner().get(resourceGroup, clusterName, appName, deploymentName))
+                    .until(result -> isStableDeploymentResourceProvisioningState(result.properties().provisioningState()))
+                    .withInterval(SCALING_MIN_INTERVAL, SCALING_MAX_INTERVAL, TimeUnit.SECONDS)
+                    .withTimeout(SCALING_TIME_OUT, TimeUnit.MINUTES)
+                    .await();
         } catch (InterruptedException | ExecutionException | TimeoutException e) {
             throw new AzureExecutionException(String.format("Failed to scale deployment %s of spring cloud app %s", deploymentName, appName), e);
         }
@@ -7,6 +7,7 @@
 package com.microsoft.azure.maven.spring.spring;
 
 import com.microsoft.azure.PagedList;
+import com.microsoft.azure.common.utils.SharedHttpClient;
 import com.microsoft.azure.credentials.AzureTokenCredentials;
 import com.microsoft.azure.management.appplatform.v2020_07_01.implementation.AppPlatformManager;
 import com.microsoft.azure.management.appplatform.v2020_07_01.implementation.ServiceResourceInner;
@@ -34,10 +35,9 @@ public class SpringServiceClient {
     public SpringServiceClient(AzureTokenCredentials azureTokenCredentials, String subscriptionId, String userAgent, LogLevel logLevel) {
         subscriptionId = StringUtils.isEmpty(subscriptionId) ? azureTokenCredentials.defaultSubscriptionId() : subscriptionId;
         this.subscriptionId = subscriptionId;
-        this.springManager = AppPlatformManager.configure()
+        this.springManager = AppPlatformManager.authenticate(SharedHttpClient.newRestClientBuilder(azureTokenCredentials, userAgent)
                 .withLogLevel(logLevel)
-                .withUserAgent(userAgent)
-                .authenticate(azureTokenCredentials, subscriptionId);
+                .build(), subscriptionId);
     }
 
     public SpringAppClient newSpringAppClient(String subscriptionId, String cluster, String app) {
@@ -6,19 +6,17 @@
 
 package com.microsoft.azure.maven.spring.utils;
 
+import com.microsoft.azure.common.utils.ArtifactInspector;
+import com.microsoft.azure.common.utils.Poller;
 import com.microsoft.azure.maven.spring.configuration.Deployment;
 import com.microsoft.azure.maven.spring.configuration.SpringConfiguration;
 import com.microsoft.azure.storage.file.CloudFile;
-import org.apache.commons.io.FileUtils;
 import org.apache.maven.model.Resource;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.utils.io.DirectoryScanner;
-import rx.Observable;
-import rx.schedulers.Schedulers;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
@@ -26,10 +24,10 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Predicate;
-import java.util.jar.JarInputStream;
-import java.util.jar.Manifest;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -39,8 +37,8 @@ public class Utils {
     private static final String JAR = "jar";
     private static final String MEMORY_REGEX = "(\\d+(\\.\\d+)?)([a-zA-Z]+)";
     private static final Pattern MEMORY_PATTERN = Pattern.compile(MEMORY_REGEX);
-    private static final String[] ARTIFACT_EXTENSIONS = {"jar"};
-    private static final int RESOURCE_INTERVAL = 1;
+    private static final int RESOURCE_MIN_INTERVAL = 1;
+    private static final int RESOURCE_MAX_INTERVAL = 4;
     private static final String ARTIFACT_NOT_SUPPORTED = "Target file does not exist or is not executable, please " +
             "check the configuration.";
     private static final String MULTI_ARTIFACT = "Multiple artifacts(%s) could be deployed, please specify " +
@@ -70,8 +68,11 @@ public class Utils {
 
     public static File getArtifactFromTargetFolder(MavenProject project) throws MojoExecutionException {
         final String targetFolder = project.getBuild().getDirectory();
-        final Collection<File> files = FileUtils.listFiles(new File(targetFolder), ARTIFACT_EXTENSIONS, true);
-        return getRunnableArtifactFromFiles(files);
+        try {
+            return getRunnableArtifact(ArtifactInspector.findExecutableJars(new File(targetFolder)));
+        } catch (IOException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
     }
 
     public static File getArtifactFromConfiguration(SpringConfiguration springConfiguration) throws MojoExecutionException {
@@ -98,30 +99,30 @@ public class Utils {
     }
 
     public static boolean isExecutableJar(File file) {
-        try (final FileInputStream fileInputStream = new FileInputStream(file);
-             final JarInputStream jarInputStream = new JarInputStream(fileInputStream)) {
-            final Manifest manifest = jarInputStream.getManifest();
-            return manifest.getMainAttributes().getValue("Main-Class") != null;
-        } catch (IOException e) {
-            return false;
-        }
+        return ArtifactInspector.isExecutableJar(file);
     }
 
     /**
-     * Get resource repeatedly until it match the predicate or timeout, will return null when meet exception
+     * Get resource repeatedly with an increasing interval until it match the predicate or timeout, failed attempts are ignored
      * @param callable callable to get resource
      * @param predicate function that evaluate the resource
      * @param timeOutInSeconds max time for the method
-     * @return the first resource which fit the predicate or the last result before timeout
+     * @return the first resource which fit the predicate or the last result before timeout, null if every attempt failed
      */
     public static <T> T getResourceWithPredicate(Callable<T> callable, Predicate<T> predicate, int timeOutInSeconds) {
-        final long timeout = System.currentTimeMillis() + timeOutInSeconds * 1000;
-        return Observable.interval(RESOURCE_INTERVAL, TimeUnit.SECONDS)
-                .timeout(timeOutInSeconds, TimeUnit.SECONDS)
-                .flatMap(aLong -> Observable.fromCallable(callable))
-                .subscribeOn(Schedulers.io())
-                .takeUntil(resource -> predicate.test(resource) || System.currentTimeMillis() > timeout)
-                .toBlocking().last();
+        final Poller<T> poller = Poller.poll(callable)
+                .until(predicate)
+                .withInterval(RESOURCE_MIN_INTERVAL, RESOURCE_MAX_INTERVAL, TimeUnit.SECONDS)
+                .withTimeout(timeOutInSeconds, TimeUnit.SECONDS)
+                .ignoringErrors();
+        try {
+            return poller.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return poller.getLastResult();
+        } catch (ExecutionException | TimeoutException e) {
+            return poller.getLastResult();
+        }
     }
 
     private static List<File> getArtifacts(List<Resource> resources) {
@@ -145,7 +146,10 @@ public class Utils {
     }
 
     private static File getRunnableArtifactFromFiles(Collection<File> files) throws MojoExecutionException {
-        final List<File> runnableArtifacts = files.stream().filter(Utils::isExecutableJar).collect(Collectors.toList());
+        return getRunnableArtifact(ArtifactInspector.getExecutableJars(files));
+    }
+
+    private static File getRunnableArtifact(List<File> runnableArtifacts) throws MojoExecutionException {
         if (runnableArtifacts.isEmpty()) {
             throw new MojoExecutionException(ARTIFACT_NOT_SUPPORTED);
         }
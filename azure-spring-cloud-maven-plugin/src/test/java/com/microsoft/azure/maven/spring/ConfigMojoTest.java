@@ -31,6 +31,7 @@ import org.apache.maven.plugin.testing.MojoRule;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.settings.Settings;
 import org.codehaus.plexus.component.configurator.expression.ExpressionEvaluator;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -44,6 +45,7 @@ import org.powermock.modules.junit4.PowerMockRunner;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Collections;
 import java.util.List;
 
@@ -85,9 +87,14 @@ public class ConfigMojoTest {
 
     private PomXmlUpdater mockUpdater;
 
+    private String userHome;
+
     @Before
     public void setUp() throws Exception {
         TestHelper.mockAppInsightHelper();
+        // subscriptions listed by the other tests are cached in the home folder
+        userHome = System.getProperty("user.home");
+        System.setProperty("user.home", Files.createTempDirectory("user-home").toFile().getAbsolutePath());
         final File pom = new File(this.getClass().getResource("/test.xml").getFile());
         assertNotNull(pom);
         assertTrue(pom.exists());
@@ -123,6 +130,11 @@ public class ConfigMojoTest {
         whenNew(PomXmlUpdater.class).withAnyArguments().thenReturn(mockUpdater);
     }
 
+    @After
+    public void tearDown() {
+        System.setProperty("user.home", userHome);
+    }
+
     @Test
     public void testNonInteractiveMode() throws Exception {
         when(settings.isInteractiveMode()).thenReturn(false);
@@ -7,18 +7,18 @@
 package com.microsoft.azure.common.applicationinsights;
 
 import com.microsoft.azure.common.exceptions.AzureExecutionException;
+import com.microsoft.azure.common.utils.Poller;
+import com.microsoft.azure.common.utils.SharedHttpClient;
 import com.microsoft.azure.credentials.AzureTokenCredentials;
 import com.microsoft.azure.management.Azure;
 import com.microsoft.azure.management.applicationinsights.v2015_05_01.ApplicationInsightsComponent;
 import com.microsoft.azure.management.applicationinsights.v2015_05_01.ApplicationType;
 import com.microsoft.azure.management.applicationinsights.v2015_05_01.implementation.InsightsManager;
 import com.microsoft.azure.management.resources.Provider;
+import com.microsoft.rest.RestClient;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -30,12 +30,9 @@ public class ApplicationInsightsManager {
     private InsightsManager insightsManager;
 
     public ApplicationInsightsManager(AzureTokenCredentials tokenCredentials, String subscriptionId, String userAgent) {
-        azure = Azure.configure()
-                .withUserAgent(userAgent)
-                .authenticate(tokenCredentials).withSubscription(subscriptionId);
-        insightsManager = InsightsManager.configure()
-                .withUserAgent(userAgent)
-                .authenticate(tokenCredentials, subscriptionId);
+        final RestClient restClient = SharedHttpClient.newRestClientBuilder(tokenCredentials, userAgent).build();
+        azure = Azure.authenticate(restClient, tokenCredentials.domain()).withSubscription(subscriptionId);
+        insightsManager = InsightsManager.authenticate(restClient, subscriptionId);
     }
 
     public ApplicationInsightsComponent getApplicationInsightsInstance(String resourceGroup, String name) {
@@ -68,22 +65,12 @@ public class ApplicationInsightsManager {
             return;
         }
         azure.providers().register(MICROSOFT_INSIGHTS);
-        final ExecutorService executorService = Executors.newSingleThreadExecutor();
-        final Future future = executorService.submit(() -> {
-            try {
-                Provider provider = null;
-                do {
-                    Thread.sleep(1000);
-                    provider = azure.providers().getByName("microsoft.insights");
-                } while (!StringUtils.equalsIgnoreCase(provider.registrationState(), REGISTERED));
-                return provider;
-            } catch (InterruptedException e) {
-                // swallow interrupt exception
-                return null;
-            }
-        });
         try {
-            future.get(5, TimeUnit.MINUTES);
+            Poller.poll(() -> azure.providers().getByName(MICROSOFT_INSIGHTS))
+                    .until(provider -> StringUtils.equalsIgnoreCase(provider.registrationState(), REGISTERED))
+                    .withInterval(1, 10, TimeUnit.SECONDS)
+                    .withTimeout(5, TimeUnit.MINUTES)
+                    .await();
         } catch (InterruptedException | ExecutionException | TimeoutException e) {
             throw new AzureExecutionException("Failed to register provider `microsoft.insights`.");
         }
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.appservice;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * One of the apps to deploy the same package to, the values not set are taken from the configuration of the plugin.
+ */
+public class DeployTargetSetting {
+    protected String appName;
+    protected String resourceGroup;
+    protected String region;
+    protected String appServicePlanResourceGroup;
+    protected String appServicePlanName;
+    protected DeploymentSlotSetting deploymentSlot;
+
+    public String getAppName() {
+        return appName;
+    }
+
+    public void setAppName(String appName) {
+        this.appName = appName;
+    }
+
+    public String getResourceGroup() {
+        return resourceGroup;
+    }
+
+    public void setResourceGroup(String resourceGroup) {
+        this.resourceGroup = resourceGroup;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public String getAppServicePlanResourceGroup() {
+        return appServicePlanResourceGroup;
+    }
+
+    public void setAppServicePlanResourceGroup(String appServicePlanResourceGroup) {
+        this.appServicePlanResourceGroup = appServicePlanResourceGroup;
+    }
+
+    public String getAppServicePlanName() {
+        return appServicePlanName;
+    }
+
+    public void setAppServicePlanName(String appServicePlanName) {
+        this.appServicePlanName = appServicePlanName;
+    }
+
+    public DeploymentSlotSetting getDeploymentSlot() {
+        return deploymentSlot;
+    }
+
+    public void setDeploymentSlot(DeploymentSlotSetting deploymentSlot) {
+        this.deploymentSlot = deploymentSlot;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder result = new StringBuilder(StringUtils.defaultString(appName));
+        if (deploymentSlot != null && StringUtils.isNotEmpty(deploymentSlot.getName())) {
+            result.append('/').append(deploymentSlot.getName());
+        }
+        if (StringUtils.isNotEmpty(region)) {
+            result.append(" (").append(region).append(')');
+        }
+        return result.toString();
+    }
+}
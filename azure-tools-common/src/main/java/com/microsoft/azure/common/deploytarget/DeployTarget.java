@@ -7,18 +7,33 @@
 package com.microsoft.azure.common.deploytarget;
 
 import com.microsoft.azure.common.appservice.DeployTargetType;
+import com.microsoft.azure.common.exceptions.AzureExecutionException;
+import com.microsoft.azure.common.logging.Log;
+import com.microsoft.azure.common.utils.AppServiceUtils;
 import com.microsoft.azure.management.appservice.AppSetting;
+import com.microsoft.azure.management.appservice.DeploymentSlot;
+import com.microsoft.azure.management.appservice.FunctionApp;
+import com.microsoft.azure.management.appservice.FunctionDeploymentSlot;
 import com.microsoft.azure.management.appservice.PublishingProfile;
+import com.microsoft.azure.management.appservice.WebApp;
 import com.microsoft.azure.management.appservice.WebAppBase;
 
 import javax.annotation.Nonnull;
 
 import java.io.File;
+import java.util.HashMap;
 import java.util.Map;
 
 public class DeployTarget<T extends WebAppBase> {
+    private static final String APPLY_PENDING_UPDATE = "Applying the pending changes of %s...";
+    private static final String UNSUPPORTED_DEPLOYMENT_TARGET = "Unsupported deployment target: %s";
+
     protected DeployTargetType type;
     protected T app;
+    protected WebAppBase.Update<T> pendingUpdate;
+    protected Map<String, String> pendingAppSettings = new HashMap<>();
+    // The app settings changed by the pending update, which the artifact handlers may read before it is applied
+    protected Map<String, String> pendingUpdateSettings = new HashMap<>();
 
     public DeployTarget(@Nonnull final T app, final DeployTargetType type) {
         this.app = app;
@@ -41,8 +56,18 @@ public class DeployTarget<T extends WebAppBase> {
         return app.defaultHostName();
     }
 
+    /**
+     * @return the app settings of the app, with the values of the pending update and the staged app settings
+     */
     public Map<String, AppSetting> getAppSettings() {
-        return app.getAppSettings();
+        final Map<String, AppSetting> settings = app.getAppSettings();
+        if (pendingUpdateSettings.isEmpty() && pendingAppSettings.isEmpty()) {
+            return settings;
+        }
+        final Map<String, AppSetting> result = settings == null ? new HashMap<>() : new HashMap<>(settings);
+        pendingUpdateSettings.forEach((key, value) -> result.put(key, new PendingAppSetting(key, value, result.get(key))));
+        pendingAppSettings.forEach((key, value) -> result.put(key, new PendingAppSetting(key, value, result.get(key))));
+        return result;
     }
 
     public void zipDeploy(final File file) {
@@ -59,4 +84,94 @@ public class DeployTarget<T extends WebAppBase> {
     public T getApp() {
         return this.app;
     }
+
+    /**
+     * Hand over an update of the app which is not applied yet, so that it is applied together with the app settings
+     * staged during the deployment, and the app restarts only once.
+     */
+    public DeployTarget<T> withPendingUpdate(final WebAppBase.Update<T> update) {
+        return withPendingUpdate(update, null);
+    }
+
+    /**
+     * @param appSettings the app settings changed by the update, they are read from the target until it is applied
+     */
+    public DeployTarget<T> withPendingUpdate(final WebAppBase.Update<T> update, final Map<String, String> appSettings) {
+        this.pendingUpdate = update;
+        this.pendingUpdateSettings.clear();
+        if (update != null && appSettings != null) {
+            this.pendingUpdateSettings.putAll(appSettings);
+        }
+        return this;
+    }
+
+    public DeployTarget<T> withAppSetting(final String key, final String value) {
+        this.pendingAppSettings.put(key, value);
+        return this;
+    }
+
+    /**
+     * Apply the pending update and the staged app settings in a single request, which is skipped if none of them
+     * changes the app.
+     */
+    public T applyPendingUpdate() throws AzureExecutionException {
+        final Map<String, String> changedSettings = AppServiceUtils.getChangedAppSettings(app, pendingAppSettings);
+        pendingAppSettings.clear();
+        if (pendingUpdate == null && changedSettings.isEmpty()) {
+            return app;
+        }
+        final WebAppBase.Update<T> update = pendingUpdate == null ? createUpdate() : pendingUpdate;
+        pendingUpdate = null;
+        pendingUpdateSettings.clear();
+        if (!changedSettings.isEmpty()) {
+            update.withAppSettings(changedSettings);
+        }
+        Log.info(String.format(APPLY_PENDING_UPDATE, getName()));
+        app = update.apply();
+        return app;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected WebAppBase.Update<T> createUpdate() throws AzureExecutionException {
+        final WebAppBase.Update<?> update;
+        if (app instanceof WebApp) {
+            update = ((WebApp) app).update();
+        } else if (app instanceof DeploymentSlot) {
+            update = ((DeploymentSlot) app).update();
+        } else if (app instanceof FunctionApp) {
+            update = ((FunctionApp) app).update();
+        } else if (app instanceof FunctionDeploymentSlot) {
+            update = ((FunctionDeploymentSlot) app).update();
+        } else {
+            throw new AzureExecutionException(String.format(UNSUPPORTED_DEPLOYMENT_TARGET, getType()));
+        }
+        return (WebAppBase.Update<T>) update;
+    }
+
+    private static class PendingAppSetting implements AppSetting {
+        private final String key;
+        private final String value;
+        private final boolean sticky;
+
+        PendingAppSetting(final String key, final String value, final AppSetting current) {
+            this.key = key;
+            this.value = value;
+            this.sticky = current != null && current.sticky();
+        }
+
+        @Override
+        public String key() {
+            return key;
+        }
+
+        @Override
+        public String value() {
+            return value;
+        }
+
+        @Override
+        public boolean sticky() {
+            return sticky;
+        }
+    }
 }
@@ -9,17 +9,14 @@ package com.microsoft.azure.common.function.handlers;
 import com.microsoft.azure.common.exceptions.AzureExecutionException;
 import com.microsoft.azure.common.function.utils.CommandUtils;
 import com.microsoft.azure.common.logging.Log;
+import com.microsoft.azure.common.utils.ProcessRunner;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.Charset;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class CommandHandlerImpl implements CommandHandler {
     @Override
@@ -29,9 +26,9 @@ public class CommandHandlerImpl implements CommandHandler {
                                               final List<Long> validReturnCodes,
                                               final String errorMessage) throws AzureExecutionException {
         try {
-            final Process process = runCommand(command, showStdout, workingDirectory);
+            final ProcessRunner.Result result = runCommand(command, showStdout, workingDirectory);
 
-            handleExitValue(process.exitValue(), validReturnCodes, errorMessage, process.getInputStream());
+            handleExitValue(result.getExitCode(), validReturnCodes, errorMessage, showStdout ? null : result.getStdout());
         } catch (IOException | InterruptedException ex) {
             throw new AzureExecutionException("Cannot execute '" + command + "'", ex);
         }
@@ -42,44 +39,34 @@ public class CommandHandlerImpl implements CommandHandler {
                                          final boolean showStdout,
                                          final String workingDirectory) throws AzureExecutionException {
         try {
-            final Process process = runCommand(command, showStdout, workingDirectory);
-            return getOutputFromProcess(process);
+            return runCommand(command, showStdout, workingDirectory).getStdout().trim();
         } catch (IOException | InterruptedException ex) {
             throw new AzureExecutionException("Cannot execute '" + command + "'", ex);
         }
     }
 
-    protected String getOutputFromProcess(final Process process) throws IOException {
-        try (final BufferedReader stdInput = new BufferedReader(
-                new InputStreamReader(process.getInputStream(), Charset.forName("UTF-8")))) {
-            final StringBuffer stdout = new StringBuffer();
-            String s = null;
-            while ((s = stdInput.readLine()) != null) {
-                stdout.append(s);
-            }
-            return stdout.toString().trim();
+    /**
+     * Run the command with its stderr merged into stdout. If showStdout is true, the output goes to the console as is
+     * and the command is not limited in time, as it may run until it is stopped, e.g. func host start. Otherwise the
+     * output is captured and the command is killed after the timeout of {@link ProcessRunner}, if any.
+     */
+    protected ProcessRunner.Result runCommand(final String command,
+                                              final boolean showStdout,
+                                              final String workingDirectory) throws IOException, InterruptedException {
+        final ProcessRunner runner = ProcessRunner.command(buildCommand(command))
+                .withErrorStreamMerged()
+                .withStdoutRedirect(getStdoutRedirect(showStdout));
+        if (showStdout) {
+            runner.withTimeout(0, TimeUnit.MILLISECONDS);
         }
-    }
-
-    protected Process runCommand(final String command,
-                                 final boolean showStdout,
-                                 final String workingDirectory) throws IOException, InterruptedException {
-        Log.debug("Executing command: " + StringUtils.join(command, " "));
-
-        final ProcessBuilder.Redirect redirect = getStdoutRedirect(showStdout);
-        final ProcessBuilder processBuilder = new ProcessBuilder(buildCommand(command))
-                .redirectOutput(redirect)
-                .redirectErrorStream(true);
-
         if (workingDirectory != null) {
-            processBuilder.directory(new File(workingDirectory));
+            runner.withWorkingDirectory(new File(workingDirectory));
         }
-
-        final Process process = processBuilder.start();
-
-        process.waitFor();
-
-        return process;
+        final ProcessRunner.Result result = runner.run();
+        if (result.isTimedOut()) {
+            throw new IOException(String.format("The command did not finish in %d ms.", result.getElapsedMillis()));
+        }
+        return result;
     }
 
     protected static String[] buildCommand(final String command) {
@@ -95,20 +82,19 @@ public class CommandHandlerImpl implements CommandHandler {
     protected void handleExitValue(int exitValue,
                                    final List<Long> validReturnCodes,
                                    final String errorMessage,
-                                   final InputStream inputStream) throws AzureExecutionException, IOException {
+                                   final String output) throws AzureExecutionException {
         Log.debug("Process exit value: " + exitValue);
         if (!validReturnCodes.contains(Integer.toUnsignedLong(exitValue))) {
-            // input stream is a merge of standard output and standard error of the sub-process
-            showErrorIfAny(inputStream);
+            // output is a merge of standard output and standard error of the sub-process
+            showErrorIfAny(output);
             Log.error(errorMessage);
             throw new AzureExecutionException(errorMessage);
         }
     }
 
-    protected void showErrorIfAny(final InputStream inputStream) throws IOException {
-        if (inputStream != null) {
-            final String input = IOUtils.toString(inputStream, "utf8");
-            Log.error(StringUtils.strip(input, "\n"));
+    protected void showErrorIfAny(final String output) {
+        if (StringUtils.isNotBlank(output)) {
+            Log.error(StringUtils.strip(output, System.lineSeparator()));
         }
     }
 }
@@ -47,15 +47,15 @@ public class FunctionArtifactHelper {
         return zipPackage;
     }
 
+    /**
+     * Update the app setting along with the pending update of the target, so that the app restarts only once.
+     */
     public static void updateAppSetting(final DeployTarget deployTarget, final String key, final String value) throws AzureExecutionException {
         final WebAppBase targetApp = deployTarget.getApp();
-        if (targetApp instanceof FunctionApp) {
-            ((FunctionApp) targetApp).update().withAppSetting(key, value).apply();
-        } else if (targetApp instanceof FunctionDeploymentSlot) {
-            ((FunctionDeploymentSlot) targetApp).update().withAppSetting(key, value).apply();
-        } else {
+        if (!(targetApp instanceof FunctionApp || targetApp instanceof FunctionDeploymentSlot)) {
             throw new AzureExecutionException(UNSUPPORTED_DEPLOYMENT_TARGET);
         }
+        deployTarget.withAppSetting(key, value).applyPendingUpdate();
     }
 
     public static CloudStorageAccount getCloudStorageAccount(final DeployTarget target) throws AzureExecutionException {
@@ -75,7 +75,7 @@ public class MSDeployArtifactHandlerImpl extends ArtifactHandlerBase {
     protected File createZipPackage() throws AzureExecutionException {
         Log.prompt("");
         Log.prompt(CREATE_ZIP_START);
-        final File zipPackage = FunctionArtifactHelper.createFunctionArtifact(stagingDirectoryPath);
+        final File zipPackage = artifactPackage != null ? artifactPackage : FunctionArtifactHelper.createFunctionArtifact(stagingDirectoryPath);
         Log.prompt(CREATE_ZIP_DONE + stagingDirectoryPath.concat(Constants.ZIP_EXT));
         return zipPackage;
     }
@@ -45,7 +45,7 @@ public class RunFromBlobArtifactHandlerImpl extends ArtifactHandlerBase {
 
     @Override
     public void publish(DeployTarget deployTarget) throws AzureExecutionException {
-        final File zipPackage = FunctionArtifactHelper.createFunctionArtifact(stagingDirectoryPath);
+        final File zipPackage = artifactPackage != null ? artifactPackage : FunctionArtifactHelper.createFunctionArtifact(stagingDirectoryPath);
         final CloudStorageAccount storageAccount = FunctionArtifactHelper.getCloudStorageAccount(deployTarget);
         final CloudBlockBlob blob = deployArtifactToAzureStorage(deployTarget, zipPackage, storageAccount);
         final String sasToken = AzureStorageHelper.getSASToken(blob, Period.ofYears(SAS_EXPIRE_DATE_BY_YEAR));
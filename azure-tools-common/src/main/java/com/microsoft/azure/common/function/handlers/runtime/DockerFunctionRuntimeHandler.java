@@ -95,6 +95,25 @@ public class DockerFunctionRuntimeHandler extends AbstractLinuxFunctionRuntimeHa
         }
     }
 
+    @Override
+    public boolean isRuntimeUpToDate(FunctionApp app) throws AzureExecutionException {
+        final DockerImageType imageType = AppServiceUtils.getDockerImageType(image, dockerCredentialProvider != null, registryUrl);
+        checkConfiguration(imageType);
+
+        switch (imageType) {
+            case PUBLIC_DOCKER_HUB:
+                return AppServiceUtils.isDockerImageUpToDate(app, image, null, null, null);
+            case PRIVATE_DOCKER_HUB:
+                return AppServiceUtils.isDockerImageUpToDate(app, image, null,
+                        dockerCredentialProvider.getUsername(), dockerCredentialProvider.getPassword());
+            case PRIVATE_REGISTRY:
+                return AppServiceUtils.isDockerImageUpToDate(app, image, registryUrl,
+                        dockerCredentialProvider.getUsername(), dockerCredentialProvider.getPassword());
+            default:
+                throw new AzureExecutionException(INVALID_DOCKER_RUNTIME);
+        }
+    }
+
     @Override
     public WebAppBase.Update<FunctionDeploymentSlot> updateDeploymentSlot(FunctionDeploymentSlot deploymentSlot) throws AzureExecutionException {
         final DockerImageType imageType = AppServiceUtils.getDockerImageType(image, dockerCredentialProvider != null, registryUrl);
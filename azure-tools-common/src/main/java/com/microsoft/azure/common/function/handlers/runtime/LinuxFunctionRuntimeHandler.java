@@ -50,6 +50,12 @@ public class LinuxFunctionRuntimeHandler extends AbstractLinuxFunctionRuntimeHan
         return app.update().withBuiltInImage(getRuntimeStack());
     }
 
+    @Override
+    public boolean isRuntimeUpToDate(FunctionApp app) {
+        return StringUtils.equalsAnyIgnoreCase(app.linuxFxVersion(),
+                getRuntimeStack().getLinuxFxVersionForConsumptionPlan(), getRuntimeStack().getLinuxFxVersionForDedicatedPlan());
+    }
+
     @Override
     public WebAppBase.Update<FunctionDeploymentSlot> updateDeploymentSlot(FunctionDeploymentSlot deploymentSlot) {
         checkFunctionExtensionVersion();
@@ -88,6 +88,13 @@ public class WindowsFunctionRuntimeHandler extends FunctionRuntimeHandler {
         return update;
     }
 
+    @Override
+    public boolean isRuntimeUpToDate(FunctionApp app) {
+        final JavaVersion serverJavaVersion = app.javaVersion();
+        return javaVersion.equals(serverJavaVersion) ||
+                (!JavaVersion.OFF.equals(serverJavaVersion) && StringUtils.isEmpty(runtimeConfiguration.getJavaVersion()));
+    }
+
     @Override
     public WebAppBase.Update<FunctionDeploymentSlot> updateDeploymentSlot(FunctionDeploymentSlot deploymentSlot) {
         return deploymentSlot.update().withJavaVersion(javaVersion).withWebContainer(null);
@@ -16,5 +16,12 @@ public interface RuntimeHandler<T extends WebAppBase> {
 
     WebAppBase.Update updateAppRuntime(final T app) throws AzureExecutionException;
 
+    /**
+     * Whether the runtime of the app already matches the configuration, so that updating the runtime can be skipped.
+     */
+    default boolean isRuntimeUpToDate(final T app) throws AzureExecutionException {
+        return false;
+    }
+
     AppServicePlan updateAppServicePlan(final T app) throws AzureExecutionException;
 }
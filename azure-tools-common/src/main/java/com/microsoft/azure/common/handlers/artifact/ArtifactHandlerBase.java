@@ -21,11 +21,13 @@ public abstract class ArtifactHandlerBase implements ArtifactHandler {
     protected IProject project;
     protected String stagingDirectoryPath;
     protected String buildDirectoryAbsolutePath;
+    protected File artifactPackage;
 
     public abstract static class Builder<T extends Builder<T>> {
         private IProject project;
         private String stagingDirectoryPath;
         private String buildDirectoryAbsolutePath;
+        private File artifactPackage;
 
         protected abstract T self();
 
@@ -46,12 +48,21 @@ public abstract class ArtifactHandlerBase implements ArtifactHandler {
             return self();
         }
 
+        /**
+         * The zip package of the staging directory, if it has been built ahead of publishing.
+         */
+        public T artifactPackage(final File value) {
+            this.artifactPackage = value;
+            return self();
+        }
+
     }
 
     protected ArtifactHandlerBase(Builder<?> builder) {
         this.project = builder.project;
         this.stagingDirectoryPath = builder.stagingDirectoryPath;
         this.buildDirectoryAbsolutePath = builder.buildDirectoryAbsolutePath;
+        this.artifactPackage = builder.artifactPackage;
     }
 
     protected void assureStagingDirectoryNotEmpty() throws AzureExecutionException {
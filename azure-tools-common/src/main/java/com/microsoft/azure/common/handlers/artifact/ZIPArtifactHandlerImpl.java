@@ -61,6 +61,9 @@ public class ZIPArtifactHandlerImpl extends ArtifactHandlerBase {
     }
 
     protected File getZipFile() {
+        if (artifactPackage != null) {
+            return artifactPackage;
+        }
         final File zipFile = new File(stagingDirectoryPath + ".zip");
         final File stagingDirectory = new File(stagingDirectoryPath);
 
@@ -10,6 +10,7 @@ import com.microsoft.azure.common.appservice.DockerImageType;
 import com.microsoft.azure.common.exceptions.AzureExecutionException;
 import com.microsoft.azure.common.logging.Log;
 import com.microsoft.azure.management.Azure;
+import com.microsoft.azure.management.appservice.AppSetting;
 import com.microsoft.azure.management.appservice.AppServicePlan;
 import com.microsoft.azure.management.appservice.OperatingSystem;
 import com.microsoft.azure.management.appservice.PricingTier;
@@ -20,7 +21,9 @@ import org.apache.commons.lang3.StringUtils;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.regex.Pattern;
 
@@ -28,6 +31,12 @@ public class AppServiceUtils {
 
     private static final String SERVICE_PLAN_NOT_FOUND = "Failed to get App Service Plan.";
     private static final String UPDATE_APP_SERVICE_PLAN = "Updating App Service Plan...";
+    private static final String DOCKER_LINUX_FX_VERSION = "DOCKER|%s";
+    // Images referenced as repository@sha256:digest are immutable, unlike the ones referenced by a tag
+    private static final String DIGEST_SEPARATOR = "@";
+    private static final String SETTING_REGISTRY_SERVER = "DOCKER_REGISTRY_SERVER_URL";
+    private static final String SETTING_REGISTRY_USERNAME = "DOCKER_REGISTRY_SERVER_USERNAME";
+    private static final String SETTING_REGISTRY_PASSWORD = "DOCKER_REGISTRY_SERVER_PASSWORD";
     private static final List<PricingTier> pricingTiers = new ArrayList<>();
 
     static {
@@ -143,4 +152,52 @@ public class AppServiceUtils {
         return StringUtils.containsIgnoreCase(linuxFxVersion, "DOCKER|");
     }
 
+    /**
+     * Get the app settings whose value differs from the one deployed to the app, including the ones not deployed yet.
+     */
+    public static Map<String, String> getChangedAppSettings(final WebAppBase app, final Map<String, String> appSettings) {
+        if (appSettings == null || appSettings.isEmpty()) {
+            return new HashMap<>();
+        }
+        return getChangedAppSettings(app.getAppSettings(), appSettings);
+    }
+
+    public static Map<String, String> getChangedAppSettings(final Map<String, AppSetting> current, final Map<String, String> appSettings) {
+        final Map<String, String> result = new HashMap<>();
+        if (appSettings == null) {
+            return result;
+        }
+        for (final Map.Entry<String, String> entry : appSettings.entrySet()) {
+            final AppSetting setting = current == null ? null : current.get(entry.getKey());
+            if (setting == null || !StringUtils.equals(setting.value(), entry.getValue())) {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Whether the app already runs the docker image, pulled from the registry with the credentials specified. Only an
+     * image pinned by its digest can be told, the image of a tag may have been pushed again since the app pulled it,
+     * then the update is what restarts the app to pull it.
+     *
+     * @param registryUrl null for images on docker hub
+     * @param username    null for public images
+     */
+    public static boolean isDockerImageUpToDate(final WebAppBase app, final String image, final String registryUrl,
+                                                final String username, final String password) {
+        if (!StringUtils.contains(image, DIGEST_SEPARATOR) ||
+                !StringUtils.equalsIgnoreCase(app.linuxFxVersion(), String.format(DOCKER_LINUX_FX_VERSION, image))) {
+            return false;
+        }
+        final Map<String, String> registrySettings = new HashMap<>();
+        if (registryUrl != null) {
+            registrySettings.put(SETTING_REGISTRY_SERVER, registryUrl);
+        }
+        if (username != null) {
+            registrySettings.put(SETTING_REGISTRY_USERNAME, username);
+            registrySettings.put(SETTING_REGISTRY_PASSWORD, password);
+        }
+        return registrySettings.isEmpty() || getChangedAppSettings(app, registrySettings).isEmpty();
+    }
 }
@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Inspects jar artifacts through the zip central directory, so only the manifest and one class header are read
+ * instead of streaming the whole archive. Results are cached by path, size and last modified time.
+ */
+public final class ArtifactInspector {
+    private static final String CLASS_SUFFIX = ".class";
+    private static final String JAR_SUFFIX = ".jar";
+    private static final int CLASS_MAGIC = 0xCAFEBABE;
+    // Major version 45 is Java 1.1
+    private static final int CLASS_VERSION_OFFSET = 44;
+
+    private static final Map<Path, ArtifactInfo> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Inspect the artifact, or return the cached result if the file is not changed since last inspection.
+     */
+    public static ArtifactInfo inspect(final File artifact) throws IOException {
+        final Path path = artifact.toPath().toAbsolutePath().normalize();
+        final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        final long size = attributes.size();
+        final long lastModified = attributes.lastModifiedTime().toMillis();
+        final ArtifactInfo cached = CACHE.get(path);
+        if (cached != null && cached.size == size && cached.lastModified == lastModified) {
+            return cached;
+        }
+        final ArtifactInfo info = read(path.toFile(), size, lastModified);
+        CACHE.put(path, info);
+        return info;
+    }
+
+    /**
+     * Inspect the artifacts in parallel on the shared executor and return the executable jars among them, in the
+     * order given.
+     */
+    public static List<File> getExecutableJars(final Collection<File> artifacts) {
+        if (artifacts.size() <= 1) {
+            return artifacts.stream().filter(ArtifactInspector::isExecutableJar).collect(Collectors.toList());
+        }
+        try (final SharedExecutor.Scope scope = SharedExecutor.open()) {
+            final Map<File, CompletableFuture<Boolean>> executable = new LinkedHashMap<>();
+            for (final File artifact : artifacts) {
+                executable.put(artifact, CompletableFuture.supplyAsync(() -> isExecutableJar(artifact), scope));
+            }
+            return executable.entrySet().stream().filter(entry -> entry.getValue().join())
+                    .map(Map.Entry::getKey).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Find the executable jars in a build directory. Jars are looked up at the top of the directory first, where
+     * the build puts its artifacts, the directory is only searched recursively when none of them is executable.
+     */
+    public static List<File> findExecutableJars(final File directory) throws IOException {
+        if (!directory.isDirectory()) {
+            return Collections.emptyList();
+        }
+        final List<File> topLevel;
+        try (final Stream<Path> files = Files.list(directory.toPath())) {
+            topLevel = files.filter(ArtifactInspector::isJarFile).map(Path::toFile).sorted().collect(Collectors.toList());
+        }
+        final List<File> executable = getExecutableJars(topLevel);
+        if (!executable.isEmpty()) {
+            return executable;
+        }
+        final List<File> nested;
+        try (final Stream<Path> files = Files.walk(directory.toPath())) {
+            nested = files.filter(path -> !path.getParent().equals(directory.toPath()) && isJarFile(path))
+                    .map(Path::toFile).sorted().collect(Collectors.toList());
+        }
+        return getExecutableJars(nested);
+    }
+
+    public static boolean isExecutableJar(final File artifact) {
+        try {
+            return inspect(artifact).isExecutable();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static boolean isJarFile(final Path path) {
+        return StringUtils.endsWithIgnoreCase(path.getFileName().toString(), JAR_SUFFIX) && Files.isRegularFile(path);
+    }
+
+    static void clearCache() {
+        CACHE.clear();
+    }
+
+    private static ArtifactInfo read(final File artifact, final long size, final long lastModified) throws IOException {
+        try (final ZipFile zipFile = new ZipFile(artifact)) {
+            final String mainClass = readMainClass(zipFile);
+            final ZipEntry classEntry = zipFile.stream()
+                    .filter(entry -> !entry.isDirectory() && StringUtils.endsWith(entry.getName(), CLASS_SUFFIX))
+                    .findFirst().orElse(null);
+            final int majorVersion = classEntry == null ? -1 : readMajorVersion(zipFile, classEntry);
+            return new ArtifactInfo(mainClass, majorVersion, size, lastModified);
+        }
+    }
+
+    private static String readMainClass(final ZipFile zipFile) throws IOException {
+        final ZipEntry manifestEntry = zipFile.getEntry(JarFile.MANIFEST_NAME);
+        if (manifestEntry == null) {
+            return null;
+        }
+        try (final InputStream stream = zipFile.getInputStream(manifestEntry)) {
+            return new Manifest(stream).getMainAttributes().getValue(Attributes.Name.MAIN_CLASS);
+        }
+    }
+
+    // Refers https://en.wikipedia.org/wiki/Java_class_file#General_layout
+    private static int readMajorVersion(final ZipFile zipFile, final ZipEntry classEntry) throws IOException {
+        try (final DataInputStream stream = new DataInputStream(zipFile.getInputStream(classEntry))) {
+            if (stream.readInt() != CLASS_MAGIC) {
+                return -1;
+            }
+            stream.readUnsignedShort();
+            return stream.readUnsignedShort();
+        }
+    }
+
+    public static class ArtifactInfo {
+        private final String mainClass;
+        private final int classMajorVersion;
+        private final long size;
+        private final long lastModified;
+
+        ArtifactInfo(final String mainClass, final int classMajorVersion, final long size, final long lastModified) {
+            this.mainClass = mainClass;
+            this.classMajorVersion = classMajorVersion;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public String getMainClass() {
+            return mainClass;
+        }
+
+        public boolean isExecutable() {
+            return mainClass != null;
+        }
+
+        public boolean hasClasses() {
+            return classMajorVersion > 0;
+        }
+
+        /**
+         * @return the java version the sample class is compiled for, e.g. 1.8 or 11, null if there is no class
+         */
+        public String getCompileVersion() {
+            if (!hasClasses()) {
+                return null;
+            }
+            final int version = classMajorVersion - CLASS_VERSION_OFFSET;
+            return version > 8 ? String.valueOf(version) : String.format("1.%d", version);
+        }
+    }
+
+    private ArtifactInspector() {
+    }
+}
@@ -15,10 +15,6 @@ package com.microsoft.azure.common.utils;
 
 import org.apache.commons.lang3.StringUtils;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.NetworkInterface;
 import java.net.SocketException;
@@ -37,14 +33,12 @@ public class GetHashMac {
     private static final String MAC_REGEX = "([0-9A-Fa-f]{2}[:-]){5}[0-9A-Fa-f]{2}";
     private static final Pattern MAC_PATTERN = Pattern.compile(MAC_REGEX);
 
-    private static final String[] UNIX_COMMAND = {"/sbin/ifconfig -a || /sbin/ip link"};
-    private static final String[] WINDOWS_COMMAND = {"getmac"};
     private static final String[] INVALID_MAC_ADDRESS = {"00:00:00:00:00:00", "ff:ff:ff:ff:ff:ff", "ac:de:48:00:11:22"};
 
     public static String getHashMac() {
         String ret = null;
-        String rawMac = getRawMac();
-        rawMac = isValidRawMac(rawMac) ? rawMac : getRawMacWithNetworkInterface();
+        // Read from the network interfaces of the JVM rather than forking ifconfig/getmac
+        final String rawMac = getRawMacWithNetworkInterface();
 
         if (isValidRawMac(rawMac)) {
             final Matcher matcher = MAC_PATTERN.matcher(rawMac);
@@ -76,32 +70,6 @@ public class GetHashMac {
         return StringUtils.isNotEmpty(raw) && MAC_PATTERN.matcher(raw).find();
     }
 
-    private static String getRawMac() {
-        final StringBuilder ret = new StringBuilder();
-        try {
-            final String os = System.getProperty("os.name").toLowerCase();
-            final String[] command = StringUtils.startsWithIgnoreCase(os, "win") ?
-                    WINDOWS_COMMAND : UNIX_COMMAND;
-            final ProcessBuilder builder = new ProcessBuilder(command);
-            final Process process = builder.start();
-            try (final InputStream inputStream = process.getInputStream();
-                 final InputStreamReader inputStreamReader = new InputStreamReader(inputStream);
-                 final BufferedReader br = new BufferedReader(inputStreamReader)) {
-                String tmp;
-                while ((tmp = br.readLine()) != null) {
-                    ret.append(tmp);
-                }
-            }
-            if (process.waitFor() != 0) {
-                throw new IOException("Command execute fail.");
-            }
-        } catch (IOException | InterruptedException ex) {
-            return null;
-        }
-
-        return ret.toString();
-    }
-
     private static String getRawMacWithNetworkInterface() {
         final List<String> macSet = new ArrayList<>();
         try {
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.microsoft.azure.AzureEnvironment;
+import com.microsoft.azure.common.logging.Log;
+import com.microsoft.azure.credentials.ApplicationTokenCredentials;
+import com.microsoft.azure.credentials.AzureTokenCredentials;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * The identity requests are sent as, which the caches shared by the goals of all the plugins are kept for. It is
+ * the client id of a service principal, and the tenant and object id in the token of any other credential, so that
+ * the same user gets the same caches however the token is obtained.
+ */
+public class IdentityUtils {
+    private static final String SERVICE_PRINCIPAL = "sp";
+    private static final String USER = "user";
+    private static final String TENANT_ID = "tid";
+    private static final String OBJECT_ID = "oid";
+
+    private IdentityUtils() {
+
+    }
+
+    /**
+     * @return the identity of the credentials, null if it can't be told, then nothing should be cached for it
+     */
+    public static String getIdentity(final AzureTokenCredentials credentials) {
+        if (credentials == null) {
+            return null;
+        }
+        if (credentials instanceof ApplicationTokenCredentials) {
+            final String clientId = ((ApplicationTokenCredentials) credentials).clientId();
+            return StringUtils.isEmpty(clientId) ? null : StringUtils.joinWith("|", SERVICE_PRINCIPAL, credentials.domain(), clientId);
+        }
+        try {
+            final AzureEnvironment environment = credentials.environment() == null ? AzureEnvironment.AZURE : credentials.environment();
+            final JsonObject claims = getClaims(credentials.getToken(environment.managementEndpoint()));
+            final String tenantId = getClaim(claims, TENANT_ID);
+            final String objectId = getClaim(claims, OBJECT_ID);
+            return StringUtils.isAnyEmpty(tenantId, objectId) ? null : StringUtils.joinWith("|", USER, tenantId, objectId);
+        } catch (IOException | RuntimeException e) {
+            Log.debug(String.format("Cannot get the identity of the credentials: %s", e.getMessage()));
+            return null;
+        }
+    }
+
+    private static JsonObject getClaims(final String token) {
+        final String[] parts = StringUtils.split(token, '.');
+        if (parts == null || parts.length < 2) {
+            throw new JsonParseException("The access token is not a JWT.");
+        }
+        final String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+        return JsonUtils.fromJson(payload, JsonObject.class);
+    }
+
+    private static String getClaim(final JsonObject claims, final String name) {
+        return claims != null && claims.has(name) && claims.get(name).isJsonPrimitive() ? claims.get(name).getAsString() : null;
+    }
+}
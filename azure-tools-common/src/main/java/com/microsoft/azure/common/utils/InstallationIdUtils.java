@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import com.microsoft.azure.common.logging.Log;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * The installation id reported in telemetry and in the user agent. It is computed once from the MAC address and saved
+ * in the configuration file shared by all the plugins, later builds and other mojos of the same build only read it.
+ * A random id is saved instead when no MAC address can be found, e.g. in containers.
+ */
+public class InstallationIdUtils {
+    public static final String CONFIGURATION_PATH = Paths.get(System.getProperty("user.home"),
+            ".azure", "mavenplugins.properties").toString();
+    public static final String INSTALLATION_ID_KEY = "installationId";
+
+    private static final String CONFIGURATION_COMMENT = "Azure Maven Plugin configurations";
+    private static String installationId;
+
+    private InstallationIdUtils() {
+
+    }
+
+    public static synchronized String getInstallationId() {
+        if (installationId == null) {
+            installationId = getInstallationId(new File(CONFIGURATION_PATH));
+        }
+        return installationId;
+    }
+
+    static String getInstallationId(final File configurationFile) {
+        final Properties properties = new Properties();
+        if (configurationFile.exists()) {
+            try (final InputStream input = Files.newInputStream(configurationFile.toPath())) {
+                properties.load(input);
+            } catch (IOException e) {
+                Log.debug(e.getMessage());
+            }
+        }
+        final String saved = properties.getProperty(INSTALLATION_ID_KEY);
+        if (StringUtils.isNotBlank(saved)) {
+            return saved;
+        }
+        final String hashMac = GetHashMac.getHashMac();
+        final String result = hashMac != null ? hashMac : DigestUtils.sha256Hex(UUID.randomUUID().toString());
+        properties.setProperty(INSTALLATION_ID_KEY, result);
+        save(configurationFile, properties);
+        return result;
+    }
+
+    private static void save(final File configurationFile, final Properties properties) {
+        try {
+            configurationFile.getAbsoluteFile().getParentFile().mkdirs();
+            // Replace the file at once, other builds may be reading it
+            final Path temp = Files.createTempFile(configurationFile.getAbsoluteFile().getParentFile().toPath(),
+                    configurationFile.getName(), ".tmp");
+            try {
+                try (final OutputStream output = Files.newOutputStream(temp)) {
+                    properties.store(output, CONFIGURATION_COMMENT);
+                }
+                Files.move(temp, configurationFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                // Left behind only when the move failed
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException | RuntimeException e) {
+            // catch exceptions here to avoid blocking mojo execution, the id is computed again next time.
+            Log.debug(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import com.microsoft.azure.common.logging.Log;
+import com.microsoft.rest.RestException;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Polls a resource until it satisfies a condition. The interval starts small and doubles after every attempt up to a
+ * limit, unless the server hints when to ask again, either through the polled resource or the Retry-After header of a
+ * failed request. Polling stops at the deadline or when cancelled from another thread.
+ * Like {@link java.util.concurrent.Future#get(long, TimeUnit)}, {@link #await()} wraps a failed attempt into an
+ * {@link ExecutionException} and throws {@link TimeoutException} when the deadline passes.
+ */
+public class Poller<T> {
+    private static final int BACKOFF_MULTIPLIER = 2;
+    private static final long DEFAULT_MIN_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+    private static final long DEFAULT_MAX_INTERVAL = TimeUnit.SECONDS.toMillis(10);
+    private static final String RETRY_AFTER = "Retry-After";
+    private static final String TIMEOUT = "The condition is not met after %d attempts in %d seconds.";
+    private static final String CANCELLED = "Polling is cancelled.";
+    private static final String IGNORED_ERROR = "Attempt %d failed, will retry: %s";
+
+    private final Callable<T> probe;
+    private Predicate<T> condition = Objects::nonNull;
+    private Function<T, Long> intervalHint;
+    private long initialDelay;
+    private long minInterval = DEFAULT_MIN_INTERVAL;
+    private long maxInterval = DEFAULT_MAX_INTERVAL;
+    private long timeout = Long.MAX_VALUE;
+    private final List<Class<? extends Exception>> ignoredErrors = new ArrayList<>();
+    private boolean cancelled;
+    private volatile T lastResult;
+    private volatile int attempts;
+
+    private Poller(final Callable<T> probe) {
+        this.probe = probe;
+    }
+
+    public static <T> Poller<T> poll(final Callable<T> probe) {
+        return new Poller<>(probe);
+    }
+
+    /**
+     * The condition the polled resource should meet, by default not being null.
+     */
+    public Poller<T> until(final Predicate<T> value) {
+        this.condition = value;
+        return this;
+    }
+
+    public Poller<T> withInitialDelay(final long delay, final TimeUnit unit) {
+        this.initialDelay = unit.toMillis(delay);
+        return this;
+    }
+
+    public Poller<T> withInterval(final long min, final long max, final TimeUnit unit) {
+        this.minInterval = Math.max(1, unit.toMillis(min));
+        this.maxInterval = Math.max(minInterval, unit.toMillis(max));
+        return this;
+    }
+
+    public Poller<T> withTimeout(final long value, final TimeUnit unit) {
+        this.timeout = unit.toMillis(value);
+        return this;
+    }
+
+    /**
+     * Interval in milliseconds the server asks for in the polled resource, null when it does not tell.
+     */
+    public Poller<T> withIntervalHint(final Function<T, Long> value) {
+        this.intervalHint = value;
+        return this;
+    }
+
+    /**
+     * Treat a failed attempt like a resource not meeting the condition yet, instead of stopping.
+     */
+    public Poller<T> ignoringErrors() {
+        return ignoringErrors(Exception.class);
+    }
+
+    /**
+     * Treat an attempt failed with any of the given exceptions like a resource not meeting the condition yet, other
+     * failures still stop polling.
+     */
+    @SafeVarargs
+    public final Poller<T> ignoringErrors(final Class<? extends Exception>... types) {
+        this.ignoredErrors.addAll(Arrays.asList(types));
+        return this;
+    }
+
+    /**
+     * Poll until the condition is met and return the resource.
+     *
+     * @throws ExecutionException    if an attempt failed and errors are not ignored
+     * @throws TimeoutException      if the condition is not met before the deadline
+     * @throws CancellationException if {@link #cancel()} is called meanwhile
+     */
+    public T await() throws InterruptedException, ExecutionException, TimeoutException {
+        final long start = System.nanoTime();
+        final long budget = timeout == Long.MAX_VALUE ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(timeout);
+        long interval = minInterval;
+        long delay = initialDelay;
+        while (true) {
+            sleep(Math.min(delay, remaining(start, budget)));
+            attempts++;
+            Long hint = null;
+            try {
+                final T result = probe.call();
+                lastResult = result;
+                if (condition.test(result)) {
+                    return result;
+                }
+                hint = intervalHint == null ? null : intervalHint.apply(result);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                if (!isIgnored(e)) {
+                    throw new ExecutionException(e);
+                }
+                Log.debug(String.format(IGNORED_ERROR, attempts, e.getMessage()));
+                hint = getRetryAfter(e);
+            }
+            if (remaining(start, budget) <= 0) {
+                throw new TimeoutException(String.format(TIMEOUT, attempts, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)));
+            }
+            delay = hint != null && hint > 0 ? hint : interval;
+            interval = Math.min(interval * BACKOFF_MULTIPLIER, maxInterval);
+        }
+    }
+
+    /**
+     * Stop polling, the thread waiting in {@link #await()} gets a {@link CancellationException}.
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        notifyAll();
+    }
+
+    /**
+     * The resource of the last successful attempt, which may not meet the condition, e.g. after a timeout.
+     */
+    public T getLastResult() {
+        return lastResult;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    private synchronized void sleep(final long millis) throws InterruptedException {
+        final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        long left = end - System.nanoTime();
+        while (!cancelled && left > 0) {
+            TimeUnit.NANOSECONDS.timedWait(this, left);
+            left = end - System.nanoTime();
+        }
+        if (cancelled) {
+            throw new CancellationException(CANCELLED);
+        }
+    }
+
+    private boolean isIgnored(final Exception e) {
+        return ignoredErrors.stream().anyMatch(type -> type.isInstance(e));
+    }
+
+    private static long remaining(final long start, final long budget) {
+        return budget == Long.MAX_VALUE ? Long.MAX_VALUE : TimeUnit.NANOSECONDS.toMillis(start + budget - System.nanoTime());
+    }
+
+    private static Long getRetryAfter(final Exception e) {
+        if (!(e instanceof RestException) || ((RestException) e).response() == null) {
+            return null;
+        }
+        final long seconds = NumberUtils.toLong(((RestException) e).response().headers().get(RETRY_AFTER), -1);
+        return seconds < 0 ? null : TimeUnit.SECONDS.toMillis(seconds);
+    }
+}
@@ -0,0 +1,295 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import com.microsoft.azure.common.function.utils.CommandUtils;
+import com.microsoft.azure.common.logging.Log;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Runs an external command without blocking on its output. Its stdout and stderr are pumped line by line on their own
+ * threads while it runs, so that a command writing more than the pipe buffer cannot hang. The command is killed along
+ * with the processes it started when the timeout passes or {@link #cancel()} is called, and the {@link Result}
+ * reports the exit code, the captured output and how long the command took. The output is decoded with the platform
+ * charset, which the command line tools write their output in.
+ * The timeout defaults to the system property azure.process.timeoutSeconds, the command is not limited if it is unset.
+ */
+public class ProcessRunner {
+    public static final String TIMEOUT_PROPERTY = "azure.process.timeoutSeconds";
+
+    private static final String THREAD_NAME = "azure-process-%s-%d";
+    private static final String EXECUTING = "Executing command: %s";
+    private static final String FINISHED = "Command exited with code %d in %d ms.";
+    private static final String TIMED_OUT = "Command did not finish in %d ms and is killed: %s";
+    private static final String CANCELLED = "Command is cancelled: %s";
+    private static final String TRUNCATED = "... (truncated)";
+    private static final int MAX_CAPTURED_CHARS = 1024 * 1024;
+    // Processes started by the command but not killed may keep the pipes open after it exits
+    private static final long PUMP_JOIN_TIMEOUT = TimeUnit.SECONDS.toMillis(1);
+    private static final AtomicInteger COUNT = new AtomicInteger();
+
+    private final List<String> command;
+    private File workingDirectory;
+    private Consumer<String> stdoutConsumer = line -> { };
+    private Consumer<String> stderrConsumer = line -> { };
+    private boolean errorStreamMerged;
+    private ProcessBuilder.Redirect stdoutRedirect = ProcessBuilder.Redirect.PIPE;
+    private long timeout = TimeUnit.SECONDS.toMillis(Long.getLong(TIMEOUT_PROPERTY, 0));
+    private volatile Process process;
+    private volatile boolean cancelled;
+
+    private ProcessRunner(final List<String> command) {
+        this.command = command;
+    }
+
+    public static ProcessRunner command(final String... command) {
+        return new ProcessRunner(Arrays.asList(command));
+    }
+
+    /**
+     * Run the command line with cmd.exe on Windows and sh elsewhere, so that it may use pipes and redirections.
+     */
+    public static ProcessRunner shell(final String commandLine) {
+        return command(CommandUtils.isWindows() ? new String[]{"cmd.exe", "/c", commandLine} : new String[]{"sh", "-c", commandLine});
+    }
+
+    public ProcessRunner withWorkingDirectory(final File directory) {
+        this.workingDirectory = directory;
+        return this;
+    }
+
+    /**
+     * Every line the command writes to stdout, e.g. to show it in the Maven log.
+     */
+    public ProcessRunner onStdout(final Consumer<String> consumer) {
+        this.stdoutConsumer = consumer;
+        return this;
+    }
+
+    public ProcessRunner onStderr(final Consumer<String> consumer) {
+        this.stderrConsumer = consumer;
+        return this;
+    }
+
+    /**
+     * Read stderr along with stdout, in the order the command writes them.
+     */
+    public ProcessRunner withErrorStreamMerged() {
+        this.errorStreamMerged = true;
+        return this;
+    }
+
+    /**
+     * Send stdout somewhere else than to the consumer, e.g. {@link ProcessBuilder.Redirect#INHERIT} to show the output
+     * of a command running until it is stopped on the console as is. Nothing of it is captured then.
+     */
+    public ProcessRunner withStdoutRedirect(final ProcessBuilder.Redirect redirect) {
+        this.stdoutRedirect = redirect;
+        return this;
+    }
+
+    /**
+     * @param value the time the command may run, not limited if not positive
+     */
+    public ProcessRunner withTimeout(final long value, final TimeUnit unit) {
+        this.timeout = unit.toMillis(value);
+        return this;
+    }
+
+    /**
+     * Kill the command from another thread, {@link #run()} then returns a cancelled result.
+     */
+    public void cancel() {
+        cancelled = true;
+        final Process current = process;
+        if (current != null) {
+            killTree(current);
+        }
+    }
+
+    /**
+     * Run the command and wait for it, it is killed if the calling thread is interrupted.
+     */
+    public Result run() throws IOException, InterruptedException {
+        final String commandLine = String.join(" ", command);
+        Log.debug(String.format(EXECUTING, commandLine));
+        final ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(errorStreamMerged).redirectOutput(stdoutRedirect);
+        if (workingDirectory != null) {
+            builder.directory(workingDirectory);
+        }
+        final long start = System.nanoTime();
+        process = builder.start();
+        final Pump stdout = stdoutRedirect == ProcessBuilder.Redirect.PIPE ? new Pump(process.getInputStream(), stdoutConsumer, "stdout") : null;
+        final Pump stderr = errorStreamMerged ? null : new Pump(process.getErrorStream(), stderrConsumer, "stderr");
+        if (cancelled) {
+            killTree(process);
+        }
+        boolean timedOut = false;
+        try {
+            if (timeout > 0 && !process.waitFor(timeout, TimeUnit.MILLISECONDS)) {
+                timedOut = true;
+                Log.warn(String.format(TIMED_OUT, timeout, commandLine));
+                killTree(process);
+            }
+            process.waitFor();
+        } catch (InterruptedException e) {
+            killTree(process);
+            throw e;
+        }
+        if (stdout != null) {
+            stdout.join(PUMP_JOIN_TIMEOUT);
+        }
+        if (stderr != null) {
+            stderr.join(PUMP_JOIN_TIMEOUT);
+        }
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (cancelled) {
+            Log.debug(String.format(CANCELLED, commandLine));
+        }
+        Log.debug(String.format(FINISHED, process.exitValue(), elapsed));
+        return new Result(process.exitValue(), stdout == null ? "" : stdout.getOutput(), stderr == null ? "" : stderr.getOutput(), elapsed,
+                timedOut, cancelled);
+    }
+
+    /**
+     * Kill the process and its descendants. Descendants are found with ProcessHandle on Java 9 and later, on Java 8
+     * only the children of the process are killed, with pkill, and on Windows only the process itself.
+     */
+    static void killTree(final Process process) {
+        try {
+            final Method descendants = Process.class.getMethod("descendants");
+            final Method destroyForcibly = Class.forName("java.lang.ProcessHandle").getMethod("destroyForcibly");
+            ((Stream<?>) descendants.invoke(process)).forEach(handle -> {
+                try {
+                    destroyForcibly.invoke(handle);
+                } catch (ReflectiveOperationException e) {
+                    Log.debug(String.format("Failed to kill process: %s", e.getMessage()));
+                }
+            });
+        } catch (NoSuchMethodException | ClassNotFoundException e) {
+            killChildren(process);
+        } catch (ReflectiveOperationException e) {
+            Log.debug(String.format("Failed to kill the processes started by the command: %s", e.getMessage()));
+        }
+        process.destroyForcibly();
+    }
+
+    private static void killChildren(final Process process) {
+        if (CommandUtils.isWindows()) {
+            return;
+        }
+        try {
+            final Field pid = process.getClass().getDeclaredField("pid");
+            pid.setAccessible(true);
+            new ProcessBuilder("pkill", "-KILL", "-P", String.valueOf(pid.getInt(process))).start().waitFor(5, TimeUnit.SECONDS);
+        } catch (ReflectiveOperationException | IOException e) {
+            Log.debug(String.format("Failed to kill the processes started by the command: %s", e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Pump extends Thread {
+        private final InputStream input;
+        private final Consumer<String> consumer;
+        private final StringBuilder output = new StringBuilder();
+        private boolean truncated;
+
+        Pump(final InputStream input, final Consumer<String> consumer, final String name) {
+            super(String.format(THREAD_NAME, name, COUNT.incrementAndGet()));
+            this.input = input;
+            this.consumer = consumer;
+            setDaemon(true);
+            start();
+        }
+
+        @Override
+        public void run() {
+            try (final BufferedReader reader = new BufferedReader(new InputStreamReader(input, Charset.defaultCharset()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    append(line);
+                    consumer.accept(line);
+                }
+            } catch (IOException e) {
+                // the stream is closed when the process is killed
+            }
+        }
+
+        private synchronized void append(final String line) {
+            if (output.length() + line.length() < MAX_CAPTURED_CHARS) {
+                output.append(line).append(System.lineSeparator());
+            } else {
+                truncated = true;
+            }
+        }
+
+        private synchronized String getOutput() {
+            return truncated ? output + TRUNCATED : output.toString();
+        }
+    }
+
+    public static class Result {
+        private final int exitCode;
+        private final String stdout;
+        private final String stderr;
+        private final long elapsedMillis;
+        private final boolean timedOut;
+        private final boolean cancelled;
+
+        Result(final int exitCode, final String stdout, final String stderr, final long elapsedMillis, final boolean timedOut,
+               final boolean cancelled) {
+            this.exitCode = exitCode;
+            this.stdout = stdout;
+            this.stderr = stderr;
+            this.elapsedMillis = elapsedMillis;
+            this.timedOut = timedOut;
+            this.cancelled = cancelled;
+        }
+
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        /**
+         * @return the first megabyte of stdout, and of stderr too if it is merged, empty if stdout is redirected
+         */
+        public String getStdout() {
+            return stdout;
+        }
+
+        public String getStderr() {
+            return stderr;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
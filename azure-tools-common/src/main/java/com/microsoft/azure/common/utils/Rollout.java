@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deploys to several targets with a bounded number of deployments in flight, so that the total time approaches the
+ * slowest target instead of the sum of all of them. With {@link Policy#WAVES} the targets are deployed in waves of a
+ * given size, and the waves after a failed one are skipped.
+ */
+public class Rollout<T> {
+    private static final String UNKNOWN_POLICY = "The value of <rolloutPolicy> is unknown, supported values are: all_at_once and waves.";
+    private static final String REPORT_HEADER = "Result of the deployment to %d targets:";
+    private static final String REPORT_LINE = "    %-40s %-9s %6.1fs %s";
+    private static final String REPORT_LINE_SKIPPED = "    %-40s %-9s";
+
+    public enum Policy {
+        ALL_AT_ONCE,
+        WAVES;
+
+        public static Policy fromString(final String input) {
+            if (StringUtils.isEmpty(input)) {
+                return ALL_AT_ONCE;
+            }
+            for (final Policy policy : values()) {
+                if (policy.name().equalsIgnoreCase(input.replace('-', '_'))) {
+                    return policy;
+                }
+            }
+            throw new IllegalArgumentException(UNKNOWN_POLICY);
+        }
+    }
+
+    public enum Status {
+        SUCCEEDED,
+        FAILED,
+        SKIPPED
+    }
+
+    private final Policy policy;
+    private final int maxParallelism;
+    private final int waveSize;
+
+    /**
+     * @param maxParallelism the most deployments in flight, not limited if not positive
+     * @param waveSize       the number of targets in a wave, the parallelism is used if not positive
+     */
+    public Rollout(final Policy policy, final int maxParallelism, final int waveSize) {
+        this.policy = policy == null ? Policy.ALL_AT_ONCE : policy;
+        this.maxParallelism = maxParallelism;
+        this.waveSize = waveSize;
+    }
+
+    /**
+     * Deploy to all the targets and return the result of every target in the same order, a failed deployment doesn't
+     * stop the others in flight.
+     */
+    public List<Result<T>> run(final List<T> targets, final Deployment<T> deployment) throws InterruptedException {
+        final List<Result<T>> results = new ArrayList<>();
+        for (final T target : targets) {
+            results.add(new Result<>(target));
+        }
+        if (targets.isEmpty()) {
+            return results;
+        }
+        final int parallelism = maxParallelism > 0 ? Math.min(maxParallelism, targets.size()) : targets.size();
+        final int size = policy == Policy.WAVES ? (waveSize > 0 ? waveSize : parallelism) : targets.size();
+        try (final SharedExecutor.Scope executor = SharedExecutor.open(Math.min(parallelism, size))) {
+            boolean failed = false;
+            for (int from = 0; from < results.size() && !failed; from += size) {
+                final List<Result<T>> wave = results.subList(from, Math.min(from + size, results.size()));
+                final List<Future<?>> futures = new ArrayList<>();
+                for (final Result<T> result : wave) {
+                    futures.add(CompletableFuture.runAsync(() -> result.run(deployment), executor));
+                }
+                for (final Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        // Result.run catches the errors of the deployment
+                    }
+                }
+                failed = wave.stream().anyMatch(result -> result.status == Status.FAILED);
+            }
+            return results;
+        }
+    }
+
+    public static <T> String getReport(final List<Result<T>> results) {
+        final StringBuilder report = new StringBuilder(String.format(REPORT_HEADER, results.size()));
+        for (final Result<T> result : results) {
+            report.append(System.lineSeparator());
+            report.append(result.getStatus() == Status.SKIPPED ?
+                String.format(REPORT_LINE_SKIPPED, result.getTarget(), result.getStatus()) :
+                String.format(REPORT_LINE, result.getTarget(), result.getStatus(), result.getDuration() / (double) TimeUnit.SECONDS.toMillis(1),
+                    result.getError() == null ? "" : result.getError().getMessage()));
+        }
+        return report.toString();
+    }
+
+    @FunctionalInterface
+    public interface Deployment<T> {
+        void deploy(T target) throws Exception;
+    }
+
+    public static class Result<T> {
+        private final T target;
+        private volatile Status status = Status.SKIPPED;
+        private volatile Exception error;
+        private volatile long start;
+        private volatile long end;
+
+        Result(final T target) {
+            this.target = target;
+        }
+
+        void run(final Deployment<T> deployment) {
+            start = System.nanoTime();
+            try {
+                deployment.deploy(target);
+                status = Status.SUCCEEDED;
+            } catch (Exception e) {
+                error = e;
+                status = Status.FAILED;
+            } finally {
+                end = System.nanoTime();
+            }
+        }
+
+        public T getTarget() {
+            return target;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public Exception getError() {
+            return error;
+        }
+
+        /**
+         * Time the deployment took in milliseconds.
+         */
+        public long getDuration() {
+            return TimeUnit.NANOSECONDS.toMillis(end - start);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One bounded pool of daemon threads for the concurrent work of all the goals running in a build, instead of a pool
+ * per task graph or rollout, so that a build with -T does not start a thread for every task of every module.
+ * Work is submitted through a {@link Scope}, which may further limit how many of its tasks run at the same time.
+ * Scopes opened by a task belong to the scope of that task, and cancelling a scope interrupts its running tasks and
+ * those of the scopes below it, e.g. when a goal fails. The pool is created by the first open scope and shut down
+ * when the last one is closed, so no thread is left once the goals are done. Work outliving the goal, e.g. refreshing a
+ * cache for the next goals, runs detached from the scopes and keeps the pool until it is done.
+ * The pool size defaults to twice the number of processors and at least 8, the system property
+ * azure.executor.threads overrides it.
+ */
+public final class SharedExecutor {
+    public static final String THREADS_PROPERTY = "azure.executor.threads";
+
+    private static final String THREAD_NAME = "azure-worker-%d";
+    private static final int MIN_THREADS = 8;
+    private static final long CLOSE_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+    private static final AtomicInteger COUNT = new AtomicInteger();
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private static ForkJoinPool pool;
+    private static int openScopes;
+
+    private SharedExecutor() {
+
+    }
+
+    /**
+     * Open a scope without a limit of its own, e.g. for a goal.
+     */
+    public static Scope open() {
+        return open(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param maxParallelism the most tasks of the scope running at the same time, not limited if not positive
+     */
+    public static Scope open(final int maxParallelism) {
+        final Scope parent = CURRENT.get();
+        final Scope scope = new Scope(parent, maxParallelism > 0 ? maxParallelism : Integer.MAX_VALUE, false);
+        acquire();
+        if (parent == null) {
+            // The first scope of a thread, e.g. the one of a goal, is the parent of the scopes opened after it
+            CURRENT.set(scope);
+        } else {
+            parent.addChild(scope);
+        }
+        return scope;
+    }
+
+    /**
+     * Run the task in a scope of its own, which is not cancelled along with the scope of the caller and is closed once
+     * the task is done.
+     */
+    public static void runDetached(final Runnable task) {
+        final Scope scope = new Scope(null, Integer.MAX_VALUE, true);
+        acquire();
+        scope.execute(task);
+    }
+
+    private static void acquire() {
+        synchronized (SharedExecutor.class) {
+            if (pool == null) {
+                final int threads = Integer.getInteger(THREADS_PROPERTY, Math.max(MIN_THREADS, 2 * Runtime.getRuntime().availableProcessors()));
+                // Threads of a ForkJoinPool are daemon threads, and a task waiting for a CompletableFuture doesn't
+                // block the pool, another thread is started to make up for it
+                pool = new ForkJoinPool(Math.max(1, threads), forkJoinPool -> {
+                    final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                    thread.setName(String.format(THREAD_NAME, COUNT.incrementAndGet()));
+                    return thread;
+                }, null, true);
+            }
+            openScopes++;
+        }
+    }
+
+    private static synchronized Executor getPool() {
+        if (pool == null) {
+            throw new RejectedExecutionException("The executor is shut down.");
+        }
+        return pool;
+    }
+
+    private static void release() {
+        final ForkJoinPool idle;
+        synchronized (SharedExecutor.class) {
+            if (--openScopes > 0) {
+                return;
+            }
+            idle = pool;
+            pool = null;
+        }
+        final Thread current = Thread.currentThread();
+        if (current instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) current).getPool() == idle) {
+            // Released by the last task of a detached scope, which can't wait for its own thread to end. The pool
+            // ends its threads once the task returns
+            idle.shutdown();
+            return;
+        }
+        idle.shutdownNow();
+        try {
+            idle.awaitTermination(CLOSE_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static class Scope implements Executor, AutoCloseable {
+        private final Scope parent;
+        private final int maxParallelism;
+        private final boolean detached;
+        private final Queue<Runnable> queue = new ArrayDeque<>();
+        private final Set<Thread> threads = new HashSet<>();
+        private final Set<Scope> children = new HashSet<>();
+        private int running;
+        private boolean cancelled;
+        private boolean closed;
+
+        private Scope(final Scope parent, final int maxParallelism, final boolean detached) {
+            this.parent = parent;
+            this.maxParallelism = maxParallelism;
+            this.detached = detached;
+        }
+
+        @Override
+        public synchronized void execute(final Runnable task) {
+            if (closed) {
+                throw new RejectedExecutionException("The scope is closed.");
+            }
+            queue.add(task);
+            drain();
+        }
+
+        /**
+         * Interrupt the running tasks and the tasks of the scopes opened by them. The tasks not started yet still run,
+         * so that the futures waiting for them complete, but interrupted from the start.
+         */
+        public void cancel() {
+            final Set<Scope> cancelledChildren;
+            synchronized (this) {
+                cancelled = true;
+                threads.forEach(Thread::interrupt);
+                cancelledChildren = new HashSet<>(children);
+            }
+            cancelledChildren.forEach(Scope::cancel);
+        }
+
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Cancel the tasks still running and the scopes left open by them, wait for the tasks to end and release the
+         * pool.
+         */
+        @Override
+        public void close() {
+            final Set<Scope> openChildren;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                openChildren = new HashSet<>(children);
+            }
+            if (hasPendingTasks() || !openChildren.isEmpty()) {
+                cancel();
+            }
+            openChildren.forEach(Scope::close);
+            synchronized (this) {
+                final long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT;
+                try {
+                    while (hasPendingTasks() && System.currentTimeMillis() < deadline) {
+                        wait(Math.max(1, deadline - System.currentTimeMillis()));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (parent != null) {
+                parent.removeChild(this);
+            }
+            if (CURRENT.get() == this) {
+                CURRENT.remove();
+            }
+            release();
+        }
+
+        private synchronized boolean hasPendingTasks() {
+            return running > 0 || !queue.isEmpty();
+        }
+
+        private synchronized void addChild(final Scope child) {
+            children.add(child);
+            if (cancelled) {
+                child.cancel();
+            }
+        }
+
+        private synchronized void removeChild(final Scope child) {
+            children.remove(child);
+        }
+
+        private void drain() {
+            while (running < maxParallelism && !queue.isEmpty()) {
+                final Runnable task = queue.poll();
+                running++;
+                getPool().execute(() -> run(task));
+            }
+        }
+
+        private void run(final Runnable task) {
+            final Thread thread = Thread.currentThread();
+            synchronized (this) {
+                threads.add(thread);
+                if (cancelled) {
+                    thread.interrupt();
+                }
+            }
+            final Scope previous = CURRENT.get();
+            CURRENT.set(this);
+            try {
+                task.run();
+            } finally {
+                CURRENT.set(previous);
+                final boolean done;
+                synchronized (this) {
+                    threads.remove(thread);
+                    // Clear the interruption for the next task of the thread
+                    Thread.interrupted();
+                    running--;
+                    drain();
+                    notifyAll();
+                    done = detached && !closed && !hasPendingTasks();
+                    closed |= done;
+                }
+                if (done) {
+                    release();
+                }
+            }
+        }
+    }
+}
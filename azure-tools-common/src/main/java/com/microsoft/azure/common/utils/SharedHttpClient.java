@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import com.microsoft.azure.AzureEnvironment;
+import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.credentials.AzureTokenCredentials;
+import com.microsoft.azure.management.resources.fluentcore.utils.ProviderRegistrationInterceptor;
+import com.microsoft.azure.management.resources.fluentcore.utils.ResourceManagerThrottlingInterceptor;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import com.microsoft.rest.RestClient;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.apache.commons.lang3.math.NumberUtils;
+import retrofit2.Retrofit;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection pool, dispatcher and TLS socket factory shared by all the management clients created by the plugins, so
+ * that the ARM, Application Insights and Spring Cloud clients reuse the same keep-alive connections and TLS sessions
+ * instead of paying new handshakes for every client.
+ * OkHttp only reuses a pooled connection for a client with the same socket factory, so every client is derived from one
+ * base client rather than just configured with the same pool. The pool can be tuned with the system properties below.
+ */
+public class SharedHttpClient {
+    public static final String MAX_IDLE_CONNECTIONS = "azure.http.maxIdleConnections";
+    public static final String KEEP_ALIVE_SECONDS = "azure.http.keepAliveSeconds";
+    public static final String MAX_REQUESTS_PER_HOST = "azure.http.maxRequestsPerHost";
+
+    private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 16;
+    private static final int DEFAULT_KEEP_ALIVE_SECONDS = 300;
+    private static final int DEFAULT_MAX_REQUESTS_PER_HOST = 16;
+
+    private static OkHttpClient baseClient;
+
+    private SharedHttpClient() {
+
+    }
+
+    public static synchronized OkHttpClient getBaseClient() {
+        if (baseClient == null) {
+            final Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequestsPerHost(getProperty(MAX_REQUESTS_PER_HOST, DEFAULT_MAX_REQUESTS_PER_HOST));
+            baseClient = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(getProperty(MAX_IDLE_CONNECTIONS, DEFAULT_MAX_IDLE_CONNECTIONS),
+                    getProperty(KEEP_ALIVE_SECONDS, DEFAULT_KEEP_ALIVE_SECONDS), TimeUnit.SECONDS))
+                .dispatcher(dispatcher)
+                // HTTP/2 is used where the JDK supports ALPN, requests to the same host are then multiplexed
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .build();
+        }
+        return baseClient;
+    }
+
+    static synchronized void setBaseClient(final OkHttpClient client) {
+        baseClient = client;
+    }
+
+    /**
+     * Builder of a resource manager client on the shared connections, with the interceptors
+     * {@code Azure.configure()} and the other manager configurables add by default.
+     */
+    public static RestClient.Builder newRestClientBuilder(final AzureTokenCredentials credentials, final String userAgent) {
+        return newRestClientBuilder(credentials, userAgent, new ResourceManagerThrottlingInterceptor());
+    }
+
+    /**
+     * Builder of a resource manager client on the shared connections, with the given interceptors in place of the
+     * throttling interceptor of the SDK. For clients which retry throttled requests on their own, as the retries of both
+     * interceptors would multiply.
+     */
+    public static RestClient.Builder newRestClientBuilder(final AzureTokenCredentials credentials, final String userAgent,
+                                                          final Interceptor... interceptors) {
+        final RestClient.Builder builder = new RestClient.Builder(getBaseClient().newBuilder(), new Retrofit.Builder())
+            .withBaseUrl(credentials.environment(), AzureEnvironment.Endpoint.RESOURCE_MANAGER)
+            .withCredentials(credentials)
+            .withSerializerAdapter(new AzureJacksonAdapter())
+            .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+            .withUserAgent(userAgent)
+            .withInterceptor(new ProviderRegistrationInterceptor(credentials));
+        for (final Interceptor interceptor : interceptors) {
+            builder.withInterceptor(interceptor);
+        }
+        return builder;
+    }
+
+    private static int getProperty(final String name, final int defaultValue) {
+        final int value = NumberUtils.toInt(System.getProperty(name), defaultValue);
+        return value > 0 ? value : defaultValue;
+    }
+}
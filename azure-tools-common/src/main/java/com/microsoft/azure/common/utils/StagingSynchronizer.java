@@ -0,0 +1,220 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import com.microsoft.azure.common.logging.Log;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Synchronizes a staging directory with a set of source files, so that only changed files are written and
+ * only stale files are removed. Files are compared by size and last modified time first, content hashes are
+ * only computed when the size matches but the time does not. New content is hard linked from the source when
+ * possible and copied otherwise, so a staged file must never be written in place: delete it and write a new one,
+ * otherwise the source file changes as well.
+ */
+public class StagingSynchronizer {
+    private static final String SYNC_DONE = "Synchronized %s in %d ms: %d updated, %d unchanged, %d deleted.";
+
+    private final Path targetDirectory;
+    private final Map<Path, File> sources = new LinkedHashMap<>();
+    private final Set<Path> retained = new HashSet<>();
+    private Predicate<Path> staleFilter = path -> true;
+    private boolean useHardLinks = true;
+
+    public StagingSynchronizer(final File targetDirectory) {
+        this.targetDirectory = targetDirectory.toPath().toAbsolutePath().normalize();
+    }
+
+    /**
+     * Add a source file to be staged at the given path relative to the target directory.
+     */
+    public StagingSynchronizer addFile(final String relativePath, final File source) {
+        sources.put(resolve(relativePath), source);
+        return this;
+    }
+
+    /**
+     * Keep an existing file in the target directory, which is produced by someone else.
+     */
+    public StagingSynchronizer retain(final String relativePath) {
+        retained.add(resolve(relativePath));
+        return this;
+    }
+
+    /**
+     * Limit the stale files which may be deleted, the predicate receives paths relative to the target directory.
+     */
+    public StagingSynchronizer staleFilter(final Predicate<Path> filter) {
+        this.staleFilter = filter;
+        return this;
+    }
+
+    public StagingSynchronizer useHardLinks(final boolean value) {
+        this.useHardLinks = value;
+        return this;
+    }
+
+    public Result sync() throws IOException {
+        final long start = System.nanoTime();
+        final Result result = new Result();
+        Files.createDirectories(targetDirectory);
+        for (final Map.Entry<Path, File> entry : sources.entrySet()) {
+            if (syncFile(entry.getValue().toPath(), entry.getKey())) {
+                result.updated++;
+            } else {
+                result.unchanged++;
+            }
+        }
+        result.deleted = deleteStaleFiles();
+        result.elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Log.info(String.format(SYNC_DONE, targetDirectory, result.elapsed, result.updated, result.unchanged, result.deleted));
+        return result;
+    }
+
+    /**
+     * @return whether the target file is written
+     */
+    protected boolean syncFile(final Path source, final Path target) throws IOException {
+        final BasicFileAttributes sourceAttributes = Files.readAttributes(source, BasicFileAttributes.class);
+        if (Files.isRegularFile(target, LinkOption.NOFOLLOW_LINKS)) {
+            final BasicFileAttributes targetAttributes = Files.readAttributes(target, BasicFileAttributes.class);
+            if (sourceAttributes.size() == targetAttributes.size()) {
+                if (sourceAttributes.lastModifiedTime().equals(targetAttributes.lastModifiedTime())) {
+                    return false;
+                }
+                if (isSameContent(source, target)) {
+                    Files.setLastModifiedTime(target, sourceAttributes.lastModifiedTime());
+                    return false;
+                }
+            }
+        }
+        if (Files.isDirectory(target, LinkOption.NOFOLLOW_LINKS)) {
+            deleteDirectory(target);
+        } else {
+            Files.deleteIfExists(target);
+        }
+        Files.createDirectories(target.getParent());
+        if (!useHardLinks || !createLink(source, target)) {
+            Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES);
+        }
+        return true;
+    }
+
+    protected int deleteStaleFiles() throws IOException {
+        final List<Path> staleFiles;
+        try (final Stream<Path> files = Files.walk(targetDirectory)) {
+            staleFiles = files.filter(path -> Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS))
+                    .filter(path -> !sources.containsKey(path) && !retained.contains(path))
+                    .filter(path -> staleFilter.test(targetDirectory.relativize(path)))
+                    .collect(Collectors.toList());
+        }
+        final Set<Path> parents = new HashSet<>();
+        for (final Path file : staleFiles) {
+            Files.delete(file);
+            parents.add(file.getParent());
+        }
+        for (final Path parent : parents) {
+            deleteEmptyParents(parent);
+        }
+        return staleFiles.size();
+    }
+
+    private boolean createLink(final Path source, final Path target) {
+        try {
+            Files.createLink(target, source);
+            return true;
+        } catch (UnsupportedOperationException | IOException e) {
+            // Hard links are not supported across file systems or on some file systems at all
+            Log.debug(String.format("Cannot link %s to %s, copy it instead: %s", target, source, e.getMessage()));
+            return false;
+        }
+    }
+
+    private void deleteEmptyParents(final Path directory) throws IOException {
+        Path current = directory;
+        while (current != null && !current.equals(targetDirectory) && current.startsWith(targetDirectory)) {
+            try (final DirectoryStream<Path> children = Files.newDirectoryStream(current)) {
+                if (children.iterator().hasNext()) {
+                    return;
+                }
+            }
+            Files.delete(current);
+            current = current.getParent();
+        }
+    }
+
+    private Path resolve(final String relativePath) {
+        final Path path = targetDirectory.resolve(relativePath).normalize();
+        if (!path.startsWith(targetDirectory) || path.equals(targetDirectory)) {
+            throw new IllegalArgumentException(String.format("Path '%s' is outside of %s", relativePath, targetDirectory));
+        }
+        return path;
+    }
+
+    private static boolean isSameContent(final Path source, final Path target) throws IOException {
+        try (final InputStream sourceStream = Files.newInputStream(source);
+             final InputStream targetStream = Files.newInputStream(target)) {
+            return Arrays.equals(DigestUtils.sha256(sourceStream), DigestUtils.sha256(targetStream));
+        }
+    }
+
+    private static void deleteDirectory(final Path directory) throws IOException {
+        final List<Path> paths;
+        try (final Stream<Path> walk = Files.walk(directory)) {
+            paths = walk.collect(Collectors.toCollection(ArrayList::new));
+        }
+        // Children are listed after their parents, so delete in reverse order
+        for (int i = paths.size() - 1; i >= 0; i--) {
+            Files.delete(paths.get(i));
+        }
+    }
+
+    public static class Result {
+        private int updated;
+        private int unchanged;
+        private int deleted;
+        private long elapsed;
+
+        public int getUpdated() {
+            return updated;
+        }
+
+        public int getUnchanged() {
+            return unchanged;
+        }
+
+        public int getDeleted() {
+            return deleted;
+        }
+
+        public long getElapsed() {
+            return elapsed;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.microsoft.azure.common.logging.Log;
+import com.microsoft.azure.credentials.AzureTokenCredentials;
+import com.microsoft.azure.management.resources.Subscription;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Subscriptions and their tenants listed for an identity, kept in ~/.azure/subscription-cache and shared by the login,
+ * config and deploy goals of all the plugins. A listing younger than the ttl is used as is. An older one, up to a day,
+ * is still returned at once so that prompts show up immediately, and listed again in the background for the next run.
+ * Nothing is cached for an unknown identity, the subscriptions are listed every time.
+ */
+public class SubscriptionCache {
+    public static final long DEFAULT_TTL_IN_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final String AZURE_CONFIG_DIR = "AZURE_CONFIG_DIR";
+    private static final String CACHE_FOLDER = "subscription-cache";
+    private static final long MAX_STALE_IN_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final Gson GSON = new Gson();
+    // Subscriptions listed or read by this build, to show the current subscription without asking ARM for it
+    private static final Map<String, CachedSubscription> LOADED = new ConcurrentHashMap<>();
+    private static final Set<File> REVALIDATING = ConcurrentHashMap.newKeySet();
+
+    // null for an unknown identity
+    private final File file;
+    private final long ttl;
+
+    public SubscriptionCache(final File folder, final String identity, final long ttl) {
+        this.file = identity == null ? null : new File(folder, DigestUtils.sha256Hex(identity) + ".json");
+        this.ttl = ttl;
+    }
+
+    public static SubscriptionCache forIdentity(final String identity) {
+        return new SubscriptionCache(getDefaultFolder(), identity, DEFAULT_TTL_IN_MILLIS);
+    }
+
+    public static SubscriptionCache forCredentials(final AzureTokenCredentials credentials) {
+        return forIdentity(IdentityUtils.getIdentity(credentials));
+    }
+
+    /**
+     * @return the cached subscriptions, listed with the loader if there is no cache or it is too old
+     */
+    public List<CachedSubscription> get(final Supplier<? extends Iterable<Subscription>> loader) {
+        final Listing listing = read();
+        final long age = listing == null ? Long.MAX_VALUE : System.currentTimeMillis() - listing.timestamp;
+        if (age > MAX_STALE_IN_MILLIS) {
+            return refresh(loader);
+        }
+        if (age > ttl && REVALIDATING.add(file)) {
+            SharedExecutor.runDetached(() -> {
+                try {
+                    refresh(loader);
+                } catch (RuntimeException e) {
+                    Log.debug(String.format("Failed to list subscriptions in the background: %s", e.getMessage()));
+                } finally {
+                    REVALIDATING.remove(file);
+                }
+            });
+        }
+        return remember(listing.subscriptions);
+    }
+
+    /**
+     * List the subscriptions with the loader and cache them, e.g. when a subscription is not found in the cache.
+     */
+    public List<CachedSubscription> refresh(final Supplier<? extends Iterable<Subscription>> loader) {
+        final List<CachedSubscription> subscriptions = new ArrayList<>();
+        for (final Subscription subscription : loader.get()) {
+            subscriptions.add(new CachedSubscription(subscription));
+        }
+        save(new Listing(System.currentTimeMillis(), subscriptions));
+        return remember(subscriptions);
+    }
+
+    /**
+     * @return the subscription listed or read from a cache by this build, null if it is not known
+     */
+    public static CachedSubscription getLoaded(final String subscriptionId) {
+        return StringUtils.isEmpty(subscriptionId) ? null : LOADED.get(subscriptionId);
+    }
+
+    /**
+     * @return subscription-cache in the azure config folder, $AZURE_CONFIG_DIR or $HOME/.azure as the auth helper does
+     */
+    public static File getDefaultFolder() {
+        final String configFolder = System.getenv(AZURE_CONFIG_DIR);
+        return StringUtils.isNotBlank(configFolder) ? new File(configFolder, CACHE_FOLDER) :
+                Paths.get(System.getProperty("user.home"), ".azure", CACHE_FOLDER).toFile();
+    }
+
+    private static List<CachedSubscription> remember(final List<CachedSubscription> subscriptions) {
+        subscriptions.forEach(subscription -> LOADED.put(subscription.subscriptionId(), subscription));
+        return Collections.unmodifiableList(subscriptions);
+    }
+
+    private Listing read() {
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+        try {
+            final Listing listing = GSON.fromJson(FileUtils.readFileToString(file, StandardCharsets.UTF_8), Listing.class);
+            return listing == null || listing.subscriptions == null ? null : listing;
+        } catch (IOException | JsonParseException e) {
+            Log.debug(String.format("Ignore invalid subscription cache %s: %s", file, e.getMessage()));
+            return null;
+        }
+    }
+
+    private void save(final Listing listing) {
+        if (file == null) {
+            return;
+        }
+        try {
+            file.getParentFile().mkdirs();
+            // Replace the file at once, the goals of other builds may be reading it
+            final Path temp = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp");
+            FileUtils.write(temp.toFile(), GSON.toJson(listing), StandardCharsets.UTF_8);
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Log.debug(String.format("Failed to save subscription cache to %s: %s", file, e.getMessage()));
+        }
+    }
+
+    private static class Listing {
+        private final long timestamp;
+        private final List<CachedSubscription> subscriptions;
+
+        Listing(final long timestamp, final List<CachedSubscription> subscriptions) {
+            this.timestamp = timestamp;
+            this.subscriptions = subscriptions;
+        }
+    }
+
+    /**
+     * What the prompts and logs show of a subscription, named after the methods of {@link Subscription}.
+     */
+    public static class CachedSubscription {
+        private final String subscriptionId;
+        private final String displayName;
+        private final String tenantId;
+
+        public CachedSubscription(final Subscription subscription) {
+            this(subscription.subscriptionId(), subscription.displayName(), subscription.tenantId());
+        }
+
+        public CachedSubscription(final String subscriptionId, final String displayName, final String tenantId) {
+            this.subscriptionId = subscriptionId;
+            this.displayName = displayName;
+            this.tenantId = tenantId;
+        }
+
+        public String subscriptionId() {
+            return subscriptionId;
+        }
+
+        public String displayName() {
+            return displayName;
+        }
+
+        public String tenantId() {
+            return tenantId;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import com.microsoft.azure.common.exceptions.AzureExecutionException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Runs named tasks concurrently, each one as soon as all the tasks it depends on are done, and records when every
+ * task starts and ends for a timing report. Tasks depending on a failed task are skipped.
+ */
+public class TaskGraph {
+    private static final String UNKNOWN_DEPENDENCY = "Task '%s' depends on unknown task '%s'.";
+    private static final String DUPLICATE_TASK = "Task '%s' is already added.";
+    private static final String TIMING_HEADER = "Timing of the tasks:";
+    private static final String TIMING_LINE = "    %-24s %8.1fs -> %8.1fs (%.1fs)";
+    private static final String TIMING_LINE_SKIPPED = "    %-24s skipped";
+    private static final String CRITICAL_PATH = "Critical path: %s, %.1fs in total, %.1fs saved by running the tasks concurrently.";
+
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+    private SharedExecutor.Scope executor;
+    private final long startTime = System.nanoTime();
+
+    /**
+     * Add a task, which starts once all its dependencies are done. Dependencies must be added before.
+     */
+    public synchronized TaskGraph add(final String name, final Task task, final String... dependencies) {
+        if (nodes.containsKey(name)) {
+            throw new IllegalArgumentException(String.format(DUPLICATE_TASK, name));
+        }
+        final List<Node> parents = new ArrayList<>();
+        for (final String dependency : dependencies) {
+            final Node parent = nodes.get(dependency);
+            if (parent == null) {
+                throw new IllegalArgumentException(String.format(UNKNOWN_DEPENDENCY, name, dependency));
+            }
+            parents.add(parent);
+        }
+        if (executor == null) {
+            // Opened with the first task, the tasks run in the scope of the caller and are cancelled with it
+            executor = SharedExecutor.open();
+        }
+        final Node node = new Node(name, parents);
+        final CompletableFuture<?>[] parentFutures = parents.stream().map(parent -> parent.future).toArray(CompletableFuture[]::new);
+        node.future = CompletableFuture.allOf(parentFutures).thenRunAsync(() -> node.run(task), executor);
+        nodes.put(name, node);
+        return this;
+    }
+
+    /**
+     * Wait for all the tasks, and throw the exception of the first failed task in the order they were added.
+     */
+    public void await() throws AzureExecutionException {
+        final List<Node> all;
+        final SharedExecutor.Scope scope;
+        synchronized (this) {
+            all = new ArrayList<>(nodes.values());
+            scope = executor;
+        }
+        try {
+            CompletableFuture.allOf(all.stream().map(node -> node.future).toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            final Throwable error = all.stream().map(node -> node.error).filter(t -> t != null).findFirst().orElse(e.getCause());
+            if (error instanceof AzureExecutionException) {
+                throw (AzureExecutionException) error;
+            }
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+            throw new AzureExecutionException(error.getMessage(), error);
+        } finally {
+            if (scope != null) {
+                scope.close();
+            }
+        }
+    }
+
+    /**
+     * Time span of every task relative to the creation of the graph, and the chain of tasks which determined the
+     * total time.
+     */
+    public synchronized String getTimingReport() {
+        final StringBuilder report = new StringBuilder(TIMING_HEADER);
+        for (final Node node : nodes.values()) {
+            report.append(System.lineSeparator());
+            report.append(node.isFinished() ?
+                String.format(TIMING_LINE, node.name, seconds(node.start - startTime), seconds(node.end - startTime), seconds(node.end - node.start)) :
+                String.format(TIMING_LINE_SKIPPED, node.name));
+        }
+        final List<Node> criticalPath = getCriticalPath();
+        if (!criticalPath.isEmpty()) {
+            final long total = criticalPath.get(criticalPath.size() - 1).end - startTime;
+            final long sequential = nodes.values().stream().filter(Node::isFinished).mapToLong(node -> node.end - node.start).sum();
+            report.append(System.lineSeparator()).append(String.format(CRITICAL_PATH,
+                criticalPath.stream().map(node -> node.name).collect(Collectors.joining(" -> ")),
+                seconds(total), seconds(Math.max(0, sequential - total))));
+        }
+        return report.toString();
+    }
+
+    /**
+     * The last finished task, preceded recursively by the dependency which finished last.
+     */
+    synchronized List<Node> getCriticalPath() {
+        final List<Node> path = new ArrayList<>();
+        Node node = nodes.values().stream().filter(Node::isFinished).max(Comparator.comparingLong(n -> n.end)).orElse(null);
+        while (node != null) {
+            path.add(node);
+            node = node.parents.stream().filter(Node::isFinished).max(Comparator.comparingLong(n -> n.end)).orElse(null);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private static double seconds(final long nanos) {
+        return nanos / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    static class Node {
+        final String name;
+        final List<Node> parents;
+        CompletableFuture<Void> future;
+        volatile long start;
+        volatile long end;
+        volatile boolean finished;
+        volatile Throwable error;
+
+        Node(final String name, final List<Node> parents) {
+            this.name = name;
+            this.parents = parents;
+        }
+
+        void run(final Task task) {
+            start = System.nanoTime();
+            try {
+                task.run();
+            } catch (Exception e) {
+                error = e;
+                throw new CompletionException(e);
+            } finally {
+                end = System.nanoTime();
+                finished = true;
+            }
+        }
+
+        boolean isFinished() {
+            return finished;
+        }
+    }
+}
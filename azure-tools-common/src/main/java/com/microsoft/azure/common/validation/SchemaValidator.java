@@ -32,13 +32,10 @@ public class SchemaValidator {
 
     private Map<String, JsonNode> schemas = new HashMap<>();
 
-    private final JsonValidator validator;
-
     private final ObjectMapper mapper;
 
     public SchemaValidator() {
         mapper = new ObjectMapper();
-        validator = JsonSchemaFactory.byDefault().getValidator();
     }
 
     public void collectSingleProperty(String resource, String property, JsonNode schema) throws JsonProcessingException {
@@ -61,7 +58,7 @@ public class SchemaValidator {
         final JsonNode schema = this.schemas.get(combineToKey(resource, property));
         final String type = (String) schemaMap.get(combineToKey(resource, property)).get("type");
         try {
-            final ProcessingReport reports = validator.validate(schema, stringToJsonObject(type, value));
+            final ProcessingReport reports = ValidatorHolder.VALIDATOR.validate(schema, stringToJsonObject(type, value));
             return formatValidationResults(reports);
         } catch (IllegalArgumentException | ProcessingException e) {
             return e.getMessage();
@@ -121,4 +118,8 @@ public class SchemaValidator {
         return String.format("The input violates the validation rules:\n %s", String.join("\n", errors));
     }
 
+    // Loading the validator takes a while, it is done when the first value is validated and shared by all the instances
+    private static class ValidatorHolder {
+        private static final JsonValidator VALIDATOR = JsonSchemaFactory.byDefault().getValidator();
+    }
 }
@@ -24,6 +24,12 @@ public class CommandHandlerImplTest {
         assertEquals(ProcessBuilder.Redirect.PIPE, CommandHandlerImpl.getStdoutRedirect(false));
     }
 
+    @Test
+    public void runCommandAndGetOutput() throws Exception {
+        final CommandHandlerImpl handler = new CommandHandlerImpl();
+        assertEquals("hello", handler.runCommandAndGetOutput("echo hello", false, null));
+    }
+
     @Test(expected = Exception.class)
     public void handleExitValue() throws Exception {
         final CommandHandlerImpl handler = new CommandHandlerImpl();
@@ -6,6 +6,7 @@
 
 package com.microsoft.azure.common.function.handlers.artifact;
 
+import com.microsoft.azure.common.appservice.DeployTargetType;
 import com.microsoft.azure.common.deploytarget.DeployTarget;
 import com.microsoft.azure.management.appservice.AppSetting;
 import com.microsoft.azure.management.appservice.FunctionApp;
@@ -14,15 +15,16 @@ import com.microsoft.azure.storage.CloudStorageAccount;
 
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.Map;
 
 import static com.microsoft.azure.common.function.Constants.INTERNAL_STORAGE_KEY;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -63,24 +65,47 @@ public class FunctionArtifactHelperTest {
 
     @Test
     public void testUpdateAppSetting() throws Exception {
-        final DeployTarget deployTarget = mock(DeployTarget.class);
         final FunctionApp functionApp = mock(FunctionApp.class);
-        doReturn(functionApp).when(deployTarget).getApp();
+        final DeployTarget deployTarget = new DeployTarget(functionApp, DeployTargetType.FUNCTION);
         final FunctionApp.Update update = mock(FunctionApp.Update.class);
         doReturn(update).when(functionApp).update();
-        doReturn(update).when(update).withAppSetting(any(), any());
         doReturn(functionApp).when(update).apply();
         final String appSettingKey = "KEY";
         final String appSettingValue = "VALUE";
         FunctionArtifactHelper.updateAppSetting(deployTarget, appSettingKey, appSettingValue);
 
-        verify(deployTarget, times(1)).getApp();
         verify(functionApp, times(1)).update();
-        verify(update, times(1)).withAppSetting(appSettingKey, appSettingValue);
+        verify(update, times(1)).withAppSettings(Collections.singletonMap(appSettingKey, appSettingValue));
         verify(update, times(1)).apply();
         verifyNoMoreInteractions(update);
-        verifyNoMoreInteractions(functionApp);
-        verifyNoMoreInteractions(deployTarget);
+    }
+
+    @Test
+    public void testUpdateAppSettingWithPendingUpdate() throws Exception {
+        final FunctionApp functionApp = mock(FunctionApp.class);
+        final FunctionApp.Update update = mock(FunctionApp.Update.class);
+        doReturn(functionApp).when(update).apply();
+        final DeployTarget deployTarget = new DeployTarget(functionApp, DeployTargetType.FUNCTION).withPendingUpdate(update);
+
+        FunctionArtifactHelper.updateAppSetting(deployTarget, "KEY", "VALUE");
+        deployTarget.applyPendingUpdate();
+
+        verify(functionApp, never()).update();
+        verify(update, times(1)).withAppSettings(Collections.singletonMap("KEY", "VALUE"));
+        verify(update, times(1)).apply();
+    }
+
+    @Test
+    public void testSkipUpdatingUnchangedAppSetting() throws Exception {
+        final FunctionApp functionApp = mock(FunctionApp.class);
+        final AppSetting setting = mock(AppSetting.class);
+        doReturn("VALUE").when(setting).value();
+        doReturn(Collections.singletonMap("KEY", setting)).when(functionApp).getAppSettings();
+        final DeployTarget deployTarget = new DeployTarget(functionApp, DeployTargetType.FUNCTION);
+
+        FunctionArtifactHelper.updateAppSetting(deployTarget, "KEY", "VALUE");
+
+        verify(functionApp, never()).update();
     }
 
     @Test
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ArtifactInspectorTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        ArtifactInspector.clearCache();
+    }
+
+    @Test
+    public void inspectExecutableJar() throws IOException {
+        final File jar = createJar("app.jar", "com.example.Main", 52);
+
+        final ArtifactInspector.ArtifactInfo info = ArtifactInspector.inspect(jar);
+
+        assertTrue(info.isExecutable());
+        assertEquals("com.example.Main", info.getMainClass());
+        assertEquals("1.8", info.getCompileVersion());
+    }
+
+    @Test
+    public void inspectLibraryJar() throws IOException {
+        final File jar = createJar("lib.jar", null, 55);
+
+        final ArtifactInspector.ArtifactInfo info = ArtifactInspector.inspect(jar);
+
+        assertFalse(info.isExecutable());
+        assertEquals("11", info.getCompileVersion());
+    }
+
+    @Test
+    public void inspectJarWithoutClasses() throws IOException {
+        final File jar = createJar("empty.jar", "com.example.Main", -1);
+
+        final ArtifactInspector.ArtifactInfo info = ArtifactInspector.inspect(jar);
+
+        assertFalse(info.hasClasses());
+        assertNull(info.getCompileVersion());
+    }
+
+    @Test
+    public void inspectIsCachedUntilFileChanges() throws IOException {
+        final File jar = createJar("app.jar", "com.example.Main", 52);
+        final ArtifactInspector.ArtifactInfo info = ArtifactInspector.inspect(jar);
+        assertSame(info, ArtifactInspector.inspect(jar));
+
+        createJar("app.jar", null, 52);
+        jar.setLastModified(jar.lastModified() + 2000);
+
+        final ArtifactInspector.ArtifactInfo updated = ArtifactInspector.inspect(jar);
+        assertNotSame(info, updated);
+        assertFalse(updated.isExecutable());
+    }
+
+    @Test
+    public void getExecutableJars() throws IOException {
+        final File app = createJar("app.jar", "com.example.Main", 52);
+        final File lib = createJar("lib.jar", null, 52);
+        final File invalid = folder.newFile("invalid.jar");
+
+        assertEquals(Collections.singletonList(app), ArtifactInspector.getExecutableJars(Arrays.asList(lib, invalid, app)));
+        assertFalse(ArtifactInspector.isExecutableJar(invalid));
+    }
+
+    @Test
+    public void findExecutableJarsAtTopFirst() throws IOException {
+        final File app = createJar("app.jar", "com.example.Main", 52);
+        createJar("lib.jar", null, 52);
+        folder.newFolder("nested");
+        createJar("nested/other.jar", "com.example.Other", 52);
+
+        assertEquals(Collections.singletonList(app), ArtifactInspector.findExecutableJars(folder.getRoot()));
+
+        app.delete();
+        assertEquals(Collections.singletonList(new File(folder.getRoot(), "nested/other.jar")),
+                ArtifactInspector.findExecutableJars(folder.getRoot()));
+    }
+
+    private File createJar(final String name, final String mainClass, final int classVersion) throws IOException {
+        final File jar = new File(folder.getRoot(), name);
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (mainClass != null) {
+            manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, mainClass);
+        }
+        try (final JarOutputStream stream = new JarOutputStream(new FileOutputStream(jar), manifest)) {
+            stream.putNextEntry(new ZipEntry("com/example/"));
+            stream.closeEntry();
+            if (classVersion > 0) {
+                stream.putNextEntry(new ZipEntry("com/example/Main.class"));
+                stream.write(new byte[]{(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0, 0, (byte) classVersion});
+                stream.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
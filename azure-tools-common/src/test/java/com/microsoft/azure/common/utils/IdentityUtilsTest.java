@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import com.microsoft.azure.AzureEnvironment;
+import com.microsoft.azure.credentials.ApplicationTokenCredentials;
+import com.microsoft.azure.credentials.AzureCliCredentials;
+import com.microsoft.azure.credentials.AzureTokenCredentials;
+import com.microsoft.azure.credentials.MSICredentials;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+public class IdentityUtilsTest {
+    @Test
+    public void servicePrincipal() {
+        final ApplicationTokenCredentials credentials = new ApplicationTokenCredentials("client", "tenant", "secret", AzureEnvironment.AZURE);
+
+        assertEquals("sp|tenant|client", IdentityUtils.getIdentity(credentials));
+    }
+
+    @Test
+    public void sameUserWithAnyCredentials() throws Exception {
+        final String token = createToken("{\"tid\":\"tenant\",\"oid\":\"object\",\"exp\":4090722921}");
+        final AzureTokenCredentials cli = mockCredentials(AzureCliCredentials.class, token);
+        final AzureTokenCredentials msi = mockCredentials(MSICredentials.class, token);
+
+        assertEquals("user|tenant|object", IdentityUtils.getIdentity(cli));
+        assertEquals(IdentityUtils.getIdentity(cli), IdentityUtils.getIdentity(msi));
+    }
+
+    @Test
+    public void unknownIdentity() throws Exception {
+        assertNull(IdentityUtils.getIdentity(null));
+        assertNull(IdentityUtils.getIdentity(mockCredentials(AzureCliCredentials.class, "not a jwt")));
+        assertNull(IdentityUtils.getIdentity(mockCredentials(AzureCliCredentials.class, createToken("{\"tid\":\"tenant\"}"))));
+
+        final AzureTokenCredentials credentials = mockCredentials(AzureCliCredentials.class, null);
+        doThrow(new IOException("expired")).when(credentials).getToken(AzureEnvironment.AZURE.managementEndpoint());
+        assertNull(IdentityUtils.getIdentity(credentials));
+    }
+
+    private static AzureTokenCredentials mockCredentials(final Class<? extends AzureTokenCredentials> type, final String token)
+            throws IOException {
+        final AzureTokenCredentials credentials = mock(type);
+        doReturn(AzureEnvironment.AZURE).when(credentials).environment();
+        doReturn(token).when(credentials).getToken(AzureEnvironment.AZURE.managementEndpoint());
+        return credentials;
+    }
+
+    private static String createToken(final String claims) {
+        final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return String.join(".", encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)),
+                encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8)), "");
+    }
+}
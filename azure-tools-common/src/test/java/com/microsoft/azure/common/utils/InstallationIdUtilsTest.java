@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InstallationIdUtilsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void saveComputedId() throws Exception {
+        final File configurationFile = new File(folder.getRoot(), ".azure/mavenplugins.properties");
+
+        final String installationId = InstallationIdUtils.getInstallationId(configurationFile);
+
+        assertTrue(installationId.matches("[0-9a-f]{64}"));
+        assertEquals(installationId, load(configurationFile).getProperty(InstallationIdUtils.INSTALLATION_ID_KEY));
+        assertEquals(installationId, InstallationIdUtils.getInstallationId(configurationFile));
+    }
+
+    @Test
+    public void readSavedId() throws Exception {
+        final File configurationFile = folder.newFile("mavenplugins.properties");
+        FileUtils.write(configurationFile, "first.run=false\ninstallationId=saved\n", StandardCharsets.UTF_8);
+
+        assertEquals("saved", InstallationIdUtils.getInstallationId(configurationFile));
+    }
+
+    @Test
+    public void keepOtherConfigurations() throws Exception {
+        final File configurationFile = folder.newFile("mavenplugins.properties");
+        FileUtils.write(configurationFile, "first.run=false\n", StandardCharsets.UTF_8);
+
+        InstallationIdUtils.getInstallationId(configurationFile);
+
+        assertEquals("false", load(configurationFile).getProperty("first.run"));
+    }
+
+    @Test
+    public void noTempFileLeftWhenSaveFails() throws Exception {
+        // A directory which is not empty can't be replaced
+        final File configurationFile = folder.newFolder("mavenplugins.properties");
+        folder.newFile("mavenplugins.properties/other");
+
+        assertTrue(InstallationIdUtils.getInstallationId(configurationFile).matches("[0-9a-f]{64}"));
+        assertEquals(Collections.singletonList(configurationFile.getName()), Arrays.asList(folder.getRoot().list()));
+    }
+
+    private static Properties load(final File file) throws Exception {
+        final Properties properties = new Properties();
+        try (final InputStream input = new FileInputStream(file)) {
+            properties.load(input);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PollerTest {
+
+    @Test
+    public void awaitCondition() throws Exception {
+        final AtomicInteger counter = new AtomicInteger();
+        final Poller<Integer> poller = Poller.poll(counter::incrementAndGet)
+            .until(value -> value >= 3)
+            .withInterval(10, 10, TimeUnit.MILLISECONDS);
+
+        assertEquals(3, (int) poller.await());
+        assertEquals(3, poller.getAttempts());
+    }
+
+    @Test
+    public void backOffUpToMaxInterval() throws Exception {
+        final List<Long> times = new CopyOnWriteArrayList<>();
+        final Poller<Integer> poller = Poller.poll(() -> {
+            times.add(System.nanoTime());
+            return times.size();
+        }).until(value -> value >= 5).withInterval(50, 200, TimeUnit.MILLISECONDS);
+
+        poller.await();
+
+        final long[] expected = {50, 100, 200, 200};
+        for (int i = 0; i < expected.length; i++) {
+            final long interval = TimeUnit.NANOSECONDS.toMillis(times.get(i + 1) - times.get(i));
+            assertTrue(String.format("interval %d is %dms", i, interval), interval >= expected[i] && interval < expected[i] + 100);
+        }
+    }
+
+    @Test
+    public void timeout() throws Exception {
+        final Poller<String> poller = Poller.poll(() -> "Updating")
+            .until("Succeeded"::equals)
+            .withInterval(20, 20, TimeUnit.MILLISECONDS)
+            .withTimeout(100, TimeUnit.MILLISECONDS);
+
+        final long start = System.nanoTime();
+        try {
+            poller.await();
+            fail("Should time out.");
+        } catch (TimeoutException e) {
+            assertEquals("Updating", poller.getLastResult());
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500);
+        }
+    }
+
+    @Test
+    public void stopOnError() throws Exception {
+        final IllegalStateException error = new IllegalStateException("failed");
+        final Poller<String> poller = Poller.poll(() -> {
+            throw error;
+        });
+
+        try {
+            poller.await();
+            fail("Should throw the error of the attempt.");
+        } catch (ExecutionException e) {
+            assertSame(error, e.getCause());
+            assertEquals(1, poller.getAttempts());
+        }
+    }
+
+    @Test
+    public void ignoreErrors() throws Exception {
+        final AtomicInteger counter = new AtomicInteger();
+        final Poller<String> poller = Poller.poll(() -> {
+            if (counter.incrementAndGet() < 3) {
+                throw new IllegalStateException("not ready");
+            }
+            return "ready";
+        }).withInterval(10, 10, TimeUnit.MILLISECONDS).ignoringErrors();
+
+        assertEquals("ready", poller.await());
+        assertEquals(3, poller.getAttempts());
+    }
+
+    @Test
+    public void ignoreOnlyGivenErrors() throws Exception {
+        final AtomicInteger counter = new AtomicInteger();
+        final Poller<String> poller = Poller.<String>poll(() -> {
+            if (counter.incrementAndGet() < 2) {
+                throw new IllegalStateException("not ready");
+            }
+            throw new IOException("failed");
+        }).withInterval(10, 10, TimeUnit.MILLISECONDS).ignoringErrors(RuntimeException.class);
+
+        try {
+            poller.await();
+            fail("Should stop at the error which is not ignored.");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        assertEquals(2, poller.getAttempts());
+    }
+
+    @Test
+    public void followIntervalHint() throws Exception {
+        final AtomicInteger counter = new AtomicInteger();
+        final Poller<Integer> poller = Poller.poll(counter::incrementAndGet)
+            .until(value -> value >= 3)
+            .withInterval(1, 1, TimeUnit.MINUTES)
+            .withIntervalHint(value -> 10L);
+
+        final long start = System.nanoTime();
+        assertEquals(3, (int) poller.await());
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5);
+    }
+
+    @Test
+    public void cancel() throws Exception {
+        final Poller<Boolean> poller = Poller.poll(() -> false)
+            .until(Boolean::booleanValue)
+            .withInterval(1, 1, TimeUnit.MINUTES);
+        final CompletableFuture<Boolean> future = CompletableFuture.supplyAsync(() -> {
+            try {
+                return poller.await();
+            } catch (InterruptedException | ExecutionException | TimeoutException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (poller.getAttempts() == 0) {
+            Thread.sleep(10);
+        }
+
+        poller.cancel();
+
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Should be cancelled.");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CancellationException);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import com.microsoft.azure.common.function.utils.CommandUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+public class ProcessRunnerTest {
+    @Before
+    public void setUp() {
+        // the scripts are written for sh
+        assumeFalse(CommandUtils.isWindows());
+    }
+
+    @Test
+    public void floodBothStreams() throws Exception {
+        final AtomicInteger stdoutLines = new AtomicInteger();
+        final AtomicInteger stderrLines = new AtomicInteger();
+
+        final ProcessRunner.Result result = ProcessRunner.shell("yes out | head -n 200000; yes err | head -n 300000 1>&2; echo done")
+                .onStdout(line -> stdoutLines.incrementAndGet())
+                .onStderr(line -> stderrLines.incrementAndGet())
+                .withTimeout(1, TimeUnit.MINUTES)
+                .run();
+
+        assertEquals(0, result.getExitCode());
+        assertFalse(result.isTimedOut());
+        assertEquals(200001, stdoutLines.get());
+        assertEquals(300000, stderrLines.get());
+        assertTrue(result.getStdout().startsWith("out"));
+        assertTrue(result.getStderr().endsWith("(truncated)"));
+    }
+
+    @Test
+    public void exitCode() throws Exception {
+        final ProcessRunner.Result result = ProcessRunner.shell("echo failed 1>&2; exit 3").withErrorStreamMerged().run();
+
+        assertEquals(3, result.getExitCode());
+        assertEquals("failed", result.getStdout().trim());
+    }
+
+    @Test
+    public void redirectStdout() throws Exception {
+        final AtomicInteger stdoutLines = new AtomicInteger();
+        final ProcessRunner.Result result = ProcessRunner.shell("echo shown; exit 2")
+                .onStdout(line -> stdoutLines.incrementAndGet())
+                .withStdoutRedirect(ProcessBuilder.Redirect.INHERIT)
+                .run();
+
+        assertEquals(2, result.getExitCode());
+        assertEquals("", result.getStdout());
+        assertEquals(0, stdoutLines.get());
+    }
+
+    @Test
+    public void killHangingCommandWithChildren() throws Exception {
+        final ProcessRunner.Result result = ProcessRunner.shell("sleep 60 & echo $!; wait")
+                .withTimeout(500, TimeUnit.MILLISECONDS)
+                .run();
+
+        assertTrue(result.isTimedOut());
+        assertTrue(result.getElapsedMillis() < TimeUnit.SECONDS.toMillis(10));
+        // the child is either gone or killed and not reaped yet
+        final String state = ProcessRunner.command("ps", "-o", "stat=", "-p", result.getStdout().trim()).run().getStdout().trim();
+        assertTrue(state, state.isEmpty() || state.startsWith("Z"));
+    }
+
+    @Test
+    public void cancel() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final ProcessRunner runner = ProcessRunner.shell("echo started; sleep 60").onStdout(line -> started.countDown());
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<ProcessRunner.Result> future = executor.submit(runner::run);
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            runner.cancel();
+
+            final ProcessRunner.Result result = future.get(10, TimeUnit.SECONDS);
+            assertTrue(result.isCancelled());
+            assertFalse(result.isTimedOut());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import com.microsoft.azure.common.utils.Rollout.Policy;
+import com.microsoft.azure.common.utils.Rollout.Result;
+import com.microsoft.azure.common.utils.Rollout.Status;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RolloutTest {
+    private static final List<String> TARGETS = Arrays.asList("app1", "app2", "app3", "app4");
+
+    @Test
+    public void deployAllAtOnce() throws Exception {
+        final long start = System.nanoTime();
+        final List<Result<String>> results = new Rollout<String>(Policy.ALL_AT_ONCE, 0, 0).run(TARGETS, target -> Thread.sleep(200));
+
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(String.valueOf(elapsed), elapsed < 600);
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == Status.SUCCEEDED));
+        assertEquals(TARGETS.get(3), results.get(3).getTarget());
+    }
+
+    @Test
+    public void boundParallelism() throws Exception {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        new Rollout<String>(Policy.ALL_AT_ONCE, 2, 0).run(TARGETS, target -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(100);
+            inFlight.decrementAndGet();
+        });
+
+        assertEquals(2, maxInFlight.get());
+    }
+
+    @Test
+    public void continueOtherTargetsAfterFailure() throws Exception {
+        final List<Result<String>> results = new Rollout<String>(Policy.ALL_AT_ONCE, 1, 0).run(TARGETS, target -> {
+            if ("app1".equals(target)) {
+                throw new IllegalStateException("failed");
+            }
+        });
+
+        assertEquals(Status.FAILED, results.get(0).getStatus());
+        assertEquals("failed", results.get(0).getError().getMessage());
+        assertEquals(Status.SUCCEEDED, results.get(3).getStatus());
+    }
+
+    @Test
+    public void skipWavesAfterFailure() throws Exception {
+        final List<Result<String>> results = new Rollout<String>(Policy.WAVES, 0, 2).run(TARGETS, target -> {
+            if ("app2".equals(target)) {
+                throw new IllegalStateException("failed");
+            }
+        });
+
+        assertEquals(Status.SUCCEEDED, results.get(0).getStatus());
+        assertEquals(Status.FAILED, results.get(1).getStatus());
+        assertEquals(Status.SKIPPED, results.get(2).getStatus());
+        assertEquals(Status.SKIPPED, results.get(3).getStatus());
+        assertTrue(Rollout.getReport(results).contains("SKIPPED"));
+    }
+
+    @Test
+    public void parsePolicy() {
+        assertEquals(Policy.ALL_AT_ONCE, Policy.fromString(null));
+        assertEquals(Policy.ALL_AT_ONCE, Policy.fromString("all-at-once"));
+        assertEquals(Policy.WAVES, Policy.fromString("Waves"));
+    }
+}
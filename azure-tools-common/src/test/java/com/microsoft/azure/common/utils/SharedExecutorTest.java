@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SharedExecutorTest {
+    @Test
+    public void boundedParallelism() {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final AtomicInteger done = new AtomicInteger();
+        try (final SharedExecutor.Scope scope = SharedExecutor.open(2)) {
+            final CompletableFuture<?>[] futures = new CompletableFuture[6];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = CompletableFuture.runAsync(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    done.incrementAndGet();
+                }, scope);
+            }
+            CompletableFuture.allOf(futures).join();
+        }
+
+        assertEquals(6, done.get());
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    public void closeInterruptsNestedTasks() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(2);
+        final SharedExecutor.Scope goal = SharedExecutor.open();
+        goal.execute(() -> {
+            // opened by a task of the goal, so it is cancelled along with the goal
+            final SharedExecutor.Scope nested = SharedExecutor.open();
+            nested.execute(() -> sleep(started, interrupted));
+            sleep(null, interrupted);
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        final long start = System.nanoTime();
+        goal.close();
+
+        assertTrue(goal.isCancelled());
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 10);
+    }
+
+    @Test
+    public void noThreadLeftAfterClose() throws Exception {
+        try (final SharedExecutor.Scope scope = SharedExecutor.open()) {
+            CompletableFuture.runAsync(() -> { }, scope).join();
+        }
+
+        assertNoWorkerLeft();
+    }
+
+    @Test
+    public void detachedTaskOutlivesGoal() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch proceed = new CountDownLatch(1);
+        final CompletableFuture<Boolean> interrupted = new CompletableFuture<>();
+        try (final SharedExecutor.Scope goal = SharedExecutor.open()) {
+            SharedExecutor.runDetached(() -> {
+                started.countDown();
+                try {
+                    interrupted.complete(!proceed.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    interrupted.complete(true);
+                }
+            });
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+        }
+        proceed.countDown();
+
+        assertFalse(interrupted.get(10, TimeUnit.SECONDS));
+        assertNoWorkerLeft();
+    }
+
+    @Test
+    public void releasePoolFromDetachedTask() throws Exception {
+        final long start = System.nanoTime();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        // the only scope, so the pool is released by its own worker once the task is done
+        SharedExecutor.runDetached(() -> done.complete(null));
+
+        done.get(10, TimeUnit.SECONDS);
+        assertNoWorkerLeft();
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5);
+    }
+
+    private static void assertNoWorkerLeft() throws InterruptedException {
+        for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("azure-worker-")) {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+                assertFalse(thread.getName(), thread.isAlive());
+            }
+        }
+    }
+
+    private static void sleep(final CountDownLatch started, final CountDownLatch interrupted) {
+        if (started != null) {
+            started.countDown();
+        }
+        try {
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+        }
+    }
+}
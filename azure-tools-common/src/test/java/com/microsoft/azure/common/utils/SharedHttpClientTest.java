@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import com.microsoft.azure.AzureEnvironment;
+import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.credentials.AzureTokenCredentials;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import com.microsoft.rest.RestClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsParameters;
+import com.sun.net.httpserver.HttpsServer;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import retrofit2.Retrofit;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SharedHttpClientTest {
+    private static final char[] PASSWORD = "password".toCharArray();
+
+    private final AtomicInteger handshakes = new AtomicInteger();
+    private HttpsServer server;
+    private SSLContext sslContext;
+    private X509TrustManager trustManager;
+    private AzureTokenCredentials credentials;
+
+    @Before
+    public void setUp() throws Exception {
+        final KeyStore keyStore = KeyStore.getInstance("JKS");
+        try (final InputStream stream = SharedHttpClientTest.class.getResourceAsStream("/localhost.jks")) {
+            keyStore.load(stream, PASSWORD);
+        }
+        final KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(keyStore, PASSWORD);
+        final TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(keyStore);
+        trustManager = (X509TrustManager) trustManagerFactory.getTrustManagers()[0];
+        sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(keyManagerFactory.getKeyManagers(), trustManagerFactory.getTrustManagers(), null);
+
+        server = HttpsServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        // Called for every new TLS connection
+        server.setHttpsConfigurator(new HttpsConfigurator(sslContext) {
+            @Override
+            public void configure(HttpsParameters params) {
+                handshakes.incrementAndGet();
+                params.setSSLParameters(getSSLContext().getDefaultSSLParameters());
+            }
+        });
+        server.createContext("/", this::handle);
+        server.start();
+
+        final String endpoint = String.format("https://localhost:%d/", server.getAddress().getPort());
+        final Map<String, String> endpoints = new HashMap<>();
+        for (final AzureEnvironment.Endpoint type : AzureEnvironment.Endpoint.values()) {
+            endpoints.put(type.identifier(), endpoint);
+        }
+        credentials = new AzureTokenCredentials(new AzureEnvironment(endpoints), "tenant") {
+            @Override
+            public String getToken(String resource) {
+                return "token";
+            }
+        };
+        SharedHttpClient.setBaseClient(new OkHttpClient.Builder().sslSocketFactory(sslContext.getSocketFactory(), trustManager).build());
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        SharedHttpClient.setBaseClient(null);
+    }
+
+    @Test
+    public void reuseConnectionsAcrossClients() throws IOException {
+        final RestClient azure = SharedHttpClient.newRestClientBuilder(credentials, "userAgent").build();
+        final RestClient insights = SharedHttpClient.newRestClientBuilder(credentials, "userAgent").build();
+
+        final long first = get(azure);
+        // A different management client, as created for Application Insights or Spring Cloud
+        final long second = get(insights);
+        get(azure);
+
+        assertEquals(1, handshakes.get());
+        assertSame(azure.httpClient().connectionPool(), insights.httpClient().connectionPool());
+        assertSame(azure.httpClient().dispatcher(), insights.httpClient().dispatcher());
+        assertTrue(String.format("%dms with handshake, %dms without", first, second), second < first);
+    }
+
+    @Test
+    public void handshakeForEveryClientWithoutSharedClient() throws IOException {
+        final OkHttpClient.Builder builder = new OkHttpClient.Builder().sslSocketFactory(sslContext.getSocketFactory(), trustManager);
+        final RestClient azure = new RestClient.Builder(builder, new Retrofit.Builder())
+            .withBaseUrl(credentials.environment(), AzureEnvironment.Endpoint.RESOURCE_MANAGER)
+            .withCredentials(credentials)
+            .withSerializerAdapter(new AzureJacksonAdapter())
+            .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+            .build();
+
+        get(azure);
+        get(SharedHttpClient.newRestClientBuilder(credentials, "userAgent").build());
+
+        assertEquals(2, handshakes.get());
+    }
+
+    @Test
+    public void getBaseClient() {
+        SharedHttpClient.setBaseClient(null);
+        System.setProperty(SharedHttpClient.MAX_REQUESTS_PER_HOST, "32");
+        try {
+            final OkHttpClient client = SharedHttpClient.getBaseClient();
+            assertSame(client, SharedHttpClient.getBaseClient());
+            assertEquals(32, client.dispatcher().getMaxRequestsPerHost());
+        } finally {
+            System.clearProperty(SharedHttpClient.MAX_REQUESTS_PER_HOST);
+        }
+    }
+
+    /**
+     * Send a request and return how long it took in milliseconds.
+     */
+    private static long get(final RestClient restClient) throws IOException {
+        final long start = System.nanoTime();
+        final Request request = new Request.Builder().url(restClient.retrofit().baseUrl() + "subscriptions").build();
+        try (final Response response = restClient.httpClient().newCall(request).execute()) {
+            assertEquals(200, response.code());
+            response.body().string();
+        }
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final byte[] content = "{\"value\":[]}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, content.length);
+        try (final OutputStream stream = exchange.getResponseBody()) {
+            stream.write(content);
+        }
+    }
+}
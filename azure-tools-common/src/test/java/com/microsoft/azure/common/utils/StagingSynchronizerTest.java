@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StagingSynchronizerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File source;
+    private File staging;
+
+    @Before
+    public void setUp() throws IOException {
+        source = folder.newFolder("source");
+        staging = folder.newFolder("staging");
+    }
+
+    @Test
+    public void syncSkipsUnchangedFiles() throws IOException {
+        final File app = createFile(source, "app.jar", "app");
+        final File config = createFile(source, "conf/web.config", "config");
+
+        StagingSynchronizer.Result result = newSynchronizer().addFile("app.jar", app).addFile("conf/web.config", config).sync();
+        assertEquals(2, result.getUpdated());
+        assertEquals("config", read(new File(staging, "conf/web.config")));
+
+        result = newSynchronizer().addFile("app.jar", app).addFile("conf/web.config", config).sync();
+        assertEquals(0, result.getUpdated());
+        assertEquals(2, result.getUnchanged());
+    }
+
+    @Test
+    public void syncUpdatesChangedFiles() throws IOException {
+        final File app = createFile(source, "app.jar", "app");
+        newSynchronizer().useHardLinks(false).addFile("app.jar", app).sync();
+
+        FileUtils.write(app, "app-v2", StandardCharsets.UTF_8);
+        final StagingSynchronizer.Result result = newSynchronizer().useHardLinks(false).addFile("app.jar", app).sync();
+
+        assertEquals(1, result.getUpdated());
+        assertEquals("app-v2", read(new File(staging, "app.jar")));
+    }
+
+    @Test
+    public void syncComparesHashWhenOnlyTimeChanges() throws IOException {
+        final File app = createFile(source, "app.jar", "app");
+        newSynchronizer().useHardLinks(false).addFile("app.jar", app).sync();
+
+        final File staged = new File(staging, "app.jar");
+        Files.setLastModifiedTime(staged.toPath(), FileTime.fromMillis(0));
+        StagingSynchronizer.Result result = newSynchronizer().useHardLinks(false).addFile("app.jar", app).sync();
+        assertEquals(1, result.getUnchanged());
+        assertEquals(app.lastModified(), staged.lastModified());
+
+        FileUtils.write(staged, "abc", StandardCharsets.UTF_8);
+        result = newSynchronizer().useHardLinks(false).addFile("app.jar", app).sync();
+        assertEquals(1, result.getUpdated());
+        assertEquals("app", read(staged));
+    }
+
+    @Test
+    public void syncDeletesStaleFiles() throws IOException {
+        final File app = createFile(source, "app.jar", "app");
+        createFile(staging, "old.jar", "old");
+        createFile(staging, "lib/old.jar", "old");
+        createFile(staging, "host.json", "{}");
+
+        final StagingSynchronizer.Result result = newSynchronizer()
+                .addFile("app.jar", app)
+                .staleFilter(path -> path.toString().endsWith(".jar"))
+                .sync();
+
+        assertEquals(2, result.getDeleted());
+        assertFalse(new File(staging, "old.jar").exists());
+        assertFalse(new File(staging, "lib").exists());
+        assertTrue(new File(staging, "host.json").exists());
+    }
+
+    @Test
+    public void syncKeepsRetainedFiles() throws IOException {
+        createFile(staging, "web.config", "config");
+
+        final StagingSynchronizer.Result result = newSynchronizer().retain("web.config").sync();
+
+        assertEquals(0, result.getDeleted());
+        assertTrue(new File(staging, "web.config").exists());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addFileOutsideOfTarget() throws IOException {
+        newSynchronizer().addFile("../app.jar", createFile(source, "app.jar", "app"));
+    }
+
+    private StagingSynchronizer newSynchronizer() {
+        return new StagingSynchronizer(staging);
+    }
+
+    private static File createFile(final File parent, final String path, final String content) throws IOException {
+        final File file = new File(parent, path);
+        FileUtils.write(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static String read(final File file) throws IOException {
+        return FileUtils.readFileToString(file, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import com.microsoft.azure.common.utils.SubscriptionCache.CachedSubscription;
+import com.microsoft.azure.management.resources.Subscription;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SubscriptionCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void listOnceWithinTtl() {
+        final AtomicInteger listed = new AtomicInteger();
+        final Supplier<Iterable<Subscription>> loader = () -> {
+            listed.incrementAndGet();
+            return Arrays.asList(mockSubscription("id1", "name1", "tenant1"));
+        };
+
+        new SubscriptionCache(folder.getRoot(), "identity", TimeUnit.MINUTES.toMillis(10)).get(loader);
+        final List<CachedSubscription> subscriptions = new SubscriptionCache(folder.getRoot(), "identity",
+                TimeUnit.MINUTES.toMillis(10)).get(loader);
+
+        assertEquals(1, listed.get());
+        assertEquals(1, subscriptions.size());
+        assertEquals("id1", subscriptions.get(0).subscriptionId());
+        assertEquals("name1", subscriptions.get(0).displayName());
+        assertEquals("tenant1", subscriptions.get(0).tenantId());
+        assertEquals("name1", SubscriptionCache.getLoaded("id1").displayName());
+    }
+
+    @Test
+    public void revalidateInBackground() throws Exception {
+        final SubscriptionCache cache = new SubscriptionCache(folder.getRoot(), "identity", 0);
+        // Not shared with the other tests, as the subscriptions listed in the background are remembered for the build
+        cache.refresh(() -> Arrays.asList(mockSubscription("revalidated", "old", "tenant1")));
+        final CountDownLatch revalidated = new CountDownLatch(1);
+
+        final List<CachedSubscription> subscriptions = cache.get(() -> {
+            revalidated.countDown();
+            return Arrays.asList(mockSubscription("revalidated", "new", "tenant1"));
+        });
+
+        assertEquals("old", subscriptions.get(0).displayName());
+        assertTrue(revalidated.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void separateIdentities() {
+        new SubscriptionCache(folder.getRoot(), "identity1", TimeUnit.MINUTES.toMillis(10))
+                .refresh(() -> Arrays.asList(mockSubscription("id1", "name1", "tenant1")));
+
+        final List<CachedSubscription> subscriptions = new SubscriptionCache(folder.getRoot(), "identity2", TimeUnit.MINUTES.toMillis(10))
+                .get(() -> Arrays.asList(mockSubscription("id2", "name2", "tenant2")));
+
+        assertEquals("id2", subscriptions.get(0).subscriptionId());
+    }
+
+    @Test
+    public void noCacheForUnknownIdentity() {
+        final AtomicInteger listed = new AtomicInteger();
+        final Supplier<Iterable<Subscription>> loader = () -> {
+            listed.incrementAndGet();
+            return Arrays.asList(mockSubscription("id1", "name1", "tenant1"));
+        };
+        final SubscriptionCache cache = new SubscriptionCache(folder.getRoot(), null, TimeUnit.MINUTES.toMillis(10));
+
+        cache.get(loader);
+        assertEquals("id1", cache.get(loader).get(0).subscriptionId());
+
+        assertEquals(2, listed.get());
+        assertEquals(0, folder.getRoot().list().length);
+    }
+
+    private static Subscription mockSubscription(String id, String name, String tenant) {
+        final Subscription subscription = mock(Subscription.class);
+        when(subscription.subscriptionId()).thenReturn(id);
+        when(subscription.displayName()).thenReturn(name);
+        when(subscription.tenantId()).thenReturn(tenant);
+        return subscription;
+    }
+}
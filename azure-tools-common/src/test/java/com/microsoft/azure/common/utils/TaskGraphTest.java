@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.common.utils;
+
+import com.microsoft.azure.common.exceptions.AzureExecutionException;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TaskGraphTest {
+
+    @Test
+    public void runIndependentTasksConcurrently() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(2);
+        final List<String> events = new CopyOnWriteArrayList<>();
+        // Both tasks wait for each other, which only succeeds if they run at the same time
+        final TaskGraph graph = new TaskGraph()
+            .add("package", () -> {
+                latch.countDown();
+                assertTrue(latch.await(10, TimeUnit.SECONDS));
+                events.add("package");
+            })
+            .add("provision", () -> {
+                latch.countDown();
+                assertTrue(latch.await(10, TimeUnit.SECONDS));
+                events.add("provision");
+            })
+            .add("deploy", () -> events.add("deploy"), "package", "provision");
+
+        graph.await();
+
+        assertEquals(3, events.size());
+        assertEquals("deploy", events.get(2));
+    }
+
+    @Test
+    public void skipTasksDependingOnFailedTask() throws Exception {
+        final AzureExecutionException error = new AzureExecutionException("failed");
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final TaskGraph graph = new TaskGraph()
+            .add("package", () -> events.add("package"))
+            .add("provision", () -> {
+                throw error;
+            })
+            .add("deploy", () -> events.add("deploy"), "package", "provision");
+
+        try {
+            graph.await();
+            fail("The error of the failed task should be thrown.");
+        } catch (AzureExecutionException e) {
+            assertSame(error, e);
+        }
+        assertEquals(1, events.size());
+        assertTrue(graph.getTimingReport().matches("(?s).*deploy +skipped.*"));
+    }
+
+    @Test
+    public void getCriticalPath() throws Exception {
+        final TaskGraph graph = new TaskGraph()
+            .add("package", () -> { })
+            .add("provision", () -> Thread.sleep(200))
+            .add("deploy", () -> { }, "package", "provision");
+        graph.await();
+
+        assertEquals("provision,deploy", graph.getCriticalPath().stream().map(node -> node.name).collect(Collectors.joining(",")));
+        assertTrue(graph.getTimingReport().contains("Critical path: provision -> deploy"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addTaskWithUnknownDependency() {
+        new TaskGraph().add("deploy", () -> { }, "package");
+    }
+}
@@ -18,6 +18,7 @@ import com.microsoft.azure.maven.webapp.configuration.ContainerSetting;
 import com.microsoft.azure.maven.webapp.configuration.Deployment;
 import com.microsoft.azure.maven.webapp.configuration.RuntimeSetting;
 import com.microsoft.azure.maven.webapp.configuration.SchemaVersion;
+import com.microsoft.azure.maven.webapp.configuration.SwapSetting;
 import com.microsoft.azure.maven.webapp.parser.ConfigurationParser;
 import com.microsoft.azure.maven.webapp.parser.V1ConfigurationParser;
 import com.microsoft.azure.maven.webapp.parser.V2ConfigurationParser;
@@ -33,8 +34,6 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.NoSuchElementException;
-import java.util.UUID;
 
 /**
  * Base abstract class for Web App Mojos.
@@ -231,6 +230,18 @@ public abstract class AbstractWebAppMojo extends AbstractAppServiceMojo {
     @Parameter(property = "deployment")
     protected Deployment deployment;
 
+    /**
+     * Warm-up and swap setting, which only applies to deployment to a deployment slot.<br/>
+     * When it is set, the deployment slot is warmed up with requests to {@code <warmUpPath>} after the artifacts
+     * are deployed, until the latency percentiles of two consecutive rounds of {@code <warmUpRequests>} settle
+     * within {@code <latencyTolerance>} percent or {@code <warmUpTimeout>} seconds pass. Then the deployment slot
+     * is swapped with {@code <targetSlot>}, which is production by default.
+     *
+     * @since 1.13.0
+     */
+    @Parameter(alias = "swapSlot")
+    protected SwapSetting swapSetting;
+
     private WebAppConfiguration webAppConfiguration;
 
     protected File stagingDirectory;
@@ -311,24 +322,25 @@ public abstract class AbstractWebAppMojo extends AbstractAppServiceMojo {
     }
 
     public WebApp getWebApp() throws AzureAuthFailureException {
-        return getAzureClient().webApps().getByResourceGroup(getResourceGroup(), getAppName());
+        return getResourceContext().getWebApp(getResourceGroup(), getAppName());
     }
 
     public DeploymentSlot getDeploymentSlot(final WebApp app, final String slotName) {
-        DeploymentSlot slot = null;
-        if (StringUtils.isNotEmpty(slotName)) {
-            try {
-                slot = app.deploymentSlots().getByName(slotName);
-            } catch (NoSuchElementException deploymentSlotNotExistException) {
-            }
-        }
-        return slot;
+        return StringUtils.isNotEmpty(slotName) ? getResourceContext().getDeploymentSlot(app, slotName) : null;
     }
 
     public boolean isDeployToDeploymentSlot() {
         return getDeploymentSlotSetting() != null;
     }
 
+    public SwapSetting getSwapSetting() {
+        return swapSetting;
+    }
+
+    public boolean isSwapSlotAfterDeployment() {
+        return isDeployToDeploymentSlot() && getSwapSetting() != null;
+    }
+
     public String getSchemaVersion() {
         return schemaVersion;
     }
@@ -409,10 +421,9 @@ public abstract class AbstractWebAppMojo extends AbstractAppServiceMojo {
                 if (stagingDirectory == null) {
                     final String outputFolder = this.getPluginName().replaceAll(MAVEN_PLUGIN_POSTFIX, "");
                     final String stagingDirectoryPath = Paths.get(this.getBuildDirectoryAbsolutePath(),
-                            outputFolder, String.format("%s-%s", this.getAppName(), UUID.randomUUID().toString())
-                    ).toString();
+                            outputFolder, this.getAppName()).toString();
                     stagingDirectory = new File(stagingDirectoryPath);
-                    // If staging directory doesn't exist, create one and delete it on exit
+                    // Staging directory is kept between builds, so that only changed resources are staged next time
                     if (!stagingDirectory.exists()) {
                         stagingDirectory.mkdirs();
                     }
@@ -12,6 +12,8 @@ import com.microsoft.azure.common.appservice.OperatingSystemEnum;
 import com.microsoft.azure.common.exceptions.AzureExecutionException;
 import com.microsoft.azure.common.logging.Log;
 import com.microsoft.azure.common.utils.AppServiceUtils;
+import com.microsoft.azure.common.utils.SharedExecutor;
+import com.microsoft.azure.common.utils.SubscriptionCache.CachedSubscription;
 import com.microsoft.azure.common.utils.TextUtils;
 import com.microsoft.azure.management.Azure;
 import com.microsoft.azure.management.appservice.AppServicePlan;
@@ -23,9 +25,10 @@ import com.microsoft.azure.management.appservice.RuntimeStack;
 import com.microsoft.azure.management.appservice.WebApp;
 import com.microsoft.azure.management.appservice.WebContainer;
 import com.microsoft.azure.management.appservice.implementation.WebAppsInner;
-import com.microsoft.azure.management.resources.Subscription;
 import com.microsoft.azure.management.resources.fluentcore.arm.Region;
+import com.microsoft.azure.auth.AzureAuthHelper;
 import com.microsoft.azure.maven.auth.AzureAuthFailureException;
+import com.microsoft.azure.maven.auth.AzureClientFactory;
 import com.microsoft.azure.maven.queryer.MavenPluginQueryer;
 import com.microsoft.azure.maven.queryer.QueryFactory;
 import com.microsoft.azure.maven.webapp.configuration.Deployment;
@@ -37,6 +40,7 @@ import com.microsoft.azure.maven.webapp.parser.V2NoValidationConfigurationParser
 import com.microsoft.azure.maven.webapp.utils.CustomTextIoStringListReader;
 import com.microsoft.azure.maven.webapp.utils.JavaVersionUtils;
 import com.microsoft.azure.maven.webapp.utils.RuntimeStackUtils;
+import com.microsoft.azure.maven.webapp.utils.WebAppOptionCache;
 import com.microsoft.azure.maven.webapp.utils.WebContainerUtils;
 import com.microsoft.azure.maven.webapp.validator.V2ConfigurationValidator;
 
@@ -48,9 +52,8 @@ import org.beryx.textio.TextIO;
 import org.beryx.textio.TextIoFactory;
 import org.dom4j.DocumentException;
 
-import rx.Observable;
-import rx.schedulers.Schedulers;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -59,12 +62,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
-
 import static com.microsoft.azure.maven.webapp.utils.Utils.findStringInCollectionIgnoreCase;
 import static com.microsoft.azure.maven.webapp.validator.AbstractConfigurationValidator.APP_NAME_PATTERN;
 import static com.microsoft.azure.maven.webapp.validator.AbstractConfigurationValidator.RESOURCE_GROUP_PATTERN;
@@ -90,7 +92,10 @@ public class ConfigMojo extends AbstractWebAppMojo {
 
     private static final String PRICE_TIER_NOT_AVAIL = "The price tier \"P1\", \"P2\", \"P3\" are only available for Windows runtime, use \"%s\" instead.";
     private static final String NO_JAVA_WEB_APPS = "There are no Java Web Apps in current subscription, please follow the following steps to create a new one.";
-    private static final String LONG_LOADING_HINT = "It may take a few minutes to load all Java Web Apps, please be patient.";
+    private static final String LOADING_WEB_APPS = "Loading configurations of %d Web Apps...";
+    private static final String WEB_APP_CACHE_FILE = "webapp-options.json";
+    private static final int WEB_APP_PAGE_SIZE = 50;
+    private static final int MAX_CONCURRENT_CONFIGURATION_REQUESTS = 8;
     private static final String[] configTypes = { "Application", "Runtime", "DeploymentSlot" };
     private static final String SETTING_DOCKER_IMAGE = "DOCKER_CUSTOM_IMAGE_NAME";
     private static final String SETTING_REGISTRY_SERVER = "DOCKER_REGISTRY_SERVER_URL";
@@ -479,32 +484,50 @@ public class ConfigMojo extends AbstractWebAppMojo {
             throws AzureExecutionException, AzureAuthFailureException {
         final Azure az = getAzureClientByAuthType();
         final TextIO textIO = TextIoFactory.getTextIO();
-        final Subscription[] subscriptions = az.subscriptions().list().toArray(new Subscription[0]);
-        final Subscription targetSubscription = selectSubscription(az, textIO, subscriptions);
+        final CachedSubscription[] subscriptions = listSubscriptions(az).toArray(new CachedSubscription[0]);
+        final CachedSubscription targetSubscription = selectSubscription(az, textIO, subscriptions);
         this.subscriptionId = targetSubscription.subscriptionId();
         // here is a walk around to solve the bad app service listing issue
         final WebAppsInner webappClient = az.webApps().manager().inner().withSubscriptionId(subscriptionId).webApps();
-        final List<WebAppOption> siteInners = webappClient.list().stream()
-              .filter(site -> site.kind() != null && !Arrays.asList(site.kind().split(",")).contains("functionapp"))
-              .map(t -> new WebAppOption(t, webappClient)).sorted().collect(Collectors.toList());
+        final WebAppOptionCache cache = new WebAppOptionCache(getWebAppCacheFile(), WebAppOptionCache.DEFAULT_TTL_IN_MILLIS);
+        final String identity = getAzureTokenWrapper() == null ? null : AzureClientFactory.getIdentity(getAzureTokenWrapper());
+        List<WebAppOption> siteInners = cache.get(identity, subscriptionId);
+        if (siteInners == null) {
+            siteInners = webappClient.list().stream()
+                    .filter(site -> site.kind() != null && !Arrays.asList(site.kind().split(",")).contains("functionapp"))
+                    .map(t -> new WebAppOption(t, webappClient)).sorted().collect(Collectors.toList());
+            cache.put(identity, subscriptionId, siteInners);
+        } else {
+            siteInners.forEach(option -> option.withWebappClient(webappClient));
+        }
 
         // check empty: first time
         if (siteInners.isEmpty()) {
             Log.warn(NO_JAVA_WEB_APPS);
             return null;
         }
-        Log.info(LONG_LOADING_HINT);
-
-        // load configuration to detecting java or docker
-        Observable.from(siteInners).flatMap(WebAppOption::loadConfigurationSync, siteInners.size()).subscribeOn(Schedulers.io()).toBlocking().subscribe();
 
         final boolean isContainer = !Utils.isJarPackagingProject(this.project.getPackaging());
         final boolean isDockerOnly = Utils.isPomPackagingProject(this.project.getPackaging());
-        final List<WebAppOption> javaOrDockerWebapps = siteInners.stream().filter(app -> app.isJavaWebApp() || app.isDockerWebapp())
-                .filter(app -> checkWebAppVisible(isContainer, isDockerOnly, app.isJavaSE(), app.isDockerWebapp())).sorted()
-                .collect(Collectors.toList());
-        final WebAppOption selectedApp = selectAzureWebApp(textIO, javaOrDockerWebapps,
-                getWebAppTypeByPackaging(this.project.getPackaging()), targetSubscription);
+        WebAppOption selectedApp;
+        int loaded = 0;
+        do {
+            // load configuration to detecting java or docker, one page at a time so that the first candidates show up soon
+            final int end = Math.min(loaded + WEB_APP_PAGE_SIZE, siteInners.size());
+            loadConfigurations(siteInners.subList(loaded, end));
+            cache.save();
+            loaded = end;
+            final List<WebAppOption> javaOrDockerWebapps = siteInners.subList(0, loaded).stream()
+                    .filter(app -> app.isJavaWebApp() || app.isDockerWebapp())
+                    .filter(app -> checkWebAppVisible(isContainer, isDockerOnly, app.isJavaSE(), app.isDockerWebapp())).sorted()
+                    .collect(Collectors.toList());
+            if (javaOrDockerWebapps.isEmpty() && loaded < siteInners.size()) {
+                selectedApp = WebAppOption.LOAD_MORE;
+                continue;
+            }
+            selectedApp = selectAzureWebApp(textIO, javaOrDockerWebapps,
+                    getWebAppTypeByPackaging(this.project.getPackaging()), targetSubscription, loaded < siteInners.size());
+        } while (selectedApp != null && selectedApp.isLoadMore());
         if (selectedApp == null || selectedApp.isCreateNew()) {
             return null;
         }
@@ -523,7 +546,8 @@ public class ConfigMojo extends AbstractWebAppMojo {
         return getConfigurationFromExisting(webapp, servicePlan, builder);
     }
 
-    private static Subscription selectSubscription(Azure az, TextIO textIO, Subscription[]subscriptions) throws AzureExecutionException {
+    private static CachedSubscription selectSubscription(Azure az, TextIO textIO, CachedSubscription[] subscriptions)
+            throws AzureExecutionException {
         if (subscriptions.length == 0) {
             throw new AzureExecutionException("Cannot find any subscriptions in current account.");
         } else if (subscriptions.length == 1) {
@@ -531,7 +555,7 @@ public class ConfigMojo extends AbstractWebAppMojo {
                     TextUtils.blue(SubscriptionOption.getSubscriptionName(subscriptions[0]))));
             return subscriptions[0];
         } else {
-            final String defaultId = Optional.ofNullable(az.getCurrentSubscription()).map(Subscription::subscriptionId).orElse(null);
+            final String defaultId = az.subscriptionId();
 
             final List<SubscriptionOption> wrapSubs = Arrays.stream(subscriptions).map(t -> new SubscriptionOption(t))
                     .sorted()
@@ -550,7 +574,8 @@ public class ConfigMojo extends AbstractWebAppMojo {
         }
     }
 
-    private static WebAppOption selectAzureWebApp(TextIO textIO, List<WebAppOption> javaOrDockerWebapps, String webAppType, Subscription targetSubscription) {
+    private static WebAppOption selectAzureWebApp(TextIO textIO, List<WebAppOption> javaOrDockerWebapps, String webAppType,
+                                                  CachedSubscription targetSubscription, boolean hasMore) {
         final List<WebAppOption> options = new ArrayList<>();
         options.add(WebAppOption.CREATE_NEW);
         // check empty: second time
@@ -559,12 +584,35 @@ public class ConfigMojo extends AbstractWebAppMojo {
             return null;
         }
         options.addAll(javaOrDockerWebapps);
+        if (hasMore) {
+            options.add(WebAppOption.LOAD_MORE);
+        }
         return new CustomTextIoStringListReader<WebAppOption>(() -> textIO.getTextTerminal(), null)
                 .withCustomPrompt(String.format("Please choose a %s Web App%s: ", webAppType, highlightDefaultValue(WebAppOption.CREATE_NEW.toString())))
                 .withNumberedPossibleValues(options).withDefaultValue(WebAppOption.CREATE_NEW)
                 .read(String.format("%s Web Apps in subscription %s:", webAppType, TextUtils.blue(targetSubscription.displayName())));
     }
 
+    /**
+     * Load configurations of the web apps with bounded concurrency, too many concurrent requests get throttled by ARM.
+     */
+    private static void loadConfigurations(List<WebAppOption> webApps) {
+        final List<WebAppOption> notLoaded = webApps.stream().filter(app -> !app.isConfigurationLoaded()).collect(Collectors.toList());
+        if (notLoaded.isEmpty()) {
+            return;
+        }
+        Log.info(String.format(LOADING_WEB_APPS, notLoaded.size()));
+        try (final SharedExecutor.Scope scope = SharedExecutor.open(MAX_CONCURRENT_CONFIGURATION_REQUESTS)) {
+            CompletableFuture.allOf(notLoaded.stream()
+                    .map(app -> CompletableFuture.runAsync(app::loadConfiguration, scope))
+                    .toArray(CompletableFuture[]::new)).join();
+        }
+    }
+
+    private static File getWebAppCacheFile() {
+        return new File(AzureAuthHelper.getAzureConfigFolder(), WEB_APP_CACHE_FILE);
+    }
+
     private static WebAppConfiguration getConfigurationFromExisting(WebApp webapp, AppServicePlan servicePlan, WebAppConfiguration.Builder builder) {
         // common configuration
         builder.appName(webapp.name())
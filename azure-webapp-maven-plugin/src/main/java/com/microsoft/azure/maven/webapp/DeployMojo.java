@@ -6,12 +6,17 @@
 
 package com.microsoft.azure.maven.webapp;
 
+import com.microsoft.azure.common.appservice.DeployTargetSetting;
+import com.microsoft.azure.common.appservice.DeploymentSlotSetting;
 import com.microsoft.azure.common.deploytarget.DeployTarget;
 import com.microsoft.azure.common.exceptions.AzureExecutionException;
 import com.microsoft.azure.common.handlers.ArtifactHandler;
 import com.microsoft.azure.common.handlers.RuntimeHandler;
 import com.microsoft.azure.common.logging.Log;
+import com.microsoft.azure.common.utils.Poller;
+import com.microsoft.azure.common.utils.Rollout;
 import com.microsoft.azure.management.appservice.DeploymentSlot;
+import com.microsoft.azure.management.appservice.OperatingSystem;
 import com.microsoft.azure.management.appservice.PublishingProfile;
 import com.microsoft.azure.management.appservice.WebApp;
 import com.microsoft.azure.management.appservice.WebApp.DefinitionStages.WithCreate;
@@ -27,12 +32,14 @@ import com.microsoft.azure.maven.webapp.handlers.artifact.WarArtifactHandlerImpl
 import com.microsoft.azure.maven.webapp.utils.FTPUtils;
 import com.microsoft.azure.maven.webapp.utils.Utils;
 
+import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.net.ftp.FTPClient;
 import org.apache.maven.model.Resource;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
 
 import java.io.File;
 import java.io.IOException;
@@ -40,7 +47,10 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -57,21 +67,183 @@ public class DeployMojo extends AbstractWebAppMojo {
     public static final String CREATE_DEPLOYMENT_SLOT_DONE = "Successfully created the Deployment Slot.";
     public static final String UPDATE_WEBAPP = "Updating target Web App...";
     public static final String UPDATE_WEBAPP_SKIP = "No runtime configured. Skip the update.";
+    public static final String UPDATE_WEBAPP_NO_CHANGE = "No change is detected. Skip the update.";
     public static final String UPDATE_WEBAPP_DONE = "Successfully updated Web App.";
     public static final String STOP_APP = "Stopping Web App before deploying artifacts...";
     public static final String START_APP = "Starting Web App after deploying artifacts...";
     public static final String STOP_APP_DONE = "Successfully stopped Web App.";
+    public static final String STOP_APP_SKIP = "Stopping Web App is not required by this deployment, skip it.";
+    public static final String STOP_LINUX_APP = "Stopping a Linux Web App is not required to deploy artifacts, " +
+            "remove <stopAppDuringDeployment> to deploy without stopping it.";
+    public static final String APP_STATE_TIMEOUT = "Web App is not %s after %d seconds, continue the deployment.";
     public static final String START_APP_DONE = "Successfully started Web App.";
     public static final String WEBAPP_NOT_EXIST_FOR_SLOT = "The Web App specified in pom.xml does not exist. " +
             "Please make sure the Web App name is correct.";
     public static final String SLOT_SHOULD_EXIST_NOW = "Target deployment slot still does not exist. " +
             "Please check if any error message during creation.";
+    public static final String SWAP_WITHOUT_SLOT = "<swapSlot> only applies to deployment slot, " +
+            "please configure <deploymentSlot> in pom.xml.";
+    public static final String DEPLOY_TO_TARGET = "Deploying to %s...";
+    public static final String FAILED_TO_DEPLOY_TO_TARGETS = "Failed to deploy to %d of %d targets.";
+
+    /**
+     * Web apps to deploy the same artifacts to, instead of the one configured by {@code <appName>}. Every target
+     * may override the app name, resource group, region, app service plan and deployment slot, the other settings
+     * are shared. Every target is staged under its own app name.
+     * <pre>
+     * {@code
+     * <targets>
+     *     <target>
+     *         <appName>app-westeurope</appName>
+     *         <region>westeurope</region>
+     *     </target>
+     *     <target>
+     *         <appName>app-eastus</appName>
+     *         <region>eastus</region>
+     *     </target>
+     * </targets>
+     * }
+     * </pre>
+     */
+    @Parameter
+    protected List<DeployTargetSetting> targets;
+
+    /**
+     * How to roll out to the {@code <targets>}: all_at_once, or waves of {@code <waveSize>} targets which stop after
+     * a wave with any failure.
+     */
+    @Parameter(property = "webapp.rolloutPolicy", defaultValue = "all_at_once")
+    protected String rolloutPolicy;
+
+    /**
+     * The most {@code <targets>} deployed at the same time.
+     */
+    @Parameter(property = "webapp.maxParallelism", defaultValue = "4")
+    protected int maxParallelism;
+
+    /**
+     * The number of {@code <targets>} in a wave, defaults to {@code <maxParallelism>}.
+     */
+    @Parameter(property = "webapp.waveSize", defaultValue = "0")
+    protected int waveSize;
 
     protected DeploymentUtil util = new DeploymentUtil();
 
+    // Targets are deployed concurrently, every thread keeps the state of the target it deploys to
+    private final ThreadLocal<TargetState> state = new ThreadLocal<>();
+    private final Object stagingLock = new Object();
+
+    @Override
+    public String getAppName() {
+        return getTargetValue(DeployTargetSetting::getAppName, super.getAppName());
+    }
+
+    @Override
+    public String getResourceGroup() {
+        return getTargetValue(DeployTargetSetting::getResourceGroup, super.getResourceGroup());
+    }
+
+    @Override
+    public String getRegion() {
+        return getTargetValue(DeployTargetSetting::getRegion, super.getRegion());
+    }
+
+    @Override
+    public String getAppServicePlanResourceGroup() {
+        return getTargetValue(DeployTargetSetting::getAppServicePlanResourceGroup, super.getAppServicePlanResourceGroup());
+    }
+
+    @Override
+    public String getAppServicePlanName() {
+        return getTargetValue(DeployTargetSetting::getAppServicePlanName, super.getAppServicePlanName());
+    }
+
+    @Override
+    public DeploymentSlotSetting getDeploymentSlotSetting() {
+        final TargetState current = state.get();
+        return current == null || current.setting.getDeploymentSlot() == null ?
+                super.getDeploymentSlotSetting() : current.setting.getDeploymentSlot();
+    }
+
+    /**
+     * The artifact handlers of the targets write to the staging directory concurrently, so that every target has its
+     * own one
+     */
+    @Override
+    public String getDeploymentStagingDirectoryPath() {
+        return state.get() == null ? super.getDeploymentStagingDirectoryPath() : getDeploymentStagingDirectoryPath(getAppName());
+    }
+
+    @Override
+    protected WebAppConfiguration getWebAppConfiguration() throws AzureExecutionException {
+        final TargetState current = state.get();
+        if (current == null) {
+            return super.getWebAppConfiguration();
+        }
+        // Parsed from the settings the target overrides
+        if (current.configuration == null) {
+            current.configuration = getParserBySchemaVersion().getWebAppConfiguration();
+        }
+        return current.configuration;
+    }
+
     @Override
     protected void doExecute() throws AzureExecutionException {
+        if (CollectionUtils.isNotEmpty(targets)) {
+            deployToTargets();
+            return;
+        }
+        deployToApp();
+    }
+
+    /**
+     * Deploy to every target on its own thread as the rollout policy allows
+     */
+    protected void deployToTargets() throws AzureExecutionException {
+        final Rollout<DeployTargetSetting> rollout;
+        try {
+            rollout = new Rollout<>(Rollout.Policy.fromString(rolloutPolicy), maxParallelism, waveSize);
+        } catch (IllegalArgumentException e) {
+            throw new AzureExecutionException(e.getMessage(), e);
+        }
+        try {
+            // The client is created lazily and not thread safe, so create it before the targets share it
+            getAzureClient();
+        } catch (AzureAuthFailureException e) {
+            throw new AzureExecutionException(
+                    String.format("Encoutering error when deploying to azure: '%s'", e.getMessage()), e);
+        }
+
+        final List<Rollout.Result<DeployTargetSetting>> results;
+        try {
+            results = rollout.run(targets, this::deployToTarget);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AzureExecutionException(e.getMessage(), e);
+        }
+        Log.info(Rollout.getReport(results));
+        final long failures = results.stream().filter(result -> result.getStatus() != Rollout.Status.SUCCEEDED).count();
+        if (failures > 0) {
+            throw new AzureExecutionException(String.format(FAILED_TO_DEPLOY_TO_TARGETS, failures, results.size()));
+        }
+    }
+
+    protected void deployToTarget(final DeployTargetSetting target) throws AzureExecutionException {
+        state.set(new TargetState(target));
+        try {
+            Log.info(String.format(DEPLOY_TO_TARGET, target));
+            new File(getDeploymentStagingDirectoryPath()).mkdirs();
+            deployToApp();
+        } finally {
+            state.remove();
+        }
+    }
+
+    protected void deployToApp() throws AzureExecutionException {
         // todo: use parser to getAzureClient from mojo configs
+        if (getSwapSetting() != null && !isDeployToDeploymentSlot()) {
+            throw new AzureExecutionException(SWAP_WITHOUT_SLOT);
+        }
         try {
             final RuntimeHandler runtimeHandler = getFactory().getRuntimeHandler(
                     getWebAppConfiguration(), getAzureClient());
@@ -86,6 +258,9 @@ public class DeployMojo extends AbstractWebAppMojo {
                 updateWebApp(runtimeHandler, app);
             }
             deployArtifacts(getWebAppConfiguration());
+            if (isSwapSlotAfterDeployment()) {
+                getFactory().getDeploymentSlotHandler(this).warmUpAndSwap(getSwapSetting());
+            }
         } catch (IOException | AzureAuthFailureException | InterruptedException e) {
             throw new AzureExecutionException(
                     String.format("Encoutering error when deploying to azure: '%s'", e.getMessage()), e);
@@ -97,7 +272,7 @@ public class DeployMojo extends AbstractWebAppMojo {
 
         final WithCreate withCreate = (WithCreate) runtimeHandler.defineAppWithRuntime();
         getFactory().getSettingsHandler(this).processSettings(withCreate);
-        withCreate.create();
+        getResourceContext().refresh(withCreate.create());
 
         Log.info(WEBAPP_CREATED);
     }
@@ -105,14 +280,19 @@ public class DeployMojo extends AbstractWebAppMojo {
     protected void updateWebApp(final RuntimeHandler runtimeHandler, final WebApp app) throws AzureExecutionException, AzureAuthFailureException {
         // Update App Service Plan
         runtimeHandler.updateAppServicePlan(app);
-        // Update Web App
-        final Update update = (Update) runtimeHandler.updateAppRuntime(app);
+        // The plan or the app may be changed
+        getResourceContext().invalidate();
+        // Update Web App, only the runtime and app settings which differ from the deployed ones are sent
+        final boolean isRuntimeUpToDate = runtimeHandler.isRuntimeUpToDate(app);
+        final Update update = (Update) (isRuntimeUpToDate ? app.update() : runtimeHandler.updateAppRuntime(app));
         if (update == null) {
             Log.info(UPDATE_WEBAPP_SKIP);
+        } else if (!getFactory().getSettingsHandler(this).processSettings(app, update) && isRuntimeUpToDate) {
+            Log.info(UPDATE_WEBAPP_NO_CHANGE);
+            getResourceContext().refresh(app);
         } else {
             Log.info(UPDATE_WEBAPP);
-            getFactory().getSettingsHandler(this).processSettings(update);
-            update.apply();
+            getResourceContext().refresh(update.apply());
             Log.info(UPDATE_WEBAPP_DONE);
         }
 
@@ -128,8 +308,9 @@ public class DeployMojo extends AbstractWebAppMojo {
     protected void deployArtifacts(WebAppConfiguration webAppConfiguration)
         throws AzureAuthFailureException, InterruptedException, AzureExecutionException, IOException {
         try {
-            util.beforeDeployArtifacts();
             final WebApp app = getWebApp();
+            final ArtifactHandler artifactHandler = getFactory().getArtifactHandler(this);
+            getDeploymentUtil().beforeDeployArtifacts(app, artifactHandler);
             final DeployTarget target;
 
             if (this.isDeployToDeploymentSlot()) {
@@ -142,7 +323,6 @@ public class DeployMojo extends AbstractWebAppMojo {
             } else {
                 target = new WebAppDeployTarget(app);
             }
-            final ArtifactHandler artifactHandler = getFactory().getArtifactHandler(this);
             final boolean isV1Schema = SchemaVersion.fromString(this.getSchemaVersion()) == SchemaVersion.V1;
             if (isV1Schema) {
                 handleV1Artifact(target, this.resources, artifactHandler);
@@ -151,7 +331,9 @@ public class DeployMojo extends AbstractWebAppMojo {
                 handleV2Artifact(target, v2Resources, artifactHandler);
             }
         } finally {
-            util.afterDeployArtifacts();
+            getDeploymentUtil().afterDeployArtifacts();
+            // The app is restarted by deployment
+            getResourceContext().invalidate();
         }
     }
 
@@ -182,6 +364,11 @@ public class DeployMojo extends AbstractWebAppMojo {
                     )) {
                 throw new AzureExecutionException(NO_RESOURCES_CONFIG);
             }
+            // Nothing is synchronized, clean up what previous builds staged
+            final File staging = new File(getDeploymentStagingDirectoryPath());
+            if (staging.isDirectory()) {
+                FileUtils.cleanDirectory(staging);
+            }
         } else {
             copyArtifactsToStagingDirectory(v1Resources);
         }
@@ -192,12 +379,25 @@ public class DeployMojo extends AbstractWebAppMojo {
         return HandlerFactory.getInstance();
     }
 
-    private void copyArtifactsToStagingDirectory(List<Resource> resourceList) throws IOException, AzureExecutionException {
+    private DeploymentUtil getDeploymentUtil() {
+        final TargetState current = state.get();
+        return current == null ? util : current.util;
+    }
+
+    private String getTargetValue(final Function<DeployTargetSetting, String> getter, final String defaultValue) {
+        final TargetState current = state.get();
+        return current == null || StringUtils.isEmpty(getter.apply(current.setting)) ? defaultValue : getter.apply(current.setting);
+    }
+
+    void copyArtifactsToStagingDirectory(List<Resource> resourceList) throws IOException, AzureExecutionException {
         if (resourceList.isEmpty()) {
             return;
         }
-        Utils.prepareResources(this.getProject(), this.getSession(), this.getMavenResourcesFiltering(),
-                resourceList, getDeploymentStagingDirectoryPath());
+        // The resources filtering component is shared by the targets, stage them one at a time
+        synchronized (stagingLock) {
+            Utils.prepareResources(this.getProject(), this.getSession(), this.getMavenResourcesFiltering(),
+                    resourceList, getDeploymentStagingDirectoryPath());
+        }
     }
 
     private void deployExternalResources(DeployTarget deployTarget, List<Resource> externalResources) throws AzureExecutionException {
@@ -236,36 +436,136 @@ public class DeployMojo extends AbstractWebAppMojo {
         return !target.startsWith(FTP_ROOT);
     }
 
+    /**
+     * What is resolved for the target being deployed to
+     */
+    private class TargetState {
+        private final DeployTargetSetting setting;
+        private final DeploymentUtil util = new DeploymentUtil();
+        private WebAppConfiguration configuration;
+
+        TargetState(final DeployTargetSetting setting) {
+            this.setting = setting;
+        }
+    }
+
     class DeploymentUtil {
+        private static final String STATE_RUNNING = "Running";
+        private static final String STATE_STOPPED = "Stopped";
+        private static final String STATE_DRAINING = "Draining";
+        private static final long MIN_POLLING_INTERVAL_IN_MILLIS = 1000;
+        private static final long MAX_POLLING_INTERVAL_IN_MILLIS = 8000;
+        private static final long STATE_TIMEOUT_IN_SECONDS = 120;
+
         boolean isAppStopped = false;
+        WebApp stoppedApp = null;
 
-        public void beforeDeployArtifacts() throws AzureAuthFailureException, InterruptedException {
+        public void beforeDeployArtifacts(final WebApp app, final ArtifactHandler artifactHandler)
+                throws AzureAuthFailureException, InterruptedException {
             if (isStopAppDuringDeployment()) {
+                if (!isStopAppRequired(app, artifactHandler)) {
+                    Log.info(STOP_APP_SKIP);
+                    return;
+                }
                 Log.info(STOP_APP);
 
-                getWebApp().stop();
+                app.stop();
 
-                // workaround for the resources release problem.
+                // workaround for the resources release problem, wait until the worker processes exit.
                 // More details: https://github.com/Microsoft/azure-maven-plugins/issues/191
-                TimeUnit.SECONDS.sleep(10 /* 10 seconds */);
+                if (!waitForAppState(app, STATE_STOPPED)) {
+                    Log.warn(String.format(APP_STATE_TIMEOUT, STATE_STOPPED, STATE_TIMEOUT_IN_SECONDS));
+                }
 
                 isAppStopped = true;
+                stoppedApp = app;
 
                 Log.info(STOP_APP_DONE);
             }
         }
 
-        public void afterDeployArtifacts() throws AzureAuthFailureException, IOException {
+        public void afterDeployArtifacts() throws AzureAuthFailureException, InterruptedException {
             if (isAppStopped) {
                 Log.info(START_APP);
 
-                getWebApp().start();
+                stoppedApp.start();
+                if (!waitForAppState(stoppedApp, STATE_RUNNING)) {
+                    Log.warn(String.format(APP_STATE_TIMEOUT, STATE_RUNNING, STATE_TIMEOUT_IN_SECONDS));
+                }
                 isAppStopped = false;
+                stoppedApp = null;
 
                 Log.info(START_APP_DONE);
             }
-            if (stagingDirectory != null) {
-                FileUtils.forceDeleteOnExit(stagingDirectory);
+        }
+
+        /**
+         * Nothing needs to be released when no artifact is going to be deployed. Only IIS on Windows holds locks on the
+         * deployed files, but the app is still stopped on Linux as the user asks for it.
+         */
+        boolean isStopAppRequired(final WebApp app, final ArtifactHandler artifactHandler) {
+            if (artifactHandler instanceof NONEArtifactHandlerImpl) {
+                return false;
+            }
+            if (app.operatingSystem() == OperatingSystem.LINUX) {
+                Log.warn(STOP_LINUX_APP);
+            }
+            return true;
+        }
+
+        /**
+         * Poll the site with an increasing interval until it reaches the expected state, for stopped state the
+         * worker processes are expected to be gone as well.
+         *
+         * @return whether the expected state is observed within the time budget
+         */
+        boolean waitForAppState(final WebApp app, final String expectedState)
+                throws AzureAuthFailureException, InterruptedException {
+            try {
+                getStatePoller(app, expectedState).await();
+                return true;
+            } catch (TimeoutException e) {
+                return false;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof AzureAuthFailureException) {
+                    throw (AzureAuthFailureException) e.getCause();
+                }
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+            }
+        }
+
+        Poller<String> getStatePoller(final WebApp app, final String expectedState) {
+            return Poller.poll(() -> getState(app, expectedState))
+                    .until(appState -> StringUtils.equalsIgnoreCase(appState, expectedState))
+                    .withInterval(MIN_POLLING_INTERVAL_IN_MILLIS, MAX_POLLING_INTERVAL_IN_MILLIS, TimeUnit.MILLISECONDS)
+                    // Only the worker processes are left, they exit in seconds
+                    .withIntervalHint(appState -> STATE_DRAINING.equals(appState) ? MIN_POLLING_INTERVAL_IN_MILLIS : null)
+                    .withTimeout(STATE_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+        }
+
+        /**
+         * @return the state of the site, draining if it is stopped as expected but its worker processes are not gone
+         */
+        String getState(final WebApp app, final String expectedState) throws AzureAuthFailureException {
+            app.refresh();
+            final String appState = app.state();
+            if (STATE_STOPPED.equals(expectedState) && StringUtils.equalsIgnoreCase(appState, STATE_STOPPED) && hasWorkerProcess(app)) {
+                return STATE_DRAINING;
+            }
+            return appState;
+        }
+
+        boolean hasWorkerProcess(final WebApp app) throws AzureAuthFailureException {
+            try {
+                return getAzureClient().webApps().inner().listProcesses(app.resourceGroupName(), app.name()).stream()
+                        .anyMatch(process -> !Boolean.TRUE.equals(process.isScmSite()) && !Boolean.TRUE.equals(process.isWebjob()));
+            } catch (RuntimeException e) {
+                // Process listing is not available on every plan, rely on the site state in that case
+                Log.debug(String.format("Failed to list processes of the web app: %s", e.getMessage()));
+                return false;
             }
         }
     }
@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.maven.webapp.configuration;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Warm-up and swap setting class for deployment slots.
+ */
+public class SwapSetting {
+    public static final String DEFAULT_WARM_UP_PATH = "/";
+    public static final int DEFAULT_WARM_UP_REQUESTS = 10;
+    public static final int DEFAULT_WARM_UP_TIMEOUT = 300;
+    public static final int DEFAULT_LATENCY_TOLERANCE = 10;
+    public static final String PRODUCTION_SLOT = "production";
+
+    /**
+     * Relative path requested on the deployment slot to warm it up.
+     */
+    private String warmUpPath;
+
+    /**
+     * Number of requests sent in each warm-up round.
+     */
+    private Integer warmUpRequests;
+
+    /**
+     * Max time in seconds spent on warm-up before swapping anyway.
+     */
+    private Integer warmUpTimeout;
+
+    /**
+     * Max difference in percent between the latency percentiles of two consecutive rounds
+     * for the slot to be considered warm.
+     */
+    private Integer latencyTolerance;
+
+    /**
+     * Slot to swap with, production by default.
+     */
+    private String targetSlot;
+
+    public String getWarmUpPath() {
+        if (StringUtils.isBlank(warmUpPath)) {
+            return DEFAULT_WARM_UP_PATH;
+        }
+        return StringUtils.prependIfMissing(warmUpPath, "/");
+    }
+
+    public void setWarmUpPath(String warmUpPath) {
+        this.warmUpPath = warmUpPath;
+    }
+
+    public int getWarmUpRequests() {
+        return warmUpRequests == null || warmUpRequests <= 0 ? DEFAULT_WARM_UP_REQUESTS : warmUpRequests;
+    }
+
+    public void setWarmUpRequests(Integer warmUpRequests) {
+        this.warmUpRequests = warmUpRequests;
+    }
+
+    public int getWarmUpTimeout() {
+        return warmUpTimeout == null || warmUpTimeout < 0 ? DEFAULT_WARM_UP_TIMEOUT : warmUpTimeout;
+    }
+
+    public void setWarmUpTimeout(Integer warmUpTimeout) {
+        this.warmUpTimeout = warmUpTimeout;
+    }
+
+    public int getLatencyTolerance() {
+        return latencyTolerance == null || latencyTolerance < 0 ? DEFAULT_LATENCY_TOLERANCE : latencyTolerance;
+    }
+
+    public void setLatencyTolerance(Integer latencyTolerance) {
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    public String getTargetSlot() {
+        return StringUtils.isBlank(targetSlot) ? PRODUCTION_SLOT : targetSlot;
+    }
+
+    public void setTargetSlot(String targetSlot) {
+        this.targetSlot = targetSlot;
+    }
+}
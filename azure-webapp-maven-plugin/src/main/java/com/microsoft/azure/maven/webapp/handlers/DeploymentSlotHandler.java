@@ -12,11 +12,13 @@ import com.microsoft.azure.management.appservice.DeploymentSlot;
 import com.microsoft.azure.management.appservice.WebApp;
 import com.microsoft.azure.maven.auth.AzureAuthFailureException;
 import com.microsoft.azure.maven.webapp.AbstractWebAppMojo;
+import com.microsoft.azure.maven.webapp.configuration.SwapSetting;
 import com.microsoft.azure.common.appservice.ConfigurationSourceType;
 import com.microsoft.azure.common.appservice.DeploymentSlotSetting;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 public class DeploymentSlotHandler {
@@ -37,6 +39,12 @@ public class DeploymentSlotHandler {
             "Please use 'NEW', 'PARENT' or specify an existing slot.";
     private static final String TARGET_CONFIGURATION_SOURCE_SLOT_NOT_EXIST =
         "The deployment slot specified in <configurationSource> does not exist.";
+    private static final String SWAP_SLOT_NOT_EXIST = "Deployment slot '%s' does not exist and cannot be swapped.";
+    private static final String SWAP_WITH_ITSELF = "Deployment slot '%s' cannot be swapped with itself, " +
+        "please check <targetSlot> inside <swapSlot> in pom.xml.";
+    private static final String WARM_UP_SLOT = "Warming up deployment slot '%s' before swapping...";
+    private static final String SWAP_SLOT = "Swapping deployment slot '%s' with '%s'...";
+    private static final String SWAP_SLOT_DONE = "Successfully swapped deployment slot '%s' with '%s', warm-up took %d seconds.";
 
     private AbstractWebAppMojo mojo;
 
@@ -56,6 +64,33 @@ public class DeploymentSlotHandler {
         }
     }
 
+    public void warmUpAndSwap(final SwapSetting swapSetting) throws AzureExecutionException, AzureAuthFailureException {
+        final DeploymentSlotSetting slotSetting = this.mojo.getDeploymentSlotSetting();
+        assureValidSlotSetting(slotSetting);
+
+        final String slotName = slotSetting.getName();
+        final String targetSlot = swapSetting.getTargetSlot();
+        if (StringUtils.equalsIgnoreCase(slotName, targetSlot)) {
+            throw new AzureExecutionException(String.format(SWAP_WITH_ITSELF, slotName));
+        }
+        final DeploymentSlot slot = this.mojo.getDeploymentSlot(this.mojo.getWebApp(), slotName);
+        if (slot == null) {
+            throw new AzureExecutionException(String.format(SWAP_SLOT_NOT_EXIST, slotName));
+        }
+
+        Log.info(String.format(WARM_UP_SLOT, slotName));
+        final long warmUpTime = getWarmUpHandler(swapSetting).warmUp(slot.defaultHostName());
+
+        Log.info(String.format(SWAP_SLOT, slotName, targetSlot));
+        slot.swap(targetSlot);
+        this.mojo.getResourceContext().invalidate();
+        Log.info(String.format(SWAP_SLOT_DONE, slotName, targetSlot, TimeUnit.MILLISECONDS.toSeconds(warmUpTime)));
+    }
+
+    protected WarmUpHandler getWarmUpHandler(final SwapSetting swapSetting) {
+        return new WarmUpHandler(swapSetting);
+    }
+
     protected void createDeploymentSlot(final WebApp app, final String slotName,
                                         final String configurationSource) throws AzureExecutionException {
         assureValidSlotName(slotName);
@@ -65,11 +100,11 @@ public class DeploymentSlotHandler {
         switch (type) {
             case NEW:
                 Log.info(EMPTY_CONFIGURATION_SOURCE);
-                definedSlot.withBrandNewConfiguration().create();
+                this.mojo.getResourceContext().refresh(definedSlot.withBrandNewConfiguration().create());
                 break;
             case PARENT:
                 Log.info(DEFAULT_CONFIGURATION_SOURCE);
-                definedSlot.withConfigurationFromParent().create();
+                this.mojo.getResourceContext().refresh(definedSlot.withConfigurationFromParent().create());
                 break;
             case OTHERS:
                 final DeploymentSlot configurationSourceSlot = this.mojo.getDeploymentSlot(app, configurationSource);
@@ -77,7 +112,7 @@ public class DeploymentSlotHandler {
                     throw new AzureExecutionException(TARGET_CONFIGURATION_SOURCE_SLOT_NOT_EXIST);
                 }
                 Log.info(String.format(COPY_CONFIGURATION_FROM_SLOT, configurationSource));
-                definedSlot.withConfigurationFromDeploymentSlot(configurationSourceSlot).create();
+                this.mojo.getResourceContext().refresh(definedSlot.withConfigurationFromDeploymentSlot(configurationSourceSlot).create());
                 break;
             default:
                 throw new AzureExecutionException(UNKNOWN_CONFIGURATION_SOURCE);
@@ -7,11 +7,17 @@
 package com.microsoft.azure.maven.webapp.handlers;
 
 import com.microsoft.azure.common.exceptions.AzureExecutionException;
+import com.microsoft.azure.management.appservice.WebApp;
 import com.microsoft.azure.management.appservice.WebApp.DefinitionStages.WithCreate;
 import com.microsoft.azure.management.appservice.WebApp.Update;
 
 public interface SettingsHandler {
     void processSettings(final WithCreate withCreate) throws AzureExecutionException;
 
-    void processSettings(final Update update) throws AzureExecutionException;
+    /**
+     * Apply the app settings which differ from the ones deployed to the app.
+     *
+     * @return whether any app setting is changed
+     */
+    boolean processSettings(final WebApp app, final Update update) throws AzureExecutionException;
 }
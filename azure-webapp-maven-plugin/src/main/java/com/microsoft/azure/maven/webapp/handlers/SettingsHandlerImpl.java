@@ -7,6 +7,8 @@
 package com.microsoft.azure.maven.webapp.handlers;
 
 import com.microsoft.azure.common.exceptions.AzureExecutionException;
+import com.microsoft.azure.common.utils.AppServiceUtils;
+import com.microsoft.azure.management.appservice.WebApp;
 import com.microsoft.azure.management.appservice.WebApp.DefinitionStages.WithCreate;
 import com.microsoft.azure.management.appservice.WebApp.Update;
 import com.microsoft.azure.maven.webapp.AbstractWebAppMojo;
@@ -29,10 +31,12 @@ public class SettingsHandlerImpl implements SettingsHandler {
     }
 
     @Override
-    public void processSettings(Update update) throws AzureExecutionException {
-        final Map appSettings = mojo.getAppSettings();
-        if (appSettings != null && !appSettings.isEmpty()) {
-            update.withAppSettings(appSettings);
+    public boolean processSettings(WebApp app, Update update) throws AzureExecutionException {
+        final Map<String, String> changedSettings = AppServiceUtils.getChangedAppSettings(app, mojo.getAppSettings());
+        if (changedSettings.isEmpty()) {
+            return false;
         }
+        update.withAppSettings(changedSettings);
+        return true;
     }
 }
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.maven.webapp.handlers;
+
+import com.microsoft.azure.common.logging.Log;
+import com.microsoft.azure.maven.webapp.configuration.SwapSetting;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends warm-up requests to a deployment slot until the latency percentiles of two consecutive rounds settle.
+ */
+public class WarmUpHandler {
+    private static final int CONNECT_TIMEOUT_IN_MILLIS = 30 * 1000;
+    private static final int READ_TIMEOUT_IN_MILLIS = 60 * 1000;
+    private static final int RETRY_PERIOD_IN_SECONDS = 1;
+    // Latency jitter below this value is ignored when comparing rounds, as percent tolerance is meaningless for tiny numbers
+    private static final long MIN_LATENCY_DELTA_IN_MILLIS = 5;
+    private static final String WARM_UP_URL = "Warming up %s...";
+    private static final String WARM_UP_ROUND = "Warm-up round %d: p50 %d ms, p95 %d ms.";
+    private static final String WARM_UP_ROUND_FAILED = "Warm-up round %d failed: %s";
+    private static final String WARM_UP_DONE = "Warm-up finished in %d seconds, p50 %d ms, p95 %d ms.";
+    private static final String WARM_UP_TIMEOUT = "Latency did not settle within %d seconds, continue without a fully warmed-up slot.";
+
+    private final SwapSetting setting;
+
+    public WarmUpHandler(final SwapSetting setting) {
+        this.setting = setting;
+    }
+
+    /**
+     * Warm up the site at the given host.
+     *
+     * @param host the default host name of the site
+     * @return the time spent on warm-up in milliseconds
+     */
+    public long warmUp(final String host) {
+        final String url = getWarmUpUrl(host);
+        Log.info(String.format(WARM_UP_URL, url));
+        final long start = System.nanoTime();
+        final long deadline = start + TimeUnit.SECONDS.toNanos(setting.getWarmUpTimeout());
+        long[] previous = null;
+        int round = 0;
+        while (System.nanoTime() < deadline) {
+            round++;
+            final long[] current;
+            try {
+                current = runRound(url);
+            } catch (IOException e) {
+                Log.info(String.format(WARM_UP_ROUND_FAILED, round, e.getMessage()));
+                previous = null;
+                if (!pause()) {
+                    break;
+                }
+                continue;
+            }
+            Log.info(String.format(WARM_UP_ROUND, round, current[0], current[1]));
+            if (previous != null && isSettled(previous, current, setting.getLatencyTolerance())) {
+                final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                Log.info(String.format(WARM_UP_DONE, TimeUnit.MILLISECONDS.toSeconds(elapsed), current[0], current[1]));
+                return elapsed;
+            }
+            previous = current;
+        }
+        Log.warn(String.format(WARM_UP_TIMEOUT, setting.getWarmUpTimeout()));
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * Send one round of requests and return the p50 and p95 latency in milliseconds.
+     */
+    protected long[] runRound(final String url) throws IOException {
+        final long[] latencies = new long[setting.getWarmUpRequests()];
+        for (int i = 0; i < latencies.length; i++) {
+            final long start = System.nanoTime();
+            sendRequest(url);
+            latencies[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+        Arrays.sort(latencies);
+        return new long[]{percentile(latencies, 50), percentile(latencies, 95)};
+    }
+
+    protected void sendRequest(final String url) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            connection.setConnectTimeout(CONNECT_TIMEOUT_IN_MILLIS);
+            connection.setReadTimeout(READ_TIMEOUT_IN_MILLIS);
+            connection.setInstanceFollowRedirects(false);
+            final int code = connection.getResponseCode();
+            // Drain the body so the connection can be reused by the next request
+            try (final InputStream body = code >= 400 ? connection.getErrorStream() : connection.getInputStream()) {
+                if (body != null) {
+                    IOUtils.copy(body, NullOutputStream.NULL_OUTPUT_STREAM);
+                }
+            }
+            if (code >= 500) {
+                throw new IOException(String.format("Server responded with status code %d", code));
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    protected String getWarmUpUrl(final String host) {
+        final String base = StringUtils.startsWithAny(host, "http://", "https://") ? host : "https://" + host;
+        return StringUtils.removeEnd(base, "/") + setting.getWarmUpPath();
+    }
+
+    protected static long percentile(final long[] sortedValues, final int percent) {
+        final int index = (int) Math.ceil(percent / 100.0 * sortedValues.length) - 1;
+        return sortedValues[Math.max(0, Math.min(index, sortedValues.length - 1))];
+    }
+
+    protected static boolean isSettled(final long[] previous, final long[] current, final int tolerance) {
+        for (int i = 0; i < previous.length; i++) {
+            final long allowed = Math.max(previous[i] * tolerance / 100, MIN_LATENCY_DELTA_IN_MILLIS);
+            if (Math.abs(current[i] - previous[i]) > allowed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean pause() {
+        try {
+            TimeUnit.SECONDS.sleep(RETRY_PERIOD_IN_SECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
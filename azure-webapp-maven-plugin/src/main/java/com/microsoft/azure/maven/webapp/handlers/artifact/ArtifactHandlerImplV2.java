@@ -11,6 +11,7 @@ import com.microsoft.azure.common.deploytarget.DeployTarget;
 import com.microsoft.azure.common.exceptions.AzureExecutionException;
 import com.microsoft.azure.common.handlers.artifact.ArtifactHandlerBase;
 import com.microsoft.azure.common.logging.Log;
+import com.microsoft.azure.common.utils.ArtifactInspector;
 import com.microsoft.azure.maven.webapp.configuration.RuntimeSetting;
 import com.microsoft.azure.maven.webapp.utils.Utils;
 import org.apache.commons.io.FileUtils;
@@ -18,12 +19,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.zeroturnaround.zip.ZipUtil;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
 import java.util.List;
 import java.util.Scanner;
-import java.util.jar.JarInputStream;
-import java.util.jar.Manifest;
 import java.util.stream.Collectors;
 
 import static com.microsoft.azure.maven.webapp.handlers.artifact.ArtifactHandlerUtils.DEFAULT_APP_SERVICE_JAR_NAME;
@@ -210,8 +207,7 @@ public class ArtifactHandlerImplV2 extends ArtifactHandlerBase {
 
     private File getProjectJarArtifact(final List<File> artifacts) throws AzureExecutionException {
         final String fileName = project.getArtifactFile().getFileName().toString();
-        final List<File> executableArtifacts = artifacts.stream()
-                .filter(file -> isExecutableJar(file)).collect(Collectors.toList());
+        final List<File> executableArtifacts = ArtifactInspector.getExecutableJars(artifacts);
         final File finalArtifact = executableArtifacts.stream()
                 .filter(file -> StringUtils.equals(fileName, file.getName())).findFirst().orElse(null);
         if (executableArtifacts.size() == 0) {
@@ -225,14 +221,4 @@ public class ArtifactHandlerImplV2 extends ArtifactHandlerBase {
     private static boolean existsWebConfig(final List<File> artifacts) {
         return artifacts.stream().anyMatch(file -> StringUtils.equals(file.getName(), WEB_CONFIG));
     }
-
-    private static boolean isExecutableJar(File file) {
-        try (final FileInputStream fileInputStream = new FileInputStream(file);
-             final JarInputStream jarInputStream = new JarInputStream(fileInputStream)) {
-            final Manifest manifest = jarInputStream.getManifest();
-            return manifest != null && manifest.getMainAttributes().getValue("Main-Class") != null;
-        } catch (IOException e) {
-            return false;
-        }
-    }
 }
@@ -11,6 +11,7 @@ import com.microsoft.azure.common.deploytarget.DeployTarget;
 import com.microsoft.azure.common.exceptions.AzureExecutionException;
 import com.microsoft.azure.common.handlers.artifact.ZIPArtifactHandlerImpl;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.File;
@@ -72,7 +73,10 @@ public final class JarArtifactHandlerImpl extends ZIPArtifactHandlerImpl {
     protected void prepareDeploymentFiles(File jar) throws IOException {
         final File parent = new File(stagingDirectoryPath);
         parent.mkdirs();
-        Files.copy(jar, new File(parent, DEFAULT_APP_SERVICE_JAR_NAME));
+        final File target = new File(parent, DEFAULT_APP_SERVICE_JAR_NAME);
+        // A staged jar may be a hard link to a source file, replace it instead of writing into it
+        FileUtils.deleteQuietly(target);
+        Files.copy(jar, target);
     }
 
     protected File getJarFile() {
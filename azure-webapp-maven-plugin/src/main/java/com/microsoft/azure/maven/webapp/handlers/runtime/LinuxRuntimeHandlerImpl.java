@@ -7,11 +7,14 @@
 package com.microsoft.azure.maven.webapp.handlers.runtime;
 
 import com.microsoft.azure.common.exceptions.AzureExecutionException;
+import com.microsoft.azure.common.utils.AppServiceUtils;
 import com.microsoft.azure.management.appservice.AppServicePlan;
 import com.microsoft.azure.management.appservice.OperatingSystem;
+import com.microsoft.azure.management.appservice.RuntimeStack;
 import com.microsoft.azure.management.appservice.WebApp;
 import com.microsoft.azure.management.appservice.WebApp.Update;
 import com.microsoft.azure.maven.webapp.utils.WebAppUtils;
+import org.apache.commons.lang3.StringUtils;
 
 public class LinuxRuntimeHandlerImpl extends WebAppRuntimeHandler {
     public static class Builder extends WebAppRuntimeHandler.Builder<Builder> {
@@ -44,6 +47,13 @@ public class LinuxRuntimeHandlerImpl extends WebAppRuntimeHandler {
         return app.update().withBuiltInImage(runtime);
     }
 
+    @Override
+    public boolean isRuntimeUpToDate(final WebApp app) {
+        final RuntimeStack current = AppServiceUtils.parseRuntimeStack(app.linuxFxVersion());
+        return current != null && StringUtils.equalsIgnoreCase(current.stack(), runtime.stack()) &&
+            StringUtils.equalsIgnoreCase(current.version(), runtime.version());
+    }
+
     @Override
     protected OperatingSystem getAppServicePlatform() {
         return OperatingSystem.LINUX;
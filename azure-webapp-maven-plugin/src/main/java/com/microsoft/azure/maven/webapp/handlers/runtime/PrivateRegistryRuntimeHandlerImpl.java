@@ -8,6 +8,7 @@ package com.microsoft.azure.maven.webapp.handlers.runtime;
 
 import com.microsoft.azure.common.docker.IDockerCredentialProvider;
 import com.microsoft.azure.common.exceptions.AzureExecutionException;
+import com.microsoft.azure.common.utils.AppServiceUtils;
 import com.microsoft.azure.management.appservice.AppServicePlan;
 import com.microsoft.azure.management.appservice.OperatingSystem;
 import com.microsoft.azure.management.appservice.WebApp;
@@ -57,6 +58,12 @@ public class PrivateRegistryRuntimeHandlerImpl extends WebAppRuntimeHandler {
             .withCredentials(dockerCredentialProvider.getUsername(), dockerCredentialProvider.getPassword());
     }
 
+    @Override
+    public boolean isRuntimeUpToDate(final WebApp app) throws AzureExecutionException {
+        return AppServiceUtils.isDockerImageUpToDate(app, image, registryUrl,
+            dockerCredentialProvider.getUsername(), dockerCredentialProvider.getPassword());
+    }
+
     @Override
     protected OperatingSystem getAppServicePlatform() {
         return OperatingSystem.LINUX;
@@ -7,6 +7,7 @@
 package com.microsoft.azure.maven.webapp.handlers.runtime;
 
 import com.microsoft.azure.common.exceptions.AzureExecutionException;
+import com.microsoft.azure.common.utils.AppServiceUtils;
 import com.microsoft.azure.management.appservice.AppServicePlan;
 import com.microsoft.azure.management.appservice.OperatingSystem;
 import com.microsoft.azure.management.appservice.WebApp;
@@ -42,6 +43,11 @@ public class PublicDockerHubRuntimeHandlerImpl extends WebAppRuntimeHandler {
         return app.update().withPublicDockerHubImage(image);
     }
 
+    @Override
+    public boolean isRuntimeUpToDate(final WebApp app) {
+        return AppServiceUtils.isDockerImageUpToDate(app, image, null, null, null);
+    }
+
     @Override
     protected OperatingSystem getAppServicePlatform() {
         return OperatingSystem.LINUX;
@@ -13,6 +13,7 @@ import com.microsoft.azure.management.appservice.WebApp;
 import com.microsoft.azure.management.appservice.WebApp.DefinitionStages.WithCreate;
 import com.microsoft.azure.management.appservice.WebApp.Update;
 import com.microsoft.azure.maven.webapp.utils.WebAppUtils;
+import org.apache.commons.lang3.StringUtils;
 
 public class WindowsRuntimeHandlerImpl extends WebAppRuntimeHandler {
     public static class Builder extends WebAppRuntimeHandler.Builder<WindowsRuntimeHandlerImpl.Builder> {
@@ -47,6 +48,12 @@ public class WindowsRuntimeHandlerImpl extends WebAppRuntimeHandler {
         return update;
     }
 
+    @Override
+    public boolean isRuntimeUpToDate(final WebApp app) {
+        return javaVersion.equals(app.javaVersion()) &&
+            StringUtils.equalsIgnoreCase(webContainer.toString(), app.javaContainer() + " " + app.javaContainerVersion());
+    }
+
     @Override
     protected OperatingSystem getAppServicePlatform() {
         return OperatingSystem.WINDOWS;
@@ -7,18 +7,18 @@
 
 package com.microsoft.azure.maven.webapp.models;
 
-import com.microsoft.azure.management.resources.Subscription;
+import com.microsoft.azure.common.utils.SubscriptionCache.CachedSubscription;
 import org.apache.commons.lang3.StringUtils;
 
 public class SubscriptionOption implements Comparable<SubscriptionOption> {
 
-    private Subscription inner;
+    private CachedSubscription inner;
 
-    public SubscriptionOption(Subscription inner) {
+    public SubscriptionOption(CachedSubscription inner) {
         this.inner = inner;
     }
 
-    public Subscription getSubscription() {
+    public CachedSubscription getSubscription() {
         return inner;
     }
 
@@ -42,7 +42,7 @@ public class SubscriptionOption implements Comparable<SubscriptionOption> {
         return StringUtils.compare(name1, name2);
     }
 
-    public static String getSubscriptionName(Subscription subs) {
+    public static String getSubscriptionName(CachedSubscription subs) {
         return String.format("%s(%s)", subs.displayName(), subs.subscriptionId());
     }
 }
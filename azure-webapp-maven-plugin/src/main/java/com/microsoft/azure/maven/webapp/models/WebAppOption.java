@@ -14,23 +14,38 @@ import com.microsoft.azure.management.appservice.implementation.SiteConfigResour
 import com.microsoft.azure.management.appservice.implementation.SiteInner;
 import com.microsoft.azure.management.appservice.implementation.WebAppsInner;
 import org.apache.commons.lang3.StringUtils;
-import rx.Observable;
 
 public class WebAppOption implements Comparable<WebAppOption> {
-    public static final WebAppOption CREATE_NEW = new WebAppOption();
+    public static final WebAppOption CREATE_NEW = new WebAppOption(PlaceHolder.CREATE_NEW);
+    public static final WebAppOption LOAD_MORE = new WebAppOption(PlaceHolder.LOAD_MORE);
     private static final String CREATE_NEW_STRING = "<create>";
-    private SiteInner siteInner;
-    private SiteConfigResourceInner siteConfig;
-    private WebAppsInner webappClient;
-    private boolean createNewPlaceHolder = false;
+    private static final String LOAD_MORE_STRING = "<load more>";
+
+    // Site and configuration properties are kept as plain values, so that options can be cached on disk
+    private String id;
+    private String name;
+    private String resourceGroup;
+    private String kind;
+    private String servicePlanId;
+    private boolean configurationLoaded;
+    private String linuxFxVersion;
+    private String javaVersion;
+    private String javaContainer;
+    private String javaContainerVersion;
+    private transient WebAppsInner webappClient;
+    private transient PlaceHolder placeHolder;
 
     public WebAppOption(SiteInner siteInner, WebAppsInner webappClient) {
-        this.siteInner = siteInner;
+        this.id = siteInner.id();
+        this.name = siteInner.name();
+        this.resourceGroup = siteInner.resourceGroup();
+        this.kind = siteInner.kind();
+        this.servicePlanId = siteInner.serverFarmId();
         this.webappClient = webappClient;
     }
 
     public String getId() {
-        return this.siteInner == null ? null : siteInner.id();
+        return this.id;
     }
 
     @Override
@@ -38,57 +53,67 @@ public class WebAppOption implements Comparable<WebAppOption> {
         if (this.isCreateNew()) {
             return CREATE_NEW_STRING;
         }
-        return siteInner != null ? String.format("%s (%s)", siteInner.name(), getDescription().toLowerCase()) : null;
+        if (this.isLoadMore()) {
+            return LOAD_MORE_STRING;
+        }
+        return name != null ? String.format("%s (%s)", name, getDescription().toLowerCase()) : null;
     }
 
     @Override
     public int compareTo(WebAppOption other) {
-        final int typeCompareResult = new Boolean(createNewPlaceHolder).compareTo(other.isCreateNew());
+        final int typeCompareResult = new Boolean(isCreateNew()).compareTo(other.isCreateNew());
         if (typeCompareResult != 0) {
             return typeCompareResult;
         }
 
         final String name1 = toString();
-        final String name2 = other.siteInner != null ? other.toString() : null;
+        final String name2 = other.name != null ? other.toString() : null;
         return StringUtils.compare(name1, name2);
 
     }
 
-    private WebAppOption() {
-        this.createNewPlaceHolder = true;
+    private WebAppOption(PlaceHolder placeHolder) {
+        this.placeHolder = placeHolder;
     }
 
     public boolean isCreateNew() {
-        return this.createNewPlaceHolder;
+        return this.placeHolder == PlaceHolder.CREATE_NEW;
     }
 
-    public Observable<WebAppOption> loadConfigurationSync() {
-        return Observable.fromCallable(() -> {
-            this.siteConfig = webappClient.getConfiguration(siteInner.resourceGroup(), siteInner.name());
-            return this;
-        });
+    public boolean isLoadMore() {
+        return this.placeHolder == PlaceHolder.LOAD_MORE;
     }
 
-    public String getServicePlanId() {
-        if (siteInner == null) {
-            return null;
+    public boolean isConfigurationLoaded() {
+        return configurationLoaded;
+    }
+
+    public WebAppOption withWebappClient(WebAppsInner client) {
+        this.webappClient = client;
+        return this;
+    }
+
+    public WebAppOption loadConfiguration() {
+        if (!configurationLoaded) {
+            setSiteConfig(webappClient.getConfiguration(resourceGroup, name));
         }
-        return siteInner.serverFarmId();
+        return this;
+    }
+
+    public String getServicePlanId() {
+        return servicePlanId;
     }
 
     public boolean isDockerWebapp() {
-        final String linuxFxVersion = getLinuxFxVersion();
         return StringUtils.containsIgnoreCase(linuxFxVersion, "DOCKER|");
     }
 
     public boolean isJavaWebApp() {
-        if (siteInner == null) {
+        if (id == null) {
             return false;
         }
         final OperatingSystem os = getOperatingSystem();
-        final JavaVersion javaVersion = getJavaVersion();
-        final String linuxFxVersion = getLinuxFxVersion();
-        return (os == OperatingSystem.WINDOWS && javaVersion != JavaVersion.OFF) ||
+        return (os == OperatingSystem.WINDOWS && getJavaVersion() != JavaVersion.OFF) ||
                 os == OperatingSystem.LINUX && (StringUtils.containsIgnoreCase(linuxFxVersion, "-jre") ||
                 StringUtils.containsIgnoreCase(linuxFxVersion, "-java"));
     }
@@ -100,34 +125,30 @@ public class WebAppOption implements Comparable<WebAppOption> {
 
         final OperatingSystem os = getOperatingSystem();
         if (os == OperatingSystem.WINDOWS) {
-            return StringUtils.startsWithIgnoreCase(siteConfig.javaContainer(), "java");
+            return StringUtils.startsWithIgnoreCase(javaContainer, "java");
         }
         if (os == OperatingSystem.LINUX) {
-            final String linuxFxVersion = getLinuxFxVersion();
             return StringUtils.startsWithIgnoreCase(linuxFxVersion, "java");
         }
         return false;
     }
 
     public String getLinuxFxVersion() {
-        if (siteConfig == null) {
-            return null;
-        }
-        return siteConfig.linuxFxVersion();
+        return linuxFxVersion;
     }
 
     public JavaVersion getJavaVersion() {
-        if (siteConfig == null || siteConfig.javaVersion() == null) {
+        if (javaVersion == null) {
             return JavaVersion.OFF;
         }
-        return JavaVersion.fromString(siteConfig.javaVersion());
+        return JavaVersion.fromString(javaVersion);
     }
 
     public OperatingSystem getOperatingSystem() {
-        if (siteInner == null || siteConfig == null) {
+        if (id == null || !configurationLoaded) {
             return null;
         }
-        if (siteInner.kind() != null && siteInner.kind().toLowerCase().contains("linux")) {
+        if (kind != null && kind.toLowerCase().contains("linux")) {
             return OperatingSystem.LINUX;
         } else {
             return OperatingSystem.WINDOWS;
@@ -135,7 +156,7 @@ public class WebAppOption implements Comparable<WebAppOption> {
     }
 
     public String getDescription() {
-        if (siteInner == null || siteConfig == null) {
+        if (id == null || !configurationLoaded) {
             return "unknown";
         }
         if (isDockerWebapp()) {
@@ -143,13 +164,28 @@ public class WebAppOption implements Comparable<WebAppOption> {
         }
         final OperatingSystem os = getOperatingSystem();
         if (os == OperatingSystem.WINDOWS) {
-            if (StringUtils.isNotBlank(siteConfig.javaContainer())) {
-                return "windows, " + siteConfig.javaContainer() + " " + siteConfig.javaContainerVersion();
+            if (StringUtils.isNotBlank(javaContainer)) {
+                return "windows, " + javaContainer + " " + javaContainerVersion;
             } else {
-                return "windows, java " + siteConfig.javaVersion();
+                return "windows, java " + javaVersion;
             }
         } else {
-            return "linux, " + AppServiceUtils.parseRuntimeStack(getLinuxFxVersion());
+            return "linux, " + AppServiceUtils.parseRuntimeStack(linuxFxVersion);
+        }
+    }
+
+    private void setSiteConfig(SiteConfigResourceInner siteConfig) {
+        if (siteConfig != null) {
+            this.linuxFxVersion = siteConfig.linuxFxVersion();
+            this.javaVersion = siteConfig.javaVersion();
+            this.javaContainer = siteConfig.javaContainer();
+            this.javaContainerVersion = siteConfig.javaContainerVersion();
         }
+        this.configurationLoaded = true;
+    }
+
+    private enum PlaceHolder {
+        CREATE_NEW,
+        LOAD_MORE
     }
 }
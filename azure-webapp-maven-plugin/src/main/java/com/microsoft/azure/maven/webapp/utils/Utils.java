@@ -7,6 +7,7 @@
 package com.microsoft.azure.maven.webapp.utils;
 
 import com.microsoft.azure.common.exceptions.AzureExecutionException;
+import com.microsoft.azure.common.utils.StagingSynchronizer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.execution.MavenSession;
@@ -19,6 +20,7 @@ import org.apache.maven.shared.utils.io.DirectoryScanner;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -63,6 +65,11 @@ public class Utils {
         return result;
     }
 
+    /**
+     * Synchronize the resources into the staging directory, only changed files are written and files which are
+     * no longer part of the resources are removed. Resources with filtering enabled are processed by Maven resource
+     * filtering and always rewritten.
+     */
     public static void prepareResources(final MavenProject project, final MavenSession session,
             final MavenResourcesFiltering filtering, final List<Resource> resources, final String stagingDirectoryPath)
             throws IOException, AzureExecutionException {
@@ -70,13 +77,57 @@ public class Utils {
             throw new AzureExecutionException(NO_RESOURCES_CONFIG);
         }
 
-        copyResources(project, session, filtering, resources, stagingDirectoryPath);
+        final StagingSynchronizer synchronizer = new StagingSynchronizer(new File(stagingDirectoryPath));
+        final List<Resource> filteredResources = new ArrayList<>();
+        for (final Resource resource : resources) {
+            final File directory = getResourceDirectory(project, resource);
+            final String targetPath = StringUtils.removeStart(StringUtils.defaultString(resource.getTargetPath()), "/");
+            for (final String file : scanResource(directory, resource)) {
+                final String relativePath = Paths.get(targetPath, file).toString();
+                if (resource.isFiltering()) {
+                    // Filtered files are written in place, make sure they are not linked to the previous sources
+                    Files.deleteIfExists(Paths.get(stagingDirectoryPath, relativePath));
+                    synchronizer.retain(relativePath);
+                } else {
+                    synchronizer.addFile(relativePath, new File(directory, file));
+                }
+            }
+            if (resource.isFiltering()) {
+                filteredResources.add(resource);
+            }
+        }
+        synchronizer.sync();
+
+        if (!filteredResources.isEmpty()) {
+            filterResources(project, session, filtering, filteredResources, stagingDirectoryPath);
+        }
+    }
+
+    private static File getResourceDirectory(final MavenProject project, final Resource resource) {
+        final File directory = new File(resource.getDirectory());
+        return directory.isAbsolute() || project == null || project.getBasedir() == null ?
+                directory : new File(project.getBasedir(), resource.getDirectory());
+    }
+
+    private static String[] scanResource(final File directory, final Resource resource) {
+        if (!directory.isDirectory()) {
+            return new String[0];
+        }
+        final DirectoryScanner directoryScanner = new DirectoryScanner();
+        directoryScanner.setBasedir(directory);
+        directoryScanner.setIncludes(resource.getIncludes() == null || resource.getIncludes().isEmpty() ?
+                new String[]{"**"} : resource.getIncludes().toArray(new String[0]));
+        if (resource.getExcludes() != null) {
+            directoryScanner.setExcludes(resource.getExcludes().toArray(new String[0]));
+        }
+        directoryScanner.addDefaultExcludes();
+        directoryScanner.scan();
+        return directoryScanner.getIncludedFiles();
     }
 
     /**
-     * Copy resources to target directory using Maven resource filtering so that we
-     * don't have to handle recursive directory listing and pattern matching. In
-     * order to disable filtering, the "filtering" property is force set to False.
+     * Copy resources with filtering enabled to target directory using Maven resource filtering. The resources are
+     * copied before their target path is resolved, as the same resources are staged for every target of the deployment.
      *
      * @param project
      * @param session
@@ -85,16 +136,18 @@ public class Utils {
      * @param targetDirectory
      * @throws IOException
      */
-    private static void copyResources(final MavenProject project, final MavenSession session,
+    private static void filterResources(final MavenProject project, final MavenSession session,
             final MavenResourcesFiltering filtering, final List<Resource> resources, final String targetDirectory)
             throws IOException {
+        final List<Resource> stagedResources = new ArrayList<>();
         for (final Resource resource : resources) {
+            final Resource staged = resource.clone();
             final String targetPath = resource.getTargetPath() == null ? "" : resource.getTargetPath();
-            resource.setTargetPath(Paths.get(targetDirectory, targetPath).toString());
-            resource.setFiltering(false);
+            staged.setTargetPath(Paths.get(targetDirectory, targetPath).toString());
+            stagedResources.add(staged);
         }
 
-        final MavenResourcesExecution mavenResourcesExecution = new MavenResourcesExecution(resources,
+        final MavenResourcesExecution mavenResourcesExecution = new MavenResourcesExecution(stagedResources,
                 new File(targetDirectory), project, "UTF-8", null, Collections.emptyList(), session);
 
         // Configure executor
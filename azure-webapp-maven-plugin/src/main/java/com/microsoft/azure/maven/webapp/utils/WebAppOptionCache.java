@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.maven.webapp.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.microsoft.azure.common.logging.Log;
+import com.microsoft.azure.maven.webapp.models.WebAppOption;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived disk cache of the web apps listed by azure-webapp:config, so that running config repeatedly does
+ * not list all the sites and load their configurations again. Web apps are cached per identity and subscription.
+ */
+public class WebAppOptionCache {
+    public static final long DEFAULT_TTL_IN_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final Gson GSON = new Gson();
+    private static final Type CACHE_TYPE = new TypeToken<Map<String, Entry>>() { }.getType();
+
+    private final File file;
+    private final long ttl;
+    private final Map<String, Entry> entries;
+
+    public WebAppOptionCache(final File file, final long ttl) {
+        this.file = file;
+        this.ttl = ttl;
+        this.entries = read(file);
+    }
+
+    /**
+     * @param identity the identity listing the web apps, nothing is cached for an unknown identity
+     * @return the cached web apps of the subscription, null if there is no cache or the cache is expired
+     */
+    public List<WebAppOption> get(final String identity, final String subscriptionId) {
+        if (identity == null) {
+            return null;
+        }
+        final Entry entry = entries.get(getKey(identity, subscriptionId));
+        if (entry == null || entry.options == null || System.currentTimeMillis() - entry.timestamp > ttl) {
+            return null;
+        }
+        return entry.options;
+    }
+
+    /**
+     * Cache the web apps of the subscription, configurations loaded into the options later on are saved as well.
+     */
+    public void put(final String identity, final String subscriptionId, final List<WebAppOption> options) {
+        if (identity != null) {
+            entries.put(getKey(identity, subscriptionId), new Entry(System.currentTimeMillis(), options));
+        }
+    }
+
+    public void save() {
+        final long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> now - entry.timestamp > ttl);
+        Path temp = null;
+        try {
+            file.getAbsoluteFile().getParentFile().mkdirs();
+            // Replace the file at once, other goals may be reading it
+            temp = Files.createTempFile(file.getAbsoluteFile().getParentFile().toPath(), file.getName(), ".tmp");
+            FileUtils.write(temp.toFile(), GSON.toJson(entries), StandardCharsets.UTF_8);
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Log.debug(String.format("Failed to save web app cache to %s: %s", file, e.getMessage()));
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    private static String getKey(final String identity, final String subscriptionId) {
+        // The identity may contain the client id of a service principal, which is not kept in the file as is
+        return DigestUtils.sha256Hex(identity + "|" + subscriptionId);
+    }
+
+    private static void deleteQuietly(final Path temp) {
+        try {
+            if (temp != null) {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            Log.debug(String.format("Failed to delete %s: %s", temp, e.getMessage()));
+        }
+    }
+
+    private static Map<String, Entry> read(final File file) {
+        if (!file.isFile()) {
+            return new HashMap<>();
+        }
+        try {
+            final Map<String, Entry> result = GSON.fromJson(FileUtils.readFileToString(file, StandardCharsets.UTF_8), CACHE_TYPE);
+            return result == null ? new HashMap<>() : new HashMap<>(result);
+        } catch (IOException | JsonParseException e) {
+            Log.debug(String.format("Ignore invalid web app cache %s: %s", file, e.getMessage()));
+            return new HashMap<>();
+        }
+    }
+
+    private static class Entry {
+        private final long timestamp;
+        private final List<WebAppOption> options;
+
+        Entry(final long timestamp, final List<WebAppOption> options) {
+            this.timestamp = timestamp;
+            this.options = options;
+        }
+    }
+}
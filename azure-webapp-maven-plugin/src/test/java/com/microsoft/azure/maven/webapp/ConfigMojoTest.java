@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.maven.webapp;
+
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugin.testing.MojoRule;
+import org.codehaus.plexus.util.ReflectionUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.File;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConfigMojoTest {
+    @Rule
+    public MojoRule rule = new MojoRule() {
+        @Override
+        protected void before() throws Throwable {
+        }
+
+        @Override
+        protected void after() {
+        }
+    };
+
+    @Mock
+    private PluginDescriptor plugin;
+
+    @Test
+    public void startWithoutAzure() throws Exception {
+        final ConfigMojo mojoSpy = spy(getMojoFromPom("/pom-linux.xml"));
+        ReflectionUtils.setVariableValueInObject(mojoSpy, "allowTelemetry", false);
+        ReflectionUtils.setVariableValueInObject(mojoSpy, "plugin", plugin);
+        doReturn("azure-webapp-maven-plugin").when(plugin).getArtifactId();
+        doReturn("0.1.0").when(plugin).getVersion();
+        doNothing().when(mojoSpy).doExecute();
+
+        mojoSpy.execute();
+
+        // Nothing is authenticated before the goal starts its work, which doesn't need Azure
+        verify(mojoSpy).doExecute();
+        verify(mojoSpy, never()).getAzureClient();
+        assertNull(ReflectionUtils.getValueIncludingSuperclasses("azure", mojoSpy));
+        assertNull(ReflectionUtils.getValueIncludingSuperclasses("azureTokenWrapper", mojoSpy));
+        assertFalse((Boolean) ReflectionUtils.getValueIncludingSuperclasses("authInitialized", mojoSpy));
+    }
+
+    private ConfigMojo getMojoFromPom(String filename) throws Exception {
+        final File pom = new File(ConfigMojoTest.class.getResource(filename).toURI());
+        final ConfigMojo mojo = (ConfigMojo) rule.lookupMojo("config", pom);
+        assertNotNull(mojo);
+        return mojo;
+    }
+}
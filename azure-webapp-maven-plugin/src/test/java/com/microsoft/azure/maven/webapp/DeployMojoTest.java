@@ -6,15 +6,18 @@
 
 package com.microsoft.azure.maven.webapp;
 
+import com.microsoft.azure.common.appservice.DeployTargetSetting;
 import com.microsoft.azure.common.appservice.DeploymentType;
 import com.microsoft.azure.common.deploytarget.DeployTarget;
 import com.microsoft.azure.common.exceptions.AzureExecutionException;
 import com.microsoft.azure.common.handlers.ArtifactHandler;
 import com.microsoft.azure.common.handlers.RuntimeHandler;
 import com.microsoft.azure.common.utils.AppServiceUtils;
+import com.microsoft.azure.common.utils.Poller;
 import com.microsoft.azure.management.Azure;
 import com.microsoft.azure.management.appservice.DeploymentSlot;
 import com.microsoft.azure.management.appservice.JavaVersion;
+import com.microsoft.azure.management.appservice.OperatingSystem;
 import com.microsoft.azure.management.appservice.PricingTier;
 import com.microsoft.azure.management.appservice.WebApp;
 import com.microsoft.azure.management.appservice.WebContainer;
@@ -24,16 +27,21 @@ import com.microsoft.azure.maven.webapp.deploytarget.WebAppDeployTarget;
 import com.microsoft.azure.maven.webapp.handlers.DeploymentSlotHandler;
 import com.microsoft.azure.maven.webapp.handlers.HandlerFactory;
 import com.microsoft.azure.maven.webapp.handlers.SettingsHandler;
+import com.microsoft.azure.maven.webapp.handlers.artifact.NONEArtifactHandlerImpl;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Resource;
 import org.apache.maven.plugin.descriptor.PluginDescriptor;
 import org.apache.maven.plugin.testing.MojoRule;
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.filtering.MavenResourcesExecution;
 import org.apache.maven.shared.filtering.MavenResourcesFiltering;
 import org.codehaus.plexus.util.ReflectionUtils;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -41,7 +49,15 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import java.io.File;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 import static com.microsoft.azure.maven.webapp.AbstractWebAppMojo.DEPLOYMENT_TYPE_KEY;
 import static com.microsoft.azure.maven.webapp.AbstractWebAppMojo.DOCKER_IMAGE_TYPE_KEY;
@@ -54,18 +70,25 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.refEq;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class DeployMojoTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Rule
     public MojoRule rule = new MojoRule() {
         @Override
@@ -225,12 +248,11 @@ public class DeployMojoTest {
 
         final DeployMojo mojoSpy = spy(mojo);
         final WebApp app = mock(WebApp.class);
-        doReturn("target/classes").when(mojoSpy).getDeploymentStagingDirectoryPath();
+        doReturn(folder.newFolder().getPath()).when(mojoSpy).getDeploymentStagingDirectoryPath();
         doReturn(app).when(mojoSpy).getWebApp();
         doReturn(false).when(mojoSpy).isDeployToDeploymentSlot();
 
         final MavenResourcesFiltering filtering = mock(MavenResourcesFiltering.class);
-        doNothing().when(filtering).filterResources(any());
         doReturn(filtering).when(mojoSpy).getMavenResourcesFiltering();
         final MavenSession session = mock(MavenSession.class);
         doReturn(session).when(mojoSpy).getSession();
@@ -249,9 +271,8 @@ public class DeployMojoTest {
 
         doReturn(app).when(mojoSpy).getWebApp();
         doReturn(false).when(mojoSpy).isDeployToDeploymentSlot();
-        doReturn("target/classes").when(mojoSpy).getDeploymentStagingDirectoryPath();
+        doReturn(folder.newFolder().getPath()).when(mojoSpy).getDeploymentStagingDirectoryPath();
         final MavenResourcesFiltering filtering = mock(MavenResourcesFiltering.class);
-        doNothing().when(filtering).filterResources(any());
         doReturn(filtering).when(mojoSpy).getMavenResourcesFiltering();
         final MavenSession session = mock(MavenSession.class);
         doReturn(session).when(mojoSpy).getSession();
@@ -276,10 +297,9 @@ public class DeployMojoTest {
         doReturn(slotSetting).when(mojoSpy).getDeploymentSlotSetting();
         doReturn("test").when(slotSetting).getName();
         doReturn(slot).when(mojoSpy).getDeploymentSlot(app, "test");
-        doReturn("target/classes").when(mojoSpy).getDeploymentStagingDirectoryPath();
+        doReturn(folder.newFolder().getPath()).when(mojoSpy).getDeploymentStagingDirectoryPath();
         doReturn("target").when(mojoSpy).getBuildDirectoryAbsolutePath();
         final MavenResourcesFiltering filtering = mock(MavenResourcesFiltering.class);
-        doNothing().when(filtering).filterResources(any());
         doReturn(filtering).when(mojoSpy).getMavenResourcesFiltering();
         final MavenSession session = mock(MavenSession.class);
         doReturn(session).when(mojoSpy).getSession();
@@ -294,6 +314,179 @@ public class DeployMojoTest {
         verifyNoMoreInteractions(artifactHandler);
     }
 
+    @Test
+    public void updateWebApp() throws Exception {
+        final DeployMojo mojo = spy(getMojoFromPom("/pom-linux.xml"));
+        final WebApp app = mock(WebApp.class);
+        final WebApp.Update update = mock(WebApp.Update.class);
+        doReturn(false).when(mojo).isDeployToDeploymentSlot();
+        doReturn(true).when(runtimeHandler).isRuntimeUpToDate(app);
+        doReturn(update).when(app).update();
+        doReturn(true).when(settingsHandler).processSettings(app, update);
+
+        mojo.updateWebApp(runtimeHandler, app);
+
+        verify(runtimeHandler, never()).updateAppRuntime(app);
+        verify(update, times(1)).apply();
+    }
+
+    @Test
+    public void skipUpdatingWebAppWithoutChange() throws Exception {
+        final DeployMojo mojo = spy(getMojoFromPom("/pom-linux.xml"));
+        final WebApp app = mock(WebApp.class);
+        final WebApp.Update update = mock(WebApp.Update.class);
+        doReturn(false).when(mojo).isDeployToDeploymentSlot();
+        doReturn(true).when(runtimeHandler).isRuntimeUpToDate(app);
+        doReturn(update).when(app).update();
+        doReturn(false).when(settingsHandler).processSettings(app, update);
+
+        mojo.updateWebApp(runtimeHandler, app);
+
+        verify(runtimeHandler, times(1)).updateAppServicePlan(app);
+        verify(update, never()).apply();
+    }
+
+    @Test
+    public void skipStoppingWithoutArtifact() throws Exception {
+        final DeployMojo mojo = getMojoFromPom("/pom-windows.xml");
+        ReflectionUtils.setVariableValueInObject(mojo, "stopAppDuringDeployment", true);
+        final WebApp app = mock(WebApp.class);
+
+        mojo.util.beforeDeployArtifacts(app, mock(NONEArtifactHandlerImpl.class));
+        mojo.util.afterDeployArtifacts();
+
+        verify(app, never()).stop();
+        verify(app, never()).start();
+    }
+
+    @Test
+    public void stopLinuxAppAsConfigured() throws Exception {
+        final DeployMojo mojo = getMojoFromPom("/pom-linux.xml");
+        ReflectionUtils.setVariableValueInObject(mojo, "stopAppDuringDeployment", true);
+        final DeployMojo.DeploymentUtil util = pollWithoutDelay(mojo.util);
+        final WebApp app = mock(WebApp.class);
+        doReturn(OperatingSystem.LINUX).when(app).operatingSystem();
+        when(app.state()).thenReturn("Stopped", "Running");
+        doReturn(false).when(util).hasWorkerProcess(app);
+
+        util.beforeDeployArtifacts(app, artifactHandler);
+        util.afterDeployArtifacts();
+
+        verify(app, times(1)).stop();
+        verify(app, times(1)).start();
+    }
+
+    @Test
+    public void stopAndStartAppUntilStateChanges() throws Exception {
+        final DeployMojo mojo = getMojoFromPom("/pom-windows.xml");
+        ReflectionUtils.setVariableValueInObject(mojo, "stopAppDuringDeployment", true);
+        final DeployMojo.DeploymentUtil util = pollWithoutDelay(mojo.util);
+        final WebApp app = mock(WebApp.class);
+        doReturn(OperatingSystem.WINDOWS).when(app).operatingSystem();
+        when(app.state()).thenReturn("Running", "Stopped", "Stopped", "Stopped", "Running");
+        // worker process is still alive when the site is reported as stopped at the first time
+        doReturn(true).doReturn(false).when(util).hasWorkerProcess(app);
+
+        util.beforeDeployArtifacts(app, artifactHandler);
+        assertTrue(util.isAppStopped);
+        util.afterDeployArtifacts();
+        assertFalse(util.isAppStopped);
+
+        verify(app, times(1)).stop();
+        verify(app, times(1)).start();
+        verify(app, times(5)).refresh();
+        verify(util, times(2)).hasWorkerProcess(app);
+    }
+
+    @Test
+    public void deployToTargets() throws Exception {
+        final DeployMojo mojo = getMojoFromPom("/pom-linux.xml");
+        mojo.targets = Arrays.asList(createTarget("app1", "eastus"), createTarget("app2", null));
+        mojo.rolloutPolicy = "all_at_once";
+        mojo.maxParallelism = 4;
+        final DeployMojo mojoSpy = spy(mojo);
+        final List<String> deployed = new CopyOnWriteArrayList<>();
+        doReturn(null).when(mojoSpy).getAzureClient();
+        doReturn("azure-webapp-maven-plugin").when(mojoSpy).getPluginName();
+        doReturn(folder.getRoot().getAbsolutePath()).when(mojoSpy).getBuildDirectoryAbsolutePath();
+        doAnswer(invocation -> {
+            final String staging = new File(mojoSpy.getDeploymentStagingDirectoryPath()).getName();
+            deployed.add(String.format("%s/%s/%s", mojoSpy.getAppName(), mojoSpy.getRegion(), staging));
+            if ("app2".equals(mojoSpy.getAppName())) {
+                throw new AzureExecutionException("failed");
+            }
+            return null;
+        }).when(mojoSpy).deployToApp();
+
+        try {
+            mojoSpy.doExecute();
+            fail("Should report the failed target.");
+        } catch (AzureExecutionException e) {
+            assertEquals("Failed to deploy to 1 of 2 targets.", e.getMessage());
+        }
+        assertEquals(2, deployed.size());
+        assertTrue(deployed.contains("app1/eastus/app1"));
+        assertTrue(deployed.contains("app2/westeurope/app2"));
+        // The targets don't leak into the configuration of the current thread
+        assertEquals("appName", mojoSpy.getAppName());
+    }
+
+    @Test
+    public void filterResourcesForEveryTarget() throws Exception {
+        final File directory = folder.newFolder("resources");
+        FileUtils.write(new File(directory, "app.properties"), "version=${project.version}", StandardCharsets.UTF_8);
+        final Resource resource = new Resource();
+        resource.setDirectory(directory.getAbsolutePath());
+        resource.setTargetPath("conf");
+        resource.setFiltering(true);
+        final List<Resource> resources = Collections.singletonList(resource);
+
+        final DeployMojo mojo = getMojoFromPom("/pom-linux.xml");
+        mojo.targets = Arrays.asList(createTarget("app1", null), createTarget("app2", null));
+        mojo.rolloutPolicy = "all_at_once";
+        mojo.maxParallelism = 2;
+        final DeployMojo mojoSpy = spy(mojo);
+        final Map<String, String> filtered = new ConcurrentHashMap<>();
+        final MavenResourcesFiltering filtering = mock(MavenResourcesFiltering.class);
+        doAnswer(invocation -> {
+            final MavenResourcesExecution execution = invocation.getArgument(0);
+            filtered.put(execution.getOutputDirectory().getName(), execution.getResources().get(0).getTargetPath());
+            return null;
+        }).when(filtering).filterResources(any(MavenResourcesExecution.class));
+        doReturn(filtering).when(mojoSpy).getMavenResourcesFiltering();
+        doReturn(mock(MavenSession.class)).when(mojoSpy).getSession();
+        doReturn(mock(MavenProject.class)).when(mojoSpy).getProject();
+        doReturn(null).when(mojoSpy).getAzureClient();
+        doReturn("azure-webapp-maven-plugin").when(mojoSpy).getPluginName();
+        doReturn(folder.getRoot().getAbsolutePath()).when(mojoSpy).getBuildDirectoryAbsolutePath();
+        doAnswer(invocation -> {
+            mojoSpy.copyArtifactsToStagingDirectory(resources);
+            return null;
+        }).when(mojoSpy).deployToApp();
+
+        mojoSpy.doExecute();
+
+        final String staging = new File(folder.getRoot(), "azure-webapp").getAbsolutePath();
+        assertEquals(Paths.get(staging, "app1", "conf").toString(), filtered.get("app1"));
+        assertEquals(Paths.get(staging, "app2", "conf").toString(), filtered.get("app2"));
+        // The resources of the configuration are shared by the targets and left as they are
+        assertEquals("conf", resource.getTargetPath());
+    }
+
+    private static DeployTargetSetting createTarget(final String appName, final String region) {
+        final DeployTargetSetting target = new DeployTargetSetting();
+        target.setAppName(appName);
+        target.setRegion(region);
+        return target;
+    }
+
+    private static DeployMojo.DeploymentUtil pollWithoutDelay(final DeployMojo.DeploymentUtil util) {
+        final DeployMojo.DeploymentUtil spy = spy(util);
+        doAnswer(invocation -> ((Poller<?>) invocation.callRealMethod()).withInterval(1, 1, TimeUnit.MILLISECONDS).withIntervalHint(state -> null))
+                .when(spy).getStatePoller(any(), anyString());
+        return spy;
+    }
+
     private DeployMojo getMojoFromPom(String filename) throws Exception {
         final File pom = new File(DeployMojoTest.class.getResource(filename).toURI());
         final DeployMojo mojo = (DeployMojo) rule.lookupMojo("deploy", pom);
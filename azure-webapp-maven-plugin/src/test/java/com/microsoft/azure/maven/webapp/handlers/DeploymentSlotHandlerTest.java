@@ -12,8 +12,10 @@ import com.microsoft.azure.management.appservice.DeploymentSlot.DefinitionStages
 import com.microsoft.azure.management.appservice.DeploymentSlot.DefinitionStages.WithCreate;
 import com.microsoft.azure.management.appservice.DeploymentSlots;
 import com.microsoft.azure.management.appservice.WebApp;
+import com.microsoft.azure.maven.AppServiceResourceContext;
 import com.microsoft.azure.maven.auth.AzureAuthFailureException;
 import com.microsoft.azure.maven.webapp.AbstractWebAppMojo;
+import com.microsoft.azure.maven.webapp.configuration.SwapSetting;
 import com.microsoft.azure.common.appservice.DeploymentSlotSetting;
 
 import org.junit.Before;
@@ -23,6 +25,8 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -78,6 +82,59 @@ public class DeploymentSlotHandlerTest {
         verify(handlerSpy, times(1)).createDeploymentSlot(app, "", "");
     }
 
+    @Test
+    public void warmUpAndSwap() throws AzureAuthFailureException, AzureExecutionException {
+        final DeploymentSlotHandler handlerSpy = spy(handler);
+        final DeploymentSlotSetting slotSetting = mock(DeploymentSlotSetting.class);
+        final SwapSetting swapSetting = new SwapSetting();
+        final WarmUpHandler warmUpHandler = mock(WarmUpHandler.class);
+        final WebApp app = mock(WebApp.class);
+        final DeploymentSlot slot = mock(DeploymentSlot.class);
+
+        doReturn(slotSetting).when(mojo).getDeploymentSlotSetting();
+        doReturn(app).when(mojo).getWebApp();
+        doReturn("staging").when(slotSetting).getName();
+        doReturn(slot).when(mojo).getDeploymentSlot(app, "staging");
+        doReturn("app-staging.azurewebsites.net").when(slot).defaultHostName();
+        doReturn(warmUpHandler).when(handlerSpy).getWarmUpHandler(swapSetting);
+        doReturn(new AppServiceResourceContext(null)).when(mojo).getResourceContext();
+
+        handlerSpy.warmUpAndSwap(swapSetting);
+
+        verify(warmUpHandler, times(1)).warmUp("app-staging.azurewebsites.net");
+        verify(slot, times(1)).swap("production");
+    }
+
+    @Test(expected = AzureExecutionException.class)
+    public void warmUpAndSwapWithItself() throws AzureAuthFailureException, AzureExecutionException {
+        final DeploymentSlotSetting slotSetting = mock(DeploymentSlotSetting.class);
+        final SwapSetting swapSetting = new SwapSetting();
+        swapSetting.setTargetSlot("staging");
+
+        doReturn(slotSetting).when(mojo).getDeploymentSlotSetting();
+        doReturn("staging").when(slotSetting).getName();
+
+        handler.warmUpAndSwap(swapSetting);
+    }
+
+    @Test
+    public void warmUpAndSwapNotExistingSlot() throws AzureAuthFailureException {
+        final DeploymentSlotSetting slotSetting = mock(DeploymentSlotSetting.class);
+        final WebApp app = mock(WebApp.class);
+
+        doReturn(slotSetting).when(mojo).getDeploymentSlotSetting();
+        doReturn(app).when(mojo).getWebApp();
+        doReturn("staging").when(slotSetting).getName();
+        doReturn(null).when(mojo).getDeploymentSlot(app, "staging");
+
+        try {
+            handler.warmUpAndSwap(new SwapSetting());
+            fail("Should throw when the deployment slot does not exist.");
+        } catch (AzureExecutionException e) {
+            assertEquals("Deployment slot 'staging' does not exist and cannot be swapped.", e.getMessage());
+        }
+    }
+
     @Test
     public void createDeploymentSlotFromParent() throws AzureExecutionException {
         final DeploymentSlotHandler handlerSpy = spy(handler);
@@ -89,6 +146,7 @@ public class DeploymentSlotHandlerTest {
         doReturn(slots).when(app).deploymentSlots();
         doReturn(stage1).when(slots).define("test");
         doReturn(withCreate).when(stage1).withConfigurationFromParent();
+        doReturn(new AppServiceResourceContext(null)).when(mojo).getResourceContext();
 
         handlerSpy.createDeploymentSlot(app, "test", "parent");
 
@@ -109,6 +167,7 @@ public class DeploymentSlotHandlerTest {
         doReturn(slot).when(mojo).getDeploymentSlot(app, "otherSlot");
         doNothing().when(handlerSpy).assureValidSlotName("");
         doReturn(withCreate).when(stage1).withConfigurationFromDeploymentSlot(slot);
+        doReturn(new AppServiceResourceContext(null)).when(mojo).getResourceContext();
 
         handlerSpy.createDeploymentSlot(app, "", "otherSlot");
 
@@ -146,6 +205,7 @@ public class DeploymentSlotHandlerTest {
         doReturn(slots).when(app).deploymentSlots();
         doReturn(stage1).when(slots).define("test");
         doReturn(withCreate).when(stage1).withBrandNewConfiguration();
+        doReturn(new AppServiceResourceContext(null)).when(mojo).getResourceContext();
 
         handlerSpy.createDeploymentSlot(app, "test", "new");
 
@@ -6,6 +6,8 @@
 
 package com.microsoft.azure.maven.webapp.handlers;
 
+import com.microsoft.azure.management.appservice.AppSetting;
+import com.microsoft.azure.management.appservice.WebApp;
 import com.microsoft.azure.management.appservice.WebApp.DefinitionStages.WithCreate;
 import com.microsoft.azure.management.appservice.WebApp.Update;
 import com.microsoft.azure.maven.webapp.AbstractWebAppMojo;
@@ -18,10 +20,14 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.Collections;
 import java.util.HashMap;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -52,8 +58,21 @@ public class SettingsHandlerImplTest {
 
     @Test
     public void processSettings1() throws Exception {
+        final WebApp app = mock(WebApp.class);
         final Update update = mock(Update.class);
-        handler.processSettings(update);
-        verify(update, times(1)).withAppSettings(ArgumentMatchers.<String, String>anyMap());
+        assertTrue(handler.processSettings(app, update));
+        verify(update, times(1)).withAppSettings(Collections.singletonMap("Key", "Value"));
+    }
+
+    @Test
+    public void processUnchangedSettings() throws Exception {
+        final WebApp app = mock(WebApp.class);
+        final AppSetting setting = mock(AppSetting.class);
+        doReturn("Value").when(setting).value();
+        doReturn(Collections.singletonMap("Key", setting)).when(app).getAppSettings();
+        final Update update = mock(Update.class);
+
+        assertFalse(handler.processSettings(app, update));
+        verify(update, never()).withAppSettings(ArgumentMatchers.<String, String>anyMap());
     }
 }
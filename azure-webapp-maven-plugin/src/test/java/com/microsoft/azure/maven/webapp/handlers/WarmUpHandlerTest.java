@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.maven.webapp.handlers;
+
+import com.microsoft.azure.maven.webapp.configuration.SwapSetting;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WarmUpHandlerTest {
+    private HttpServer server;
+    private AtomicInteger requestCount;
+    private volatile int responseCode;
+
+    @Before
+    public void setUp() throws IOException {
+        requestCount = new AtomicInteger();
+        responseCode = 200;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/health", exchange -> {
+            // First requests simulate a cold JVM
+            if (requestCount.incrementAndGet() <= 3) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            exchange.sendResponseHeaders(responseCode, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void warmUpUntilLatencySettles() {
+        final SwapSetting setting = new SwapSetting();
+        setting.setWarmUpPath("health");
+        setting.setWarmUpRequests(3);
+        setting.setWarmUpTimeout(60);
+
+        final long elapsed = new WarmUpHandler(setting).warmUp(getHost());
+
+        // The cold round is followed by at least two warm rounds before latency is considered settled, more when the
+        // machine running the test is busy enough for the warm rounds to differ
+        assertTrue(requestCount.get() >= 9);
+        assertEquals(0, requestCount.get() % 3);
+        assertTrue(elapsed < TimeUnit.SECONDS.toMillis(60));
+    }
+
+    @Test
+    public void warmUpStopsAtTimeout() {
+        responseCode = 503;
+        final SwapSetting setting = new SwapSetting();
+        setting.setWarmUpPath("/health");
+        setting.setWarmUpRequests(1);
+        setting.setWarmUpTimeout(1);
+
+        final long elapsed = new WarmUpHandler(setting).warmUp(getHost());
+
+        assertTrue(elapsed >= TimeUnit.SECONDS.toMillis(1));
+        assertTrue(requestCount.get() <= 3);
+    }
+
+    @Test
+    public void getWarmUpUrl() {
+        final WarmUpHandler handler = new WarmUpHandler(new SwapSetting());
+        assertEquals("https://app.azurewebsites.net/", handler.getWarmUpUrl("app.azurewebsites.net"));
+        assertEquals("http://localhost:8080/", handler.getWarmUpUrl("http://localhost:8080/"));
+    }
+
+    @Test
+    public void percentile() {
+        final long[] values = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+        assertEquals(5, WarmUpHandler.percentile(values, 50));
+        assertEquals(10, WarmUpHandler.percentile(values, 95));
+        assertEquals(7, WarmUpHandler.percentile(new long[]{7}, 95));
+    }
+
+    @Test
+    public void isSettled() {
+        assertTrue(WarmUpHandler.isSettled(new long[]{100, 200}, new long[]{105, 190}, 10));
+        assertFalse(WarmUpHandler.isSettled(new long[]{100, 200}, new long[]{100, 300}, 10));
+        // Small jitter on tiny latencies is tolerated
+        assertTrue(WarmUpHandler.isSettled(new long[]{1, 2}, new long[]{4, 6}, 10));
+    }
+
+    private String getHost() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+}
@@ -20,7 +20,9 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -100,4 +102,17 @@ public class LinuxRuntimeHandlerImplTest {
         assertSame(update, handler.updateAppRuntime(app));
         verify(update, times(1)).withBuiltInImage(any(RuntimeStack.class));
     }
+
+    @Test
+    public void isRuntimeUpToDate() throws Exception {
+        final WebApp app = mock(WebApp.class);
+        doReturn(RuntimeStack.TOMCAT_8_5_JRE8).when(config).getRuntimeStack();
+        initHandlerV2();
+
+        doReturn("tomcat|8.5-jre8").when(app).linuxFxVersion();
+        assertTrue(handler.isRuntimeUpToDate(app));
+
+        doReturn("TOMCAT|9.0-jre8").when(app).linuxFxVersion();
+        assertFalse(handler.isRuntimeUpToDate(app));
+    }
 }
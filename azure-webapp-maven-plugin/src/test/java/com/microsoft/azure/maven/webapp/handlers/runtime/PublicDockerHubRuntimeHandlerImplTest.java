@@ -19,6 +19,8 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -102,4 +104,21 @@ public class PublicDockerHubRuntimeHandlerImplTest {
         verify(update, times(1)).withPublicDockerHubImage(any(String.class));
         verifyNoMoreInteractions(update);
     }
+
+    @Test
+    public void isRuntimeUpToDate() throws Exception {
+        final WebApp app = mock(WebApp.class);
+        doReturn("nginx:latest").when(config).getImage();
+        initHandlerV2();
+
+        // Even when the app runs the same tag, it may have been pushed again, the update restarts the app to pull it
+        assertFalse(handler.isRuntimeUpToDate(app));
+
+        final String digest = "nginx@sha256:0d17b565c37bcbd895e9d92315a05c1c3c9a29f762b011a10c54a66cd53c9b31";
+        doReturn("DOCKER|" + digest).when(app).linuxFxVersion();
+        doReturn(digest).when(config).getImage();
+        initHandlerV2();
+
+        assertTrue(handler.isRuntimeUpToDate(app));
+    }
 }
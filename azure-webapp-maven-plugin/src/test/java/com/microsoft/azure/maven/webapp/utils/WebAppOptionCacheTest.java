@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.maven.webapp.utils;
+
+import com.microsoft.azure.management.appservice.implementation.SiteConfigResourceInner;
+import com.microsoft.azure.management.appservice.implementation.SiteInner;
+import com.microsoft.azure.management.appservice.implementation.WebAppsInner;
+import com.microsoft.azure.maven.webapp.models.WebAppOption;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+public class WebAppOptionCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void saveAndLoad() throws Exception {
+        final File file = new File(folder.getRoot(), "cache.json");
+        final WebAppOption option = createOption();
+        option.loadConfiguration();
+
+        final WebAppOptionCache cache = new WebAppOptionCache(file, WebAppOptionCache.DEFAULT_TTL_IN_MILLIS);
+        cache.put("user", "subscription", Collections.singletonList(option));
+        cache.save();
+
+        final List<WebAppOption> cached = new WebAppOptionCache(file, WebAppOptionCache.DEFAULT_TTL_IN_MILLIS).get("user", "subscription");
+        assertEquals(1, cached.size());
+        assertEquals("/subscriptions/subscription/app", cached.get(0).getId());
+        assertTrue(cached.get(0).toString().startsWith("app (linux, "));
+        assertTrue(cached.get(0).isConfigurationLoaded());
+        assertTrue(cached.get(0).isJavaSE());
+        assertFalse(cached.get(0).isCreateNew());
+        assertNull(new WebAppOptionCache(file, WebAppOptionCache.DEFAULT_TTL_IN_MILLIS).get("user", "other"));
+        assertNull(new WebAppOptionCache(file, WebAppOptionCache.DEFAULT_TTL_IN_MILLIS).get("other user", "subscription"));
+        assertEquals(Collections.singletonList(file.getName()), Arrays.asList(folder.getRoot().list()));
+    }
+
+    @Test
+    public void unknownIdentity() throws Exception {
+        final WebAppOptionCache cache = new WebAppOptionCache(new File(folder.getRoot(), "cache.json"),
+            WebAppOptionCache.DEFAULT_TTL_IN_MILLIS);
+        cache.put(null, "subscription", Collections.singletonList(createOption()));
+
+        assertNull(cache.get(null, "subscription"));
+    }
+
+    @Test
+    public void expired() throws Exception {
+        final File file = new File(folder.getRoot(), "cache.json");
+        final WebAppOptionCache cache = new WebAppOptionCache(file, -1);
+        cache.put("user", "subscription", Collections.singletonList(createOption()));
+
+        assertNull(cache.get("user", "subscription"));
+    }
+
+    @Test
+    public void invalidCacheFile() throws Exception {
+        final File file = folder.newFile("cache.json");
+        FileUtils.write(file, "not json", StandardCharsets.UTF_8);
+
+        assertNull(new WebAppOptionCache(file, WebAppOptionCache.DEFAULT_TTL_IN_MILLIS).get("user", "subscription"));
+    }
+
+    private static WebAppOption createOption() {
+        final SiteInner site = mock(SiteInner.class);
+        doReturn("/subscriptions/subscription/app").when(site).id();
+        doReturn("app").when(site).name();
+        doReturn("rg").when(site).resourceGroup();
+        doReturn("app,linux").when(site).kind();
+        final SiteConfigResourceInner config = mock(SiteConfigResourceInner.class);
+        doReturn("JAVA|11-java11").when(config).linuxFxVersion();
+        final WebAppsInner client = mock(WebAppsInner.class);
+        doReturn(config).when(client).getConfiguration("rg", "app");
+        return new WebAppOption(site, client);
+    }
+}